@@ -0,0 +1,127 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.JobActivityFactory;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import com.graphhopper.jsprit.instance.reader.CordeauReader;
+import com.graphhopper.jsprit.instance.reader.SolomonReader;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates the problems the benchmarks run on, i.e. random problems of a given size and the instances bundled with
+ * jsprit-instances.
+ * <p>
+ * <p>Instances are read from the directory specified by the system property jsprit.instances.dir (default is
+ * ../jsprit-instances/instances, i.e. running the benchmarks from the jsprit-benchmarks directory).
+ */
+final class BenchmarkProblems {
+
+    static final String INSTANCES_DIR_PROPERTY = "jsprit.instances.dir";
+
+    private BenchmarkProblems() {
+
+    }
+
+    /**
+     * Creates a problem with noServices services randomly distributed in a 100x100 square, wide time windows and a
+     * single vehicle (type) with a depot in the center that can serve all services.
+     *
+     * @param noServices number of services
+     * @param seed       seed of the random number generator
+     * @return the problem
+     */
+    static VehicleRoutingProblem createRandomProblem(int noServices, long seed) {
+        Random random = new Random(seed);
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, noServices).build();
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("vehicle").setType(type).setStartLocation(Location.newInstance(50, 50))
+            .setLatestArrival(1e6).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle);
+        for (int i = 0; i < noServices; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextDouble() * 100, random.nextDouble() * 100))
+                .setServiceTime(5).setTimeWindow(TimeWindow.newInstance(0, 1e6)).build());
+        }
+        return vrpBuilder.build();
+    }
+
+    /**
+     * Creates a route of the problem's (first) vehicle serving the specified services in the specified order.
+     */
+    static VehicleRoute createRoute(final VehicleRoutingProblem vrp, List<Service> services) {
+        Vehicle vehicle = vrp.getVehicles().iterator().next();
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(new JobActivityFactory() {
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+        });
+        for (Service service : services) routeBuilder.addService(service);
+        return routeBuilder.build();
+    }
+
+    /**
+     * Reads a bundled instance, e.g. solomon/R101.txt or cordeau/p01.
+     *
+     * @param instance path of the instance relative to the instances directory
+     * @return the problem
+     */
+    static VehicleRoutingProblem readInstance(String instance) {
+        String fileName = getInstancesDir() + File.separator + instance;
+        if (!new File(fileName).exists()) {
+            throw new IllegalArgumentException("instance " + fileName + " does not exist. set the instances directory with -D" + INSTANCES_DIR_PROPERTY + "=...");
+        }
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        if (instance.startsWith("solomon")) {
+            new SolomonReader(vrpBuilder).read(fileName);
+        } else if (instance.startsWith("cordeau")) {
+            new CordeauReader(vrpBuilder).read(fileName);
+        } else throw new IllegalArgumentException("cannot read " + instance + ". only solomon and cordeau instances are supported.");
+        return vrpBuilder.build();
+    }
+
+    /**
+     * Solves the problem with the default algorithm and the specified number of iterations.
+     *
+     * @return the best solution found
+     */
+    static VehicleRoutingProblemSolution solve(VehicleRoutingProblem vrp, int iterations, long seed) {
+        return Solutions.bestOf(Jsprit.Builder.newInstance(vrp).setRandomSeed(seed)
+            .setProperty(Jsprit.Parameter.ITERATIONS, String.valueOf(iterations)).buildAlgorithm().searchSolutions());
+    }
+
+    private static String getInstancesDir() {
+        return System.getProperty(INSTANCES_DIR_PROPERTY, ".." + File.separator + "jsprit-instances" + File.separator + "instances");
+    }
+
+}
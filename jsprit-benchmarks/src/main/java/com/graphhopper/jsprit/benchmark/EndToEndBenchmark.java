@@ -0,0 +1,56 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete runs of the default algorithm with a fixed number of iterations and a fixed random seed. Each
+ * measurement is a single run (including the creation of the algorithm), thus it is sensitive to everything touched by
+ * the search.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    @Param({"solomon/C101.txt", "solomon/R101.txt", "cordeau/p01"})
+    public String instance;
+
+    @Param({"500"})
+    public int iterations;
+
+    private VehicleRoutingProblem vrp;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        vrp = BenchmarkProblems.readInstance(instance);
+    }
+
+    @Benchmark
+    public double solve() {
+        return BenchmarkProblems.solve(vrp, iterations, 4711L).getCost();
+    }
+
+}
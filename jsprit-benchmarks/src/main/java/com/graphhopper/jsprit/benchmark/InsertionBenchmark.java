@@ -0,0 +1,92 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners.PrioritizedVRAListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData;
+import com.graphhopper.jsprit.core.algorithm.recreate.JobInsertionCostsCalculator;
+import com.graphhopper.jsprit.core.algorithm.recreate.JobInsertionCostsCalculatorBuilder;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListener;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single insertion evaluation, i.e. the calculation of the best insertion position of a service in a route
+ * of varying length, with the local-level calculator and the core constraints (capacity and time windows).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsertionBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int routeLength;
+
+    private JobInsertionCostsCalculator calculator;
+
+    private VehicleRoute route;
+
+    private Job[] jobsToInsert;
+
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int noJobsToInsert = 64;
+        VehicleRoutingProblem vrp = BenchmarkProblems.createRandomProblem(routeLength + noJobsToInsert, 4711L);
+        List<Service> routeServices = new ArrayList<>();
+        List<Job> others = new ArrayList<>();
+        for (Job job : vrp.getJobs().values()) {
+            if (routeServices.size() < routeLength) routeServices.add((Service) job);
+            else others.add(job);
+        }
+        jobsToInsert = others.toArray(new Job[others.size()]);
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        stateManager.updateLoadStates();
+        stateManager.updateTimeWindowStates();
+        constraintManager.addLoadConstraint();
+        constraintManager.addTimeWindowConstraint();
+        calculator = new JobInsertionCostsCalculatorBuilder(new ArrayList<InsertionListener>(), new ArrayList<PrioritizedVRAListener>())
+            .setVehicleRoutingProblem(vrp).setStateManager(stateManager).setConstraintManager(constraintManager)
+            .setVehicleFleetManager(new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager())
+            .setLocalLevel(true).setAllowVehicleSwitch(false).build();
+        route = BenchmarkProblems.createRoute(vrp, routeServices);
+        stateManager.reCalculateStates(route);
+    }
+
+    @Benchmark
+    public InsertionData insertionData() {
+        Job job = jobsToInsert[next++ & (jobsToInsert.length - 1)];
+        return calculator.getInsertionData(route, job, route.getVehicle(), route.getDepartureTime(), route.getDriver(), Double.MAX_VALUE);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoodsFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the initialisation of job neighborhoods, i.e. the calculation of the nearest neighbors of each job, with
+ * and without spatial index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobNeighborhoodsBenchmark {
+
+    @Param({"200", "1000", "4000"})
+    public int noJobs;
+
+    @Param({"100"})
+    public int noNeighbors;
+
+    private VehicleRoutingProblem vrp;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        vrp = BenchmarkProblems.createRandomProblem(noJobs, 4711L);
+    }
+
+    @Benchmark
+    public JobNeighborhoods allPairs() {
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), noNeighbors);
+        neighborhoods.initialise();
+        return neighborhoods;
+    }
+
+    @Benchmark
+    public JobNeighborhoods spatialIndex() {
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoodsWithSpatialIndex(vrp, noNeighbors);
+        neighborhoods.initialise();
+        return neighborhoods;
+    }
+
+}
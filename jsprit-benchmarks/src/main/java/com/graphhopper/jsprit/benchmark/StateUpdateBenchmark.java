@@ -0,0 +1,96 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures state updates of routes of varying length with the core states (loads, times, time windows), i.e. the
+ * update after an insertion (incremental or full, see {@link StateManager#setIncrementalUpdate(boolean)}) and the
+ * re-calculation of all states.
+ * <p>
+ * <p>To keep the route length constant, each insertion update is followed by the removal of the inserted activity and
+ * another update, i.e. insertionUpdate measures two updates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StateUpdateBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int routeLength;
+
+    @Param({"true", "false"})
+    public boolean incremental;
+
+    private StateManager stateManager;
+
+    private VehicleRoute route;
+
+    private Job job;
+
+    private TourActivity activity;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        VehicleRoutingProblem vrp = BenchmarkProblems.createRandomProblem(routeLength + 1, 4711L);
+        List<Service> routeServices = new ArrayList<>();
+        for (Job j : vrp.getJobs().values()) {
+            if (routeServices.size() < routeLength) routeServices.add((Service) j);
+            else job = j;
+        }
+        activity = vrp.copyAndGetActivities(job).get(0);
+        stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        stateManager.updateLoadStates();
+        stateManager.updateTimeWindowStates();
+        constraintManager.addLoadConstraint();
+        constraintManager.addTimeWindowConstraint();
+        stateManager.setIncrementalUpdate(incremental);
+        route = BenchmarkProblems.createRoute(vrp, routeServices);
+        stateManager.reCalculateStates(route);
+    }
+
+    @Benchmark
+    public void insertionUpdate() {
+        route.getTourActivities().addActivity(routeLength / 2, activity);
+        stateManager.informJobInserted(job, route, 0., 0.);
+        route.getTourActivities().removeActivity(activity);
+        stateManager.informJobInserted(job, route, 0., 0.);
+    }
+
+    @Benchmark
+    public void recalculation() {
+        stateManager.reCalculateStates(route);
+    }
+
+}
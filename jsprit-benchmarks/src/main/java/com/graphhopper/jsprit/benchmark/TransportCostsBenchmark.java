@@ -0,0 +1,150 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.util.*;
+import com.graphhopper.jsprit.io.problem.MemoryMappedTransportCostsMatrix;
+import com.graphhopper.jsprit.io.problem.MemoryMappedTransportCostsMatrixWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cost lookups of each {@link VehicleRoutingTransportCosts} implementation between random pairs of 500
+ * locations. Matrices are symmetric and contain the euclidean distances. The memory-mapped matrix is written to a
+ * temporary file (in single precision) that is deleted on exit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportCostsBenchmark {
+
+    private static final int NO_LOCATIONS = 500;
+
+    private static final int NO_LOOKUPS = 1024;
+
+    @Param({"euclidean", "manhattan", "great_circle", "crow_fly", "matrix", "fast_matrix", "fast_matrix_float", "memory_mapped"})
+    public String costs;
+
+    private VehicleRoutingTransportCosts transportCosts;
+
+    private Location[] from;
+
+    private Location[] to;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(4711L);
+        final Map<String, Coordinate> coordinates = new HashMap<>();
+        Location[] locations = new Location[NO_LOCATIONS];
+        for (int i = 0; i < NO_LOCATIONS; i++) {
+            Coordinate coordinate = Coordinate.newInstance(random.nextDouble() * 10, 45 + random.nextDouble() * 10);
+            locations[i] = Location.Builder.newInstance().setId(String.valueOf(i)).setIndex(i).setCoordinate(coordinate).build();
+            coordinates.put(String.valueOf(i), coordinate);
+        }
+        transportCosts = createTransportCosts(locations, coordinates);
+        from = new Location[NO_LOOKUPS];
+        to = new Location[NO_LOOKUPS];
+        for (int i = 0; i < NO_LOOKUPS; i++) {
+            from[i] = locations[random.nextInt(NO_LOCATIONS)];
+            to[i] = locations[random.nextInt(NO_LOCATIONS)];
+        }
+    }
+
+    private VehicleRoutingTransportCosts createTransportCosts(Location[] locations, final Map<String, Coordinate> coordinates) throws IOException {
+        switch (costs) {
+            case "euclidean":
+                return new EuclideanCosts();
+            case "manhattan":
+                return new ManhattanCosts();
+            case "great_circle":
+                return new GreatCircleCosts();
+            case "crow_fly":
+                return new CrowFlyCosts(new Locations() {
+                    @Override
+                    public Coordinate getCoord(String id) {
+                        return coordinates.get(id);
+                    }
+                });
+            case "matrix":
+                VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+                for (int i = 0; i < locations.length; i++) {
+                    for (int j = i + 1; j < locations.length; j++) {
+                        double distance = EuclideanDistanceCalculator.calculateDistance(locations[i].getCoordinate(), locations[j].getCoordinate());
+                        matrixBuilder.addTransportDistance(locations[i].getId(), locations[j].getId(), distance);
+                        matrixBuilder.addTransportTime(locations[i].getId(), locations[j].getId(), distance);
+                    }
+                }
+                return matrixBuilder.build();
+            case "fast_matrix":
+                return createFastMatrix(locations, false);
+            case "fast_matrix_float":
+                return createFastMatrix(locations, true);
+            case "memory_mapped":
+                File file = File.createTempFile("jsprit-matrix", ".bin");
+                file.deleteOnExit();
+                MemoryMappedTransportCostsMatrixWriter.write(file.getAbsolutePath(), createFastMatrix(locations, true));
+                return MemoryMappedTransportCostsMatrix.newInstance(file.getAbsolutePath());
+            default:
+                throw new IllegalArgumentException("unknown transport costs " + costs);
+        }
+    }
+
+    private static FastVehicleRoutingTransportCostsMatrix createFastMatrix(Location[] locations, boolean singlePrecision) {
+        FastVehicleRoutingTransportCostsMatrix.Builder fastMatrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(locations.length, true)
+            .setSinglePrecision(singlePrecision);
+        for (int i = 0; i < locations.length; i++) {
+            for (int j = i + 1; j < locations.length; j++) {
+                double distance = EuclideanDistanceCalculator.calculateDistance(locations[i].getCoordinate(), locations[j].getCoordinate());
+                fastMatrixBuilder.addTransportTimeAndDistance(i, j, distance, distance);
+            }
+        }
+        return fastMatrixBuilder.build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NO_LOOKUPS)
+    public double transportCost() {
+        double sum = 0.;
+        for (int i = 0; i < NO_LOOKUPS; i++) {
+            sum += transportCosts.getTransportCost(from[i], to[i], 0., null, null);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NO_LOOKUPS)
+    public double transportTime() {
+        double sum = 0.;
+        for (int i = 0; i < NO_LOOKUPS; i++) {
+            sum += transportCosts.getTransportTime(from[i], to[i], 0., null, null);
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free archive of the best solutions found so far, sorted by cost in ascending order. It can be shared among
+ * algorithms running in parallel, e.g. to let them exchange their best solutions.
+ * <p>
+ * <p>Solutions are copied when they are offered, thus the archive never holds solutions that are modified by an
+ * algorithm. Solutions obtained from the archive must not be modified either, copy them before changing them.
+ */
+public class EliteArchive {
+
+    private final int capacity;
+
+    private final AtomicReference<List<VehicleRoutingProblemSolution>> elites = new AtomicReference<List<VehicleRoutingProblemSolution>>(Collections.<VehicleRoutingProblemSolution>emptyList());
+
+    public EliteArchive(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Offers a solution to the archive. It is archived if the archive is not full yet or if it is better than the
+     * worst archived solution. Solutions with the cost of an already archived solution are considered to be
+     * duplicates and are not archived.
+     *
+     * @param solution the solution to be offered
+     * @return true if the solution has been archived
+     */
+    public boolean offer(VehicleRoutingProblemSolution solution) {
+        VehicleRoutingProblemSolution copy = null;
+        while (true) {
+            List<VehicleRoutingProblemSolution> current = elites.get();
+            if (current.size() == capacity && solution.getCost() >= current.get(current.size() - 1).getCost()) {
+                return false;
+            }
+            int insertionIndex = 0;
+            while (insertionIndex < current.size() && current.get(insertionIndex).getCost() < solution.getCost()) {
+                insertionIndex++;
+            }
+            if (insertionIndex < current.size() && current.get(insertionIndex).getCost() == solution.getCost()) {
+                return false;
+            }
+            if (copy == null) copy = VehicleRoutingProblemSolution.copyOf(solution);
+            List<VehicleRoutingProblemSolution> next = new ArrayList<VehicleRoutingProblemSolution>(current);
+            next.add(insertionIndex, copy);
+            if (next.size() > capacity) next.remove(next.size() - 1);
+            if (elites.compareAndSet(current, Collections.unmodifiableList(next))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the best archived solution or null if the archive is empty.
+     *
+     * @return the best archived solution
+     */
+    public VehicleRoutingProblemSolution getBest() {
+        List<VehicleRoutingProblemSolution> current = elites.get();
+        if (current.isEmpty()) return null;
+        return current.get(0);
+    }
+
+    /**
+     * Returns an unmodifiable snapshot of the archived solutions sorted by cost in ascending order.
+     *
+     * @return the archived solutions
+     */
+    public List<VehicleRoutingProblemSolution> getSolutions() {
+        return elites.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Island model of independent {@link VehicleRoutingAlgorithm}s that run in parallel, each on its own thread. Every
+ * migrationInterval iterations, an island offers its best solution to a shared {@link EliteArchive} and, if the best
+ * archived solution is better than its own best, replaces its worst solution by a copy of the archived one.
+ * <p>
+ * <p>Islands must be independent algorithms for the same problem, i.e. they must neither share a state manager,
+ * nor a constraint manager, nor a fleet manager nor search strategies.
+ */
+public class IslandAlgorithm {
+
+    private static class Migration implements IterationEndsListener {
+
+        private final EliteArchive archive;
+
+        private final int migrationInterval;
+
+        Migration(EliteArchive archive, int migrationInterval) {
+            this.archive = archive;
+            this.migrationInterval = migrationInterval;
+        }
+
+        @Override
+        public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            if (i % migrationInterval != 0) return;
+            VehicleRoutingProblemSolution best = Solutions.bestOf(solutions);
+            if (best != null) archive.offer(best);
+            VehicleRoutingProblemSolution elite = archive.getBest();
+            if (elite == null) return;
+            if (best == null || elite.getCost() < best.getCost()) {
+                VehicleRoutingProblemSolution worst = null;
+                for (VehicleRoutingProblemSolution solution : solutions) {
+                    if (worst == null || solution.getCost() > worst.getCost()) worst = solution;
+                }
+                if (worst != null) solutions.remove(worst);
+                solutions.add(VehicleRoutingProblemSolution.copyOf(elite));
+            }
+        }
+    }
+
+    private final static Logger logger = LoggerFactory.getLogger(IslandAlgorithm.class);
+
+    private final List<VehicleRoutingAlgorithm> islands;
+
+    private final EliteArchive archive;
+
+    public IslandAlgorithm(Collection<VehicleRoutingAlgorithm> islands, int migrationInterval) {
+        this(islands, migrationInterval, new EliteArchive(Math.max(1, islands.size())));
+    }
+
+    public IslandAlgorithm(Collection<VehicleRoutingAlgorithm> islands, int migrationInterval, EliteArchive archive) {
+        if (islands.isEmpty()) throw new IllegalArgumentException("island model requires at least one island");
+        if (migrationInterval < 1) throw new IllegalArgumentException("migrationInterval must be positive");
+        this.islands = new ArrayList<VehicleRoutingAlgorithm>(islands);
+        this.archive = archive;
+        for (VehicleRoutingAlgorithm island : this.islands) {
+            island.addListener(new Migration(archive, migrationInterval));
+        }
+    }
+
+    public List<VehicleRoutingAlgorithm> getIslands() {
+        return Collections.unmodifiableList(islands);
+    }
+
+    public EliteArchive getEliteArchive() {
+        return archive;
+    }
+
+    /**
+     * Runs all islands in parallel and returns the solutions of all islands, i.e. the best solution across islands is
+     * <code>Solutions.bestOf(solutions)</code>.
+     *
+     * @return the solutions of all islands
+     */
+    public Collection<VehicleRoutingProblemSolution> searchSolutions() {
+        logger.info("island model starts: [#islands={}]", islands.size());
+        ExecutorService executorService = Executors.newFixedThreadPool(islands.size());
+        List<Future<Collection<VehicleRoutingProblemSolution>>> futures = new ArrayList<Future<Collection<VehicleRoutingProblemSolution>>>();
+        Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        try {
+            for (final VehicleRoutingAlgorithm island : islands) {
+                futures.add(executorService.submit(new Callable<Collection<VehicleRoutingProblemSolution>>() {
+
+                    @Override
+                    public Collection<VehicleRoutingProblemSolution> call() throws Exception {
+                        return island.searchSolutions();
+                    }
+
+                }));
+            }
+            for (Future<Collection<VehicleRoutingProblemSolution>> future : futures) {
+                try {
+                    solutions.addAll(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return solutions;
+    }
+
+}
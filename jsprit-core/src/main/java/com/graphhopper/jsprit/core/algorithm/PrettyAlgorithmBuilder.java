@@ -34,6 +34,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeKey;
 import com.graphhopper.jsprit.core.util.ActivityTimeTracker;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
 
 import java.util.*;
 
@@ -60,6 +61,8 @@ public class PrettyAlgorithmBuilder {
 
     private SolutionCostCalculator objectiveFunction = null;
 
+    private SearchMetrics searchMetrics;
+
     public static PrettyAlgorithmBuilder newInstance(VehicleRoutingProblem vrp, VehicleFleetManager fleetManager, StateManager stateManager, ConstraintManager constraintManager) {
         return new PrettyAlgorithmBuilder(vrp, fleetManager, stateManager, constraintManager);
     }
@@ -77,6 +80,17 @@ public class PrettyAlgorithmBuilder {
         return this;
     }
 
+    /**
+     * Sets the metrics the algorithm records to. By default, each algorithm has its own metrics.
+     *
+     * @param searchMetrics the search metrics
+     * @return this builder
+     */
+    public PrettyAlgorithmBuilder setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+        return this;
+    }
+
     public PrettyAlgorithmBuilder withStrategy(SearchStrategy strategy, double weight) {
         searchStrategyManager.addStrategy(strategy, weight);
         return this;
@@ -93,6 +107,9 @@ public class PrettyAlgorithmBuilder {
             AlgorithmUtil.addCoreConstraints(constraintManager,stateManager,vrp);
         }
         VehicleRoutingAlgorithm vra = new VehicleRoutingAlgorithm(vrp, searchStrategyManager, objectiveFunction);
+        if (searchMetrics != null) vra.setSearchMetrics(searchMetrics);
+        stateManager.setSearchMetrics(vra.getSearchMetrics());
+        constraintManager.setSearchMetrics(vra.getSearchMetrics());
         vra.addListener(stateManager);
         RemoveEmptyVehicles removeEmptyVehicles = new RemoveEmptyVehicles(fleetManager);
         ResetAndIniFleetManager resetAndIniFleetManager = new ResetAndIniFleetManager(fleetManager);
@@ -23,6 +23,8 @@ import com.graphhopper.jsprit.core.algorithm.selector.SolutionSelector;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,6 +82,8 @@ public class SearchStrategy {
 
     private String name;
 
+    private SearchMetrics searchMetrics = new SearchMetrics();
+
     public SearchStrategy(String id, SolutionSelector solutionSelector, SolutionAcceptor solutionAcceptor, SolutionCostCalculator solutionCostCalculator) {
         if (id == null) throw new IllegalStateException("strategy id cannot be null");
         this.solutionSelector = solutionSelector;
@@ -101,6 +105,20 @@ public class SearchStrategy {
         this.name = name;
     }
 
+    public SearchMetrics getSearchMetrics() {
+        return searchMetrics;
+    }
+
+    /**
+     * Sets the metrics this strategy and its modules record their times to. It is set by the
+     * {@link SearchStrategyManager} the strategy is added to.
+     *
+     * @param searchMetrics the search metrics
+     */
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
     public Collection<SearchStrategyModule> getSearchStrategyModules() {
         return Collections.unmodifiableCollection(searchStrategyModules);
     }
@@ -125,7 +143,7 @@ public class SearchStrategy {
      * <p>
      * <p>This involves three basic steps: 1) Selecting a solution from solutions (input parameter) according to {@link com.graphhopper.jsprit.core.algorithm.selector.SolutionSelector}, 2) running the modules
      * ({@link SearchStrategyModule}) on the selectedSolution and 3) accepting the new solution according to {@link com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor}.
-     * <p> Note that after 1) the selected solution is copied, thus the original solution is not modified.
+     * <p> Note that after 1) the selected solution is copied (copy-on-write), thus the original solution is not modified.
      * <p> Note also that 3) modifies the input parameter solutions by adding, removing, replacing the existing solutions or whatever is defined in the solutionAcceptor.
      *
      * @param vrp       the underlying vehicle routing problem
@@ -135,18 +153,71 @@ public class SearchStrategy {
      */
     @SuppressWarnings("UnusedParameters")
     public DiscoveredSolution run(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        boolean metrics = searchMetrics.isEnabled();
+        long startTime = metrics ? System.nanoTime() : 0L;
         VehicleRoutingProblemSolution solution = solutionSelector.selectSolution(solutions);
         if (solution == null) throw new IllegalStateException(getErrMsg());
-        VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.copyOf(solution);
-        for (SearchStrategyModule module : searchStrategyModules) {
-            lastSolution = module.runAndGetSolution(lastSolution);
-        }
+        long copyStartTime = metrics ? System.nanoTime() : 0L;
+        VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.copyOnWriteOf(solution);
+        if (metrics) searchMetrics.addTimeSince(Metric.SOLUTION_COPY_TIME, "copy_on_write", copyStartTime);
+        lastSolution = runModules(lastSolution, metrics);
         double costs = solutionCostCalculator.getCosts(lastSolution);
         lastSolution.setCost(costs);
         boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, lastSolution);
+        if (metrics) searchMetrics.addTimeSince(Metric.STRATEGY_TIME, getId(), startTime);
         return new DiscoveredSolution(lastSolution, solutionAccepted, getId());
     }
 
+    /*
+     * selects and copies a solution. the copy is entire (instead of copy-on-write) since it is improved concurrently
+     * to other copies of the same solution.
+     */
+    Run startRun(Collection<VehicleRoutingProblemSolution> solutions) {
+        return new Run(solutions);
+    }
+
+    /*
+     * a run of this strategy that is split into selecting, improving and accepting a solution, such that several runs
+     * can improve their solutions concurrently, whereas solutions are selected and accepted one after another
+     */
+    final class Run {
+
+        private final boolean metrics = searchMetrics.isEnabled();
+
+        private final long startTime = metrics ? System.nanoTime() : 0L;
+
+        private VehicleRoutingProblemSolution solution;
+
+        private Run(Collection<VehicleRoutingProblemSolution> solutions) {
+            VehicleRoutingProblemSolution selected = solutionSelector.selectSolution(solutions);
+            if (selected == null) throw new IllegalStateException(getErrMsg());
+            long copyStartTime = metrics ? System.nanoTime() : 0L;
+            solution = VehicleRoutingProblemSolution.copyOf(selected);
+            if (metrics) searchMetrics.addTimeSince(Metric.SOLUTION_COPY_TIME, "copy", copyStartTime);
+        }
+
+        void improve() {
+            solution = runModules(solution, metrics);
+            solution.setCost(solutionCostCalculator.getCosts(solution));
+        }
+
+        DiscoveredSolution accept(Collection<VehicleRoutingProblemSolution> solutions) {
+            boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, solution);
+            if (metrics) searchMetrics.addTimeSince(Metric.STRATEGY_TIME, getId(), startTime);
+            return new DiscoveredSolution(solution, solutionAccepted, getId());
+        }
+
+    }
+
+    private VehicleRoutingProblemSolution runModules(VehicleRoutingProblemSolution solution, boolean metrics) {
+        for (SearchStrategyModule module : searchStrategyModules) {
+            long startTime = metrics ? System.nanoTime() : 0L;
+            solution = module.runAndGetSolution(solution);
+            if (metrics) searchMetrics.addTimeSince(Metric.MODULE_TIME, module.getName(), startTime);
+        }
+        return solution;
+    }
+
     private String getErrMsg() {
         return "solution is null. check solutionSelector to return an appropriate solution. " +
             "\nfigure out whether you start with an initial solution. either you set it manually by algorithm.addInitialSolution(...)"
@@ -20,12 +20,23 @@ package com.graphhopper.jsprit.core.algorithm;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyListener;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 
 
+/**
+ * Manages search strategies and draws them randomly according to their weights.
+ * <p>
+ * <p>By default weights are static. If adaptive weights are enabled (see {@link #setAdaptiveWeights(int, double)}), the
+ * outcome of each strategy run is scored by the cost improvement it achieved per second of cpu time or wall time (see
+ * {@link #informStrategyOutcome(String, double, long)} and
+ * {@link VehicleRoutingAlgorithm#setWallTimeMeasured(boolean)}). After each segment of runs, the weights of the strategies that
+ * have been run in this segment are re-balanced according to their scores, i.e. strategies that improve solutions fast
+ * gain weight at the expense of strategies that are slow or do not improve at all.
+ */
 public class SearchStrategyManager {
 
     private final static Logger logger = LoggerFactory.getLogger(SearchStrategyManager.class);
@@ -44,10 +55,38 @@ public class SearchStrategyManager {
 
     private int strategyIndex = 0;
 
+    private List<Double> initialWeights = new ArrayList<Double>();
+
+    private int segmentLength = 0;
+
+    private double reactionFactor = 0.2;
+
+    private SearchMetrics searchMetrics;
+
+    private double minWeightFactor = 0.1;
+
+    private int runsInSegment = 0;
+
+    private double[] segmentImprovements = new double[0];
+
+    private long[] segmentTimes = new long[0];
+
     public void setRandom(Random random) {
         this.random = random;
     }
 
+    /**
+     * Sets the metrics the search strategies of this manager record to, i.e. the metrics of the algorithm.
+     *
+     * @param searchMetrics the search metrics
+     */
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+        for (SearchStrategy strategy : strategies) {
+            strategy.setSearchMetrics(searchMetrics);
+        }
+    }
+
     public List<SearchStrategy> getStrategies() {
         return Collections.unmodifiableList(strategies);
     }
@@ -60,6 +99,84 @@ public class SearchStrategyManager {
         return weights.get(id2index.get(strategyId));
     }
 
+    /**
+     * Enables adaptive weights, i.e. after segmentLength strategy runs, each strategy that has been run in this segment
+     * gets the new weight
+     * <p>
+     * <p>(1 - reactionFactor) * weight + reactionFactor * target
+     * <p>
+     * <p>whereas target distributes the sum of weights of these strategies proportionally to their improvements per
+     * second of cpu time. A weight never drops below minWeightFactor times its initial weight (default is 0.1), thus
+     * no strategy is switched off entirely. Strategies with zero weight are never drawn and remain unchanged.
+     *
+     * @param segmentLength  number of strategy runs after which weights are re-balanced. if 0, weights are static.
+     * @param reactionFactor how fast weights react to scores, in [0,1]
+     * @throws java.lang.IllegalArgumentException if segmentLength < 0 or reactionFactor not in [0,1]
+     */
+    public void setAdaptiveWeights(int segmentLength, double reactionFactor) {
+        if (segmentLength < 0) throw new IllegalArgumentException("segment length must not be negative");
+        if (reactionFactor < 0. || reactionFactor > 1.)
+            throw new IllegalArgumentException("reaction factor must be in [0,1]");
+        this.segmentLength = segmentLength;
+        this.reactionFactor = reactionFactor;
+        resetSegment();
+    }
+
+    public void setMinWeightFactor(double minWeightFactor) {
+        this.minWeightFactor = minWeightFactor;
+    }
+
+    public boolean isAdaptive() {
+        return segmentLength > 0;
+    }
+
+    /**
+     * Informs this manager about the outcome of a strategy run. It is ignored if weights are static.
+     *
+     * @param strategyId  id of strategy that has been run
+     * @param improvement cost improvement achieved by the strategy, i.e. values smaller than zero (or NaN) are treated as zero
+     * @param time        cpu time or wall time in nanoseconds the strategy run took
+     */
+    public void informStrategyOutcome(String strategyId, double improvement, long time) {
+        if (!isAdaptive()) return;
+        Integer index = id2index.get(strategyId);
+        if (index == null) return;
+        if (improvement > 0.) segmentImprovements[index] += improvement;
+        segmentTimes[index] += Math.max(1L, time);
+        runsInSegment++;
+        if (runsInSegment >= segmentLength) {
+            rebalanceWeights();
+            resetSegment();
+        }
+    }
+
+    private void rebalanceWeights() {
+        double sumScores = 0.;
+        double sumWeightsOfRunStrategies = 0.;
+        double[] scores = new double[weights.size()];
+        for (int i = 0; i < weights.size(); i++) {
+            if (segmentTimes[i] == 0L) continue;
+            scores[i] = segmentImprovements[i] / (segmentTimes[i] / 1e9);
+            sumScores += scores[i];
+            sumWeightsOfRunStrategies += weights.get(i);
+        }
+        if (sumScores <= 0.) return;
+        for (int i = 0; i < weights.size(); i++) {
+            if (segmentTimes[i] == 0L) continue;
+            double target = sumWeightsOfRunStrategies * scores[i] / sumScores;
+            double newWeight = (1. - reactionFactor) * weights.get(i) + reactionFactor * target;
+            weights.set(i, Math.max(newWeight, minWeightFactor * initialWeights.get(i)));
+        }
+        updateSumWeights();
+        logger.debug("strategy weights re-balanced: {}", weights);
+    }
+
+    private void resetSegment() {
+        runsInSegment = 0;
+        segmentImprovements = new double[weights.size()];
+        segmentTimes = new long[weights.size()];
+    }
+
     /**
      * adds a new search strategy with a certain weight.
      *
@@ -80,13 +197,17 @@ public class SearchStrategyManager {
         id2index.put(strategy.getId(), strategyIndex);
         strategyIndex++;
         strategies.add(strategy);
+        if (searchMetrics != null) strategy.setSearchMetrics(searchMetrics);
         weights.add(weight);
+        initialWeights.add(weight);
         sumWeights += weight;
+        resetSegment();
     }
 
     public void informStrategyWeightChanged(String strategyId, double weight) {
         int strategyIndex = id2index.get(strategyId);
         weights.set(strategyIndex, weight);
+        initialWeights.set(strategyIndex, weight);
         updateSumWeights();
     }
 
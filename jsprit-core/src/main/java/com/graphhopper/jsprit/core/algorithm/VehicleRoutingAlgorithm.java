@@ -29,14 +29,26 @@ import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
 import com.graphhopper.jsprit.core.util.Solutions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -111,10 +123,31 @@ public class VehicleRoutingAlgorithm {
 
     private final SolutionCostCalculator objectiveFunction;
 
+    private final List<VehicleRoutingAlgorithm> searchWorkers = new ArrayList<VehicleRoutingAlgorithm>();
+
+    private ExecutorService searchWorkerExecutor;
+
+    private ThreadPoolExecutor internalSearchWorkerExecutor;
+
+    private boolean searchInRounds = true;
+
+    private int iteration;
+
+    private int startedIterations;
+
+    private volatile boolean prematureBreak;
+
+    private boolean wallTimeMeasured;
+
+    private boolean wallTime;
+
+    private SearchMetrics searchMetrics = new SearchMetrics();
+
     public VehicleRoutingAlgorithm(VehicleRoutingProblem problem, SearchStrategyManager searchStrategyManager) {
         super();
         this.problem = problem;
         this.searchStrategyManager = searchStrategyManager;
+        this.searchStrategyManager.setSearchMetrics(searchMetrics);
         initialSolutions = new ArrayList<VehicleRoutingProblemSolution>();
         objectiveFunction = null;
     }
@@ -123,6 +156,7 @@ public class VehicleRoutingAlgorithm {
         super();
         this.problem = problem;
         this.searchStrategyManager = searchStrategyManager;
+        this.searchStrategyManager.setSearchMetrics(searchMetrics);
         this.initialSolutions = initialSolutions;
         objectiveFunction = null;
     }
@@ -131,6 +165,7 @@ public class VehicleRoutingAlgorithm {
         super();
         this.problem = problem;
         this.searchStrategyManager = searchStrategyManager;
+        this.searchStrategyManager.setSearchMetrics(searchMetrics);
         initialSolutions = new ArrayList<VehicleRoutingProblemSolution>();
         this.objectiveFunction = objectiveFunction;
     }
@@ -201,6 +236,118 @@ public class VehicleRoutingAlgorithm {
         terminationManager.addTermination(terminationCriterion);
     }
 
+    /**
+     * Switches on parallel search. Instead of running one strategy per iteration on the calling thread, each worker
+     * runs whole iterations with its own search strategies on a copy of a selected solution, and all workers share
+     * the solutions of this algorithm as well as its iteration budget and termination criteria. Listeners of this
+     * algorithm are informed about the iterations of all workers, whereas listeners of a worker are only informed
+     * about the iterations that worker runs.
+     * <p>
+     * <p>By default, the search runs in rounds of one iteration per worker. Only the strategy modules of a round run
+     * concurrently, whereas selecting and accepting solutions, memorizing the best solution and informing listeners
+     * happens on the calling thread in the order of the workers. Thus, the search is reproducible if the workers are
+     * seeded. The price is that each round takes as long as its slowest strategy run, i.e. a single expensive ruin
+     * leaves all other workers idle until it is done. If reproducibility is not required, workers can run freely
+     * instead (see {@link #setParallelSearchInRounds(boolean)}).
+     * <p>
+     * <p>Workers must be independent algorithms for the same problem, i.e. they must neither share a state manager,
+     * nor a constraint manager, nor a fleet manager nor search strategies with each other or with this algorithm. The
+     * search strategies of this algorithm are not used in parallel mode, but its algorithm-start listeners still
+     * construct the initial solution.
+     *
+     * @param executorService executor running the strategy modules of the workers
+     * @param workers         the workers
+     */
+    public void setParallelSearch(ExecutorService executorService, Collection<VehicleRoutingAlgorithm> workers) {
+        if (executorService == null) throw new IllegalArgumentException("executorService must not be null");
+        setWorkers(workers);
+        this.searchWorkerExecutor = executorService;
+    }
+
+    /**
+     * Switches on parallel search like {@link #setParallelSearch(ExecutorService, Collection)}, but runs the workers
+     * on an internal thread pool. It is set up by the first search and reused by subsequent searches. Its threads are
+     * daemon threads that terminate once they have been idle for a minute.
+     *
+     * @param workers the workers
+     */
+    public void setParallelSearch(Collection<VehicleRoutingAlgorithm> workers) {
+        setWorkers(workers);
+        this.searchWorkerExecutor = null;
+    }
+
+    /**
+     * Sets whether the parallel search runs in rounds (default) or whether workers run freely. Free-running workers
+     * start their next iteration as soon as they finished the previous one. Selecting and accepting solutions,
+     * memorizing the best solution and informing listeners is synchronized on the solutions, but happens in the order
+     * in which iterations start and finish. This keeps all workers busy, i.e. throughput scales with the number of
+     * workers even if strategy runs take very different times, but the search depends on thread timing and is not
+     * reproducible.
+     *
+     * @param searchInRounds true if the parallel search runs in rounds, false if workers run freely
+     */
+    public void setParallelSearchInRounds(boolean searchInRounds) {
+        this.searchInRounds = searchInRounds;
+    }
+
+    private ExecutorService getInternalSearchWorkerExecutor() {
+        if (internalSearchWorkerExecutor == null || internalSearchWorkerExecutor.getMaximumPoolSize() < searchWorkers.size()) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(searchWorkers.size(), searchWorkers.size(), 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "jsprit-search-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+
+            });
+            executor.allowCoreThreadTimeOut(true);
+            if (internalSearchWorkerExecutor != null) internalSearchWorkerExecutor.shutdown();
+            internalSearchWorkerExecutor = executor;
+        }
+        return internalSearchWorkerExecutor;
+    }
+
+    private void setWorkers(Collection<VehicleRoutingAlgorithm> workers) {
+        if (workers.isEmpty()) throw new IllegalArgumentException("parallel search requires at least one worker");
+        if (workers.contains(this)) throw new IllegalArgumentException("algorithm cannot be a worker of itself");
+        searchWorkers.clear();
+        searchWorkers.addAll(workers);
+    }
+
+    /**
+     * Measures the time strategy runs take, which adaptive strategy weights are based on, in wall time instead of in
+     * cpu time of the thread running the strategy. Wall time must be measured if strategies run on several threads,
+     * e.g. if insertions are evaluated concurrently. It is also measured if the jvm does not support thread cpu time.
+     *
+     * @param wallTimeMeasured true if strategy runs are measured in wall time
+     */
+    public void setWallTimeMeasured(boolean wallTimeMeasured) {
+        this.wallTimeMeasured = wallTimeMeasured;
+    }
+
+    /**
+     * Gets the metrics recorded by this algorithm. They are disabled by default.
+     *
+     * @return the search metrics
+     */
+    public SearchMetrics getSearchMetrics() {
+        return searchMetrics;
+    }
+
+    /**
+     * Sets the metrics recorded by this algorithm and its search strategies. Components such as state and constraint
+     * managers record to the metrics they have been assigned, see {@link PrettyAlgorithmBuilder}.
+     *
+     * @param searchMetrics the search metrics
+     */
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+        searchStrategyManager.setSearchMetrics(searchMetrics);
+    }
+
     /**
      * Gets the {@link SearchStrategyManager}.
      *
@@ -232,29 +379,255 @@ public class VehicleRoutingAlgorithm {
             log(solutions);
         }
         logger.info("iterations start");
-        for (int i = 0; i < maxIterations; i++) {
-            iterationStarts(i + 1, problem, solutions);
-            logger.debug("start iteration: {}", i);
+        initTimeMeasurement();
+        if (searchWorkers.isEmpty()) {
+            for (int i = 0; i < maxIterations; i++) {
+                iterationStarts(i + 1, problem, solutions);
+                logger.debug("start iteration: {}", i);
+                counter.incCounter();
+                SearchStrategy strategy = searchStrategyManager.getRandomStrategy();
+                boolean adaptive = searchStrategyManager.isAdaptive();
+                double referenceCosts = adaptive ? getCostsOfBest(solutions) : 0.;
+                long timeBefore = adaptive ? getTime() : 0L;
+                DiscoveredSolution discoveredSolution = strategy.run(problem, solutions);
+                if (adaptive) {
+                    informStrategyOutcome(searchStrategyManager, discoveredSolution, referenceCosts, getTime() - timeBefore);
+                }
+                if (logger.isTraceEnabled()) {
+                    log(discoveredSolution);
+                }
+                memorizeIfBestEver(discoveredSolution);
+                selectedStrategy(discoveredSolution, problem, solutions);
+                if (terminationManager.isPrematureBreak(discoveredSolution)) {
+                    logger.info("premature algorithm termination at iteration {}", (i + 1));
+                    noIterationsThisAlgoIsRunning = (i + 1);
+                    break;
+                }
+                iterationEnds(i + 1, problem, solutions);
+            }
+        } else {
+            noIterationsThisAlgoIsRunning = searchInParallel(solutions);
+        }
+        logger.info("iterations end at {} iterations", noIterationsThisAlgoIsRunning);
+        addBestEver(solutions);
+        algorithmEnds(problem, solutions);
+        logger.info("took {} seconds", ((System.currentTimeMillis() - now) / 1000.0));
+        return solutions;
+    }
+
+    private int searchInParallel(final Collection<VehicleRoutingProblemSolution> solutions) {
+        iteration = 0;
+        startedIterations = 0;
+        prematureBreak = false;
+        for (VehicleRoutingAlgorithm worker : searchWorkers) {
+            worker.setMaxIterations(maxIterations);
+            worker.initTimeMeasurement();
+            worker.algorithmStarts(problem, solutions);
+        }
+        ExecutorService executorService = searchWorkerExecutor;
+        if (executorService == null) executorService = getInternalSearchWorkerExecutor();
+        if (searchInRounds) {
+            while (!prematureBreak && iteration < maxIterations) {
+                runRound(executorService, solutions);
+            }
+        } else {
+            runFreely(executorService, solutions);
+        }
+        for (VehicleRoutingAlgorithm worker : searchWorkers) {
+            worker.algorithmEnds(problem, solutions);
+        }
+        return iteration;
+    }
+
+    /*
+     * a round runs one iteration per worker. solutions are selected and accepted on the calling thread in the order of
+     * the workers, only the strategy modules run concurrently. thus, the search only depends on the random numbers of
+     * the workers and is reproducible.
+     */
+    private void runRound(ExecutorService executorService, Collection<VehicleRoutingProblemSolution> solutions) {
+        int noRuns = Math.min(searchWorkers.size(), maxIterations - iteration);
+        List<SearchStrategy.Run> runs = new ArrayList<SearchStrategy.Run>(noRuns);
+        double[] referenceCosts = new double[noRuns];
+        for (int k = 0; k < noRuns; k++) {
+            VehicleRoutingAlgorithm worker = searchWorkers.get(k);
+            int i = iteration + k + 1;
+            iterationStarts(i, problem, solutions);
+            worker.iterationStarts(i, problem, solutions);
+            logger.debug("start iteration: {}", i - 1);
             counter.incCounter();
-            SearchStrategy strategy = searchStrategyManager.getRandomStrategy();
-            DiscoveredSolution discoveredSolution = strategy.run(problem, solutions);
+            SearchStrategy strategy = worker.searchStrategyManager.getRandomStrategy();
+            referenceCosts[k] = worker.searchStrategyManager.isAdaptive() ? getCostsOfBest(solutions) : 0.;
+            runs.add(strategy.startRun(solutions));
+        }
+        List<Future<Long>> futures = new ArrayList<Future<Long>>(noRuns);
+        for (int k = 0; k < noRuns; k++) {
+            final SearchStrategy.Run run = runs.get(k);
+            final VehicleRoutingAlgorithm worker = searchWorkers.get(k);
+            final boolean adaptive = worker.searchStrategyManager.isAdaptive();
+            futures.add(executorService.submit(new Callable<Long>() {
+
+                @Override
+                public Long call() throws Exception {
+                    long timeBefore = adaptive ? worker.getTime() : 0L;
+                    run.improve();
+                    return adaptive ? worker.getTime() - timeBefore : 0L;
+                }
+
+            }));
+        }
+        long[] times = new long[noRuns];
+        for (int k = 0; k < noRuns; k++) {
+            try {
+                times[k] = futures.get(k).get();
+            } catch (InterruptedException e) {
+                cancel(futures);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                cancel(futures);
+                throw new RuntimeException(e);
+            }
+        }
+        for (int k = 0; k < noRuns; k++) {
+            VehicleRoutingAlgorithm worker = searchWorkers.get(k);
+            int i = ++iteration;
+            DiscoveredSolution discoveredSolution = runs.get(k).accept(solutions);
+            if (worker.searchStrategyManager.isAdaptive()) {
+                informStrategyOutcome(worker.searchStrategyManager, discoveredSolution, referenceCosts[k], times[k]);
+            }
             if (logger.isTraceEnabled()) {
                 log(discoveredSolution);
             }
             memorizeIfBestEver(discoveredSolution);
+            worker.selectedStrategy(discoveredSolution, problem, solutions);
             selectedStrategy(discoveredSolution, problem, solutions);
             if (terminationManager.isPrematureBreak(discoveredSolution)) {
-                logger.info("premature algorithm termination at iteration {}", (i + 1));
-                noIterationsThisAlgoIsRunning = (i + 1);
-                break;
+                logger.info("premature algorithm termination at iteration {}", i);
+                prematureBreak = true;
+                return;
             }
-            iterationEnds(i + 1, problem, solutions);
+            worker.iterationEnds(i, problem, solutions);
+            iterationEnds(i, problem, solutions);
         }
-        logger.info("iterations end at {} iterations", noIterationsThisAlgoIsRunning);
-        addBestEver(solutions);
-        algorithmEnds(problem, solutions);
-        logger.info("took {} seconds", ((System.currentTimeMillis() - now) / 1000.0));
-        return solutions;
+    }
+
+    /*
+     * each worker runs iterations until the iteration budget is used up or the search terminates. the solutions serve
+     * as lock for everything but the strategy modules.
+     */
+    private void runFreely(ExecutorService executorService, final Collection<VehicleRoutingProblemSolution> solutions) {
+        List<Future<?>> futures = new ArrayList<Future<?>>(searchWorkers.size());
+        for (final VehicleRoutingAlgorithm worker : searchWorkers) {
+            futures.add(executorService.submit(new Callable<Void>() {
+
+                @Override
+                public Void call() throws Exception {
+                    runIterations(worker, solutions);
+                    return null;
+                }
+
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                cancel(futures);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                cancel(futures);
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void runIterations(VehicleRoutingAlgorithm worker, Collection<VehicleRoutingProblemSolution> solutions) {
+        boolean adaptive = worker.searchStrategyManager.isAdaptive();
+        while (true) {
+            int i;
+            double referenceCosts;
+            SearchStrategy.Run run;
+            synchronized (solutions) {
+                if (prematureBreak || startedIterations >= maxIterations) return;
+                i = ++startedIterations;
+                iterationStarts(i, problem, solutions);
+                worker.iterationStarts(i, problem, solutions);
+                logger.debug("start iteration: {}", i - 1);
+                counter.incCounter();
+                SearchStrategy strategy = worker.searchStrategyManager.getRandomStrategy();
+                referenceCosts = adaptive ? getCostsOfBest(solutions) : 0.;
+                run = strategy.startRun(solutions);
+            }
+            long timeBefore = adaptive ? worker.getTime() : 0L;
+            run.improve();
+            long time = adaptive ? worker.getTime() - timeBefore : 0L;
+            synchronized (solutions) {
+                iteration++;
+                DiscoveredSolution discoveredSolution = run.accept(solutions);
+                if (adaptive) {
+                    informStrategyOutcome(worker.searchStrategyManager, discoveredSolution, referenceCosts, time);
+                }
+                if (logger.isTraceEnabled()) {
+                    log(discoveredSolution);
+                }
+                memorizeIfBestEver(discoveredSolution);
+                worker.selectedStrategy(discoveredSolution, problem, solutions);
+                selectedStrategy(discoveredSolution, problem, solutions);
+                if (prematureBreak) return;
+                if (terminationManager.isPrematureBreak(discoveredSolution)) {
+                    logger.info("premature algorithm termination at iteration {}", i);
+                    prematureBreak = true;
+                    return;
+                }
+                worker.iterationEnds(i, problem, solutions);
+                iterationEnds(i, problem, solutions);
+            }
+        }
+    }
+
+    /*
+     * stops the search, i.e. running strategy modules are interrupted and no further iteration starts
+     */
+    private void cancel(List<? extends Future<?>> futures) {
+        prematureBreak = true;
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /*
+     * the improvement of a strategy run is measured against the best solution in memory before the run
+     */
+    private static void informStrategyOutcome(SearchStrategyManager strategyManager, DiscoveredSolution discoveredSolution, double referenceCosts, long time) {
+        if (discoveredSolution == null || discoveredSolution.getSolution() == null) return;
+        double improvement = referenceCosts - discoveredSolution.getSolution().getCost();
+        strategyManager.informStrategyOutcome(discoveredSolution.getStrategyId(), improvement, time);
+    }
+
+    private static double getCostsOfBest(Collection<VehicleRoutingProblemSolution> solutions) {
+        VehicleRoutingProblemSolution best = Solutions.bestOf(solutions);
+        if (best == null) return Double.NaN;
+        return best.getCost();
+    }
+
+    /*
+     * the clock is determined once per search, such that cpu and wall times are never mixed
+     */
+    private void initTimeMeasurement() {
+        wallTime = wallTimeMeasured;
+        if (!wallTime && searchStrategyManager.isAdaptive()) {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (!threadMXBean.isCurrentThreadCpuTimeSupported() || !threadMXBean.isThreadCpuTimeEnabled()) {
+                logger.warn("thread cpu time is not available, thus strategy runs are measured in wall time");
+                wallTime = true;
+            }
+        }
+    }
+
+    private long getTime() {
+        if (wallTime) return System.nanoTime();
+        return ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
     }
 
     private void addBestEver(Collection<VehicleRoutingProblemSolution> solutions) {
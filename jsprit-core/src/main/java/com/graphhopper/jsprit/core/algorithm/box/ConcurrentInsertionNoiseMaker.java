@@ -42,7 +42,7 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
 
     private Random random = RandomNumberGeneration.newInstance();
 
-    private Random[] randomArray;
+    private volatile long iterationSeed;
 
     private double maxCosts;
 
@@ -50,12 +50,6 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
         this.noiseLevel = noiseLevel;
         this.noiseProbability = noiseProbability;
         this.maxCosts = maxCosts;
-        randomArray = new Random[vrp.getNuActivities() + 2];
-        for (int i = 0; i < randomArray.length; i++) {
-            Random r = new Random();
-            r.setSeed(random.nextLong());
-            randomArray[i] = r;
-        }
     }
 
     @Override
@@ -63,12 +57,17 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
         if (random.nextDouble() < noiseProbability) {
             makeNoise = true;
         } else makeNoise = false;
+        iterationSeed = random.nextLong();
     }
 
     @Override
     public double getCosts(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
         if (makeNoise) {
-            return noiseLevel * maxCosts * randomArray[newAct.getIndex()].nextDouble();
+            //noise is a function of the insertion position rather than drawn from a shared generator, thus it does not depend
+            //on the order in which the insertion threads evaluate positions
+            long vehicleIndex = iFacts.getNewVehicle() == null ? -1 : iFacts.getNewVehicle().getIndex();
+            return noiseLevel * maxCosts * RandomNumberGeneration.hashToDouble(iterationSeed, vehicleIndex, newAct.getIndex(),
+                prevAct.getIndex(), nextAct.getIndex(), Double.doubleToLongBits(prevActDepTime));
         }
         return 0;
     }
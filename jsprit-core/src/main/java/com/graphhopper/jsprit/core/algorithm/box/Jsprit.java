@@ -18,6 +18,7 @@
 
 package com.graphhopper.jsprit.core.algorithm.box;
 
+import com.graphhopper.jsprit.core.algorithm.IslandAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.PrettyAlgorithmBuilder;
 import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
 import com.graphhopper.jsprit.core.algorithm.SearchStrategyModule;
@@ -26,6 +27,7 @@ import com.graphhopper.jsprit.core.algorithm.acceptor.SchrimpfAcceptance;
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.module.LocalSearchModule;
 import com.graphhopper.jsprit.core.algorithm.module.RuinAndRecreateModule;
 import com.graphhopper.jsprit.core.algorithm.recreate.*;
 import com.graphhopper.jsprit.core.algorithm.ruin.*;
@@ -45,11 +47,12 @@ import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
 import com.graphhopper.jsprit.core.util.NoiseMaker;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
 import com.graphhopper.jsprit.core.util.Solutions;
 
 import java.util.*;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class Jsprit {
@@ -83,7 +86,8 @@ public class Jsprit {
         CLUSTER_BEST("cluster_best"),
         CLUSTER_REGRET("cluster_regret"),
         STRING_BEST("string_best"),
-        STRING_REGRET("string_regret");
+        STRING_REGRET("string_regret"),
+        LOCAL_SEARCH("local_search");
 
         String strategyName;
 
@@ -127,7 +131,16 @@ public class Jsprit {
         STRING_L_MIN("string_lmin"),
         STRING_L_MAX("string_lmax"),
         MIN_UNASSIGNED("min_unassigned"),
-        PROPORTION_UNASSIGNED("proportion_unassigned");
+        PROPORTION_UNASSIGNED("proportion_unassigned"),
+        GRANULAR_NEIGHBORS("insertion.granular_neighbors"),
+        SPATIAL_INDEX_CANDIDATE_FACTOR("neighborhood.spatial_index_candidate_factor"),
+        INSERTION_CACHE_SIZE("insertion.cache_size"),
+        SEARCH_WORKERS("search.workers"),
+        SEARCH_WORKERS_IN_ROUNDS("search.workers_in_rounds"),
+        MIGRATION_INTERVAL("islands.migration_interval"),
+        LOCAL_SEARCH_NEIGHBORS("local_search.neighbors"),
+        ADAPTIVE_WEIGHTS_SEGMENT("strategy.adaptive_segment"),
+        ADAPTIVE_WEIGHTS_REACTION("strategy.adaptive_reaction");
 
 
 
@@ -195,6 +208,7 @@ public class Jsprit {
 
             defaults.put(Strategy.STRING_BEST.toString(), "0.0");
             defaults.put(Strategy.STRING_REGRET.toString(), "0.0");
+            defaults.put(Strategy.LOCAL_SEARCH.toString(), "0.");
 
             defaults.put(Parameter.STRING_K_MIN.toString(), "1");
             defaults.put(Parameter.STRING_K_MAX.toString(), "6");
@@ -240,6 +254,15 @@ public class Jsprit {
 
             defaults.put(Parameter.MIN_UNASSIGNED.toString(), String.valueOf(Integer.MAX_VALUE));
             defaults.put(Parameter.PROPORTION_UNASSIGNED.toString(), String.valueOf(1.0));
+            defaults.put(Parameter.GRANULAR_NEIGHBORS.toString(), String.valueOf(0));
+            defaults.put(Parameter.SPATIAL_INDEX_CANDIDATE_FACTOR.toString(), String.valueOf(0.));
+            defaults.put(Parameter.INSERTION_CACHE_SIZE.toString(), String.valueOf(0));
+            defaults.put(Parameter.SEARCH_WORKERS.toString(), String.valueOf(1));
+            defaults.put(Parameter.SEARCH_WORKERS_IN_ROUNDS.toString(), String.valueOf(true));
+            defaults.put(Parameter.MIGRATION_INTERVAL.toString(), String.valueOf(100));
+            defaults.put(Parameter.LOCAL_SEARCH_NEIGHBORS.toString(), String.valueOf(10));
+            defaults.put(Parameter.ADAPTIVE_WEIGHTS_SEGMENT.toString(), String.valueOf(0));
+            defaults.put(Parameter.ADAPTIVE_WEIGHTS_REACTION.toString(), String.valueOf(0.2));
             return defaults;
         }
 
@@ -270,6 +293,19 @@ public class Jsprit {
             return this;
         }
 
+        /**
+         * Sets the seed all random number streams of the algorithm are derived from. Each component (ruin and insertion
+         * strategies, strategy selection, noise) as well as each search worker and island gets its own stream, thus
+         * runs are reproducible for a given seed and number of workers/islands.
+         *
+         * @param seed the random seed
+         * @return this builder
+         */
+        public Builder setRandomSeed(long seed) {
+            this.random = RandomNumberGeneration.newInstance(seed);
+            return this;
+        }
+
         public Builder setProperty(String key, String value) {
             properties.put(key, value);
             return this;
@@ -312,7 +348,91 @@ public class Jsprit {
         }
 
         public VehicleRoutingAlgorithm buildAlgorithm() {
-            return new Jsprit(this).create(vrp);
+            Jsprit jsprit = new Jsprit(this);
+            VehicleRoutingAlgorithm vra = jsprit.create(vrp);
+            int noWorkers = Integer.parseInt(properties.getProperty(Parameter.SEARCH_WORKERS.toString()));
+            if (noWorkers > 1) {
+                addSearchWorkers(vra, noWorkers, jsprit.jobNeighborhoods, vra.getSearchMetrics());
+            }
+            return vra;
+        }
+
+        /**
+         * Builds an island model of noIslands independent algorithms that run in parallel and exchange their best
+         * solutions every <code>islands.migration_interval</code> iterations. The first island uses the configured
+         * parameters, all others are diversified, i.e. they use their own random seed, and strategy weights as well
+         * as threshold parameters randomly scaled by a factor between 0.5 and 1.5.
+         *
+         * @param noIslands number of islands
+         * @return the island algorithm
+         */
+        public IslandAlgorithm buildIslandAlgorithm(int noIslands) {
+            if (noIslands < 1) throw new IllegalArgumentException("number of islands must be positive");
+            assertReplicable("island model");
+            List<VehicleRoutingAlgorithm> islands = new ArrayList<>();
+            long seed = random.nextLong();
+            JobNeighborhoods jobNeighborhoods = null;
+            SearchMetrics searchMetrics = null;
+            for (int k = 0; k < noIslands; k++) {
+                Jsprit jsprit = newReplica(seed, k, jobNeighborhoods, searchMetrics);
+                if (k > 0) jsprit.properties = diversify(properties, jsprit.random);
+                VehicleRoutingAlgorithm island = jsprit.create(vrp);
+                islands.add(island);
+                jobNeighborhoods = jsprit.jobNeighborhoods;
+                searchMetrics = island.getSearchMetrics();
+            }
+            return new IslandAlgorithm(islands, Integer.parseInt(properties.getProperty(Parameter.MIGRATION_INTERVAL.toString())));
+        }
+
+        private void addSearchWorkers(VehicleRoutingAlgorithm vra, int noWorkers, JobNeighborhoods jobNeighborhoods, SearchMetrics searchMetrics) {
+            assertReplicable("parallel search");
+            List<VehicleRoutingAlgorithm> workers = new ArrayList<>();
+            long seed = random.nextLong();
+            for (int w = 0; w < noWorkers; w++) {
+                workers.add(newReplica(seed, w, jobNeighborhoods, searchMetrics).create(vrp));
+            }
+            vra.setParallelSearch(workers);
+            vra.setParallelSearchInRounds(Boolean.parseBoolean(properties.getProperty(Parameter.SEARCH_WORKERS_IN_ROUNDS.toString())));
+        }
+
+        private void assertReplicable(String mode) {
+            if (stateManager != null || constraintManager != null || fleetManager != null || activityInsertionCalculator != null || !customStrategies.isEmpty()) {
+                throw new IllegalStateException("each algorithm of the " + mode + " requires its own state, constraint and fleet manager. thus it cannot be " +
+                    "combined with custom state/constraint managers, fleet managers, activity insertion calculators or search strategies.");
+            }
+        }
+
+        /*
+         * job neighborhoods only depend on the problem, thus replicas share them (if already built). replicas also
+         * record to the same metrics.
+         */
+        private Jsprit newReplica(long seed, int replica, JobNeighborhoods jobNeighborhoods, SearchMetrics searchMetrics) {
+            Jsprit jsprit = new Jsprit(this);
+            jsprit.jobNeighborhoods = jobNeighborhoods;
+            jsprit.searchMetrics = searchMetrics;
+            jsprit.random = RandomNumberGeneration.newInstance(seed, replica);
+            //replicas already run in parallel, thus they only insert concurrently if an executor is explicitly set
+            if (es == null) jsprit.noThreads = 1;
+            return jsprit;
+        }
+
+        private static Properties diversify(Properties properties, Random random) {
+            Properties diversified = new Properties();
+            for (String key : properties.stringPropertyNames()) {
+                diversified.setProperty(key, properties.getProperty(key));
+            }
+            for (Strategy strategy : Strategy.values()) {
+                scale(diversified, strategy.toString(), random);
+            }
+            scale(diversified, Parameter.THRESHOLD_ALPHA.toString(), random);
+            scale(diversified, Parameter.THRESHOLD_INI.toString(), random);
+            return diversified;
+        }
+
+        private static void scale(Properties properties, String key, Random random) {
+            String value = properties.getProperty(key);
+            if (value == null) return;
+            properties.setProperty(key, String.valueOf(Double.parseDouble(value) * (0.5 + random.nextDouble())));
         }
 
     }
@@ -371,6 +491,10 @@ public class Jsprit {
 
     private Random random;
 
+    private long randomSeed;
+
+    private int randomStream;
+
     private SolutionAcceptor acceptor;
 
     private ScoringFunction regretScorer;
@@ -379,6 +503,10 @@ public class Jsprit {
 
     private VehicleFleetManager vehicleFleetManager;
 
+    private JobNeighborhoods jobNeighborhoods;
+
+    private SearchMetrics searchMetrics;
+
     private Jsprit(Builder builder) {
         this.stateManager = builder.stateManager;
         this.constraintManager = builder.constraintManager;
@@ -401,6 +529,8 @@ public class Jsprit {
 
     private VehicleRoutingAlgorithm create(final VehicleRoutingProblem vrp) {
         ini(vrp);
+        randomSeed = random.nextLong();
+        randomStream = 0;
         if (vehicleFleetManager == null) {
             if (vrp.getFleetSize().equals(VehicleRoutingProblem.FleetSize.INFINITE)) {
                 vehicleFleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
@@ -423,7 +553,7 @@ public class Jsprit {
         if (noThreads > 1) {
             if (es == null) {
                 setupExecutorInternally = true;
-                es = Executors.newFixedThreadPool(noThreads);
+                es = new ForkJoinPool(noThreads);
             }
         }
 
@@ -438,8 +568,21 @@ public class Jsprit {
         double noiseLevel = toDouble(getProperty(Parameter.INSERTION_NOISE_LEVEL.toString()));
         double noiseProbability = toDouble(getProperty(Parameter.INSERTION_NOISE_PROB.toString()));
 
-        JobNeighborhoods jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5));
-        jobNeighborhoods.initialise();
+        if (jobNeighborhoods == null) {
+            /*
+             * with a candidate factor, a k-d tree over job coordinates determines capacity*factor candidates per job
+             * and only these are ranked by job distance, i.e. distances between all pairs of jobs are never calculated
+             */
+            double spatialIndexCandidateFactor = toDouble(getProperty(Parameter.SPATIAL_INDEX_CANDIDATE_FACTOR.toString()));
+            if (spatialIndexCandidateFactor > 0.) {
+                jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoodsWithSpatialIndex(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5), spatialIndexCandidateFactor);
+            } else if (noThreads > 1) {
+                jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5), es, noThreads);
+            } else {
+                jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5));
+            }
+            jobNeighborhoods.initialise();
+        }
 
         final double maxCosts;
         if(properties.containsKey(Parameter.MAX_TRANSPORT_COSTS.toString())){
@@ -452,56 +595,57 @@ public class Jsprit {
         IterationStartsListener noiseConfigurator;
         if (noThreads > 1) {
             ConcurrentInsertionNoiseMaker noiseMaker = new ConcurrentInsertionNoiseMaker(vrp, maxCosts, noiseLevel, noiseProbability);
-            noiseMaker.setRandom(random);
+            noiseMaker.setRandom(newRandom());
             constraintManager.addConstraint(noiseMaker);
             noiseConfigurator = noiseMaker;
         } else {
             InsertionNoiseMaker noiseMaker = new InsertionNoiseMaker(vrp, maxCosts, noiseLevel, noiseProbability);
-            noiseMaker.setRandom(random);
+            noiseMaker.setRandom(newRandom());
             constraintManager.addConstraint(noiseMaker);
             noiseConfigurator = noiseMaker;
         }
 
         RuinRadial radial = new RuinRadial(vrp, vrp.getJobs().size(), jobNeighborhoods);
-        radial.setRandom(random);
+        radial.setRandom(newRandom());
         radial.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.RADIAL_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.RADIAL_MAX_SHARE.toString())),
-                random)
+                newRandom())
         );
 
         final RuinRandom random_for_regret = new RuinRandom(vrp, 0.5);
-        random_for_regret.setRandom(random);
+        random_for_regret.setRandom(newRandom());
         random_for_regret.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.RANDOM_REGRET_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.RANDOM_REGRET_MAX_SHARE.toString())),
-                random)
+                newRandom())
         );
 
         final RuinRandom random_for_best = new RuinRandom(vrp, 0.5);
-        random_for_best.setRandom(random);
+        random_for_best.setRandom(newRandom());
         random_for_best.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.RANDOM_BEST_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.RANDOM_BEST_MAX_SHARE.toString())),
-                random)
+                newRandom())
         );
 
         final RuinWorst worst = new RuinWorst(vrp, (int) (vrp.getJobs().values().size() * 0.5));
-        worst.setRandom(random);
+        worst.setRandom(newRandom());
         worst.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.WORST_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.WORST_MAX_SHARE.toString())),
-                random)
+                newRandom())
         );
+        final Random worstNoiseRandom = newRandom();
         IterationStartsListener noise = new IterationStartsListener() {
             @Override
             public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
                 worst.setNoiseMaker(new NoiseMaker() {
 
                     public double makeNoise() {
-                        if (random.nextDouble() < toDouble(getProperty(Parameter.RUIN_WORST_NOISE_PROB.toString()))) {
+                        if (worstNoiseRandom.nextDouble() < toDouble(getProperty(Parameter.RUIN_WORST_NOISE_PROB.toString()))) {
                             return toDouble(getProperty(Parameter.RUIN_WORST_NOISE_LEVEL.toString()))
-                                * maxCosts * random.nextDouble();
+                                * maxCosts * worstNoiseRandom.nextDouble();
                         } else return 0.;
                     }
                 });
@@ -509,11 +653,11 @@ public class Jsprit {
         };
 
         final RuinClusters clusters = new RuinClusters(vrp, (int) (vrp.getJobs().values().size() * 0.5), jobNeighborhoods);
-        clusters.setRandom(random);
+        clusters.setRandom(newRandom());
         clusters.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.WORST_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.WORST_MAX_SHARE.toString())),
-                random)
+                newRandom())
         );
 
         int kMin = toInteger(properties.getProperty(Parameter.STRING_K_MIN.toString()));
@@ -524,11 +668,23 @@ public class Jsprit {
         final RuinString stringRuin = new RuinString(vrp, jobNeighborhoods);
         stringRuin.setNoRoutes(kMin, kMax);
         stringRuin.setStringLength(lMin, lMax);
-        stringRuin.setRandom(random);
+        stringRuin.setRandom(newRandom());
 
         AbstractInsertionStrategy regret;
         final ScoringFunction scorer;
 
+        ServiceInsertionCalculatorFactory serviceInsertion = null;
+        int granularNeighbors = toInteger(getProperty(Parameter.GRANULAR_NEIGHBORS.toString()));
+        if (granularNeighbors > 0) {
+            serviceInsertion = new ServiceInsertionCalculatorFactory(jobNeighborhoods, granularNeighbors);
+        }
+
+        InsertionCostsCache insertionCostsCache = null;
+        int insertionCacheSize = toInteger(getProperty(Parameter.INSERTION_CACHE_SIZE.toString()));
+        if (insertionCacheSize > 0) {
+            insertionCostsCache = new InsertionCostsCache(insertionCacheSize);
+        }
+
         boolean fastRegret = Boolean.parseBoolean(getProperty(Parameter.FAST_REGRET.toString()));
         if (es != null) {
             if(fastRegret){
@@ -539,6 +695,8 @@ public class Jsprit {
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
+                    .setServiceInsertionCalculator(serviceInsertion)
+                .setInsertionCostsCache(insertionCostsCache)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
@@ -552,6 +710,8 @@ public class Jsprit {
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
+                    .setServiceInsertionCalculator(serviceInsertion)
+                .setInsertionCostsCache(insertionCostsCache)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
@@ -565,6 +725,8 @@ public class Jsprit {
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
+                    .setServiceInsertionCalculator(serviceInsertion)
+                .setInsertionCostsCache(insertionCostsCache)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
@@ -577,13 +739,15 @@ public class Jsprit {
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
+                    .setServiceInsertionCalculator(serviceInsertion)
+                .setInsertionCostsCache(insertionCostsCache)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
                 regret = regretInsertion;
             }
         }
-        regret.setRandom(random);
+        regret.setRandom(newRandom());
 
         AbstractInsertionStrategy best;
         if (vrp.getJobs().size() < 250 || es == null) {
@@ -592,6 +756,8 @@ public class Jsprit {
                 .considerFixedCosts(Double.valueOf(properties.getProperty(Parameter.FIXED_COST_PARAM.toString())))
                 .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                 .setActivityInsertionCostCalculator(activityInsertion)
+                .setServiceInsertionCalculator(serviceInsertion)
+                .setInsertionCostsCache(insertionCostsCache)
                 .build();
             best = bestInsertion;
         } else {
@@ -601,10 +767,12 @@ public class Jsprit {
                 .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                 .setConcurrentMode(es, noThreads)
                 .setActivityInsertionCostCalculator(activityInsertion)
+                .setServiceInsertionCalculator(serviceInsertion)
+                .setInsertionCostsCache(insertionCostsCache)
                 .build();
             best = bestInsertion;
         }
-        best.setRandom(random);
+        best.setRandom(newRandom());
 
         IterationStartsListener schrimpfThreshold = null;
         if(acceptor == null) {
@@ -613,9 +781,14 @@ public class Jsprit {
                 schrimpfAcceptance.setInitialThreshold(Double.valueOf(properties.getProperty(Parameter.THRESHOLD_INI_ABS.toString())));
             } else {
                 schrimpfThreshold = new IterationStartsListener() {
+
+                    private boolean initialised = false;
+
                     @Override
                     public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
-                        if (i == 1) {
+                        //in parallel search, a worker's first iteration need not be the first one
+                        if (i == 1 || !initialised) {
+                            initialised = true;
                             double initialThreshold = Solutions.bestOf(solutions).getCost() * toDouble(getProperty(Parameter.THRESHOLD_INI.toString()));
                             schrimpfAcceptance.setInitialThreshold(initialThreshold);
                         }
@@ -656,8 +829,18 @@ public class Jsprit {
         SearchStrategy stringBest = new SearchStrategy(Strategy.STRING_BEST.toString(), new SelectBest(), acceptor, objectiveFunction);
         stringBest.addModule(configureModule(new RuinAndRecreateModule(Strategy.STRING_BEST.toString(), best, stringRuin)));
 
+        SearchStrategy localSearch = null;
+        double localSearchWeight = toDouble(getProperty(Strategy.LOCAL_SEARCH.toString()));
+        if (localSearchWeight > 0) {
+            LocalSearchModule localSearchModule = new LocalSearchModule(vrp, stateManager, constraintManager, jobNeighborhoods, toInteger(getProperty(Parameter.LOCAL_SEARCH_NEIGHBORS.toString())));
+            localSearchModule.setRandom(newRandom());
+            localSearch = new SearchStrategy(Strategy.LOCAL_SEARCH.toString(), new SelectBest(), acceptor, objectiveFunction);
+            localSearch.addModule(localSearchModule);
+        }
+
         PrettyAlgorithmBuilder prettyBuilder = PrettyAlgorithmBuilder.newInstance(vrp, vehicleFleetManager, stateManager, constraintManager);
-        prettyBuilder.setRandom(random);
+        if (searchMetrics != null) prettyBuilder.setSearchMetrics(searchMetrics);
+        prettyBuilder.setRandom(newRandom());
         if (addCoreConstraints) {
             prettyBuilder.addCoreStateAndConstraintStuff();
         }
@@ -671,6 +854,9 @@ public class Jsprit {
             .withStrategy(clusters_best, toDouble(getProperty(Strategy.CLUSTER_BEST.toString())))
             .withStrategy(stringBest, toDouble(getProperty(Strategy.STRING_BEST.toString())))
             .withStrategy(stringRegret, toDouble(getProperty(Strategy.STRING_REGRET.toString())));
+        if (localSearch != null) {
+            prettyBuilder.withStrategy(localSearch, localSearchWeight);
+        }
 
         for (SearchStrategy customStrategy : customStrategies.keySet()) {
             prettyBuilder.withStrategy(customStrategy, customStrategies.get(customStrategy));
@@ -685,6 +871,10 @@ public class Jsprit {
 
 
         VehicleRoutingAlgorithm vra = prettyBuilder.build();
+        vra.getSearchStrategyManager().setAdaptiveWeights(toInteger(getProperty(Parameter.ADAPTIVE_WEIGHTS_SEGMENT.toString())),
+            toDouble(getProperty(Parameter.ADAPTIVE_WEIGHTS_REACTION.toString())));
+        //insertions are evaluated on several threads, thus cpu time of the thread running a strategy is not meaningful
+        if (noThreads > 1) vra.setWallTimeMeasured(true);
         if(schrimpfThreshold != null) {
             vra.addListener(schrimpfThreshold);
         }
@@ -704,12 +894,20 @@ public class Jsprit {
     }
 
     private SearchStrategyModule configureModule(RuinAndRecreateModule ruinAndRecreateModule) {
-        ruinAndRecreateModule.setRandom(random);
+        ruinAndRecreateModule.setRandom(newRandom());
         ruinAndRecreateModule.setMinUnassignedJobsToBeReinserted(Integer.valueOf(properties.getProperty(Parameter.MIN_UNASSIGNED.toString())));
         ruinAndRecreateModule.setProportionOfUnassignedJobsToBeReinserted(Double.valueOf(properties.getProperty(Parameter.PROPORTION_UNASSIGNED.toString())));
         return ruinAndRecreateModule;
     }
 
+    /**
+     * Each component gets its own random number stream, i.e. components neither share nor contend for a generator,
+     * and the sequence of one does not depend on how often the others are called.
+     */
+    private Random newRandom() {
+        return RandomNumberGeneration.newInstance(randomSeed, randomStream++);
+    }
+
     private DefaultScorer getRegretScorer(VehicleRoutingProblem vrp) {
         DefaultScorer scorer = new DefaultScorer(vrp);
         scorer.setTimeWindowParam(Double.valueOf(properties.getProperty(Parameter.REGRET_TIME_WINDOW_SCORER.toString())));
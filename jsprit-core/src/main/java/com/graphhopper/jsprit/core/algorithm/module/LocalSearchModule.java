@@ -0,0 +1,491 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.module;
+
+import com.graphhopper.jsprit.core.algorithm.SearchStrategyModule;
+import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.misc.ActivityContext;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity.JobActivity;
+import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+
+import java.util.*;
+
+/**
+ * Search strategy module that improves a solution by local moves between the nearest neighbors of jobs, i.e.
+ * it does not ruin and recreate the solution.
+ * <p>
+ * <p>For each job u and each of its nearest neighbors v (according to the specified {@link JobNeighborhoods}), the
+ * following moves are considered:
+ * <ul>
+ * <li>relocate: move u (or-opt: the chain of 2 or 3 activities starting at u) right after or before v</li>
+ * <li>swap: exchange u and v</li>
+ * <li>2-opt: reverse the sequence between u and v if both are in the same route</li>
+ * <li>2-opt*: exchange the tail after u with the tail after v if they are in different routes</li>
+ * </ul>
+ * The change of transport costs of a move is estimated in constant time by looking at the edges that are removed and
+ * added. Only moves with negative estimate are applied, i.e. the moved activities are removed and reinserted activity by
+ * activity while checking the hard route and activity constraints of the {@link ConstraintManager} (just like insertion
+ * heuristics do). If a constraint is violated or the actual costs of the affected routes (variable costs memorized by
+ * the {@link StateManager} plus fixed costs of non-empty routes) do not decrease, the move is undone. This repeats
+ * (first improvement) until no improving move can be found anymore or the maximum number of rounds is reached.
+ * Finally, empty routes are removed from the solution.</p>
+ * <p>
+ * <p>Only activities of services are moved, i.e. routes with shipments or breaks are left unchanged in between these
+ * activities. Insertion listeners other than the state manager are not informed about the moves.</p>
+ * <p>
+ * <p>The module can be used within a search strategy or to post-optimise a solution by calling
+ * {@link #runAndGetSolution(VehicleRoutingProblemSolution)} directly. It assumes that the state manager updates
+ * route costs, e.g. by having added the core state and constraint stuff.</p>
+ */
+public class LocalSearchModule implements SearchStrategyModule {
+
+    private static final double MIN_IMPROVEMENT = 1e-6;
+
+    private final VehicleRoutingProblem vrp;
+
+    private final StateManager stateManager;
+
+    private final ConstraintManager constraintManager;
+
+    private final JobNeighborhoods jobNeighborhoods;
+
+    private final int noNeighbors;
+
+    private final VehicleRoutingTransportCosts transportCosts;
+
+    private String moduleName = "local_search";
+
+    private Random random = RandomNumberGeneration.getRandom();
+
+    private int maxRounds = 10;
+
+    private final Map<Job, Job[]> neighbors = new HashMap<>();
+
+    private final Map<Job, VehicleRoute> routeOf = new HashMap<>();
+
+    private final Map<Job, Integer> indexOf = new HashMap<>();
+
+    public LocalSearchModule(VehicleRoutingProblem vrp, StateManager stateManager, ConstraintManager constraintManager, JobNeighborhoods jobNeighborhoods, int noNeighbors) {
+        if (noNeighbors < 1) throw new IllegalArgumentException("number of neighbors must be positive");
+        this.vrp = vrp;
+        this.stateManager = stateManager;
+        this.constraintManager = constraintManager;
+        this.jobNeighborhoods = jobNeighborhoods;
+        this.noNeighbors = noNeighbors;
+        this.transportCosts = vrp.getTransportCosts();
+    }
+
+    /**
+     * To make overall results reproducible, make sure this class is provided with its own random number generator.
+     *
+     * @param random
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Sets the maximum number of rounds, i.e. of passes over all jobs (default is 10).
+     *
+     * @param maxRounds maximum number of rounds
+     */
+    public void setMaxRounds(int maxRounds) {
+        this.maxRounds = maxRounds;
+    }
+
+    public void setName(String moduleName) {
+        this.moduleName = moduleName;
+    }
+
+    @Override
+    public VehicleRoutingProblemSolution runAndGetSolution(VehicleRoutingProblemSolution solution) {
+        routeOf.clear();
+        indexOf.clear();
+        List<Job> jobs = new ArrayList<>();
+        unshareRoutes(solution);
+        for (VehicleRoute route : solution.getRoutes()) {
+            stateManager.reCalculateStates(route);
+            memorizeIndices(route);
+            for (Job job : route.getTourActivities().getJobs()) {
+                if (isMovable(job)) jobs.add(job);
+            }
+        }
+        boolean improved = true;
+        int round = 0;
+        while (improved && round < maxRounds) {
+            improved = false;
+            round++;
+            Collections.shuffle(jobs, random);
+            for (Job job : jobs) {
+                if (improve(job)) improved = true;
+            }
+        }
+        Iterator<VehicleRoute> routeIterator = solution.getRoutes().iterator();
+        while (routeIterator.hasNext()) {
+            if (routeIterator.next().isEmpty()) routeIterator.remove();
+        }
+        return solution;
+    }
+
+    /*
+     * moves refer to activity objects, thus routes sharing their activities with a copy-on-write copy are replaced by
+     * a copy of their own upfront (otherwise the first modification would replace all activities of the route)
+     */
+    private static void unshareRoutes(VehicleRoutingProblemSolution solution) {
+        List<VehicleRoute> routes = new ArrayList<>(solution.getRoutes());
+        boolean anyShared = false;
+        for (int i = 0; i < routes.size(); i++) {
+            if (routes.get(i).getTourActivities().isShared()) {
+                routes.set(i, VehicleRoute.copyOf(routes.get(i)));
+                anyShared = true;
+            }
+        }
+        if (!anyShared) return;
+        solution.getRoutes().clear();
+        solution.getRoutes().addAll(routes);
+    }
+
+    private boolean improve(Job u) {
+        for (Job v : getNeighbors(u)) {
+            if (!routeOf.containsKey(v) || !isMovable(v)) continue;
+            if (relocate(u, 1, v, true) || relocate(u, 1, v, false) || swap(u, v)
+                || relocate(u, 2, v, true) || relocate(u, 3, v, true)
+                || twoOpt(u, v) || twoOptStar(u, v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * moves the chain of length activities starting at u right after (or right before) v
+     */
+    private boolean relocate(Job u, int length, Job v, boolean afterV) {
+        VehicleRoute r1 = routeOf.get(u);
+        VehicleRoute r2 = routeOf.get(v);
+        int i = indexOf.get(u);
+        int k = afterV ? indexOf.get(v) : indexOf.get(v) - 1;
+        List<TourActivity> acts1 = r1.getActivities();
+        if (i + length > acts1.size() || !areMovable(acts1, i, i + length - 1)) return false;
+        if (r1 == r2 && k >= i - 1 && k < i + length) return false;
+        TourActivity first = acts1.get(i);
+        TourActivity last = acts1.get(i + length - 1);
+        TourActivity prevIns = get(r2, k);
+        TourActivity nextIns = get(r2, k + 1);
+        double estimate = c(r1, get(r1, i - 1), get(r1, i + length)) - c(r1, get(r1, i - 1), first) - c(r1, last, get(r1, i + length))
+            + c(r2, prevIns, first) + c(r2, last, nextIns) - c(r2, prevIns, nextIns);
+        if (estimate > -MIN_IMPROVEMENT) return false;
+        List<TourActivity> chain = new ArrayList<>(acts1.subList(i, i + length));
+        Move move = new Move(r1, r2);
+        move.remove(chain);
+        move.insert(r2, prevIns, chain);
+        return move.apply();
+    }
+
+    private boolean swap(Job u, Job v) {
+        VehicleRoute r1 = routeOf.get(u);
+        VehicleRoute r2 = routeOf.get(v);
+        int i = indexOf.get(u);
+        int j = indexOf.get(v);
+        if (r1 == r2 && Math.abs(i - j) < 2) return false;
+        TourActivity actU = get(r1, i);
+        TourActivity actV = get(r2, j);
+        TourActivity prevU = get(r1, i - 1);
+        TourActivity nextU = get(r1, i + 1);
+        TourActivity prevV = get(r2, j - 1);
+        TourActivity nextV = get(r2, j + 1);
+        double estimate = c(r1, prevU, actV) + c(r1, actV, nextU) - c(r1, prevU, actU) - c(r1, actU, nextU)
+            + c(r2, prevV, actU) + c(r2, actU, nextV) - c(r2, prevV, actV) - c(r2, actV, nextV);
+        if (estimate > -MIN_IMPROVEMENT) return false;
+        Move move = new Move(r1, r2);
+        move.remove(Arrays.asList(actU, actV));
+        move.insert(r1, prevU, Collections.singletonList(actV));
+        move.insert(r2, prevV, Collections.singletonList(actU));
+        return move.apply();
+    }
+
+    /*
+     * reverses the sequence between u and v (both exclusive the first of both)
+     */
+    private boolean twoOpt(Job u, Job v) {
+        VehicleRoute route = routeOf.get(u);
+        if (route != routeOf.get(v)) return false;
+        int a = Math.min(indexOf.get(u), indexOf.get(v));
+        int b = Math.max(indexOf.get(u), indexOf.get(v));
+        List<TourActivity> acts = route.getActivities();
+        if (b < a + 2 || !areMovable(acts, a + 1, b)) return false;
+        double estimate = c(route, acts.get(a), acts.get(b)) + c(route, acts.get(a + 1), get(route, b + 1))
+            - c(route, acts.get(a), acts.get(a + 1)) - c(route, acts.get(b), get(route, b + 1));
+        if (estimate > -MIN_IMPROVEMENT) return false;
+        List<TourActivity> segment = new ArrayList<>(acts.subList(a + 1, b + 1));
+        Move move = new Move(route, route);
+        move.remove(segment);
+        Collections.reverse(segment);
+        move.insert(route, acts.get(a), segment);
+        return move.apply();
+    }
+
+    /*
+     * exchanges the tail after u with the tail after v
+     */
+    private boolean twoOptStar(Job u, Job v) {
+        VehicleRoute r1 = routeOf.get(u);
+        VehicleRoute r2 = routeOf.get(v);
+        if (r1 == r2) return false;
+        int i = indexOf.get(u);
+        int j = indexOf.get(v);
+        List<TourActivity> acts1 = r1.getActivities();
+        List<TourActivity> acts2 = r2.getActivities();
+        if (i == acts1.size() - 1 && j == acts2.size() - 1) return false;
+        if (!areMovable(acts1, i + 1, acts1.size() - 1) || !areMovable(acts2, j + 1, acts2.size() - 1)) return false;
+        TourActivity actU = acts1.get(i);
+        TourActivity actV = acts2.get(j);
+        double estimate = c(r1, actU, get(r2, j + 1)) + c(r2, actV, get(r1, i + 1)) - c(r1, actU, get(r1, i + 1)) - c(r2, actV, get(r2, j + 1));
+        if (j < acts2.size() - 1) {
+            TourActivity lastOfTail2 = acts2.get(acts2.size() - 1);
+            estimate += c(r1, lastOfTail2, null) - c(r2, lastOfTail2, null);
+        }
+        if (i < acts1.size() - 1) {
+            TourActivity lastOfTail1 = acts1.get(acts1.size() - 1);
+            estimate += c(r2, lastOfTail1, null) - c(r1, lastOfTail1, null);
+        }
+        if (estimate > -MIN_IMPROVEMENT) return false;
+        List<TourActivity> tail1 = new ArrayList<>(acts1.subList(i + 1, acts1.size()));
+        List<TourActivity> tail2 = new ArrayList<>(acts2.subList(j + 1, acts2.size()));
+        Move move = new Move(r1, r2);
+        move.remove(tail1);
+        move.remove(tail2);
+        move.insert(r1, actU, tail2);
+        move.insert(r2, actV, tail1);
+        return move.apply();
+    }
+
+    /*
+     * a move removes activities from (at most two) routes and reinserts them at the specified positions. it is undone
+     * if a hard constraint is violated or if the costs of the affected routes do not decrease.
+     */
+    private class Move {
+
+        private final List<VehicleRoute> routes = new ArrayList<>(2);
+
+        private final List<List<TourActivity>> previousActivities = new ArrayList<>(2);
+
+        private final List<TourActivity> removals = new ArrayList<>();
+
+        private final List<VehicleRoute> insertionRoutes = new ArrayList<>(2);
+
+        private final List<TourActivity> insertAfter = new ArrayList<>(2);
+
+        private final List<List<TourActivity>> insertions = new ArrayList<>(2);
+
+        Move(VehicleRoute r1, VehicleRoute r2) {
+            routes.add(r1);
+            if (r2 != r1) routes.add(r2);
+        }
+
+        void remove(List<TourActivity> acts) {
+            removals.addAll(acts);
+        }
+
+        void insert(VehicleRoute route, TourActivity prevAct, List<TourActivity> acts) {
+            insertionRoutes.add(route);
+            insertAfter.add(prevAct);
+            insertions.add(acts);
+        }
+
+        boolean apply() {
+            double costsBefore = 0.;
+            for (VehicleRoute route : routes) {
+                costsBefore += getCosts(route);
+                previousActivities.add(new ArrayList<>(route.getActivities()));
+            }
+            for (TourActivity act : removals) {
+                routeOf.get(getJob(act)).getTourActivities().removeActivity(act);
+            }
+            for (VehicleRoute route : routes) {
+                stateManager.reCalculateStates(route);
+            }
+            for (int n = 0; n < insertions.size(); n++) {
+                VehicleRoute route = insertionRoutes.get(n);
+                TourActivity prevAct = insertAfter.get(n);
+                for (TourActivity act : insertions.get(n)) {
+                    if (!insertActivity(route, prevAct, act)) {
+                        undo();
+                        return false;
+                    }
+                    prevAct = act;
+                }
+            }
+            double costsAfter = 0.;
+            for (VehicleRoute route : routes) {
+                costsAfter += getCosts(route);
+            }
+            if (costsAfter > costsBefore - MIN_IMPROVEMENT) {
+                undo();
+                return false;
+            }
+            for (VehicleRoute route : routes) {
+                memorizeIndices(route);
+            }
+            return true;
+        }
+
+        private void undo() {
+            for (int n = 0; n < routes.size(); n++) {
+                VehicleRoute route = routes.get(n);
+                for (TourActivity act : new ArrayList<>(route.getActivities())) {
+                    route.getTourActivities().removeActivity(act);
+                }
+                int index = 0;
+                for (TourActivity act : previousActivities.get(n)) {
+                    route.getTourActivities().addActivity(index++, act);
+                }
+                stateManager.reCalculateStates(route);
+                memorizeIndices(route);
+            }
+        }
+
+    }
+
+    private boolean insertActivity(VehicleRoute route, TourActivity prevAct, TourActivity act) {
+        List<TourActivity> acts = route.getActivities();
+        int index = 0;
+        if (prevAct != route.getStart()) {
+            while (acts.get(index) != prevAct) index++;
+            index++;
+        }
+        TourActivity nextAct;
+        if (index < acts.size()) nextAct = acts.get(index);
+        else nextAct = new End(route.getVehicle().getEndLocation(), 0.0, route.getVehicle().getLatestArrival());
+        Job job = getJob(act);
+        JobInsertionContext insertionContext = new JobInsertionContext(route, job, route.getVehicle(), route.getDriver(), route.getDepartureTime());
+        insertionContext.getAssociatedActivities().add(act);
+        ActivityContext activityContext = new ActivityContext();
+        activityContext.setInsertionIndex(index);
+        insertionContext.setActivityContext(activityContext);
+        if (!constraintManager.fulfilled(insertionContext)) return false;
+        if (constraintManager.fulfilled(insertionContext, prevAct, act, nextAct, prevAct.getEndTime()) != ConstraintsStatus.FULFILLED) {
+            return false;
+        }
+        route.getTourActivities().addActivity(index, act);
+        routeOf.put(job, route);
+        stateManager.informJobInserted(job, route, 0., 0.);
+        return true;
+    }
+
+    private double getCosts(VehicleRoute route) {
+        if (route.isEmpty()) return 0.;
+        double variableCosts = stateManager.getRouteState(route, InternalStates.COSTS);
+        if (Double.isNaN(variableCosts)) {
+            throw new IllegalStateException("route costs are not available. make sure the state manager updates them, e.g. by adding core constraints.");
+        }
+        return variableCosts + route.getVehicle().getType().getVehicleCostParams().fix;
+    }
+
+    /*
+     * estimated transport costs between from and to. to == null represents the end of route.
+     */
+    private double c(VehicleRoute route, TourActivity from, TourActivity to) {
+        if (to == null) {
+            if (!route.getVehicle().isReturnToDepot()) return 0.;
+            return transportCosts.getTransportCost(from.getLocation(), route.getVehicle().getEndLocation(), from.getEndTime(), route.getDriver(), route.getVehicle());
+        }
+        return transportCosts.getTransportCost(from.getLocation(), to.getLocation(), from.getEndTime(), route.getDriver(), route.getVehicle());
+    }
+
+    /*
+     * activity at index, whereas -1 is the start and size (or larger) the end (null) of route
+     */
+    private static TourActivity get(VehicleRoute route, int index) {
+        if (index < 0) return route.getStart();
+        if (index >= route.getActivities().size()) return null;
+        return route.getActivities().get(index);
+    }
+
+    private void memorizeIndices(VehicleRoute route) {
+        List<TourActivity> acts = route.getActivities();
+        for (int i = 0; i < acts.size(); i++) {
+            TourActivity act = acts.get(i);
+            if (act instanceof JobActivity) {
+                Job job = ((JobActivity) act).getJob();
+                routeOf.put(job, route);
+                indexOf.put(job, i);
+            }
+        }
+    }
+
+    private Job[] getNeighbors(Job job) {
+        Job[] jobNeighbors = neighbors.get(job);
+        if (jobNeighbors == null) {
+            List<Job> neighborList = new ArrayList<>(noNeighbors);
+            Iterator<Job> neighborIterator = jobNeighborhoods.getNearestNeighborsIterator(noNeighbors, job);
+            while (neighborIterator.hasNext()) {
+                neighborList.add(neighborIterator.next());
+            }
+            jobNeighbors = neighborList.toArray(new Job[neighborList.size()]);
+            neighbors.put(job, jobNeighbors);
+        }
+        return jobNeighbors;
+    }
+
+    private static boolean isMovable(Job job) {
+        return job instanceof Service && !(job instanceof Break);
+    }
+
+    private static boolean areMovable(List<TourActivity> acts, int from, int to) {
+        for (int i = from; i <= to; i++) {
+            TourActivity act = acts.get(i);
+            if (!(act instanceof JobActivity) || !isMovable(((JobActivity) act).getJob())) return false;
+        }
+        return true;
+    }
+
+    private static Job getJob(TourActivity act) {
+        return ((JobActivity) act).getJob();
+    }
+
+    @Override
+    public String getName() {
+        return moduleName;
+    }
+
+    @Override
+    public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+
+    }
+
+    @Override
+    public String toString() {
+        return "[name=" + moduleName + "][noNeighbors=" + noNeighbors + "]";
+    }
+}
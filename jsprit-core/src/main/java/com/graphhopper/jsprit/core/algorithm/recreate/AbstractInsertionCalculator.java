@@ -18,12 +18,17 @@
 
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
 import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.PickupAndDeliverShipmentLoadActivityLevelConstraint;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -37,6 +42,7 @@ abstract class AbstractInsertionCalculator implements JobInsertionCostsCalculato
     InsertionData checkRouteContraints(JobInsertionContext insertionContext, ConstraintManager constraintManager) {
         for (HardRouteConstraint hardRouteConstraint : constraintManager.getHardRouteConstraints()) {
             if (!hardRouteConstraint.fulfilled(insertionContext)) {
+                constraintManager.getSearchMetrics().increment(Metric.CONSTRAINT_REJECTIONS, hardRouteConstraint.getClass());
                 InsertionData emptyInsertionData = new InsertionData.NoInsertionFound();
                 emptyInsertionData.addFailedConstrainName(hardRouteConstraint.getClass().getSimpleName());
                 return emptyInsertionData;
@@ -45,16 +51,45 @@ abstract class AbstractInsertionCalculator implements JobInsertionCostsCalculato
         return null;
     }
 
+    /**
+     * Returns NoInsertionFound if the job alone exceeds the capacity of the vehicle, i.e. if there cannot be any
+     * feasible insertion position. Only applies if load constraints are enforced.
+     */
+    InsertionData checkJobFitsVehicle(Capacity jobSize, Vehicle vehicle, ConstraintManager constraintManager) {
+        if (!constraintManager.isLoadConstraintSet()) return null;
+        if (jobSize.isLessOrEqual(vehicle.getType().getCapacityDimensions())) return null;
+        InsertionData emptyInsertionData = new InsertionData.NoInsertionFound();
+        emptyInsertionData.addFailedConstrainName(PickupAndDeliverShipmentLoadActivityLevelConstraint.class.getSimpleName());
+        return emptyInsertionData;
+    }
+
+    /**
+     * Returns the latest time an activity with the specified time windows can start, or Double.MAX_VALUE if
+     * time windows are not enforced. Since departure times along a route never decrease, no position whose
+     * predecessor ends later than this can be feasible, neither can any position after it.
+     */
+    static double getLatestOperationStartTime(Collection<TimeWindow> timeWindows, ConstraintManager constraintManager) {
+        if (!constraintManager.isTimeWindowConstraintSet()) return Double.MAX_VALUE;
+        double latest = -Double.MAX_VALUE;
+        for (TimeWindow timeWindow : timeWindows) {
+            latest = Math.max(latest, timeWindow.getEnd());
+        }
+        return latest;
+    }
+
     ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, Collection<String> failedActivityConstraints, ConstraintManager constraintManager) {
+        constraintManager.getSearchMetrics().increment(Metric.EVALUATED_POSITIONS, getClass());
         ConstraintsStatus notFulfilled = null;
         List<String> failed = new ArrayList<>();
         for (HardActivityConstraint c : constraintManager.getCriticalHardActivityConstraints()) {
             ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+                constraintManager.getSearchMetrics().increment(Metric.CONSTRAINT_REJECTIONS, c.getClass());
                 failedActivityConstraints.add(c.getClass().getSimpleName());
                 return status;
             } else {
                 if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                    constraintManager.getSearchMetrics().increment(Metric.CONSTRAINT_REJECTIONS, c.getClass());
                     failed.add(c.getClass().getSimpleName());
                     notFulfilled = status;
                 }
@@ -68,10 +103,12 @@ abstract class AbstractInsertionCalculator implements JobInsertionCostsCalculato
         for (HardActivityConstraint c : constraintManager.getHighPrioHardActivityConstraints()) {
             ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+                constraintManager.getSearchMetrics().increment(Metric.CONSTRAINT_REJECTIONS, c.getClass());
                 failedActivityConstraints.add(c.getClass().getSimpleName());
                 return status;
             } else {
                 if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                    constraintManager.getSearchMetrics().increment(Metric.CONSTRAINT_REJECTIONS, c.getClass());
                     failed.add(c.getClass().getSimpleName());
                     notFulfilled = status;
                 }
@@ -85,6 +122,7 @@ abstract class AbstractInsertionCalculator implements JobInsertionCostsCalculato
         for (HardActivityConstraint constraint : constraintManager.getLowPrioHardActivityConstraints()) {
             ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK) || status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                constraintManager.getSearchMetrics().increment(Metric.CONSTRAINT_REJECTIONS, constraint.getClass());
                 failedActivityConstraints.add(constraint.getClass().getSimpleName());
                 return status;
             }
@@ -30,6 +30,7 @@ import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -75,6 +76,8 @@ public abstract class AbstractInsertionStrategy implements InsertionStrategy {
 
     protected VehicleRoutingProblem vrp;
 
+    private GranularInsertion granularInsertion;
+
     public AbstractInsertionStrategy(VehicleRoutingProblem vrp) {
         this.insertionsListeners = new InsertionListeners();
         this.vrp = vrp;
@@ -85,15 +88,37 @@ public abstract class AbstractInsertionStrategy implements InsertionStrategy {
         this.random = random;
     }
 
+    void setGranularInsertion(GranularInsertion granularInsertion) {
+        this.granularInsertion = granularInsertion;
+    }
+
     @Override
     public Collection<Job> insertJobs(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
         insertionsListeners.informInsertionStarts(vehicleRoutes, unassignedJobs);
         Collection<Job> badJobs = insertUnassignedJobs(vehicleRoutes, unassignedJobs);
+        if (granularInsertion != null && !badJobs.isEmpty()) {
+            badJobs = insertWithoutGranularInsertion(vehicleRoutes, badJobs);
+        }
         insertionsListeners.informInsertionEndsListeners(vehicleRoutes);
         return badJobs;
     }
 
+    /*
+     * granular insertion only considers routes and positions next to the nearest neighbors of a job. jobs that cannot be
+     * inserted this way are inserted once again considering all positions.
+     */
+    private Collection<Job> insertWithoutGranularInsertion(Collection<VehicleRoute> vehicleRoutes, Collection<Job> badJobs) {
+        granularInsertion.setEnabled(false);
+        try {
+            return insertUnassignedJobs(vehicleRoutes, new ArrayList<>(badJobs));
+        } finally {
+            granularInsertion.setEnabled(true);
+        }
+    }
+
     public void markUnassigned(Job unassigned, List<String> reasons) {
+        // jobs that cannot be inserted by granular insertion are inserted once again, thus they are not unassigned yet
+        if (granularInsertion != null && granularInsertion.isEnabled()) return;
         insertionsListeners.informJobUnassignedListeners(unassigned, reasons);
     }
 
@@ -31,38 +31,68 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
+ * Best insertion that evaluates the routes of a job concurrently.
+ * <p>
+ * <p>Routes are not distributed to fixed batches. Instead, the evaluators take route by route from a shared cursor
+ * (i.e. they steal work from each other) until all routes are evaluated, thus a few long routes cannot turn a
+ * batch into a straggler. The calling thread evaluates routes as well and each evaluator keeps its best insertion in
+ * its own fields, which are reduced once all evaluators are done, i.e. no intermediate results are created and queued.
+ * <p>
+ * <p>Optionally, the evaluation of the next job against all routes but the one the current job is inserted into can
+ * overlap with the insertion of the current job (see {@link #setEvaluateAheadOfInsertion(boolean)}).
+ *
  * @author stefan schroeder
  */
 
 public final class BestInsertionConcurrent extends AbstractInsertionStrategy {
 
-    static class Batch {
-        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+    /**
+     * Evaluates routes of the current job until no route is left, and memorizes the best insertion it found.
+     */
+    private final class Evaluator implements Runnable {
 
-    }
+        private double bestCost;
 
-    class Insertion {
+        private int bestRouteIndex;
 
-        private final VehicleRoute route;
+        private InsertionData bestData;
 
-        private final InsertionData insertionData;
+        private final List<String> failedConstraintNames = new ArrayList<>();
 
-        public Insertion(VehicleRoute vehicleRoute, InsertionData insertionData) {
-            super();
-            this.route = vehicleRoute;
-            this.insertionData = insertionData;
+        private void reset() {
+            bestCost = Double.MAX_VALUE;
+            bestRouteIndex = -1;
+            bestData = null;
+            failedConstraintNames.clear();
         }
 
-        public VehicleRoute getRoute() {
-            return route;
+        @Override
+        public void run() {
+            int routeIndex;
+            while ((routeIndex = cursor.getAndIncrement()) < routes.size()) {
+                if (routeIndex == excludedRouteIndex) continue;
+                evaluate(routeIndex);
+            }
         }
 
-        public InsertionData getInsertionData() {
-            return insertionData;
+        private void evaluate(int routeIndex) {
+            InsertionData iData = bestInsertionCostCalculator.getInsertionData(routes.get(routeIndex), job, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestCost);
+            if (iData instanceof NoInsertionFound) {
+                failedConstraintNames.addAll(iData.getFailedConstraintNames());
+                return;
+            }
+            if (iData.getInsertionCost() < bestCost || (iData.getInsertionCost() == bestCost && routeIndex < bestRouteIndex)) {
+                bestCost = iData.getInsertionCost();
+                bestRouteIndex = routeIndex;
+                bestData = iData;
+            }
         }
 
     }
@@ -75,23 +105,64 @@ public final class BestInsertionConcurrent extends AbstractInsertionStrategy {
 
     private final static Driver NO_NEW_DRIVER_YET = null;
 
+    private final static int MIN_ROUTES_PER_EVALUATOR = 2;
+
     private InsertionListeners insertionsListeners;
 
     private JobInsertionCostsCalculator bestInsertionCostCalculator;
 
-    private int nuOfBatches;
+    private final ExecutorService executorService;
+
+    /*
+     * the last evaluator is run by the calling thread
+     */
+    private final Evaluator[] evaluators;
+
+    private final Future<?>[] futures;
+
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private final List<String> failedConstraintNames = new ArrayList<>();
+
+    private boolean evaluateAheadOfInsertion = false;
+
+    private List<VehicleRoute> routes;
+
+    private Job job;
 
-    private ExecutorCompletionService<Insertion> completionService;
+    private int excludedRouteIndex;
+
+    private int noSubmitted;
+
+    private double bestCost;
+
+    private int bestRouteIndex;
+
+    private InsertionData bestData;
 
     public BestInsertionConcurrent(JobInsertionCostsCalculator jobInsertionCalculator, ExecutorService executorService, int nuOfBatches, VehicleRoutingProblem vehicleRoutingProblem) {
         super(vehicleRoutingProblem);
         this.insertionsListeners = new InsertionListeners();
-        this.nuOfBatches = nuOfBatches;
+        this.executorService = executorService;
         bestInsertionCostCalculator = jobInsertionCalculator;
-        completionService = new ExecutorCompletionService<Insertion>(executorService);
+        evaluators = new Evaluator[Math.max(1, nuOfBatches)];
+        for (int i = 0; i < evaluators.length; i++) evaluators[i] = new Evaluator();
+        futures = new Future<?>[evaluators.length];
         logger.debug("initialise {}", this);
     }
 
+    /**
+     * Lets the evaluation of the next job against all routes but the one the current job is inserted into run while
+     * the current job is inserted. This presumes that inserting a job into a route only affects the insertion costs
+     * and feasibility of this very route, i.e. it must not be used with constraints or insertion listeners that relate
+     * jobs or states across routes. Insertions that switch or add a vehicle are never overlapped.
+     *
+     * @param evaluateAheadOfInsertion true if the evaluation of the next job should overlap with the insertion of the current job
+     */
+    public void setEvaluateAheadOfInsertion(boolean evaluateAheadOfInsertion) {
+        this.evaluateAheadOfInsertion = evaluateAheadOfInsertion;
+    }
+
     @Override
     public String toString() {
         return "[name=bestInsertion]";
@@ -103,101 +174,100 @@ public final class BestInsertionConcurrent extends AbstractInsertionStrategy {
         List<Job> unassignedJobList = new ArrayList<Job>(unassignedJobs);
         Collections.shuffle(unassignedJobList, random);
         Collections.sort(unassignedJobList, new AccordingToPriorities());
-        List<Batch> batches = distributeRoutes(vehicleRoutes, nuOfBatches);
-        List<String> failedConstraintNames = new ArrayList<>();
-        for (final Job unassignedJob : unassignedJobList) {
-            Insertion bestInsertion = null;
-            double bestInsertionCost = Double.MAX_VALUE;
-            for (final Batch batch : batches) {
-                completionService.submit(new Callable<Insertion>() {
-
-                    @Override
-                    public Insertion call() throws Exception {
-                        return getBestInsertion(batch, unassignedJob);
-                    }
-
-                });
-            }
-            try {
-                for (int i = 0; i < batches.size(); i++) {
-                    Future<Insertion> futureIData = completionService.take();
-                    Insertion insertion = futureIData.get();
-                    if (insertion.insertionData instanceof NoInsertionFound) {
-                        failedConstraintNames.addAll(insertion.getInsertionData().getFailedConstraintNames());
-                        continue;
-                    }
-                    if (insertion.getInsertionData().getInsertionCost() < bestInsertionCost) {
-                        bestInsertion = insertion;
-                        bestInsertionCost = insertion.getInsertionData().getInsertionCost();
-                    }
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException e) {
-                throw new RuntimeException(e);
+        vehicleRoutes.add(VehicleRoute.emptyRoute());
+        routes = new ArrayList<>(vehicleRoutes);
+        boolean evaluated = false;
+        for (int j = 0; j < unassignedJobList.size(); j++) {
+            Job unassignedJob = unassignedJobList.get(j);
+            if (!evaluated) {
+                startEvaluation(unassignedJob, -1);
+                completeEvaluation(-1);
             }
+            evaluated = false;
+            double bestInsertionCost = bestCost;
+            VehicleRoute bestRoute = bestRouteIndex < 0 ? null : routes.get(bestRouteIndex);
+            InsertionData bestInsertionData = bestData;
             VehicleRoute newRoute = VehicleRoute.emptyRoute();
             InsertionData newIData = bestInsertionCostCalculator.getInsertionData(newRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
             if (newIData.getInsertionCost() < bestInsertionCost) {
-                bestInsertion = new Insertion(newRoute, newIData);
+                bestRoute = newRoute;
+                bestInsertionData = newIData;
                 vehicleRoutes.add(newRoute);
-                batches.get(random.nextInt(batches.size())).routes.add(newRoute);
+                routes.add(newRoute);
             }
-            if (bestInsertion == null) {
+            if (bestRoute == null) {
                 badJobs.add(unassignedJob);
-                markUnassigned(unassignedJob, failedConstraintNames);
+                markUnassigned(unassignedJob, new ArrayList<>(failedConstraintNames));
+            } else if (evaluateAheadOfInsertion && j + 1 < unassignedJobList.size() && bestRoute != newRoute
+                && bestRoute.getVehicle().getId().equals(bestInsertionData.getSelectedVehicle().getId())) {
+                int routeIndex = bestRouteIndex;
+                startEvaluation(unassignedJobList.get(j + 1), routeIndex);
+                insertJob(unassignedJob, bestInsertionData, bestRoute);
+                completeEvaluation(routeIndex);
+                evaluated = true;
+            } else {
+                insertJob(unassignedJob, bestInsertionData, bestRoute);
             }
-            else insertJob(unassignedJob, bestInsertion.getInsertionData(), bestInsertion.getRoute());
         }
+        routes = null;
+        job = null;
         return badJobs;
     }
 
-
-    private Insertion getBestInsertion(Batch batch, Job unassignedJob) {
-        Insertion bestInsertion = null;
-        InsertionData empty = new InsertionData.NoInsertionFound();
-        double bestInsertionCost = Double.MAX_VALUE;
-        for (VehicleRoute vehicleRoute : batch.routes) {
-            InsertionData iData = bestInsertionCostCalculator.getInsertionData(vehicleRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
-            if (iData instanceof NoInsertionFound) {
-                empty.getFailedConstraintNames().addAll(iData.getFailedConstraintNames());
-                continue;
-            }
-            if (iData.getInsertionCost() < bestInsertionCost) {
-                bestInsertion = new Insertion(vehicleRoute, iData);
-                bestInsertionCost = iData.getInsertionCost();
-            }
+    /*
+     * submits the evaluation of the job against all routes but the excluded one. if no route is excluded, the
+     * calling thread evaluates routes in completeEvaluation as well, thus one evaluator less is submitted.
+     */
+    private void startEvaluation(Job job, int excludedRouteIndex) {
+        this.job = job;
+        this.excludedRouteIndex = excludedRouteIndex;
+        cursor.set(0);
+        int noEvaluators = Math.min(evaluators.length, Math.max(1, routes.size() / MIN_ROUTES_PER_EVALUATOR));
+        noSubmitted = Math.min(excludedRouteIndex < 0 ? noEvaluators - 1 : noEvaluators, evaluators.length - 1);
+        evaluators[evaluators.length - 1].reset();
+        for (int i = 0; i < noSubmitted; i++) {
+            evaluators[i].reset();
+            futures[i] = executorService.submit(evaluators[i]);
         }
-        if (bestInsertion == null) return new Insertion(null, empty);
-        return bestInsertion;
     }
 
-    private List<Batch> distributeRoutes(Collection<VehicleRoute> vehicleRoutes, int nuOfBatches) {
-        List<Batch> batches = new ArrayList<Batch>();
-        for (int i = 0; i < nuOfBatches; i++) batches.add(new Batch());
-        /*
-         * if route.size < nuOfBatches add as much routes as empty batches are available
-		 * else add one empty route anyway
-		 */
-        if (vehicleRoutes.size() < nuOfBatches) {
-            int nOfNewRoutes = nuOfBatches - vehicleRoutes.size();
-            for (int i = 0; i < nOfNewRoutes; i++) {
-                vehicleRoutes.add(VehicleRoute.emptyRoute());
+    /*
+     * lets the calling thread evaluate the excluded route (if any) and help with the remaining routes, waits for
+     * the submitted evaluators and reduces their results
+     */
+    private void completeEvaluation(int excludedRouteIndex) {
+        Evaluator callerEvaluator = evaluators[evaluators.length - 1];
+        if (excludedRouteIndex >= 0) callerEvaluator.evaluate(excludedRouteIndex);
+        callerEvaluator.run();
+        try {
+            for (int i = 0; i < noSubmitted; i++) {
+                futures[i].get();
+                futures[i] = null;
             }
-        } else {
-            vehicleRoutes.add(VehicleRoute.emptyRoute());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
         }
-        /*
-         * distribute routes to batches equally
-		 */
-        int count = 0;
-        for (VehicleRoute route : vehicleRoutes) {
-            if (count == nuOfBatches) count = 0;
-            batches.get(count).routes.add(route);
-            count++;
-        }
-        return batches;
+        bestCost = Double.MAX_VALUE;
+        bestRouteIndex = -1;
+        bestData = null;
+        failedConstraintNames.clear();
+        reduce(callerEvaluator);
+        for (int i = 0; i < noSubmitted; i++) reduce(evaluators[i]);
     }
 
+    /*
+     * ties are broken by the route index, thus the result does not depend on which evaluator took which route
+     */
+    private void reduce(Evaluator evaluator) {
+        failedConstraintNames.addAll(evaluator.failedConstraintNames);
+        if (evaluator.bestData == null) return;
+        if (bestData == null || evaluator.bestCost < bestCost || (evaluator.bestCost == bestCost && evaluator.bestRouteIndex < bestRouteIndex)) {
+            bestCost = evaluator.bestCost;
+            bestRouteIndex = evaluator.bestRouteIndex;
+            bestData = evaluator.bestData;
+        }
+    }
 
 }
@@ -33,6 +33,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +50,8 @@ final class BreakInsertionCalculator implements JobInsertionCostsCalculator {
 
     private static final Logger logger = LoggerFactory.getLogger(BreakInsertionCalculator.class);
 
+    private final ConstraintManager constraintManager;
+
     private final HardRouteConstraint hardRouteLevelConstraint;
 
     private final HardActivityConstraint hardActivityLevelConstraint;
@@ -71,6 +74,7 @@ final class BreakInsertionCalculator implements JobInsertionCostsCalculator {
         super();
         this.transportCosts = routingCosts;
         this.activityCosts = activityCosts;
+        this.constraintManager = constraintManager;
         hardRouteLevelConstraint = constraintManager;
         hardActivityLevelConstraint = constraintManager;
         softActivityConstraint = constraintManager;
@@ -93,6 +97,7 @@ final class BreakInsertionCalculator implements JobInsertionCostsCalculator {
      */
     @Override
     public InsertionData getInsertionData(final VehicleRoute currentRoute, final Job jobToInsert, final Vehicle newVehicle, double newVehicleDepartureTime, final Driver newDriver, final double bestKnownCosts) {
+        constraintManager.getSearchMetrics().increment(Metric.INSERTION_CALLS, getClass());
         Break breakToInsert = (Break) jobToInsert;
         if (newVehicle.getBreak() == null || newVehicle.getBreak() != breakToInsert) {
             return InsertionData.createEmptyInsertionData();
@@ -147,6 +152,7 @@ final class BreakInsertionCalculator implements JobInsertionCostsCalculator {
                 breakAct2Insert.setLocation(location);
                 breakAct2Insert.setTheoreticalEarliestOperationStartTime(breakToInsert.getTimeWindow().getStart());
                 breakAct2Insert.setTheoreticalLatestOperationStartTime(breakToInsert.getTimeWindow().getEnd());
+                constraintManager.getSearchMetrics().increment(Metric.EVALUATED_POSITIONS, getClass());
                 ConstraintsStatus status = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, breakAct2Insert, nextAct, prevActStartTime);
                 if (status.equals(ConstraintsStatus.FULFILLED)) {
                     //from job2insert induced costs at activity level
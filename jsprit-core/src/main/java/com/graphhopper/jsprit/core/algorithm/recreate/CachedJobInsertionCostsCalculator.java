@@ -0,0 +1,64 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Looks up insertion data in an {@link InsertionCostsCache} before it delegates the calculation. While granular
+ * insertion is disabled, i.e. while jobs that could not be inserted next to their neighbors are inserted once again,
+ * the cache is bypassed since it contains the results of granular insertion.
+ */
+class CachedJobInsertionCostsCalculator implements JobInsertionCostsCalculator {
+
+    private final JobInsertionCostsCalculator delegate;
+
+    private final InsertionCostsCache cache;
+
+    private final GranularInsertion granularInsertion;
+
+    CachedJobInsertionCostsCalculator(JobInsertionCostsCalculator delegate, InsertionCostsCache cache) {
+        this(delegate, cache, null);
+    }
+
+    CachedJobInsertionCostsCalculator(JobInsertionCostsCalculator delegate, InsertionCostsCache cache, GranularInsertion granularInsertion) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.granularInsertion = granularInsertion;
+    }
+
+    @Override
+    public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+        if (granularInsertion != null && !granularInsertion.isEnabled()) {
+            return delegate.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+        }
+        InsertionData cached = cache.get(currentRoute, newJob, newVehicle, newVehicleDepartureTime, bestKnownCosts);
+        if (cached != null) return cached;
+        InsertionData iData = delegate.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+        cache.put(currentRoute, newJob, newVehicle, newVehicleDepartureTime, bestKnownCosts, iData);
+        return iData;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=cachedInsertionCalculator][delegate=" + delegate + "]";
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.problem.job.Job;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Granular insertion, i.e. a service is only inserted next to one of its nearest neighbors.
+ * <p>
+ * <p>It is shared by the service insertion calculators of a {@link ServiceInsertionCalculatorFactory} and by the
+ * insertion strategies using them. Jobs that cannot be inserted next to any of their neighbors are inserted once
+ * again with granular insertion being disabled (see {@link AbstractInsertionStrategy}).</p>
+ */
+final class GranularInsertion {
+
+    private final JobNeighborhoods jobNeighborhoods;
+
+    private final int noNeighbors;
+
+    private final ConcurrentMap<Job, Set<Job>> neighbors = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled = true;
+
+    GranularInsertion(JobNeighborhoods jobNeighborhoods, int noNeighbors) {
+        if (noNeighbors < 1) throw new IllegalArgumentException("number of granular neighbors must be positive");
+        this.jobNeighborhoods = jobNeighborhoods;
+        this.noNeighbors = noNeighbors;
+    }
+
+    Set<Job> getNeighbors(Job job) {
+        Set<Job> jobNeighbors = neighbors.get(job);
+        if (jobNeighbors == null) {
+            jobNeighbors = new HashSet<>();
+            Iterator<Job> neighborIterator = jobNeighborhoods.getNearestNeighborsIterator(noNeighbors, job);
+            while (neighborIterator.hasNext()) {
+                jobNeighbors.add(neighborIterator.next());
+            }
+            Set<Job> existing = neighbors.putIfAbsent(job, jobNeighbors);
+            if (existing != null) jobNeighbors = existing;
+        }
+        return jobNeighbors;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of insertion data that survives iterations.
+ * <p>
+ * <p>Insertion data is keyed by job and by identity and version of the route's activity sequence (see
+ * {@link com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivities#getIdentity()}) as well as its vehicle,
+ * driver and departure time. Since copies of a route keep identity and version, the insertion data of a job in a route that has not
+ * been touched by ruin (and recreate) can be reused in subsequent iterations. Memory is bounded by the capacity of the cache:
+ * each key maps to one slot, and a new entry evicts the entry that occupied its slot before.
+ * <p>
+ * <p>Reusing insertion data presumes that the insertion costs of a job in a route solely depend on the job and the route, i.e.
+ * not on other routes or on insertion noise, and not on costs that change in the course of the algorithm. This is why the
+ * cache is not used by default.
+ * <p>
+ * <p>The cache is thread-safe, i.e. it can be shared by all insertion strategies (and their threads) of an algorithm, given that
+ * they are based on the same constraints and cost calculators.
+ */
+public class InsertionCostsCache {
+
+    static final class Entry {
+
+        final int jobIndex;
+
+        final Object activitiesIdentity;
+
+        final long activitiesVersion;
+
+        final Vehicle routeVehicle;
+
+        final Driver routeDriver;
+
+        final double routeDepartureTime;
+
+        final Vehicle newVehicle;
+
+        final double newVehicleDepartureTime;
+
+        final double bestKnownCosts;
+
+        final InsertionData insertionData;
+
+        Entry(int jobIndex, VehicleRoute route, Vehicle newVehicle, double newVehicleDepartureTime, double bestKnownCosts, InsertionData insertionData) {
+            this.jobIndex = jobIndex;
+            this.activitiesIdentity = route.getTourActivities().getIdentity();
+            this.activitiesVersion = route.getTourActivities().getVersion();
+            this.routeVehicle = route.getVehicle();
+            this.routeDriver = route.getDriver();
+            this.routeDepartureTime = departureTime(route);
+            this.newVehicle = newVehicle;
+            this.newVehicleDepartureTime = newVehicleDepartureTime;
+            this.bestKnownCosts = bestKnownCosts;
+            this.insertionData = insertionData;
+        }
+
+        boolean matches(int jobIndex, VehicleRoute route, Vehicle newVehicle, double newVehicleDepartureTime) {
+            return this.jobIndex == jobIndex
+                && activitiesVersion == route.getTourActivities().getVersion()
+                && activitiesIdentity == route.getTourActivities().getIdentity()
+                && routeDepartureTime == departureTime(route)
+                && newVehicleDepartureTime == this.newVehicleDepartureTime
+                && sameVehicle(routeVehicle, route.getVehicle())
+                && sameVehicle(this.newVehicle, newVehicle)
+                && sameDriver(routeDriver, route.getDriver());
+        }
+
+    }
+
+    private final Entry[] entries;
+
+    private final int mask;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param capacity max. number of cached insertion data, rounded up to the next power of two
+     */
+    public InsertionCostsCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        entries = new Entry[size];
+        mask = size - 1;
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length; i++) entries[i] = null;
+    }
+
+    /**
+     * Returns the cached insertion data of job in route or null if there is none that is still valid. The returned
+     * insertion data refers to the specified route and to newly created activities, i.e. it can be inserted right away.
+     */
+    InsertionData get(VehicleRoute route, Job job, Vehicle newVehicle, double newVehicleDepartureTime, double bestKnownCosts) {
+        Entry entry = entries[slot(job, route, newVehicle)];
+        if (entry == null || !entry.matches(job.getIndex(), route, newVehicle, newVehicleDepartureTime)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        InsertionData cached = entry.insertionData;
+        if (cached instanceof InsertionData.NoInsertionFound) {
+            //no insertion below entry.bestKnownCosts, thus there is none below lower best known costs either
+            if (bestKnownCosts > entry.bestKnownCosts) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            InsertionData noInsertion = new InsertionData.NoInsertionFound();
+            noInsertion.getFailedConstraintNames().addAll(cached.getFailedConstraintNames());
+            return noInsertion;
+        }
+        hits.incrementAndGet();
+        return copy(cached, route);
+    }
+
+    void put(VehicleRoute route, Job job, Vehicle newVehicle, double newVehicleDepartureTime, double bestKnownCosts, InsertionData insertionData) {
+        if (!isCacheable(insertionData)) return;
+        entries[slot(job, route, newVehicle)] = new Entry(job.getIndex(), route, newVehicle, newVehicleDepartureTime, bestKnownCosts, insertionData);
+    }
+
+    private int slot(Job job, VehicleRoute route, Vehicle newVehicle) {
+        long h = route.getTourActivities().getVersion() * 0x9e3779b97f4a7c15L;
+        h ^= System.identityHashCode(route.getTourActivities().getIdentity()) * 0x94d049bb133111ebL;
+        h ^= job.getIndex() * 0xc2b2ae3d27d4eb4fL;
+        h ^= vehicleIndex(route.getVehicle()) * 0x165667b19e3779f9L;
+        h ^= vehicleIndex(newVehicle) * 0x27d4eb2f165667c5L;
+        h ^= (h >>> 32);
+        h ^= (h >>> 16);
+        return (int) h & mask;
+    }
+
+    private static double departureTime(VehicleRoute route) {
+        if (route.getStart() == null) return -1;
+        return route.getStart().getEndTime();
+    }
+
+    private static int vehicleIndex(Vehicle vehicle) {
+        if (vehicle == null || vehicle instanceof VehicleImpl.NoVehicle) return -1;
+        return vehicle.getIndex();
+    }
+
+    private static boolean sameVehicle(Vehicle v1, Vehicle v2) {
+        if (v1 == v2) return true;
+        return v1 instanceof VehicleImpl.NoVehicle && v2 instanceof VehicleImpl.NoVehicle;
+    }
+
+    private static boolean sameDriver(Driver d1, Driver d2) {
+        if (d1 == d2) return true;
+        if (d1 == null || d2 == null) return false;
+        return d1.getId().equals(d2.getId());
+    }
+
+    /*
+     * insertion data can only be cached if its events can be rebound to another route
+     */
+    private static boolean isCacheable(InsertionData insertionData) {
+        for (Event e : insertionData.getEvents()) {
+            if (!(e instanceof InsertActivity || e instanceof InsertBreak || e instanceof SwitchVehicle)) return false;
+        }
+        return true;
+    }
+
+    /*
+     * activities are inserted into routes, thus each reuse gets its own activities
+     */
+    private static InsertionData copy(InsertionData cached, VehicleRoute route) {
+        InsertionData copy = new InsertionData(cached.getInsertionCost(), cached.getPickupInsertionIndex(), cached.getDeliveryInsertionIndex(),
+            cached.getSelectedVehicle(), cached.getSelectedDriver());
+        copy.setVehicleDepartureTime(cached.getVehicleDepartureTime());
+        copy.setAdditionalTime(cached.getAdditionalTime());
+        copy.getFailedConstraintNames().addAll(cached.getFailedConstraintNames());
+        for (Event e : cached.getEvents()) {
+            if (e instanceof InsertActivity) {
+                InsertActivity insertActivity = (InsertActivity) e;
+                TourActivity activity = insertActivity.getActivity().duplicate();
+                copy.getEvents().add(new InsertActivity(route, insertActivity.getNewVehicle(), activity, insertActivity.getIndex()));
+            } else if (e instanceof InsertBreak) {
+                InsertBreak insertBreak = (InsertBreak) e;
+                copy.getEvents().add(new InsertBreak(route, insertBreak.getNewVehicle(), insertBreak.getActivity().duplicate(), insertBreak.getIndex()));
+            } else if (e instanceof SwitchVehicle) {
+                SwitchVehicle switchVehicle = (SwitchVehicle) e;
+                copy.getEvents().add(new SwitchVehicle(route, switchVehicle.getVehicle(), switchVehicle.getDepartureTime()));
+            }
+        }
+        return copy;
+    }
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Insertion data of a job, indexed by route.
+ * <p>
+ * <p>Each route slot holds the current (version of the) insertion data of the job in this route, and the slots
+ * are organized as indexed binary min-heap keyed by their cheapest insertion. Updating a route replaces its slot, i.e. the
+ * queue does not grow with the number of updates, and iterating the cheapest entries in ascending order of insertion
+ * costs only touches the top of the heap (rather than walking past outdated entries).
+ * <p>
+ * <p>A queue is not thread-safe, i.e. it must only be updated by one thread at a time.
+ */
+class InsertionDataQueue {
+
+    private static final Comparator<InsertionData> BY_INSERTION_COSTS = new Comparator<InsertionData>() {
+        @Override
+        public int compare(InsertionData o1, InsertionData o2) {
+            return Double.compare(o1.getInsertionCost(), o2.getInsertionCost());
+        }
+    };
+
+    private static final InsertionData[] NO_INSERTION_DATA = new InsertionData[0];
+
+    private VehicleRoute[] routes;
+
+    private InsertionData[][] insertionData;
+
+    private int[] versions;
+
+    private int[] heap;
+
+    private int[] heapPositions;
+
+    private int size;
+
+    private int[] frontierNodes = new int[8];
+
+    private int[] frontierCandidates = new int[8];
+
+    private int frontierSize;
+
+    private int[] skipped;
+
+    private int iteration;
+
+    private int currentRoute = -1;
+
+    private int currentCandidate;
+
+    InsertionDataQueue(int initialCapacity) {
+        int capacity = Math.max(2, initialCapacity);
+        routes = new VehicleRoute[capacity];
+        insertionData = new InsertionData[capacity][];
+        versions = new int[capacity];
+        heap = new int[capacity];
+        heapPositions = new int[capacity];
+        Arrays.fill(heapPositions, -1);
+        skipped = new int[capacity];
+    }
+
+    /**
+     * Replaces the insertion data of the job in the route with the specified index.
+     *
+     * @param routeIndex    index of route
+     * @param route         the route
+     * @param version       version of the insertion data
+     * @param insertionData feasible insertion data of the job in this route, one per vehicle (might be empty)
+     */
+    void update(int routeIndex, VehicleRoute route, int version, List<InsertionData> insertionData) {
+        ensureCapacity(routeIndex + 1);
+        InsertionData[] data = insertionData.isEmpty() ? NO_INSERTION_DATA : insertionData.toArray(new InsertionData[insertionData.size()]);
+        if (data.length > 1) Arrays.sort(data, BY_INSERTION_COSTS);
+        double oldKey = key(routeIndex);
+        routes[routeIndex] = route;
+        versions[routeIndex] = version;
+        this.insertionData[routeIndex] = data;
+        int position = heapPositions[routeIndex];
+        if (position < 0) {
+            heap[size] = routeIndex;
+            heapPositions[routeIndex] = size;
+            size++;
+            siftUp(size - 1);
+        } else if (key(routeIndex) < oldKey) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Starts iterating the insertion data in ascending order of insertion costs.
+     */
+    void startIteration() {
+        iteration++;
+        frontierSize = 0;
+        currentRoute = -1;
+        if (size > 0) pushFrontier(0, 0);
+    }
+
+    /**
+     * Moves to the next cheapest insertion data.
+     *
+     * @return false if there is no more insertion data
+     */
+    boolean next() {
+        while (frontierSize > 0) {
+            int min = 0;
+            double minCosts = costs(frontierNodes[0], frontierCandidates[0]);
+            for (int i = 1; i < frontierSize; i++) {
+                double c = costs(frontierNodes[i], frontierCandidates[i]);
+                if (c < minCosts) {
+                    min = i;
+                    minCosts = c;
+                }
+            }
+            //the heap property makes all remaining entries empty
+            if (minCosts == Double.POSITIVE_INFINITY) break;
+            int node = frontierNodes[min];
+            int candidate = frontierCandidates[min];
+            frontierSize--;
+            frontierNodes[min] = frontierNodes[frontierSize];
+            frontierCandidates[min] = frontierCandidates[frontierSize];
+            if (candidate == 0) {
+                int child = 2 * node + 1;
+                if (child < size) pushFrontier(child, 0);
+                if (child + 1 < size) pushFrontier(child + 1, 0);
+            }
+            int routeIndex = heap[node];
+            if (skipped[routeIndex] == iteration) continue;
+            if (candidate + 1 < insertionData[routeIndex].length) pushFrontier(node, candidate + 1);
+            currentRoute = routeIndex;
+            currentCandidate = candidate;
+            return true;
+        }
+        currentRoute = -1;
+        return false;
+    }
+
+    /**
+     * Skips the remaining insertion data of the current route in this iteration.
+     */
+    void skipRoute() {
+        skipped[currentRoute] = iteration;
+    }
+
+    VehicleRoute getRoute() {
+        return routes[currentRoute];
+    }
+
+    int getVersion() {
+        return versions[currentRoute];
+    }
+
+    InsertionData getInsertionData() {
+        return insertionData[currentRoute][currentCandidate];
+    }
+
+    private double costs(int node, int candidate) {
+        InsertionData[] data = insertionData[heap[node]];
+        if (candidate < data.length) return data[candidate].getInsertionCost();
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private double key(int routeIndex) {
+        InsertionData[] data = insertionData[routeIndex];
+        if (data == null || data.length == 0) return Double.POSITIVE_INFINITY;
+        return data[0].getInsertionCost();
+    }
+
+    private void pushFrontier(int node, int candidate) {
+        if (frontierSize == frontierNodes.length) {
+            frontierNodes = Arrays.copyOf(frontierNodes, frontierSize * 2);
+            frontierCandidates = Arrays.copyOf(frontierCandidates, frontierSize * 2);
+        }
+        frontierNodes[frontierSize] = node;
+        frontierCandidates[frontierSize] = candidate;
+        frontierSize++;
+    }
+
+    private void siftUp(int position) {
+        int routeIndex = heap[position];
+        double key = key(routeIndex);
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (key(heap[parent]) <= key) break;
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(routeIndex, position);
+    }
+
+    private void siftDown(int position) {
+        int routeIndex = heap[position];
+        double key = key(routeIndex);
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) break;
+            if (child + 1 < size && key(heap[child + 1]) < key(heap[child])) child++;
+            if (key <= key(heap[child])) break;
+            move(heap[child], position);
+            position = child;
+        }
+        move(routeIndex, position);
+    }
+
+    private void move(int routeIndex, int position) {
+        heap[position] = routeIndex;
+        heapPositions[routeIndex] = position;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= routes.length) return;
+        int newCapacity = Math.max(capacity, routes.length * 2);
+        routes = Arrays.copyOf(routes, newCapacity);
+        insertionData = Arrays.copyOf(insertionData, newCapacity);
+        versions = Arrays.copyOf(versions, newCapacity);
+        heap = Arrays.copyOf(heap, newCapacity);
+        int oldCapacity = heapPositions.length;
+        heapPositions = Arrays.copyOf(heapPositions, newCapacity);
+        Arrays.fill(heapPositions, oldCapacity, newCapacity, -1);
+        skipped = Arrays.copyOf(skipped, newCapacity);
+    }
+
+}
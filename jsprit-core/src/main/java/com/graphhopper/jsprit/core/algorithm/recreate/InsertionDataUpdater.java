@@ -31,8 +31,9 @@ import java.util.*;
  */
 class InsertionDataUpdater {
 
-    static boolean update(boolean addAllAvailable, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, TreeSet<VersionedInsertionData> insertionDataSet, int updateRound, Job unassignedJob, Collection<VehicleRoute> routes) {
+    static boolean update(boolean addAllAvailable, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, InsertionDataQueue insertionDataQueue, int updateRound, Job unassignedJob, Collection<VehicleRoute> routes, Map<VehicleRoute, Integer> routeIndices) {
         for(VehicleRoute route : routes) {
+            List<InsertionData> insertionData = new ArrayList<>();
             Collection<Vehicle> relevantVehicles = new ArrayList<>();
             if (!(route.getVehicle() instanceof VehicleImpl.NoVehicle)) {
                 relevantVehicles.add(route.getVehicle());
@@ -46,8 +47,9 @@ class InsertionDataUpdater {
                 if (iData instanceof InsertionData.NoInsertionFound) {
                     continue;
                 }
-                insertionDataSet.add(new VersionedInsertionData(iData, updateRound, route));
+                insertionData.add(iData);
             }
+            insertionDataQueue.update(routeIndices.get(route), route, updateRound, insertionData);
         }
         return true;
     }
@@ -61,70 +63,53 @@ class InsertionDataUpdater {
         return null;
     }
 
-    static Comparator<VersionedInsertionData> getComparator(){
-        return new Comparator<VersionedInsertionData>() {
-            @Override
-            public int compare(VersionedInsertionData o1, VersionedInsertionData o2) {
-                if(o1.getiData().getInsertionCost() < o2.getiData().getInsertionCost()) return -1;
-                return 1;
-            }
-        };
-    }
-
-    static ScoredJob getBest(boolean switchAllowed, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, TreeSet<VersionedInsertionData>[] priorityQueues, Map<VehicleRoute, Integer> updates, List<Job> unassignedJobList, List<ScoredJob> badJobs) {
+    static ScoredJob getBest(boolean switchAllowed, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, InsertionDataQueue[] priorityQueues, Map<VehicleRoute, Integer> updates, List<Job> unassignedJobList, List<ScoredJob> badJobs) {
         ScoredJob bestScoredJob = null;
         for(Job j : unassignedJobList){
             VehicleRoute bestRoute = null;
             InsertionData best = null;
             InsertionData secondBest = null;
-            TreeSet<VersionedInsertionData> priorityQueue = priorityQueues[j.getIndex()];
-            Iterator<VersionedInsertionData> iterator = priorityQueue.iterator();
+            InsertionDataQueue priorityQueue = priorityQueues[j.getIndex()];
             List<String> failedConstraintNames = new ArrayList<>();
-            while(iterator.hasNext()){
-                VersionedInsertionData versionedIData = iterator.next();
-                if(bestRoute != null){
-                    if(versionedIData.getRoute() == bestRoute){
-                        continue;
-                    }
-                }
-                if (versionedIData.getiData() instanceof InsertionData.NoInsertionFound) {
-                    failedConstraintNames.addAll(versionedIData.getiData().getFailedConstraintNames());
+            priorityQueue.startIteration();
+            while(priorityQueue.next()){
+                VehicleRoute route = priorityQueue.getRoute();
+                if(priorityQueue.getVersion() != updates.get(route)){
+                    priorityQueue.skipRoute();
                     continue;
                 }
-                if(!(versionedIData.getRoute().getVehicle() instanceof VehicleImpl.NoVehicle)) {
-                    if (versionedIData.getiData().getSelectedVehicle() != versionedIData.getRoute().getVehicle()) {
+                InsertionData iData = priorityQueue.getInsertionData();
+                if(!(route.getVehicle() instanceof VehicleImpl.NoVehicle)) {
+                    if (iData.getSelectedVehicle() != route.getVehicle()) {
                         if (!switchAllowed) continue;
-                        if (initialVehicleIds.contains(versionedIData.getRoute().getVehicle().getId())) continue;
+                        if (initialVehicleIds.contains(route.getVehicle().getId())) continue;
                     }
                 }
-                if(versionedIData.getiData().getSelectedVehicle() != versionedIData.getRoute().getVehicle()) {
-                    if (fleetManager.isLocked(versionedIData.getiData().getSelectedVehicle())) {
-                        Vehicle available = fleetManager.getAvailableVehicle(versionedIData.getiData().getSelectedVehicle().getVehicleTypeIdentifier());
+                if(iData.getSelectedVehicle() != route.getVehicle()) {
+                    if (fleetManager.isLocked(iData.getSelectedVehicle())) {
+                        Vehicle available = fleetManager.getAvailableVehicle(iData.getSelectedVehicle().getVehicleTypeIdentifier());
                         if (available != null) {
-                            InsertionData oldData = versionedIData.getiData();
-                            InsertionData newData = new InsertionData(oldData.getInsertionCost(), oldData.getPickupInsertionIndex(),
+                            InsertionData oldData = iData;
+                            iData = new InsertionData(oldData.getInsertionCost(), oldData.getPickupInsertionIndex(),
                                 oldData.getDeliveryInsertionIndex(), available, oldData.getSelectedDriver());
-                            newData.setVehicleDepartureTime(oldData.getVehicleDepartureTime());
+                            iData.setVehicleDepartureTime(oldData.getVehicleDepartureTime());
                             for(Event e : oldData.getEvents()){
                                 if(e instanceof SwitchVehicle){
-                                    newData.getEvents().add(new SwitchVehicle(versionedIData.getRoute(),available,oldData.getVehicleDepartureTime()));
+                                    iData.getEvents().add(new SwitchVehicle(route,available,oldData.getVehicleDepartureTime()));
                                 }
-                                else newData.getEvents().add(e);
+                                else iData.getEvents().add(e);
                             }
-                            versionedIData = new VersionedInsertionData(newData, versionedIData.getVersion(), versionedIData.getRoute());
                         } else continue;
                     }
                 }
-                int currentDataVersion = updates.get(versionedIData.getRoute());
-                if(versionedIData.getVersion() == currentDataVersion){
-                    if(best == null) {
-                        best = versionedIData.getiData();
-                        bestRoute = versionedIData.getRoute();
-                    }
-                    else {
-                        secondBest = versionedIData.getiData();
-                        break;
-                    }
+                if(best == null) {
+                    best = iData;
+                    bestRoute = route;
+                    priorityQueue.skipRoute();
+                }
+                else {
+                    secondBest = iData;
+                    break;
                 }
             }
             VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
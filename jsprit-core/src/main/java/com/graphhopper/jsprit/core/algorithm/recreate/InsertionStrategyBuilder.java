@@ -82,6 +82,8 @@ public class InsertionStrategyBuilder {
 
     private JobInsertionCostsCalculatorFactory breakInsertionCalculatorFactory;
 
+    private InsertionCostsCache insertionCostsCache;
+
     public InsertionStrategyBuilder(VehicleRoutingProblem vrp, VehicleFleetManager vehicleFleetManager, StateManager stateManager, ConstraintManager constraintManager) {
         super();
         this.vrp = vrp;
@@ -105,6 +107,11 @@ public class InsertionStrategyBuilder {
         return this;
     }
 
+    public InsertionStrategyBuilder setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+        return this;
+    }
+
     public InsertionStrategyBuilder setInsertionStrategy(Strategy strategy) {
         this.strategy = strategy;
         return this;
@@ -182,6 +189,8 @@ public class InsertionStrategyBuilder {
             calcBuilder.setServiceCalculatorFactory(serviceInsertionCalculatorFactory);
         if (breakInsertionCalculatorFactory != null)
             calcBuilder.setBreakCalculatorFactory(breakInsertionCalculatorFactory);
+        if (insertionCostsCache != null)
+            calcBuilder.setInsertionCostsCache(insertionCostsCache);
         calcBuilder.setConstraintManager(constraintManager);
         calcBuilder.setStateManager(stateManager);
         calcBuilder.setVehicleRoutingProblem(vrp);
@@ -226,6 +235,8 @@ public class InsertionStrategyBuilder {
 
             }
         } else throw new IllegalStateException("you should never get here");
+        GranularInsertion granularInsertion = calcBuilder.getGranularInsertion();
+        if (granularInsertion != null) ((AbstractInsertionStrategy) insertion).setGranularInsertion(granularInsertion);
         for (InsertionListener l : iListeners) insertion.addListener(l);
         return insertion;
     }
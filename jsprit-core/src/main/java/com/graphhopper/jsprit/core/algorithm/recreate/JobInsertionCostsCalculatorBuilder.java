@@ -100,6 +100,8 @@ public class JobInsertionCostsCalculatorBuilder {
 
     private JobInsertionCostsCalculatorFactory breakCalculatorFactory = new BreakInsertionCalculatorFactory();
 
+    private InsertionCostsCache insertionCostsCache = null;
+
     /**
      * Constructs the builder.
      * <p>
@@ -127,6 +129,18 @@ public class JobInsertionCostsCalculatorBuilder {
         return this;
     }
 
+    /**
+     * Sets a cache of insertion data that is reused across iterations as long as the route has not been modified
+     * (only used for local insertion, see {@link InsertionCostsCache}).
+     *
+     * @param insertionCostsCache the cache
+     * @return this builder
+     */
+    public JobInsertionCostsCalculatorBuilder setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+        return this;
+    }
+
     public JobInsertionCostsCalculatorBuilder setBreakCalculatorFactory(JobInsertionCostsCalculatorFactory breakCalculatorFactory) {
         if (breakCalculatorFactory == null) return this;
         this.breakCalculatorFactory = breakCalculatorFactory;
@@ -223,6 +237,13 @@ public class JobInsertionCostsCalculatorBuilder {
      * @return jobInsertionCalculator.
      * @throws IllegalStateException if vrp == null or activityStates == null or fleetManager == null.
      */
+    GranularInsertion getGranularInsertion() {
+        if (serviceCalculatorFactory instanceof ServiceInsertionCalculatorFactory) {
+            return ((ServiceInsertionCalculatorFactory) serviceCalculatorFactory).getGranularInsertion();
+        }
+        return null;
+    }
+
     public JobInsertionCostsCalculator build() {
         if (vrp == null)
             throw new IllegalStateException("vehicle-routing-problem is null, but it must be set (this.setVehicleRoutingProblem(vrp))");
@@ -239,6 +260,9 @@ public class JobInsertionCostsCalculatorBuilder {
             standardLocal = createStandardRoute(vrp, states, forwardLooking, memory);
         }
         baseCalculator = standardLocal.getCalculator();
+        if (local && insertionCostsCache != null) {
+            baseCalculator = new CachedJobInsertionCostsCalculator(baseCalculator, insertionCostsCache, getGranularInsertion());
+        }
         addAlgorithmListeners(standardLocal.getAlgorithmListener());
         addInsertionListeners(standardLocal.getInsertionListener());
         if (considerFixedCost) {
@@ -355,6 +379,7 @@ public class JobInsertionCostsCalculatorBuilder {
         jobInsertionCalculator.setNuOfActsForwardLooking(forwardLooking);
         jobInsertionCalculator.setMemorySize(solutionMemory);
         jobInsertionCalculator.setStates(activityStates2);
+        jobInsertionCalculator.setConstraintManager(constraintManager);
         jobInsertionCalculator.setJobActivityFactory(new JobActivityFactory() {
             @Override
             public List<AbstractActivity> createActivities(Job job) {
@@ -127,7 +127,9 @@ public class RegretInsertionFast extends AbstractInsertionStrategy {
 //        }
 
         List<Job> jobs = new ArrayList<Job>(unassignedJobs);
-        TreeSet<VersionedInsertionData>[] priorityQueues = new TreeSet[vrp.getJobs().values().size() + 2];
+        InsertionDataQueue[] priorityQueues = new InsertionDataQueue[vrp.getJobs().values().size() + 2];
+        Map<VehicleRoute, Integer> routeIndices = new HashMap<>();
+        for (VehicleRoute route : routes) routeIndices.put(route, routeIndices.size());
         VehicleRoute lastModified = null;
         boolean firstRun = true;
         int updateRound = 0;
@@ -137,12 +139,12 @@ public class RegretInsertionFast extends AbstractInsertionStrategy {
             List<ScoredJob> badJobList = new ArrayList<>();
             if(!firstRun && lastModified == null) throw new IllegalStateException("last modified route is null. this should not be.");
             if(firstRun){
-                updateInsertionData(priorityQueues, routes, unassignedJobList, updateRound, firstRun, lastModified, updates);
+                updateInsertionData(priorityQueues, routes, routeIndices, unassignedJobList, updateRound, firstRun, lastModified, updates);
                 firstRun = false;
             }
             else{
                 //update for all routes || remove history and only update modified route
-                updateInsertionData(priorityQueues, routes, unassignedJobList, updateRound, firstRun, lastModified, updates);
+                updateInsertionData(priorityQueues, routes, routeIndices, unassignedJobList, updateRound, firstRun, lastModified, updates);
 //                updates.put(lastModified,updateRound);
             }
             updateRound++;
@@ -150,6 +152,7 @@ public class RegretInsertionFast extends AbstractInsertionStrategy {
             if (bestScoredJob != null) {
                 if (bestScoredJob.isNewRoute()) {
                     routes.add(bestScoredJob.getRoute());
+                    routeIndices.put(bestScoredJob.getRoute(), routeIndices.size());
                 }
                 insertJob(bestScoredJob.getJob(), bestScoredJob.getInsertionData(), bestScoredJob.getRoute());
                 jobs.remove(bestScoredJob.getJob());
@@ -166,27 +169,27 @@ public class RegretInsertionFast extends AbstractInsertionStrategy {
         return badJobs;
     }
 
-    private void updateInsertionData(TreeSet<VersionedInsertionData>[] priorityQueues, Collection<VehicleRoute> routes, List<Job> unassignedJobList, int updateRound, boolean firstRun, VehicleRoute lastModified, Map<VehicleRoute, Integer> updates) {
+    private void updateInsertionData(InsertionDataQueue[] priorityQueues, Collection<VehicleRoute> routes, Map<VehicleRoute, Integer> routeIndices, List<Job> unassignedJobList, int updateRound, boolean firstRun, VehicleRoute lastModified, Map<VehicleRoute, Integer> updates) {
         for (Job unassignedJob : unassignedJobList) {
             if(priorityQueues[unassignedJob.getIndex()] == null){
-                priorityQueues[unassignedJob.getIndex()] = new TreeSet<>(InsertionDataUpdater.getComparator());
+                priorityQueues[unassignedJob.getIndex()] = new InsertionDataQueue(routes.size() + 1);
             }
             if(firstRun) {
-                InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.getIndex()], updateRound, unassignedJob, routes);
+                InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.getIndex()], updateRound, unassignedJob, routes, routeIndices);
                 for(VehicleRoute r : routes) updates.put(r,updateRound);
             }
             else{
                 if(dependencyTypes == null || dependencyTypes[unassignedJob.getIndex()] == null){
-                    InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.getIndex()], updateRound, unassignedJob, Arrays.asList(lastModified));
+                    InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.getIndex()], updateRound, unassignedJob, Arrays.asList(lastModified), routeIndices);
                     updates.put(lastModified,updateRound);
                 }
                 else {
                     DependencyType dependencyType = dependencyTypes[unassignedJob.getIndex()];
                     if (dependencyType.equals(DependencyType.INTER_ROUTE) || dependencyType.equals(DependencyType.INTRA_ROUTE)) {
-                        InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.getIndex()], updateRound, unassignedJob, routes);
+                        InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.getIndex()], updateRound, unassignedJob, routes, routeIndices);
                         for(VehicleRoute r : routes) updates.put(r,updateRound);
                     } else {
-                        InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.getIndex()], updateRound, unassignedJob, Arrays.asList(lastModified));
+                        InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.getIndex()], updateRound, unassignedJob, Arrays.asList(lastModified), routeIndices);
                         updates.put(lastModified,updateRound);
                     }
                 }
@@ -17,6 +17,7 @@
  */
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
@@ -25,22 +26,26 @@ import com.graphhopper.jsprit.core.problem.constraint.SoftRouteConstraint;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Break;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.misc.ActivityContext;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity.JobActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Set;
 
 /**
  * Calculator that calculates the best insertion position for a {@link Service}.
@@ -71,6 +76,8 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
 
     private final ConstraintManager constraintManager;
 
+    private GranularInsertion granularInsertion;
+
     public ServiceInsertionCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts activityCosts, ActivityInsertionCostsCalculator activityInsertionCostsCalculator, ConstraintManager constraintManager, JobActivityFactory activityFactory) {
         super();
         this.transportCosts = routingCosts;
@@ -84,6 +91,40 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
         logger.debug("initialise {}", this);
     }
 
+    /**
+     * Switches on granular insertion, i.e. the service is only inserted next to one of its nNeighbors nearest
+     * neighbors. Routes that do not serve any of these neighbors are skipped entirely. Empty routes
+     * (and routes serving nothing but breaks) are still evaluated at every position.
+     *
+     * @param jobNeighborhoods precomputed neighborhoods
+     * @param nNeighbors       number of nearest neighbors a service can be inserted next to
+     */
+    void setJobNeighborhoods(JobNeighborhoods jobNeighborhoods, int nNeighbors) {
+        setGranularInsertion(new GranularInsertion(jobNeighborhoods, nNeighbors));
+    }
+
+    void setGranularInsertion(GranularInsertion granularInsertion) {
+        this.granularInsertion = granularInsertion;
+    }
+
+    private static boolean servesAny(VehicleRoute route, Set<Job> jobs) {
+        for (Job job : jobs) {
+            if (route.getTourActivities().servesJob(job)) return true;
+        }
+        return false;
+    }
+
+    private static boolean servesOnlyBreaks(VehicleRoute route) {
+        for (Job job : route.getTourActivities().getJobs()) {
+            if (!(job instanceof Break)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isNeighbor(TourActivity act, Set<Job> neighbors) {
+        return act instanceof JobActivity && neighbors.contains(((JobActivity) act).getJob());
+    }
+
     @Override
     public String toString() {
         return "[name=calculatesServiceInsertion]";
@@ -95,10 +136,23 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
      */
     @Override
     public InsertionData getInsertionData(final VehicleRoute currentRoute, final Job jobToInsert, final Vehicle newVehicle, double newVehicleDepartureTime, final Driver newDriver, final double bestKnownCosts) {
+        constraintManager.getSearchMetrics().increment(Metric.INSERTION_CALLS, getClass());
         JobInsertionContext insertionContext = new JobInsertionContext(currentRoute, jobToInsert, newVehicle, newDriver, newVehicleDepartureTime);
         Service service = (Service) jobToInsert;
         int insertionIndex = InsertionData.NO_INDEX;
 
+        /*
+        granular mode: only consider routes and positions next to one of the nearest neighbors
+         */
+        Set<Job> neighbors = null;
+        if (granularInsertion != null && granularInsertion.isEnabled() && !currentRoute.isEmpty()) {
+            neighbors = granularInsertion.getNeighbors(jobToInsert);
+            if (!servesAny(currentRoute, neighbors)) {
+                if (!servesOnlyBreaks(currentRoute)) return new InsertionData.NoInsertionFound();
+                neighbors = null;
+            }
+        }
+
         TourActivity deliveryAct2Insert = activityFactory.createActivities(service).get(0);
         insertionContext.getAssociatedActivities().add(deliveryAct2Insert);
 
@@ -139,26 +193,30 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
                 tourEnd = true;
             }
             boolean not_fulfilled_break = true;
-			for(TimeWindow timeWindow : service.getTimeWindows()) {
-                deliveryAct2Insert.setTheoreticalEarliestOperationStartTime(timeWindow.getStart());
-                deliveryAct2Insert.setTheoreticalLatestOperationStartTime(timeWindow.getEnd());
-                ActivityContext activityContext = new ActivityContext();
-                activityContext.setInsertionIndex(actIndex);
-                insertionContext.setActivityContext(activityContext);
-                ConstraintsStatus status = fulfilled(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime, failedActivityConstraints, constraintManager);
-                if (status.equals(ConstraintsStatus.FULFILLED)) {
-                    double additionalICostsAtActLevel = softActivityConstraint.getCosts(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
-                    double additionalTransportationCosts = activityInsertionCostsCalculator.getCosts(insertionContext, prevAct, nextAct, deliveryAct2Insert, prevActStartTime);
-                    if (additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts < bestCost) {
-                        bestCost = additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts;
-                        insertionIndex = actIndex;
-                        bestTimeWindow = timeWindow;
+            if (neighbors != null && !isNeighbor(prevAct, neighbors) && !isNeighbor(nextAct, neighbors)) {
+                not_fulfilled_break = false;
+            } else {
+                for(TimeWindow timeWindow : service.getTimeWindows()) {
+                    deliveryAct2Insert.setTheoreticalEarliestOperationStartTime(timeWindow.getStart());
+                    deliveryAct2Insert.setTheoreticalLatestOperationStartTime(timeWindow.getEnd());
+                    ActivityContext activityContext = new ActivityContext();
+                    activityContext.setInsertionIndex(actIndex);
+                    insertionContext.setActivityContext(activityContext);
+                    ConstraintsStatus status = fulfilled(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime, failedActivityConstraints, constraintManager);
+                    if (status.equals(ConstraintsStatus.FULFILLED)) {
+                        double additionalICostsAtActLevel = softActivityConstraint.getCosts(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
+                        double additionalTransportationCosts = activityInsertionCostsCalculator.getCosts(insertionContext, prevAct, nextAct, deliveryAct2Insert, prevActStartTime);
+                        if (additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts < bestCost) {
+                            bestCost = additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts;
+                            insertionIndex = actIndex;
+                            bestTimeWindow = timeWindow;
+                        }
+                        not_fulfilled_break = false;
+                    } else if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                        not_fulfilled_break = false;
                     }
-                    not_fulfilled_break = false;
-                } else if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    not_fulfilled_break = false;
                 }
-			}
+            }
             if(not_fulfilled_break) break;
             double nextActArrTime = prevActStartTime + transportCosts.getTransportTime(prevAct.getLocation(), nextAct.getLocation(), prevActStartTime, newDriver, newVehicle);
             prevActStartTime = Math.max(nextActArrTime, nextAct.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct,nextActArrTime,newDriver,newVehicle);
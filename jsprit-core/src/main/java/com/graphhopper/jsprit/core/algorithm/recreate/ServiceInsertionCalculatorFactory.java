@@ -18,13 +18,39 @@
 
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 
 public class ServiceInsertionCalculatorFactory implements JobInsertionCostsCalculatorFactory {
+
+    private final GranularInsertion granularInsertion;
+
+    public ServiceInsertionCalculatorFactory() {
+        this.granularInsertion = null;
+    }
+
+    /**
+     * Creates calculators that only insert a service next to one of its nNeighbors nearest neighbors
+     * (granular insertion). Insertion strategies using these calculators insert jobs that cannot be inserted next
+     * to any of their neighbors once again, then considering all positions.
+     *
+     * @param jobNeighborhoods precomputed neighborhoods
+     * @param nNeighbors       number of nearest neighbors a service can be inserted next to
+     */
+    public ServiceInsertionCalculatorFactory(JobNeighborhoods jobNeighborhoods, int nNeighbors) {
+        this.granularInsertion = new GranularInsertion(jobNeighborhoods, nNeighbors);
+    }
+
+    GranularInsertion getGranularInsertion() {
+        return granularInsertion;
+    }
+
     @Override
     public JobInsertionCostsCalculator create(VehicleRoutingProblem vrp, ActivityInsertionCostsCalculator activityInsertionCostsCalculator, JobActivityFactory jobActivityFactory, ConstraintManager constraintManager) {
-        return new ServiceInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), activityInsertionCostsCalculator, constraintManager, jobActivityFactory);
+        ServiceInsertionCalculator calculator = new ServiceInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), activityInsertionCostsCalculator, constraintManager, jobActivityFactory);
+        if (granularInsertion != null) calculator.setGranularInsertion(granularInsertion);
+        return calculator;
     }
 }
@@ -20,6 +20,7 @@ package com.graphhopper.jsprit.core.algorithm.recreate;
 import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
 import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
@@ -37,6 +38,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,6 +68,8 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
 
     private ActivityInsertionCostsCalculator activityInsertionCostsCalculator;
 
+    private ConstraintManager constraintManager;
+
     private int nuOfActsForwardLooking = 0;
     //
     private int memorySize = 2;
@@ -99,6 +103,17 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
         this.stateManager = stateManager;
     }
 
+    /*
+     * the constraint manager provides the search metrics this calculator records to
+     */
+    void setConstraintManager(ConstraintManager constraintManager) {
+        this.constraintManager = constraintManager;
+    }
+
+    private void increment(Metric metric) {
+        if (constraintManager != null) constraintManager.getSearchMetrics().increment(metric, getClass());
+    }
+
     void setNuOfActsForwardLooking(int nOfActsForwardLooking) {
         this.nuOfActsForwardLooking = nOfActsForwardLooking;
         logger.debug("set [forwardLooking={}]", nOfActsForwardLooking);
@@ -117,6 +132,7 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
      */
     @Override
     public InsertionData getInsertionData(final VehicleRoute currentRoute, final Job jobToInsert, final Vehicle newVehicle, double newVehicleDepartureTime, final Driver newDriver, final double best_known_insertion_costs) {
+        increment(Metric.INSERTION_CALLS);
         if (jobToInsert == null)
             throw new IllegalStateException("job is null. cannot calculate the insertion of a null-job.");
         if (newVehicle == null || newVehicle instanceof VehicleImpl.NoVehicle)
@@ -163,6 +179,7 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
          * k=serviceAct2Insert
          */
         for (TourActivity nextAct : tour.getActivities()) {
+            increment(Metric.EVALUATED_POSITIONS);
             ConstraintsStatus hardActivityConstraintsStatus = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, serviceAct2Insert, nextAct, prevActDepTime_newVehicle);
             if (hardActivityConstraintsStatus.equals(ConstraintsStatus.FULFILLED)) {
                 /**
@@ -216,6 +233,7 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
         }
         if (!loopBroken) {
             End nextAct = end;
+            increment(Metric.EVALUATED_POSITIONS);
             ConstraintsStatus hardActivityConstraintsStatus = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, serviceAct2Insert, nextAct, prevActDepTime_newVehicle);
             if (hardActivityConstraintsStatus.equals(ConstraintsStatus.FULFILLED)) {
                 double actInsertionCosts = activityInsertionCostsCalculator.getCosts(insertionContext, prevAct, nextAct, serviceAct2Insert, prevActDepTime_newVehicle);
@@ -267,8 +285,8 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
                 /**
                  * compute cost-diff of tour with and without new activity --> insertion_costs
                  */
-                Double currentRouteCosts = stateManager.getRouteState(currentRoute, InternalStates.COSTS, Double.class);
-                if (currentRouteCosts == null) currentRouteCosts = 0.;
+                double currentRouteCosts = stateManager.getRouteState(currentRoute, InternalStates.COSTS);
+                if (Double.isNaN(currentRouteCosts)) currentRouteCosts = 0.;
                 double insertion_costs = auxilliaryPathCostCalculator.costOfPath(wholeTour, start.getEndTime(), newDriver, newVehicle) - currentRouteCosts;
 
                 /**
@@ -307,11 +325,11 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
     }
 
     private double sumOf_prevCosts_oldVehicle(VehicleRoute vehicleRoute, TourActivity act) {
-        Double prevCost;
+        double prevCost;
         if (act instanceof End) {
-            prevCost = stateManager.getRouteState(vehicleRoute, InternalStates.COSTS, Double.class);
-        } else prevCost = stateManager.getActivityState(act, InternalStates.COSTS, Double.class);
-        if (prevCost == null) prevCost = 0.;
+            prevCost = stateManager.getRouteState(vehicleRoute, InternalStates.COSTS);
+        } else prevCost = stateManager.getActivityState(act, InternalStates.COSTS);
+        if (Double.isNaN(prevCost)) prevCost = 0.;
         return prevCost;
     }
 
@@ -23,8 +23,27 @@ import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 
 public class ShipmentInsertionCalculatorFactory implements JobInsertionCostsCalculatorFactory {
+
+    private final double deliveryInsertionCostsLowerBound;
+
+    public ShipmentInsertionCalculatorFactory() {
+        this.deliveryInsertionCostsLowerBound = -Double.MAX_VALUE;
+    }
+
+    /**
+     * Creates calculators that skip pickup positions which cannot beat the best known insertion even if the
+     * delivery could be inserted at the specified lower bound of costs.
+     *
+     * @param deliveryInsertionCostsLowerBound lower bound of delivery insertion costs, e.g. 0 for metric transport costs without waiting costs
+     */
+    public ShipmentInsertionCalculatorFactory(double deliveryInsertionCostsLowerBound) {
+        this.deliveryInsertionCostsLowerBound = deliveryInsertionCostsLowerBound;
+    }
+
     @Override
     public JobInsertionCostsCalculator create(VehicleRoutingProblem vrp, ActivityInsertionCostsCalculator activityInsertionCostsCalculator, JobActivityFactory jobActivityFactory, ConstraintManager constraintManager) {
-        return new ShipmentInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), activityInsertionCostsCalculator, constraintManager, jobActivityFactory);
+        ShipmentInsertionCalculator calculator = new ShipmentInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), activityInsertionCostsCalculator, constraintManager, jobActivityFactory);
+        calculator.setDeliveryInsertionCostsLowerBound(deliveryInsertionCostsLowerBound);
+        return calculator;
     }
 }
@@ -17,11 +17,13 @@
  */
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
 import com.graphhopper.jsprit.core.problem.constraint.SoftActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.SoftRouteConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.VehicleDependentTimeWindowConstraints;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
@@ -35,6 +37,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,6 +69,8 @@ public final class ShipmentInsertionCalculatorFlex extends AbstractInsertionCalc
 
     private AdditionalAccessEgressCalculator additionalAccessEgressCalculator;
 
+    private double deliveryInsertionCostsLowerBound = -Double.MAX_VALUE;
+
     private int evalIndexPickup = Integer.MAX_VALUE;
     private int evalIndexDelivery = Integer.MAX_VALUE;
 
@@ -93,6 +98,18 @@ public final class ShipmentInsertionCalculatorFlex extends AbstractInsertionCalc
         this.activityFactory = activityFactory;
     }
 
+    /**
+     * Sets a lower bound of the costs of inserting the delivery of a shipment (including soft activity costs).
+     * Pickup positions whose insertion costs plus this bound cannot beat the best known costs are skipped
+     * without evaluating any delivery position. By default, there is no bound, since waiting time savings and
+     * non-metric transport costs can make insertion costs negative. If neither applies, 0 is a valid bound.
+     *
+     * @param deliveryInsertionCostsLowerBound lower bound of delivery insertion costs
+     */
+    public void setDeliveryInsertionCostsLowerBound(double deliveryInsertionCostsLowerBound) {
+        this.deliveryInsertionCostsLowerBound = deliveryInsertionCostsLowerBound;
+    }
+
     @Override
     public String toString() {
         return "[name=calculatesServiceInsertion]";
@@ -104,10 +121,12 @@ public final class ShipmentInsertionCalculatorFlex extends AbstractInsertionCalc
      */
     @Override
     public InsertionData getInsertionData(final VehicleRoute currentRoute, final Job jobToInsert, final Vehicle newVehicle, double newVehicleDepartureTime, final Driver newDriver, final double bestKnownCosts) {
+        constraintManager.getSearchMetrics().increment(Metric.INSERTION_CALLS, getClass());
         JobInsertionContext insertionContext = new JobInsertionContext(currentRoute, jobToInsert, newVehicle, newDriver, newVehicleDepartureTime);
         Shipment shipment = (Shipment) jobToInsert;
-        TourActivity pickupShipment = activityFactory.createActivities(shipment).get(0);
-        TourActivity deliverShipment = activityFactory.createActivities(shipment).get(1);
+        List<AbstractActivity> shipmentActivities = activityFactory.createActivities(shipment);
+        TourActivity pickupShipment = shipmentActivities.get(0);
+        TourActivity deliverShipment = shipmentActivities.get(1);
         insertionContext.getAssociatedActivities().add(pickupShipment);
         insertionContext.getAssociatedActivities().add(deliverShipment);
 
@@ -116,6 +135,8 @@ public final class ShipmentInsertionCalculatorFlex extends AbstractInsertionCalc
          */
         InsertionData noInsertion = checkRouteContraints(insertionContext, constraintManager);
         if (noInsertion != null) return noInsertion;
+        noInsertion = checkJobFitsVehicle(shipment.getSize(), newVehicle, constraintManager);
+        if (noInsertion != null) return noInsertion;
         /*
         check soft route constraints
          */
@@ -126,6 +147,13 @@ public final class ShipmentInsertionCalculatorFlex extends AbstractInsertionCalc
         double bestCost = bestKnownCosts;
         additionalICostsAtRouteLevel += additionalAccessEgressCalculator.getCosts(insertionContext);
 
+        /*
+        neither pickup nor delivery can be inserted after their latest operation start time
+         */
+        double latestPickupStart = getLatestOperationStartTime(shipment.getPickupTimeWindows(), constraintManager);
+        double latestDeliveryStart = getLatestOperationStartTime(shipment.getDeliveryTimeWindows(), constraintManager);
+        double latestPickupDeparture = Math.min(latestPickupStart, latestDeliveryStart);
+
         int pickupInsertionIndex = InsertionData.NO_INDEX;
         int deliveryInsertionIndex = InsertionData.NO_INDEX;
 
@@ -155,6 +183,10 @@ public final class ShipmentInsertionCalculatorFlex extends AbstractInsertionCalc
                 nextAct = end;
                 tourEnd = true;
             }
+            if (prevActEndTime > latestPickupDeparture) {
+                failedActivityConstraints.add(VehicleDependentTimeWindowConstraints.class.getSimpleName());
+                break;
+            }
             if (i > evalIndexPickup) break;
             if (i == evalIndexPickup || evalIndexPickup == Integer.MAX_VALUE) {
                 boolean pickupInsertionNotFulfilledBreak = true;
@@ -176,6 +208,10 @@ public final class ShipmentInsertionCalculatorFlex extends AbstractInsertionCalc
                     double additionalPickupICosts = softActivityConstraint.getCosts(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime);
                     double pickupAIC = calculate(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime);
 
+                    if (pickupAIC + additionalPickupICosts + additionalICostsAtRouteLevel + deliveryInsertionCostsLowerBound >= bestCost) {
+                        continue;
+                    }
+
                     double shipmentPickupArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocation(), pickupShipment.getLocation(), prevActEndTime, newDriver, newVehicle);
                     double shipmentPickupEndTime = Math.max(shipmentPickupArrTime, pickupShipment.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(pickupShipment, shipmentPickupArrTime, newDriver, newVehicle);
 
@@ -201,6 +237,10 @@ public final class ShipmentInsertionCalculatorFlex extends AbstractInsertionCalc
                             nextActForDeliveryLoop = end;
                             tourEndInDeliveryLoop = true;
                         }
+                        if (prevActEndTimeForDeliveryLoop > latestDeliveryStart) {
+                            failedActivityConstraints.add(VehicleDependentTimeWindowConstraints.class.getSimpleName());
+                            break;
+                        }
                         if (j > evalIndexDelivery) break;
                         if (j == evalIndexDelivery || evalIndexDelivery == Integer.MAX_VALUE) {
                             boolean deliveryInsertionNotFulfilledBreak = true;
@@ -21,6 +21,8 @@ package com.graphhopper.jsprit.core.algorithm.ruin;
 import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Created by schroeder on 05/03/15.
  */
@@ -35,4 +37,28 @@ public class JobNeighborhoodsFactory {
         return new JobNeighborhoodsOptimized(vrp, jobDistance, capacity);
     }
 
+    /**
+     * Creates neighborhoods memorizing the capacity nearest neighbors of each job. Neighbors are computed
+     * in parallel by noThreads tasks submitted to the specified executorService.
+     */
+    public JobNeighborhoods createNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, ExecutorService executorService, int noThreads) {
+        return new JobNeighborhoodsOptimized(vrp, jobDistance, capacity, executorService, noThreads);
+    }
+
+    /**
+     * Creates neighborhoods based on a {@link JobSpatialIndex}, i.e. neighbors are ranked by the euclidean distance
+     * of job coordinates, and distances between all pairs of jobs are never calculated.
+     */
+    public JobNeighborhoods createNeighborhoodsWithSpatialIndex(VehicleRoutingProblem vrp, int capacity) {
+        return new JobNeighborhoodsWithSpatialIndex(vrp, capacity);
+    }
+
+    /**
+     * Creates neighborhoods based on a {@link JobSpatialIndex} that determines capacity*candidateFactor candidates
+     * per job. Only these candidates are ranked with the specified jobDistance.
+     */
+    public JobNeighborhoods createNeighborhoodsWithSpatialIndex(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, double candidateFactor) {
+        return new JobNeighborhoodsWithSpatialIndex(vrp, jobDistance, capacity, candidateFactor);
+    }
+
 }
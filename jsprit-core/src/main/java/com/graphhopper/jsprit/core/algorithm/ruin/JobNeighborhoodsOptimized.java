@@ -25,9 +25,19 @@ import com.graphhopper.jsprit.core.util.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
+ * Memorizes the <code>capacity</code> nearest neighbors of each job.
+ * <p>Neighbors are selected with a bounded max-heap over primitive arrays, i.e. without sorting all n-1 distances
+ * of a job. If an executorService is specified, jobs are distributed among noThreads tasks.
+ * <p>
  * Created by schroeder on 07/01/15.
  */
 class JobNeighborhoodsOptimized implements JobNeighborhoods {
@@ -83,6 +93,10 @@ class JobNeighborhoodsOptimized implements JobNeighborhoods {
 
     private double maxDistance = 0.;
 
+    private ExecutorService executorService;
+
+    private int noThreads = 1;
+
     public JobNeighborhoodsOptimized(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity) {
         super();
         this.vrp = vrp;
@@ -93,6 +107,12 @@ class JobNeighborhoodsOptimized implements JobNeighborhoods {
         logger.debug("initialize {}", this);
     }
 
+    public JobNeighborhoodsOptimized(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, ExecutorService executorService, int noThreads) {
+        this(vrp, jobDistance, capacity);
+        this.executorService = executorService;
+        this.noThreads = noThreads;
+    }
+
     @Override
     public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
         int[] neighbors = this.neighbors[neighborTo.getIndex()-1];
@@ -115,39 +135,67 @@ class JobNeighborhoodsOptimized implements JobNeighborhoods {
         logger.debug("pre-process distances between locations ...");
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        for (Job job_i : vrp.getJobsInclusiveInitialJobsInRoutes().values()) {
-            jobs[job_i.getIndex()] = job_i;
-            List<ReferencedJob> jobList = new ArrayList<ReferencedJob>(vrp.getJobsInclusiveInitialJobsInRoutes().values().size());
-            for (Job job_j : vrp.getJobsInclusiveInitialJobsInRoutes().values()) {
-                if (job_i == job_j) continue;
-                double distance = jobDistance.getDistance(job_i, job_j);
-                if (distance > maxDistance) maxDistance = distance;
-                ReferencedJob referencedJob = new ReferencedJob(job_j, distance);
-                jobList.add(referencedJob);
+        final Job[] jobList = vrp.getJobsInclusiveInitialJobsInRoutes().values().toArray(new Job[0]);
+        for (Job job : jobList) {
+            jobs[job.getIndex()] = job;
+        }
+        final int noNeighbors = Math.min(capacity, jobList.length - 1);
+        if (executorService == null || noThreads < 2) {
+            maxDistance = calculateNeighbors(jobList, 0, jobList.length, noNeighbors);
+        } else {
+            int chunkSize = Math.max(1, (jobList.length + 4 * noThreads - 1) / (4 * noThreads));
+            List<Future<Double>> futures = new ArrayList<Future<Double>>();
+            for (int from = 0; from < jobList.length; from += chunkSize) {
+                final int fromIndex = from;
+                final int toIndex = Math.min(jobList.length, from + chunkSize);
+                futures.add(executorService.submit(new Callable<Double>() {
+
+                    @Override
+                    public Double call() throws Exception {
+                        return calculateNeighbors(jobList, fromIndex, toIndex, noNeighbors);
+                    }
+
+                }));
             }
-            Collections.sort(jobList,getComparator());
-            int[] jobIndices = new int[capacity];
-            for(int index=0;index<capacity;index++){
-                jobIndices[index] = jobList.get(index).getJob().getIndex();
+            try {
+                for (Future<Double> future : futures) {
+                    maxDistance = Math.max(maxDistance, future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e);
             }
-            neighbors[job_i.getIndex()-1] = jobIndices;
         }
         stopWatch.stop();
         logger.debug("pre-processing comp-time: {}", stopWatch);
     }
 
-    private Comparator<ReferencedJob> getComparator(){
-        return new Comparator<ReferencedJob>() {
-            @Override
-            public int compare(ReferencedJob o1, ReferencedJob o2) {
-                if (o1.getDistance() < o2.getDistance()) {
-                    return -1;
-                } else if (o1.getDistance() > o2.getDistance()){
-                    return 1;
-                }
-                else return 0;
+    /**
+     * Determines the nearest neighbors of jobList[fromIndex] to jobList[toIndex-1].
+     * <p>Ties are broken by position in jobList, i.e. the neighbors are the same as if all distances were sorted stably.
+     *
+     * @return max. distance between these jobs and any other job
+     */
+    private double calculateNeighbors(Job[] jobList, int fromIndex, int toIndex, int noNeighbors) {
+        double maxDistance = 0.;
+        NeighborHeap heap = new NeighborHeap(noNeighbors);
+        for (int i = fromIndex; i < toIndex; i++) {
+            Job job_i = jobList[i];
+            for (int j = 0; j < jobList.length; j++) {
+                if (i == j) continue;
+                double distance = jobDistance.getDistance(job_i, jobList[j]);
+                if (distance > maxDistance) maxDistance = distance;
+                heap.offer(j, distance);
             }
-        };
+            int[] positions = heap.pollSorted();
+            int[] jobIndices = new int[positions.length];
+            for (int k = 0; k < positions.length; k++) {
+                jobIndices[k] = jobList[positions[k]].getIndex();
+            }
+            neighbors[job_i.getIndex() - 1] = jobIndices;
+        }
+        return maxDistance;
     }
 
     @Override
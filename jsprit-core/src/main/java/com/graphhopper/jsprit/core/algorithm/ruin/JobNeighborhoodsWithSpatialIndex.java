@@ -0,0 +1,142 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
+import com.graphhopper.jsprit.core.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Memorizes the <code>capacity</code> nearest neighbors of each job using a {@link JobSpatialIndex}, i.e. without
+ * calculating the distances between all pairs of jobs.
+ * <p>If a jobDistance is specified, the index only determines <code>capacity * candidateFactor</code> candidates per
+ * job which are then ranked with the jobDistance. Jobs without coordinates are always candidates, and neighbors of
+ * jobs without coordinates are determined by calculating the jobDistance to all other jobs. Without jobDistance,
+ * neighbors are ranked by the euclidean distance of their coordinates and jobs without coordinates have no neighbors.
+ * <p>Note that {@link #getMaxDistance()} returns the max. distance between jobs and their candidates, not between all jobs.
+ */
+class JobNeighborhoodsWithSpatialIndex implements JobNeighborhoods {
+
+    private static Logger logger = LoggerFactory.getLogger(JobNeighborhoodsWithSpatialIndex.class);
+
+    private VehicleRoutingProblem vrp;
+
+    private int[][] neighbors;
+
+    private Job[] jobs;
+
+    private JobDistance jobDistance;
+
+    private int capacity;
+
+    private double candidateFactor;
+
+    private double maxDistance = 0.;
+
+    public JobNeighborhoodsWithSpatialIndex(VehicleRoutingProblem vrp, int capacity) {
+        this(vrp, null, capacity, 1.);
+    }
+
+    public JobNeighborhoodsWithSpatialIndex(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, double candidateFactor) {
+        super();
+        if (candidateFactor < 1.) throw new IllegalArgumentException("candidateFactor must be >= 1");
+        this.vrp = vrp;
+        this.jobDistance = jobDistance;
+        this.capacity = capacity;
+        this.candidateFactor = candidateFactor;
+        neighbors = new int[vrp.getJobsInclusiveInitialJobsInRoutes().size() + 1][0];
+        jobs = new Job[vrp.getJobsInclusiveInitialJobsInRoutes().size() + 1];
+        logger.debug("initialize {}", this);
+    }
+
+    @Override
+    public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+        int[] neighbors = this.neighbors[neighborTo.getIndex() - 1];
+        return new JobNeighborhoodsOptimized.ArrayIterator(nNeighbors, neighbors, jobs);
+    }
+
+    @Override
+    public void initialise() {
+        if (capacity == 0) return;
+        logger.debug("pre-process neighbors with spatial index ...");
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        Collection<Job> jobCollection = vrp.getJobsInclusiveInitialJobsInRoutes().values();
+        JobSpatialIndex index = JobSpatialIndex.newInstance(jobCollection);
+        List<Job> notIndexed = new ArrayList<Job>();
+        for (Job job : jobCollection) {
+            jobs[job.getIndex()] = job;
+            if (!index.contains(job)) notIndexed.add(job);
+        }
+        int noNeighbors = Math.min(capacity, jobCollection.size() - 1);
+        int noCandidates = Math.min(index.size() - 1, (int) Math.ceil(noNeighbors * candidateFactor));
+        NeighborHeap heap = new NeighborHeap(Math.max(0, noNeighbors));
+        for (Job job : jobCollection) {
+            List<Job> candidates;
+            if (index.contains(job)) {
+                candidates = index.getNearestNeighbors(job, noCandidates);
+                if (jobDistance != null) candidates.addAll(notIndexed);
+            } else if (jobDistance != null) {
+                candidates = new ArrayList<Job>(jobCollection);
+            } else continue;
+            for (int c = 0; c < candidates.size(); c++) {
+                Job candidate = candidates.get(c);
+                if (candidate == job) continue;
+                double distance = distance(job, candidate);
+                if (distance > maxDistance) maxDistance = distance;
+                heap.offer(c, distance);
+            }
+            int[] positions = heap.pollSorted();
+            int[] jobIndices = new int[positions.length];
+            for (int k = 0; k < positions.length; k++) {
+                jobIndices[k] = candidates.get(positions[k]).getIndex();
+            }
+            neighbors[job.getIndex() - 1] = jobIndices;
+        }
+        stopWatch.stop();
+        logger.debug("pre-processing comp-time: {}; {} jobs without coordinates", stopWatch, notIndexed.size());
+    }
+
+    private double distance(Job job, Job candidate) {
+        if (jobDistance != null) return jobDistance.getDistance(job, candidate);
+        Coordinate from = JobSpatialIndex.getCoordinate(job);
+        Coordinate to = JobSpatialIndex.getCoordinate(candidate);
+        return EuclideanDistanceCalculator.calculateDistance(from, to);
+    }
+
+    @Override
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=neighborhoodWithSpatialIndex][capacity=" + capacity + "][candidateFactor=" + candidateFactor + "]";
+    }
+
+}
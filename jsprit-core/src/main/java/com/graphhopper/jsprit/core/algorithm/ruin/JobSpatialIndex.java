@@ -0,0 +1,269 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.util.Coordinate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static k-d tree over the coordinates of jobs. It answers k-nearest-neighbor and radius queries in sub-linear time.
+ * <p>A service is represented by the coordinate of its location, a shipment by the midpoint of its pickup and delivery
+ * coordinates. Jobs without coordinates are not indexed (see {@link #contains(Job)}).
+ * <p>Distances are euclidean distances between these coordinates, i.e. they are only an approximation of the
+ * actual {@link com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance}. To get exact neighbors, query
+ * more candidates than needed and rank them with the actual job distance
+ * (see {@link JobNeighborhoodsFactory#createNeighborhoodsWithSpatialIndex(com.graphhopper.jsprit.core.problem.VehicleRoutingProblem, com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance, int, double)}).
+ * <p>The index is immutable once built and can thus be queried concurrently.
+ */
+public class JobSpatialIndex {
+
+    /**
+     * Builds the index over the specified jobs. Jobs without coordinates are ignored.
+     *
+     * @param jobs to be indexed
+     * @return spatial index
+     */
+    public static JobSpatialIndex newInstance(Collection<Job> jobs) {
+        return new JobSpatialIndex(jobs);
+    }
+
+    /**
+     * Returns the coordinate a job is indexed with.
+     *
+     * @param job the job
+     * @return coordinate or null if job has no coordinate
+     */
+    public static Coordinate getCoordinate(Job job) {
+        if (job instanceof Service) {
+            return getCoordinate(((Service) job).getLocation());
+        } else if (job instanceof Shipment) {
+            Coordinate pickup = getCoordinate(((Shipment) job).getPickupLocation());
+            Coordinate delivery = getCoordinate(((Shipment) job).getDeliveryLocation());
+            if (pickup == null || delivery == null) return null;
+            return Coordinate.newInstance((pickup.getX() + delivery.getX()) / 2., (pickup.getY() + delivery.getY()) / 2.);
+        }
+        return null;
+    }
+
+    private static Coordinate getCoordinate(Location location) {
+        if (location == null) return null;
+        return location.getCoordinate();
+    }
+
+    private final Job[] jobs;
+
+    private final double[] xs;
+
+    private final double[] ys;
+
+    private final Map<Job, Integer> positions;
+
+    private JobSpatialIndex(Collection<Job> jobCollection) {
+        List<Job> indexedJobs = new ArrayList<Job>(jobCollection.size());
+        List<Coordinate> coordinates = new ArrayList<Coordinate>(jobCollection.size());
+        for (Job job : jobCollection) {
+            Coordinate coordinate = getCoordinate(job);
+            if (coordinate == null) continue;
+            indexedJobs.add(job);
+            coordinates.add(coordinate);
+        }
+        int n = indexedJobs.size();
+        jobs = indexedJobs.toArray(new Job[n]);
+        xs = new double[n];
+        ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = coordinates.get(i).getX();
+            ys[i] = coordinates.get(i).getY();
+        }
+        build(0, n, 0);
+        positions = new HashMap<Job, Integer>(n * 2);
+        for (int i = 0; i < n; i++) positions.put(jobs[i], i);
+    }
+
+    /*
+     * the median of [from,to) is the node splitting the range at axis depth%2, smaller values are left of it,
+     * greater values right of it.
+     */
+    private void build(int from, int to, int depth) {
+        if (to - from < 2) return;
+        int median = (from + to) >>> 1;
+        select(from, to - 1, median, depth & 1);
+        build(from, median, depth + 1);
+        build(median + 1, to, depth + 1);
+    }
+
+    private double coordinate(int index, int axis) {
+        return axis == 0 ? xs[index] : ys[index];
+    }
+
+    /*
+     * quickselect with three-way partitioning (many jobs may share a coordinate): afterwards element k is at its
+     * sorted position regarding axis
+     */
+    private void select(int left, int right, int k, int axis) {
+        while (right > left) {
+            double pivot = coordinate((left + right) >>> 1, axis);
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                double value = coordinate(i, axis);
+                if (value < pivot) swap(lt++, i++);
+                else if (value > pivot) swap(i, gt--);
+                else i++;
+            }
+            if (k < lt) right = lt - 1;
+            else if (k > gt) left = gt + 1;
+            else return;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Job job = jobs[a];
+        jobs[a] = jobs[b];
+        jobs[b] = job;
+        double x = xs[a];
+        xs[a] = xs[b];
+        xs[b] = x;
+        double y = ys[a];
+        ys[a] = ys[b];
+        ys[b] = y;
+    }
+
+    /**
+     * @return number of indexed jobs
+     */
+    public int size() {
+        return jobs.length;
+    }
+
+    /**
+     * @param job the job
+     * @return true if job is indexed, i.e. it has a coordinate
+     */
+    public boolean contains(Job job) {
+        return positions.containsKey(job);
+    }
+
+    /**
+     * Returns the k jobs nearest to the specified job (excluding the job itself) in ascending order of their distances.
+     *
+     * @param job the job
+     * @param k   number of neighbors
+     * @return nearest neighbors
+     * @throws IllegalArgumentException if job is not indexed
+     */
+    public List<Job> getNearestNeighbors(Job job, int k) {
+        Integer position = positions.get(job);
+        if (position == null) throw new IllegalArgumentException("job " + job.getId() + " is not indexed since it has no coordinate");
+        return getNearestNeighbors(xs[position], ys[position], k, position);
+    }
+
+    /**
+     * Returns the k jobs nearest to the specified coordinate in ascending order of their distances.
+     *
+     * @param coordinate the coordinate
+     * @param k          number of neighbors
+     * @return nearest neighbors
+     */
+    public List<Job> getNearestNeighbors(Coordinate coordinate, int k) {
+        return getNearestNeighbors(coordinate.getX(), coordinate.getY(), k, -1);
+    }
+
+    private List<Job> getNearestNeighbors(double x, double y, int k, int excluded) {
+        NeighborHeap heap = new NeighborHeap(Math.max(0, Math.min(k, jobs.length)));
+        if (k > 0) nearest(0, jobs.length, 0, x, y, excluded, heap);
+        return toJobs(heap.pollSorted());
+    }
+
+    private void nearest(int from, int to, int axis, double x, double y, int excluded, NeighborHeap heap) {
+        if (from >= to) return;
+        int median = (from + to) >>> 1;
+        if (median != excluded) {
+            double dx = xs[median] - x;
+            double dy = ys[median] - y;
+            heap.offer(median, dx * dx + dy * dy);
+        }
+        double diff = (axis == 0 ? x - xs[median] : y - ys[median]);
+        int nextAxis = axis ^ 1;
+        if (diff < 0) {
+            nearest(from, median, nextAxis, x, y, excluded, heap);
+            if (diff * diff <= heap.getWorstDistance()) nearest(median + 1, to, nextAxis, x, y, excluded, heap);
+        } else {
+            nearest(median + 1, to, nextAxis, x, y, excluded, heap);
+            if (diff * diff <= heap.getWorstDistance()) nearest(from, median, nextAxis, x, y, excluded, heap);
+        }
+    }
+
+    /**
+     * Returns all jobs within the specified radius around the specified job (excluding the job itself).
+     *
+     * @param job    the job
+     * @param radius the radius
+     * @return neighbors within radius (in no particular order)
+     * @throws IllegalArgumentException if job is not indexed
+     */
+    public List<Job> getNeighborsWithinRadius(Job job, double radius) {
+        Integer position = positions.get(job);
+        if (position == null) throw new IllegalArgumentException("job " + job.getId() + " is not indexed since it has no coordinate");
+        List<Job> neighbors = new ArrayList<Job>();
+        withinRadius(0, jobs.length, 0, xs[position], ys[position], radius * radius, position, neighbors);
+        return neighbors;
+    }
+
+    /**
+     * Returns all jobs within the specified radius around the specified coordinate.
+     *
+     * @param coordinate the coordinate
+     * @param radius     the radius
+     * @return neighbors within radius (in no particular order)
+     */
+    public List<Job> getNeighborsWithinRadius(Coordinate coordinate, double radius) {
+        List<Job> neighbors = new ArrayList<Job>();
+        withinRadius(0, jobs.length, 0, coordinate.getX(), coordinate.getY(), radius * radius, -1, neighbors);
+        return neighbors;
+    }
+
+    private void withinRadius(int from, int to, int axis, double x, double y, double squaredRadius, int excluded, List<Job> neighbors) {
+        if (from >= to) return;
+        int median = (from + to) >>> 1;
+        double dx = xs[median] - x;
+        double dy = ys[median] - y;
+        if (median != excluded && dx * dx + dy * dy <= squaredRadius) neighbors.add(jobs[median]);
+        double diff = (axis == 0 ? x - xs[median] : y - ys[median]);
+        int nextAxis = axis ^ 1;
+        if (diff <= 0 || diff * diff <= squaredRadius) withinRadius(from, median, nextAxis, x, y, squaredRadius, excluded, neighbors);
+        if (diff >= 0 || diff * diff <= squaredRadius) withinRadius(median + 1, to, nextAxis, x, y, squaredRadius, excluded, neighbors);
+    }
+
+    private List<Job> toJobs(int[] positions) {
+        List<Job> result = new ArrayList<Job>(positions.length);
+        for (int position : positions) result.add(jobs[position]);
+        return result;
+    }
+
+}
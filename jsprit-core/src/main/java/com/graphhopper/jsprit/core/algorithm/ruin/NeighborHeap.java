@@ -0,0 +1,130 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+/**
+ * Bounded max-heap over primitive arrays that memorizes the <code>capacity</code> items with the smallest distances.
+ * <p>Ties are broken by item, i.e. of two items with equal distance the smaller one is preferred.
+ */
+class NeighborHeap {
+
+    private final double[] distances;
+
+    private final int[] items;
+
+    private int size = 0;
+
+    NeighborHeap(int capacity) {
+        distances = new double[capacity];
+        items = new int[capacity];
+    }
+
+    /**
+     * Offers an item. It is memorized if the heap is not yet full or if it is closer than the farthest item memorized so far.
+     *
+     * @return true if item has been memorized
+     */
+    boolean offer(int item, double distance) {
+        if (size < distances.length) {
+            distances[size] = distance;
+            items[size] = item;
+            siftUp(size);
+            size++;
+            return true;
+        }
+        if (size > 0 && (distance < distances[0] || (distance == distances[0] && item < items[0]))) {
+            distances[0] = distance;
+            items[0] = item;
+            siftDown(0, size);
+            return true;
+        }
+        return false;
+    }
+
+    boolean isFull() {
+        return size == distances.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return largest distance memorized, or Double.MAX_VALUE if heap is not yet full
+     */
+    double getWorstDistance() {
+        if (size < distances.length || size == 0) return Double.MAX_VALUE;
+        return distances[0];
+    }
+
+    /**
+     * Returns memorized items in ascending order of their distances and clears the heap.
+     *
+     * @return items sorted by distance
+     */
+    int[] pollSorted() {
+        int[] sorted = new int[size];
+        for (int k = size - 1; k >= 0; k--) {
+            sorted[k] = items[0];
+            distances[0] = distances[k];
+            items[0] = items[k];
+            siftDown(0, k);
+        }
+        size = 0;
+        return sorted;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private boolean greater(int a, int b) {
+        if (distances[a] > distances[b]) return true;
+        return distances[a] == distances[b] && items[a] > items[b];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!greater(index, parent)) return;
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int heapSize) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) return;
+            if (child + 1 < heapSize && greater(child + 1, child)) child++;
+            if (!greater(child, index)) return;
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double d = distances[a];
+        distances[a] = distances[b];
+        distances[b] = d;
+        int i = items[a];
+        items[a] = items[b];
+        items[b] = i;
+    }
+
+}
@@ -16,36 +16,14 @@
  * limitations under the License.
  */
 
-package com.graphhopper.jsprit.core.algorithm.recreate;
-
-import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+package com.graphhopper.jsprit.core.algorithm.state;
 
 /**
- * Created by schroeder on 15/10/15.
+ * StateId of a state whose values are primitive doubles.
+ * <p>
+ * <p>States identified by a DoubleStateId are stored unboxed in the StateManager. If no value has been associated,
+ * the primitive getters return <code>Double.NaN</code>.
  */
-class VersionedInsertionData {
-
-    private InsertionData iData;
-
-    private VehicleRoute route;
-
-    private int version;
-
-    public VersionedInsertionData(InsertionData iData, int version, VehicleRoute route) {
-        this.iData = iData;
-        this.version = version;
-        this.route = route;
-    }
-
-    public InsertionData getiData() {
-        return iData;
-    }
-
-    public int getVersion() {
-        return version;
-    }
+public interface DoubleStateId extends StateId {
 
-    public VehicleRoute getRoute() {
-        return route;
-    }
 }
@@ -0,0 +1,58 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+
+/**
+ * Forward visitor whose states can be updated incrementally, i.e. starting at a modified position of a route rather
+ * than at its start.
+ * <p>
+ * <p>The state at an activity must solely depend on the state at its predecessor (and on the activity itself). Then,
+ * after a route has been modified, the visitor can resume at the first modified position and stop as soon as it
+ * reaches an activity whose state has not changed, since the states of all subsequent activities remain the same.</p>
+ * <p>
+ * <p>Cumulative states such as costs or loads along the route never converge and should therefore not implement this.</p>
+ */
+public interface IncrementalActivityVisitor {
+
+    /**
+     * Resumes visiting the specified route at the activity following prevAct, i.e. the state memorized at prevAct
+     * (which might be route.getStart()) is assumed to be up to date.
+     *
+     * @param route   the route to be visited
+     * @param prevAct the last activity whose state is up to date
+     */
+    public void begin(VehicleRoute route, TourActivity prevAct);
+
+    public void visit(TourActivity activity);
+
+    /**
+     * Returns true if the state of the activity visited last has the same value as before the visit.
+     *
+     * @return true if the state of the activity visited last has not changed
+     */
+    public boolean hasConverged();
+
+    /**
+     * Is only called if the visitor has visited all activities of the route without convergence.
+     */
+    public void finish();
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+
+/**
+ * Backward visitor whose states can be updated incrementally, i.e. starting at a modified position of a route rather
+ * than at its end.
+ * <p>
+ * <p>This is the reverse counterpart of {@link IncrementalActivityVisitor}, i.e. the state at an activity must solely
+ * depend on the state at its successor. It might be registered either as ReverseActivityVisitor or as RouteVisitor
+ * that visits the activities of a route backwards.</p>
+ */
+public interface IncrementalReverseActivityVisitor {
+
+    /**
+     * Resumes visiting the specified route backwards at the activity preceding nextAct, i.e. the state memorized at
+     * nextAct is assumed to be up to date. If nextAct is route.getEnd(), the visitor starts as if it visited the
+     * entire route.
+     *
+     * @param route   the route to be visited
+     * @param nextAct the first activity whose state is up to date
+     */
+    public void begin(VehicleRoute route, TourActivity nextAct);
+
+    public void visit(TourActivity activity);
+
+    /**
+     * Returns true if the state of the activity visited last has the same value as before the visit.
+     *
+     * @return true if the state of the activity visited last has not changed
+     */
+    public boolean hasConverged();
+
+    /**
+     * Is only called if the visitor has visited all activities of the route without convergence.
+     */
+    public void finish();
+
+}
@@ -44,6 +44,12 @@ class StateFactory {
     }
 
 
+    static DoubleStateId createDoubleId(String name, int index) {
+        if (reservedIds.contains(name)) throwReservedIdException(name);
+        if (index < 10) throwReservedIdException(name);
+        return new DoubleStateIdImpl(name, index);
+    }
+
     static boolean isReservedId(String stateId) {
         return reservedIds.contains(stateId);
     }
@@ -108,4 +114,12 @@ class StateFactory {
             return name;
         }
     }
+
+    static class DoubleStateIdImpl extends StateIdImpl implements DoubleStateId {
+
+        public DoubleStateIdImpl(String name, int index) {
+            super(name, index);
+        }
+
+    }
 }
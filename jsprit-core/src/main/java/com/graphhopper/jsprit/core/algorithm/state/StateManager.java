@@ -33,6 +33,8 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivi
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 
 import java.util.*;
 
@@ -46,18 +48,54 @@ import java.util.*;
  */
 public class StateManager implements RouteAndActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener {
 
+    /*
+     * slot of a route memorized on the route itself (see VehicleRoute.getStateSlot()). it is only valid for the manager
+     * owning it and only until this manager is cleared, i.e. as long as generation equals the manager's slotGeneration.
+     * owner is a token rather than the manager itself, so routes do not keep their managers alive.
+     */
+    private static final class RouteSlot {
+
+        final Object owner;
+
+        long generation;
+
+        int index;
+
+        RouteSlot(Object owner, long generation, int index) {
+            this.owner = owner;
+            this.generation = generation;
+            this.index = index;
+        }
+
+    }
+
     private RouteActivityVisitor routeActivityVisitor = new RouteActivityVisitor();
 
     private ReverseRouteActivityVisitor revRouteActivityVisitor = new ReverseRouteActivityVisitor();
 
     private Collection<RouteVisitor> routeVisitors = new ArrayList<RouteVisitor>();
 
+    /*
+     * the visitors above split into those that are updated incrementally when a job has been inserted, and all others
+     */
+    private List<IncrementalActivityVisitor> incrementalActivityVisitors = new ArrayList<IncrementalActivityVisitor>();
+
+    private List<IncrementalReverseActivityVisitor> incrementalReverseActivityVisitors = new ArrayList<IncrementalReverseActivityVisitor>();
+
+    private RouteActivityVisitor nonIncrementalRouteActivityVisitor = new RouteActivityVisitor();
+
+    private ReverseRouteActivityVisitor nonIncrementalRevRouteActivityVisitor = new ReverseRouteActivityVisitor();
+
+    private boolean incrementalUpdate = true;
+
     private RuinListeners ruinListeners = new RuinListeners();
 
     private InsertionListeners insertionListeners = new InsertionListeners();
 
     private Collection<StateUpdater> updaters = new ArrayList<StateUpdater>();
 
+    private SearchMetrics searchMetrics = new SearchMetrics();
+
     private boolean updateLoad = false;
 
     private boolean updateTWs = false;
@@ -78,17 +116,42 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private Object[][][] vehicleDependentActivityStates;
 
-    private Map<VehicleRoute, Object[]> routeStateMap;
+    private double[][] activityDoubleStates;
+
+    private double[][][] vehicleDependentActivityDoubleStates;
+
+    private int nuRouteSlots;
+
+    private final Object slotOwner = new Object();
 
-    private Map<VehicleRoute, Object[][]> vehicleDependentRouteStateMap;
+    private long slotGeneration;
+
+    /*
+     * slots of routes whose slot on the route is owned by another manager
+     */
+    private Map<VehicleRoute, Integer> foreignSlotsByRoute = new IdentityHashMap<VehicleRoute, Integer>();
 
     private Object[][] routeStatesArr;
 
     private Object[][][] vehicleDependentRouteStatesArr;
 
-    private VehicleRoutingProblem vrp;
+    private double[][] routeDoubleStatesArr;
 
-    private final boolean isIndexedBased;
+    private double[][][] vehicleDependentRouteDoubleStatesArr;
+
+    /*
+     * memorizes, per route slot, the activity sequence, vehicle and departure time the states have been updated for
+     * last. updatedSizes[slot] == -1 indicates that there is nothing memorized.
+     */
+    private TourActivity[][] updatedActivities;
+
+    private int[] updatedSizes;
+
+    private Vehicle[] updatedVehicles;
+
+    private double[] updatedDepartureTimes;
+
+    private VehicleRoutingProblem vrp;
 
     int getMaxIndexOfVehicleTypeIdentifiers() {
         return nuVehicleTypeKeys;
@@ -106,17 +169,72 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     public StateId createStateId(String name) {
         if (createdStateIds.containsKey(name)) return createdStateIds.get(name);
+        ensureStateArrayLength();
+        StateId id = StateFactory.createId(name, stateIndexCounter);
+        incStateIndexCounter();
+        createdStateIds.put(name, id);
+        return id;
+    }
+
+    /**
+     * Create and returns a stateId with the specified state-name whose values are primitive doubles.
+     * <p>
+     * <p>States of this id are stored unboxed, i.e. use the primitive getters and putters such as
+     * <code>getActivityState(act, stateId)</code> to avoid boxing and casting in hot code paths.</p>
+     * <p>If a double stateId with the specified name has already been created, it returns the created stateId.</p>
+     *
+     * @param name the specified name of the state
+     * @return the double stateId with which a state can be identified, no matter if it is a problem, route or activity state.
+     * @throws java.lang.IllegalStateException if name of state is already used internally or if a non-double state
+     *                                         with the specified name has already been created
+     */
+    public DoubleStateId createDoubleStateId(String name) {
+        if (createdStateIds.containsKey(name)) {
+            StateId id = createdStateIds.get(name);
+            if (!(id instanceof DoubleStateId))
+                throw new IllegalStateException("state-id with name '" + name + "' has already been created, but it is not a double state-id.");
+            return (DoubleStateId) id;
+        }
+        ensureStateArrayLength();
+        DoubleStateId id = StateFactory.createDoubleId(name, stateIndexCounter);
+        incStateIndexCounter();
+        createdStateIds.put(name, id);
+        return id;
+    }
+
+    private void ensureStateArrayLength() {
         if (stateIndexCounter >= activityStates[0].length) {
             activityStates = new Object[nuActivities][stateIndexCounter + 1];
             vehicleDependentActivityStates = new Object[nuActivities][nuVehicleTypeKeys][stateIndexCounter + 1];
-            routeStatesArr = new Object[vrp.getVehicles().size() + 2][stateIndexCounter+1];
-            vehicleDependentRouteStatesArr = new Object[vrp.getVehicles().size() + 2][nuVehicleTypeKeys][stateIndexCounter+1];
+            activityDoubleStates = newDoubleStates(nuActivities, stateIndexCounter + 1);
+            vehicleDependentActivityDoubleStates = newDoubleStates(nuActivities, nuVehicleTypeKeys, stateIndexCounter + 1);
+            iniRouteStates(routeStatesArr.length, stateIndexCounter + 1);
             problemStates = new Object[stateIndexCounter+1];
         }
-        StateId id = StateFactory.createId(name, stateIndexCounter);
-        incStateIndexCounter();
-        createdStateIds.put(name, id);
-        return id;
+    }
+
+    private void iniRouteStates(int noSlots, int noStates) {
+        recycleRouteSlots();
+        routeStatesArr = new Object[noSlots][noStates];
+        vehicleDependentRouteStatesArr = new Object[noSlots][nuVehicleTypeKeys][noStates];
+        routeDoubleStatesArr = newDoubleStates(noSlots, noStates);
+        vehicleDependentRouteDoubleStatesArr = newDoubleStates(noSlots, nuVehicleTypeKeys, noStates);
+        updatedActivities = new TourActivity[noSlots][];
+        updatedSizes = new int[noSlots];
+        updatedVehicles = new Vehicle[noSlots];
+        updatedDepartureTimes = new double[noSlots];
+    }
+
+    private static double[][] newDoubleStates(int noRows, int noStates) {
+        double[][] states = new double[noRows][noStates];
+        fill_twoDimArr(states, Double.NaN);
+        return states;
+    }
+
+    private static double[][][] newDoubleStates(int noRows, int noVehicleTypeKeys, int noStates) {
+        double[][][] states = new double[noRows][noVehicleTypeKeys][noStates];
+        fill_threeDimArr(states, Double.NaN);
+        return states;
     }
 
     private void incStateIndexCounter() {
@@ -137,16 +255,9 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         nuVehicleTypeKeys = Math.max(3, getNuVehicleTypes(vrp) + 2);
         activityStates = new Object[nuActivities][initialStateArrayLength];
         vehicleDependentActivityStates = new Object[nuActivities][nuVehicleTypeKeys][initialStateArrayLength];
-//        if(vehicleRoutingProblem.getFleetSize().equals(VehicleRoutingProblem.FleetSize.FINITE)){
-//            isIndexedBased = true;
-//            routeStatesArr = new Object[vrp.getVehicles().size() + 2][initialStateArrayLength];
-//            vehicleDependentRouteStatesArr = new Object[vrp.getVehicles().size() + 2][nuVehicleTypeKeys][initialStateArrayLength];
-//        }
-//        else {
-            isIndexedBased = false;
-            routeStateMap = new HashMap<VehicleRoute, Object[]>();
-            vehicleDependentRouteStateMap = new HashMap<VehicleRoute, Object[][]>();
-//        }
+        activityDoubleStates = newDoubleStates(nuActivities, initialStateArrayLength);
+        vehicleDependentActivityDoubleStates = newDoubleStates(nuActivities, nuVehicleTypeKeys, initialStateArrayLength);
+        iniRouteStates(Math.max(10, vrp.getVehicles().size() + 2), initialStateArrayLength);
         problemStates = new Object[initialStateArrayLength];
     }
 
@@ -158,6 +269,24 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         return maxIndex;
     }
 
+    public SearchMetrics getSearchMetrics() {
+        return searchMetrics;
+    }
+
+    /**
+     * Sets the metrics the time of each state updater is recorded to, i.e. the metrics of the algorithm this
+     * state manager is part of.
+     *
+     * @param searchMetrics the search metrics
+     */
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+        routeActivityVisitor.setSearchMetrics(searchMetrics);
+        revRouteActivityVisitor.setSearchMetrics(searchMetrics);
+        nonIncrementalRouteActivityVisitor.setSearchMetrics(searchMetrics);
+        nonIncrementalRevRouteActivityVisitor.setSearchMetrics(searchMetrics);
+    }
+
     /**
      * Associates the specified state to the stateId. If there already exists a state value for the stateId, this old
      * value is replaced by the new value.
@@ -191,15 +320,83 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public void clear() {
         fill_twoDimArr(activityStates, null);
         fill_threeDimArr(vehicleDependentActivityStates, null);
-        if(isIndexedBased) {
-            fill_twoDimArr(routeStatesArr, null);
-            fill_threeDimArr(vehicleDependentRouteStatesArr, null);
+        fill_twoDimArr(activityDoubleStates, Double.NaN);
+        fill_threeDimArr(vehicleDependentActivityDoubleStates, Double.NaN);
+        recycleRouteSlots();
+        Arrays.fill(problemStates,null);
+    }
+
+    private void recycleRouteSlots() {
+        nuRouteSlots = 0;
+        slotGeneration++;
+        if (!foreignSlotsByRoute.isEmpty()) foreignSlotsByRoute.clear();
+    }
+
+    /**
+     * Returns the slot in which the states of the specified route are memorized, or -1 if no state has been
+     * associated to the route since the last clearance.
+     */
+    private int getRouteSlot(VehicleRoute route) {
+        Object routeSlot = route.getStateSlot();
+        if (routeSlot instanceof RouteSlot && ((RouteSlot) routeSlot).owner == slotOwner) {
+            RouteSlot ownSlot = (RouteSlot) routeSlot;
+            if (ownSlot.generation != slotGeneration) return -1;
+            return ownSlot.index;
         }
-        else{
-            routeStateMap.clear();
-            vehicleDependentRouteStateMap.clear();
+        if (foreignSlotsByRoute.isEmpty()) return -1;
+        Integer slot = foreignSlotsByRoute.get(route);
+        if (slot == null) return -1;
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the specified route. If the route has no slot yet, the next free slot is assigned to it
+     * and reset. Slots are recycled once the states are cleared, i.e. at the beginning of each iteration.
+     * <p>
+     * <p>The slot is memorized on the route, unless the route already carries the slot of another manager. Then it is
+     * memorized in this manager.
+     */
+    private int getOrCreateRouteSlot(VehicleRoute route) {
+        int slot = getRouteSlot(route);
+        if (slot >= 0) return slot;
+        if (nuRouteSlots == routeStatesArr.length) growRouteSlots();
+        slot = nuRouteSlots++;
+        Object routeSlot = route.getStateSlot();
+        if (routeSlot == null) {
+            route.setStateSlot(new RouteSlot(slotOwner, slotGeneration, slot));
+        } else if (routeSlot instanceof RouteSlot && ((RouteSlot) routeSlot).owner == slotOwner) {
+            RouteSlot ownSlot = (RouteSlot) routeSlot;
+            ownSlot.generation = slotGeneration;
+            ownSlot.index = slot;
+        } else foreignSlotsByRoute.put(route, slot);
+        Arrays.fill(routeStatesArr[slot], null);
+        Arrays.fill(routeDoubleStatesArr[slot], Double.NaN);
+        for (int i = 0; i < nuVehicleTypeKeys; i++) {
+            Arrays.fill(vehicleDependentRouteStatesArr[slot][i], null);
+            Arrays.fill(vehicleDependentRouteDoubleStatesArr[slot][i], Double.NaN);
+        }
+        updatedSizes[slot] = -1;
+        updatedVehicles[slot] = null;
+        return slot;
+    }
+
+    private void growRouteSlots() {
+        int noSlots = routeStatesArr.length * 2;
+        int noStates = routeStatesArr[0].length;
+        routeStatesArr = Arrays.copyOf(routeStatesArr, noSlots);
+        vehicleDependentRouteStatesArr = Arrays.copyOf(vehicleDependentRouteStatesArr, noSlots);
+        routeDoubleStatesArr = Arrays.copyOf(routeDoubleStatesArr, noSlots);
+        vehicleDependentRouteDoubleStatesArr = Arrays.copyOf(vehicleDependentRouteDoubleStatesArr, noSlots);
+        updatedActivities = Arrays.copyOf(updatedActivities, noSlots);
+        updatedSizes = Arrays.copyOf(updatedSizes, noSlots);
+        updatedVehicles = Arrays.copyOf(updatedVehicles, noSlots);
+        updatedDepartureTimes = Arrays.copyOf(updatedDepartureTimes, noSlots);
+        for (int slot = nuRouteSlots; slot < noSlots; slot++) {
+            routeStatesArr[slot] = new Object[noStates];
+            vehicleDependentRouteStatesArr[slot] = new Object[nuVehicleTypeKeys][noStates];
+            routeDoubleStatesArr[slot] = new double[noStates];
+            vehicleDependentRouteDoubleStatesArr[slot] = new double[nuVehicleTypeKeys][noStates];
         }
-        Arrays.fill(problemStates,null);
     }
 
     private void fill_threeDimArr(Object[][][] states, Object o) {
@@ -216,6 +413,18 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         }
     }
 
+    private static void fill_threeDimArr(double[][][] states, double d) {
+        for (double[][] twoDimArr : states) {
+            fill_twoDimArr(twoDimArr, d);
+        }
+    }
+
+    private static void fill_twoDimArr(double[][] states, double d) {
+        for (double[] rows : states) {
+            Arrays.fill(rows, d);
+        }
+    }
+
     /**
      * Returns associated state for the specified activity and stateId, or it returns null if no value is associated.
      * <p>If type class is not equal to the associated type class of the requested state value, it throws a ClassCastException.</p>
@@ -232,6 +441,9 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (act.getIndex() < 0) return null;
+        if (stateId instanceof DoubleStateId) {
+            return castDoubleState(activityDoubleStates[act.getIndex()][stateId.getIndex()], stateId, type);
+        }
         T state;
         try {
             state = type.cast(activityStates[act.getIndex()][stateId.getIndex()]);
@@ -241,6 +453,22 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         return state;
     }
 
+    /**
+     * Returns the associated double state for the specified activity and stateId, or <code>Double.NaN</code> if no
+     * value is associated.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the double stateId for which a state value is associated to
+     * @return the state value that is associated to the specified activity and stateId, or <code>Double.NaN</code>
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public double getActivityState(TourActivity act, DoubleStateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return Double.NaN;
+        return activityDoubleStates[act.getIndex()][stateId.getIndex()];
+    }
+
     /**
      * Returns true if a state value is associated to the specified activity, vehicle and stateId.
      *
@@ -252,6 +480,9 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     public boolean hasActivityState(TourActivity act, Vehicle vehicle, StateId stateId) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (stateId instanceof DoubleStateId) {
+            return !Double.isNaN(vehicleDependentActivityDoubleStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
+        }
         return vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
     }
 
@@ -273,6 +504,9 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public <T> T getActivityState(TourActivity act, Vehicle vehicle, StateId stateId, Class<T> type) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (act.getIndex() < 0) return null; //act.getIndex() < 0 indicates that act is either Start (-1) or End (-2)
+        if (stateId instanceof DoubleStateId) {
+            return castDoubleState(vehicleDependentActivityDoubleStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()], stateId, type);
+        }
         T state;
         try {
             state = type.cast(vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
@@ -283,6 +517,40 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         return state;
     }
 
+    /**
+     * Returns the associated double state for the specified activity, vehicle and stateId, or <code>Double.NaN</code>
+     * if no value is associated.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the double stateId for which a state value is associated to
+     * @return the state value that is associated to the specified activity, vehicle and stateId, or <code>Double.NaN</code>
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public double getActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return Double.NaN;
+        return vehicleDependentActivityDoubleStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()];
+    }
+
+    private <T> T castDoubleState(double state, StateId stateId, Class<T> type) {
+        if (Double.isNaN(state)) return null;
+        try {
+            return type.cast(state);
+        } catch (ClassCastException e) {
+            throw getClassCastException(e, stateId, type.toString(), Double.class.toString());
+        }
+    }
+
+    private double toDoubleState(Object state, StateId stateId) {
+        if (state == null) return Double.NaN;
+        if (!(state instanceof Number)) {
+            throw new ClassCastException("state with stateId '" + stateId.toString() + "' is a double state. cannot assign " + state.getClass().toString() + " to it.");
+        }
+        return ((Number) state).doubleValue();
+    }
+
     private ClassCastException getClassCastException(ClassCastException e, StateId stateId, String requestedTypeClass, String memorizedTypeClass) {
         return new ClassCastException(e + "\n" + "state with stateId '" + stateId.toString() + "' is of " + memorizedTypeClass + ". cannot cast it to " + requestedTypeClass + ".");
     }
@@ -302,26 +570,36 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     @Override
     public <T> T getRouteState(VehicleRoute route, StateId stateId, Class<T> type) {
         if (route == null) return null;
-        T state = null;
-        if(isIndexedBased){
-            try {
-                state = type.cast(routeStatesArr[route.getVehicle().getIndex()][stateId.getIndex()]);
-            } catch (ClassCastException e) {
-                throw getClassCastException(e,stateId,type.toString(),routeStatesArr[route.getVehicle().getIndex()][stateId.getIndex()].getClass().toString());
-            }
+        if (stateId instanceof DoubleStateId) {
+            return castDoubleState(getRouteState(route, (DoubleStateId) stateId), stateId, type);
         }
-        else {
-            try {
-                if (routeStateMap.containsKey(route)) {
-                    state = type.cast(routeStateMap.get(route)[stateId.getIndex()]);
-                }
-            } catch (ClassCastException e) {
-                throw getClassCastException(e, stateId, type.toString(), routeStateMap.get(route)[stateId.getIndex()].getClass().toString());
-            }
+        int slot = getRouteSlot(route);
+        if (slot < 0) return null;
+        T state;
+        try {
+            state = type.cast(routeStatesArr[slot][stateId.getIndex()]);
+        } catch (ClassCastException e) {
+            throw getClassCastException(e, stateId, type.toString(), routeStatesArr[slot][stateId.getIndex()].getClass().toString());
         }
         return state;
     }
 
+    /**
+     * Returns the double route state that is associated to the route and stateId, or <code>Double.NaN</code> if no
+     * state is associated.
+     *
+     * @param route   the route which the associated route key to the route state
+     * @param stateId the double stateId which is the associated key to the route state
+     * @return the route state that is associated to the route and stateId, or <code>Double.NaN</code>
+     */
+    @Override
+    public double getRouteState(VehicleRoute route, DoubleStateId stateId) {
+        if (route == null) return Double.NaN;
+        int slot = getRouteSlot(route);
+        if (slot < 0) return Double.NaN;
+        return routeDoubleStatesArr[slot][stateId.getIndex()];
+    }
+
     /**
      * Returns true if a state is assigned to the specified route, vehicle and stateId. Otherwise it returns false.
      *
@@ -332,8 +610,12 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     @SuppressWarnings("UnusedDeclaration")
     public boolean hasRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId) {
-        if (!vehicleDependentRouteStateMap.containsKey(route)) return false;
-        return vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
+        if (stateId instanceof DoubleStateId) {
+            return !Double.isNaN(getRouteState(route, vehicle, (DoubleStateId) stateId));
+        }
+        int slot = getRouteSlot(route);
+        if (slot < 0) return false;
+        return vehicleDependentRouteStatesArr[slot][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
 //        return vehicle_dependent_route_states[route.getActivities().get(0).getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
     }
 
@@ -352,26 +634,36 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     public <T> T getRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, Class<T> type) {
 //        if (route.isEmpty()) return null;
-        T state = null;
-        if(isIndexedBased){
-            try {
-                state = type.cast(vehicleDependentRouteStatesArr[route.getVehicle().getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
-            } catch (ClassCastException e) {
-                throw getClassCastException(e, stateId, type.toString(), vehicleDependentRouteStatesArr[route.getVehicle().getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()].getClass().toString());
-            }
+        if (stateId instanceof DoubleStateId) {
+            return castDoubleState(getRouteState(route, vehicle, (DoubleStateId) stateId), stateId, type);
         }
-        else {
-            try {
-                if (vehicleDependentRouteStateMap.containsKey(route)) {
-                    state = type.cast(vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
-                }
-            } catch (ClassCastException e) {
-                throw getClassCastException(e, stateId, type.toString(), vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()].getClass().toString());
-            }
+        int slot = getRouteSlot(route);
+        if (slot < 0) return null;
+        T state;
+        try {
+            state = type.cast(vehicleDependentRouteStatesArr[slot][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
+        } catch (ClassCastException e) {
+            throw getClassCastException(e, stateId, type.toString(), vehicleDependentRouteStatesArr[slot][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()].getClass().toString());
         }
         return state;
     }
 
+    /**
+     * Returns the double route state that is assigned to the specified route, vehicle and stateId, or
+     * <code>Double.NaN</code> if no state can be found.
+     *
+     * @param route   the route for which the state is requested
+     * @param vehicle the vehicle for which the state is requested
+     * @param stateId the double stateId(entifier) for the state that is requested
+     * @return the actual route state that is assigned to the route, vehicle and stateId, or <code>Double.NaN</code>
+     */
+    @Override
+    public double getRouteState(VehicleRoute route, Vehicle vehicle, DoubleStateId stateId) {
+        int slot = getRouteSlot(route);
+        if (slot < 0) return Double.NaN;
+        return vehicleDependentRouteDoubleStatesArr[slot][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()];
+    }
+
     /**
      * Associates the specified activity and stateId to the state value. If a state value is already associated to the
      * specified activity and stateId, it is replaced by the new state value.
@@ -417,14 +709,63 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         putInternalTypedActivityState(act, vehicle, stateId, state);
     }
 
+    /**
+     * Associates the specified activity and double stateId to the state value. If a state value is already associated
+     * to the specified activity and stateId, it is replaced by the new state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the double stateId which is the associated key to the activity state
+     * @param state   the state that is associated to the activity and stateId
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code>
+     *                                         || stateId.getIndex < noInternalStates
+     */
+    public void putActivityState(TourActivity act, DoubleStateId stateId, double state) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (stateId.getIndex() < initialNoStates) StateFactory.throwReservedIdException(stateId.toString());
+        putInternalTypedActivityState(act, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity, vehicle and double stateId to the state value. If a state value is already
+     * associated to the specified activity and stateId, it is replaced by the new state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the double stateId which is the associated key to the activity state
+     * @param state   the state that is associated to the activity and stateId
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code>
+     *                                         || stateId.getIndex < noInternalStates
+     */
+    public void putActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId, double state) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (stateId.getIndex() < initialNoStates) StateFactory.throwReservedIdException(stateId.toString());
+        putInternalTypedActivityState(act, vehicle, stateId, state);
+    }
+
     <T> void putInternalTypedActivityState(TourActivity act, StateId stateId, T state) {
+        if (stateId instanceof DoubleStateId) {
+            activityDoubleStates[act.getIndex()][stateId.getIndex()] = toDoubleState(state, stateId);
+            return;
+        }
         activityStates[act.getIndex()][stateId.getIndex()] = state;
     }
 
     <T> void putInternalTypedActivityState(TourActivity act, Vehicle vehicle, StateId stateId, T state) {
+        if (stateId instanceof DoubleStateId) {
+            vehicleDependentActivityDoubleStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = toDoubleState(state, stateId);
+            return;
+        }
         vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
     }
 
+    void putInternalTypedActivityState(TourActivity act, DoubleStateId stateId, double state) {
+        activityDoubleStates[act.getIndex()][stateId.getIndex()] = state;
+    }
+
+    void putInternalTypedActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId, double state) {
+        vehicleDependentActivityDoubleStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+    }
+
     /**
      * Associates the specified route, vehicle and stateId to the state value. If a state value is already associated to the
      * specified activity and stateId, it is replaced by the new state value.
@@ -457,31 +798,64 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         putTypedInternalRouteState(route, vehicle, stateId, state);
     }
 
+    /**
+     * Associates the specified route and double stateId to the state value. If a state value is already associated to
+     * the specified route and stateId, it is replaced by the new state value.
+     *
+     * @param route   the route for which a state value is associated to
+     * @param stateId the double stateId which is the associated key to the route state
+     * @param state   the state that is associated to the route and stateId
+     * @throws java.lang.IllegalStateException if stateId is equal to a stateId that is already used internally.
+     */
+    public void putRouteState(VehicleRoute route, DoubleStateId stateId, double state) {
+        if (stateId.getIndex() < initialNoStates) StateFactory.throwReservedIdException(stateId.toString());
+        putTypedInternalRouteState(route, stateId, state);
+    }
+
+    /**
+     * Associates the specified route, vehicle and double stateId to the state value. If a state value is already
+     * associated to the specified route and stateId, it is replaced by the new state value.
+     *
+     * @param route   the route for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the double stateId which is the associated key to the route state
+     * @param state   the state that is associated to the route and stateId
+     * @throws java.lang.IllegalStateException if <code>vehicle.getIndex() == 0</code> || <code>stateId.getIndex() < noInternalStates</code>
+     */
+    public void putRouteState(VehicleRoute route, Vehicle vehicle, DoubleStateId stateId, double state) {
+        if (vehicle.getIndex() == 0) throw new IllegalStateException("vehicle index is 0. this should not be.");
+        if (stateId.getIndex() < initialNoStates) StateFactory.throwReservedIdException(stateId.toString());
+        putTypedInternalRouteState(route, vehicle, stateId, state);
+    }
+
     <T> void putTypedInternalRouteState(VehicleRoute route, StateId stateId, T state) {
 //        if (route.isEmpty()) return;
-        if(isIndexedBased){
-            routeStatesArr[route.getVehicle().getIndex()][stateId.getIndex()] = state;
-        }
-        else {
-            if (!routeStateMap.containsKey(route)) {
-                routeStateMap.put(route, new Object[stateIndexCounter]);
-            }
-            routeStateMap.get(route)[stateId.getIndex()] = state;
+        if (stateId instanceof DoubleStateId) {
+            putTypedInternalRouteState(route, (DoubleStateId) stateId, toDoubleState(state, stateId));
+            return;
         }
+        int slot = getOrCreateRouteSlot(route);
+        routeStatesArr[slot][stateId.getIndex()] = state;
     }
 
     <T> void putTypedInternalRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, T state) {
 //        if (route.isEmpty()) return;
-        if(isIndexedBased){
-            vehicleDependentRouteStatesArr[route.getVehicle().getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
-        }
-        else {
-            if (!vehicleDependentRouteStateMap.containsKey(route)) {
-                vehicleDependentRouteStateMap.put(route, new Object[nuVehicleTypeKeys][stateIndexCounter]);
-            }
-            vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+        if (stateId instanceof DoubleStateId) {
+            putTypedInternalRouteState(route, vehicle, (DoubleStateId) stateId, toDoubleState(state, stateId));
+            return;
         }
+        int slot = getOrCreateRouteSlot(route);
+        vehicleDependentRouteStatesArr[slot][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+    }
+
+    void putTypedInternalRouteState(VehicleRoute route, DoubleStateId stateId, double state) {
+        int slot = getOrCreateRouteSlot(route);
+        routeDoubleStatesArr[slot][stateId.getIndex()] = state;
+    }
 
+    void putTypedInternalRouteState(VehicleRoute route, Vehicle vehicle, DoubleStateId stateId, double state) {
+        int slot = getOrCreateRouteSlot(route);
+        vehicleDependentRouteDoubleStatesArr[slot][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
     }
 
     /**
@@ -528,6 +902,10 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     void addActivityVisitor(ActivityVisitor activityVistor) {
         routeActivityVisitor.addActivityVisitor(activityVistor);
+        if (activityVistor instanceof IncrementalActivityVisitor) {
+            if (!incrementalActivityVisitors.contains(activityVistor))
+                incrementalActivityVisitors.add((IncrementalActivityVisitor) activityVistor);
+        } else nonIncrementalRouteActivityVisitor.addActivityVisitor(activityVistor);
     }
 
     /**
@@ -539,12 +917,32 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     void addActivityVisitor(ReverseActivityVisitor activityVistor) {
         revRouteActivityVisitor.addActivityVisitor(activityVistor);
+        if (activityVistor instanceof IncrementalReverseActivityVisitor) {
+            if (!incrementalReverseActivityVisitors.contains(activityVistor))
+                incrementalReverseActivityVisitors.add((IncrementalReverseActivityVisitor) activityVistor);
+        } else nonIncrementalRevRouteActivityVisitor.addActivityVisitor(activityVistor);
     }
 
     void addRouteVisitor(RouteVisitor routeVisitor) {
         routeVisitors.add(routeVisitor);
     }
 
+    /**
+     * Sets whether states are updated incrementally once a job has been inserted (default is true).
+     * <p>
+     * <p>If so, the activity sequence of each route is memorized whenever its states are updated. Once a job
+     * has been inserted, only the modified segment of the route is determined by comparing the current with the
+     * memorized sequence. Updaters implementing {@link IncrementalActivityVisitor} or
+     * {@link IncrementalReverseActivityVisitor} resume at the modified segment and stop as soon as their states
+     * converge with the previous ones, whereas all other updaters visit the entire route as usual. If the vehicle or
+     * the departure time of the route has changed, all updaters visit the entire route.</p>
+     *
+     * @param incrementalUpdate true if states should be updated incrementally
+     */
+    public void setIncrementalUpdate(boolean incrementalUpdate) {
+        this.incrementalUpdate = incrementalUpdate;
+    }
+
     void addListener(RuinListener ruinListener) {
         ruinListeners.addListener(ruinListener);
     }
@@ -557,11 +955,122 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
 //		log.debug("insert " + job2insert + " in " + inRoute);
         insertionListeners.informJobInserted(job2insert, inRoute, additionalCosts, additionalTime);
+        if (!incrementalUpdate || !updateIncrementally(inRoute)) {
+            for (RouteVisitor v : routeVisitors) {
+                visit(v, inRoute);
+            }
+            routeActivityVisitor.visit(inRoute);
+            revRouteActivityVisitor.visit(inRoute);
+        }
+        if (incrementalUpdate) memorizeUpdate(inRoute);
+    }
+
+    /*
+     * updates the states of the segment that has been modified since the last update of route. returns false if this
+     * is not possible, i.e. if nothing has been memorized or the vehicle or departure time has changed.
+     */
+    private boolean updateIncrementally(VehicleRoute route) {
+        int slot = getRouteSlot(route);
+        if (slot < 0 || updatedSizes[slot] < 0 || route.getStart() == null) return false;
+        if (updatedVehicles[slot] != route.getVehicle() || updatedDepartureTimes[slot] != route.getDepartureTime())
+            return false;
+        List<TourActivity> acts = route.getActivities();
+        TourActivity[] prevActs = updatedActivities[slot];
+        int prevSize = updatedSizes[slot];
+        int size = acts.size();
+        int noEqualsAtStart = 0;
+        while (noEqualsAtStart < size && noEqualsAtStart < prevSize && acts.get(noEqualsAtStart) == prevActs[noEqualsAtStart]) {
+            noEqualsAtStart++;
+        }
+        int noEqualsAtEnd = 0;
+        while (noEqualsAtEnd < size - noEqualsAtStart && noEqualsAtEnd < prevSize - noEqualsAtStart
+            && acts.get(size - 1 - noEqualsAtEnd) == prevActs[prevSize - 1 - noEqualsAtEnd]) {
+            noEqualsAtEnd++;
+        }
+        // acts[firstModified, lastModified] is the modified segment, which is empty if activities have been removed only
+        int firstModified = noEqualsAtStart;
+        int lastModified = size - 1 - noEqualsAtEnd;
         for (RouteVisitor v : routeVisitors) {
-            v.visit(inRoute);
+            if (v instanceof IncrementalReverseActivityVisitor) {
+                visitBackward((IncrementalReverseActivityVisitor) v, route, acts, firstModified, lastModified);
+            } else visit(v, route);
+        }
+        for (IncrementalActivityVisitor v : incrementalActivityVisitors) {
+            visitForward(v, route, acts, firstModified, lastModified);
+        }
+        nonIncrementalRouteActivityVisitor.visit(route);
+        if (!route.isEmpty()) {
+            for (IncrementalReverseActivityVisitor v : incrementalReverseActivityVisitors) {
+                visitBackward(v, route, acts, firstModified, lastModified);
+            }
+        }
+        nonIncrementalRevRouteActivityVisitor.visit(route);
+        return true;
+    }
+
+    private void visit(RouteVisitor visitor, VehicleRoute route) {
+        if (!searchMetrics.isEnabled()) {
+            visitor.visit(route);
+            return;
+        }
+        long startTime = System.nanoTime();
+        visitor.visit(route);
+        searchMetrics.addTimeSince(Metric.STATE_UPDATE_TIME, visitor.getClass(), startTime);
+    }
+
+    private void visitForward(IncrementalActivityVisitor visitor, VehicleRoute route, List<TourActivity> acts, int firstModified, int lastModified) {
+        if (!searchMetrics.isEnabled()) {
+            walkForward(visitor, route, acts, firstModified, lastModified);
+            return;
+        }
+        long startTime = System.nanoTime();
+        walkForward(visitor, route, acts, firstModified, lastModified);
+        searchMetrics.addTimeSince(Metric.STATE_UPDATE_TIME, visitor.getClass(), startTime);
+    }
+
+    private static void walkForward(IncrementalActivityVisitor visitor, VehicleRoute route, List<TourActivity> acts, int firstModified, int lastModified) {
+        TourActivity prevAct = firstModified == 0 ? route.getStart() : acts.get(firstModified - 1);
+        visitor.begin(route, prevAct);
+        for (int i = firstModified; i < acts.size(); i++) {
+            visitor.visit(acts.get(i));
+            if (i > lastModified && visitor.hasConverged()) return;
+        }
+        visitor.finish();
+    }
+
+    private void visitBackward(IncrementalReverseActivityVisitor visitor, VehicleRoute route, List<TourActivity> acts, int firstModified, int lastModified) {
+        if (!searchMetrics.isEnabled()) {
+            walkBackward(visitor, route, acts, firstModified, lastModified);
+            return;
+        }
+        long startTime = System.nanoTime();
+        walkBackward(visitor, route, acts, firstModified, lastModified);
+        searchMetrics.addTimeSince(Metric.STATE_UPDATE_TIME, visitor.getClass(), startTime);
+    }
+
+    private static void walkBackward(IncrementalReverseActivityVisitor visitor, VehicleRoute route, List<TourActivity> acts, int firstModified, int lastModified) {
+        TourActivity nextAct = lastModified == acts.size() - 1 ? route.getEnd() : acts.get(lastModified + 1);
+        visitor.begin(route, nextAct);
+        for (int i = lastModified; i >= 0; i--) {
+            visitor.visit(acts.get(i));
+            if (i < firstModified && visitor.hasConverged()) return;
+        }
+        visitor.finish();
+    }
+
+    private void memorizeUpdate(VehicleRoute route) {
+        if (route.getStart() == null) return;
+        int slot = getOrCreateRouteSlot(route);
+        List<TourActivity> acts = route.getActivities();
+        TourActivity[] memorized = updatedActivities[slot];
+        if (memorized == null || memorized.length < acts.size()) {
+            memorized = new TourActivity[Math.max(acts.size(), 2 * (memorized == null ? 0 : memorized.length))];
+            updatedActivities[slot] = memorized;
         }
-        routeActivityVisitor.visit(inRoute);
-        revRouteActivityVisitor.visit(inRoute);
+        acts.toArray(memorized);
+        updatedSizes[slot] = acts.size();
+        updatedVehicles[slot] = route.getVehicle();
+        updatedDepartureTimes[slot] = route.getDepartureTime();
     }
 
     @Override
@@ -569,10 +1078,11 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         insertionListeners.informInsertionStarts(vehicleRoutes, unassignedJobs);
         for (VehicleRoute route : vehicleRoutes) {
             for (RouteVisitor v : routeVisitors) {
-                v.visit(route);
+                visit(v, route);
             }
             routeActivityVisitor.visit(route);
             revRouteActivityVisitor.visit(route);
+            if (incrementalUpdate) memorizeUpdate(route);
         }
     }
 
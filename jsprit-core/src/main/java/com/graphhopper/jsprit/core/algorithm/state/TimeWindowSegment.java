@@ -0,0 +1,127 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.Location;
+
+/**
+ * Time-window characteristics of a sequence of consecutive activities, i.e. of a route segment.
+ * <p>
+ * <p>A segment is described by its total duration (travel, operation and waiting times), its time warp (the sum
+ * of time by which time windows are violated when arriving too late), and the earliest and latest time operation
+ * can start at its first activity such that the segment has minimal duration and time warp. Two segments can be
+ * concatenated in constant time, thus the time-window feasibility of a route composed of prefixes, suffixes or
+ * blocks of existing routes can be determined without looping through activities (see
+ * T. Vidal et al. (2013): A hybrid genetic algorithm with adaptive diversity management for a large class of vehicle
+ * routing problems with time-windows).</p>
+ * <p>
+ * <p>Note that this assumes travel and operation times that do not depend on time.</p>
+ */
+public final class TimeWindowSegment {
+
+    /**
+     * Returns segment of a single activity.
+     *
+     * @param location      location of the activity
+     * @param earliestStart earliest operation start time
+     * @param latestStart   latest operation start time
+     * @param duration      operation time
+     * @return segment of a single activity
+     */
+    public static TimeWindowSegment of(Location location, double earliestStart, double latestStart, double duration) {
+        return new TimeWindowSegment(location, location, duration, 0., earliestStart, latestStart);
+    }
+
+    /**
+     * Returns the segment that results from visiting the activities of first and then the activities of second.
+     *
+     * @param first      the first segment
+     * @param second     the second segment
+     * @param travelTime the travel time from the last location of first to the first location of second
+     * @return the concatenated segment
+     */
+    public static TimeWindowSegment concat(TimeWindowSegment first, TimeWindowSegment second, double travelTime) {
+        double delta = first.duration - first.timeWarp + travelTime;
+        double deltaWaiting = Math.max(second.earliestStart - delta - first.latestStart, 0.);
+        double deltaTimeWarp = Math.max(first.earliestStart + delta - second.latestStart, 0.);
+        return new TimeWindowSegment(first.firstLocation, second.lastLocation,
+            first.duration + second.duration + travelTime + deltaWaiting,
+            first.timeWarp + second.timeWarp + deltaTimeWarp,
+            Math.max(second.earliestStart - delta, first.earliestStart) - deltaWaiting,
+            Math.min(second.latestStart - delta, first.latestStart) + deltaTimeWarp);
+    }
+
+    private final Location firstLocation;
+
+    private final Location lastLocation;
+
+    private final double duration;
+
+    private final double timeWarp;
+
+    private final double earliestStart;
+
+    private final double latestStart;
+
+    TimeWindowSegment(Location firstLocation, Location lastLocation, double duration, double timeWarp, double earliestStart, double latestStart) {
+        this.firstLocation = firstLocation;
+        this.lastLocation = lastLocation;
+        this.duration = duration;
+        this.timeWarp = timeWarp;
+        this.earliestStart = earliestStart;
+        this.latestStart = latestStart;
+    }
+
+    public Location getFirstLocation() {
+        return firstLocation;
+    }
+
+    public Location getLastLocation() {
+        return lastLocation;
+    }
+
+    public double getDuration() {
+        return duration;
+    }
+
+    public double getTimeWarp() {
+        return timeWarp;
+    }
+
+    public double getEarliestStart() {
+        return earliestStart;
+    }
+
+    public double getLatestStart() {
+        return latestStart;
+    }
+
+    /**
+     * Returns true if the activities of this segment can be visited without violating any time window.
+     *
+     * @return true if time-window feasible
+     */
+    public boolean isFeasible() {
+        return timeWarp <= 0.;
+    }
+
+    @Override
+    public String toString() {
+        return "[duration=" + duration + "][timeWarp=" + timeWarp + "][earliestStart=" + earliestStart + "][latestStart=" + latestStart + "]";
+    }
+}
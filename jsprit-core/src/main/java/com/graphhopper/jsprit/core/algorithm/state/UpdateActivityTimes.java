@@ -28,16 +28,19 @@ import com.graphhopper.jsprit.core.util.ActivityTimeTracker;
 /**
  * Updates arrival and end times of activities.
  * <p>
- * <p>Note that this modifies arrTime and endTime of each activity in a route.
+ * <p>Note that this modifies arrTime and endTime of each activity in a route. Activities shared with a copy-on-write
+ * copy of the route are duplicated before their times change (see {@link com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivities#setActivityTimes(TourActivity, double, double)}).
  *
  * @author stefan
  */
-public class UpdateActivityTimes implements ActivityVisitor, StateUpdater {
+public class UpdateActivityTimes implements ActivityVisitor, IncrementalActivityVisitor, StateUpdater {
 
     private ActivityTimeTracker timeTracker;
 
     private VehicleRoute route;
 
+    private boolean converged;
+
     /**
      * Updates arrival and end times of activities.
      * <p>
@@ -63,11 +66,23 @@ public class UpdateActivityTimes implements ActivityVisitor, StateUpdater {
         route.getStart().setEndTime(timeTracker.getActEndTime());
     }
 
+    @Override
+    public void begin(VehicleRoute route, TourActivity prevAct) {
+        timeTracker.begin(route, prevAct);
+        this.route = route;
+    }
+
     @Override
     public void visit(TourActivity activity) {
+        double prevEndTime = activity.getEndTime();
         timeTracker.visit(activity);
-        activity.setArrTime(timeTracker.getActArrTime());
-        activity.setEndTime(timeTracker.getActEndTime());
+        route.getTourActivities().setActivityTimes(activity, timeTracker.getActArrTime(), timeTracker.getActEndTime());
+        converged = prevEndTime == timeTracker.getActEndTime();
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return converged;
     }
 
     @Override
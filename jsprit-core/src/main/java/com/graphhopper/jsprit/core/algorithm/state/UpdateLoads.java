@@ -20,6 +20,7 @@ package com.graphhopper.jsprit.core.algorithm.state;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
 import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.CapacityAccumulator;
 import com.graphhopper.jsprit.core.problem.job.Delivery;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Pickup;
@@ -54,6 +55,10 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
 
     private VehicleRoute route;
 
+    private final CapacityAccumulator loadAtDepot = new CapacityAccumulator();
+
+    private final CapacityAccumulator loadAtEnd = new CapacityAccumulator();
+
     public UpdateLoads(StateManager stateManager) {
         super();
         this.stateManager = stateManager;
@@ -77,21 +82,21 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
 
     @Override
     public void finish() {
-        currentLoad = Capacity.Builder.newInstance().build();
+        currentLoad = defaultValue;
     }
 
     void insertionStarts(VehicleRoute route) {
-        Capacity loadAtDepot = Capacity.Builder.newInstance().build();
-        Capacity loadAtEnd = Capacity.Builder.newInstance().build();
+        loadAtDepot.reset();
+        loadAtEnd.reset();
         for (Job j : route.getTourActivities().getJobs()) {
             if (j instanceof Delivery) {
-                loadAtDepot = Capacity.addup(loadAtDepot, j.getSize());
+                loadAtDepot.add(j.getSize());
             } else if (j instanceof Pickup || j instanceof Service) {
-                loadAtEnd = Capacity.addup(loadAtEnd, j.getSize());
+                loadAtEnd.add(j.getSize());
             }
         }
-        stateManager.putTypedInternalRouteState(route, InternalStates.LOAD_AT_BEGINNING, loadAtDepot);
-        stateManager.putTypedInternalRouteState(route, InternalStates.LOAD_AT_END, loadAtEnd);
+        stateManager.putTypedInternalRouteState(route, InternalStates.LOAD_AT_BEGINNING, loadAtDepot.toCapacity());
+        stateManager.putTypedInternalRouteState(route, InternalStates.LOAD_AT_END, loadAtEnd.toCapacity());
     }
 
     @Override
@@ -52,7 +52,11 @@ class UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute implement
 
     @Override
     public void visit(TourActivity act) {
-        maxLoad = Capacity.max(maxLoad, stateManager.getActivityState(act, InternalStates.LOAD, Capacity.class));
+        Capacity load = stateManager.getActivityState(act, InternalStates.LOAD, Capacity.class);
+        //maxLoad is immutable, thus it can be shared among activities until it actually increases
+        if (load.getNuOfDimensions() > maxLoad.getNuOfDimensions() || !load.isLessOrEqual(maxLoad)) {
+            maxLoad = Capacity.max(maxLoad, load);
+        }
         stateManager.putInternalTypedActivityState(act, InternalStates.PAST_MAXLOAD, maxLoad);
 //		assert maxLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "maxLoad can never be smaller than 0";
 //		assert maxLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "maxLoad can never be bigger than vehicleCap";
@@ -64,7 +64,10 @@ class UpdateMaxCapacityUtilisationAtActivitiesByLookingForwardInRoute implements
 
     @Override
     public void visit(TourActivity act) {
-        maxLoad = Capacity.max(maxLoad, stateManager.getActivityState(act, InternalStates.LOAD, Capacity.class));
+        Capacity load = stateManager.getActivityState(act, InternalStates.LOAD, Capacity.class);
+        if (load.getNuOfDimensions() > maxLoad.getNuOfDimensions() || !load.isLessOrEqual(maxLoad)) {
+            maxLoad = Capacity.max(maxLoad, load);
+        }
         stateManager.putInternalTypedActivityState(act, InternalStates.FUTURE_MAXLOAD, maxLoad);
 //		assert maxLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "maxLoad can in every capacity dimension never be bigger than vehicleCap";
 //		assert maxLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "maxLoad can never be smaller than 0";
@@ -18,6 +18,7 @@
 package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.CapacityAccumulator;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -36,11 +37,11 @@ class UpdateMaxCapacityUtilisationAtRoute implements ActivityVisitor, StateUpdat
 
     private StateManager stateManager;
 
-    private Capacity currentLoad = Capacity.Builder.newInstance().build();
+    private final CapacityAccumulator currentLoad = new CapacityAccumulator();
 
     private VehicleRoute route;
 
-    private Capacity maxLoad;
+    private final CapacityAccumulator maxLoad = new CapacityAccumulator();
 
     private Capacity defaultValue;
 
@@ -52,20 +53,21 @@ class UpdateMaxCapacityUtilisationAtRoute implements ActivityVisitor, StateUpdat
 
     @Override
     public void begin(VehicleRoute route) {
-        currentLoad = stateManager.getRouteState(route, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
-        if (currentLoad == null) currentLoad = defaultValue;
-        maxLoad = currentLoad;
+        Capacity loadAtBeginning = stateManager.getRouteState(route, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
+        if (loadAtBeginning == null) loadAtBeginning = defaultValue;
+        currentLoad.set(loadAtBeginning);
+        maxLoad.set(loadAtBeginning);
         this.route = route;
     }
 
     @Override
     public void visit(TourActivity act) {
-        currentLoad = Capacity.addup(currentLoad, act.getSize());
-        maxLoad = Capacity.max(maxLoad, currentLoad);
+        currentLoad.add(act.getSize());
+        maxLoad.max(currentLoad);
     }
 
     @Override
     public void finish() {
-        stateManager.putTypedInternalRouteState(route, InternalStates.MAXLOAD, maxLoad);
+        stateManager.putTypedInternalRouteState(route, InternalStates.MAXLOAD, maxLoad.toCapacity());
     }
 }
@@ -28,7 +28,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
  *
  * @author schroeder
  */
-class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater {
+class UpdatePracticalTimeWindows implements ReverseActivityVisitor, IncrementalReverseActivityVisitor, StateUpdater {
 
     private StateManager states;
 
@@ -42,6 +42,8 @@ class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater
 
     private TourActivity prevAct;
 
+    private boolean converged;
+
     public UpdatePracticalTimeWindows(StateManager states, VehicleRoutingTransportCosts tpCosts, VehicleRoutingActivityCosts activityCosts) {
         super();
         this.states = states;
@@ -56,17 +58,34 @@ class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater
         prevAct = route.getEnd();
     }
 
+    @Override
+    public void begin(VehicleRoute route, TourActivity nextAct) {
+        if (nextAct == route.getEnd()) {
+            begin(route);
+            return;
+        }
+        this.route = route;
+        latestArrTimeAtPrevAct = states.getActivityState(nextAct, InternalStates.LATEST_OPERATION_START_TIME);
+        prevAct = nextAct;
+    }
+
     @Override
     public void visit(TourActivity activity) {
         double potentialLatestArrivalTimeAtCurrAct = latestArrTimeAtPrevAct - transportCosts.getBackwardTransportTime(activity.getLocation(), prevAct.getLocation(), latestArrTimeAtPrevAct, route.getDriver(), route.getVehicle()) - activityCosts.getActivityDuration(activity,latestArrTimeAtPrevAct,route.getDriver(),route.getVehicle());
         double latestArrivalTime = Math.min(activity.getTheoreticalLatestOperationStartTime(), potentialLatestArrivalTimeAtCurrAct);
 
+        converged = states.getActivityState(activity, InternalStates.LATEST_OPERATION_START_TIME) == latestArrivalTime;
         states.putInternalTypedActivityState(activity, InternalStates.LATEST_OPERATION_START_TIME, latestArrivalTime);
 
         latestArrTimeAtPrevAct = latestArrivalTime;
         prevAct = activity;
     }
 
+    @Override
+    public boolean hasConverged() {
+        return converged;
+    }
+
     @Override
     public void finish() {
     }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.solution.route.RouteVisitor;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Updates and memorizes the time-window segments of all prefixes and suffixes of a route, i.e. for each activity
+ * the segment from the start of the route to the activity and the segment from the activity to the end of the route.
+ * <p>
+ * <p>Segments are memorized for each vehicle returned by {@link #setVehiclesToUpdate(UpdateVehicleDependentPracticalTimeWindows.VehiclesToUpdate)}
+ * (by default the vehicle of the route). With these, the time-window feasibility of inserting, removing or moving
+ * blocks of activities can be determined in constant time by concatenating segments, e.g. removing activity i is
+ * feasible if <code>concat(getPrefix(act(i-1)), getSuffix(act(i+1)))</code> is feasible.</p>
+ * <p>
+ * <p>Note that segments assume travel and operation times that do not depend on time, i.e. if they do, transport
+ * and operation times are evaluated at the earliest possible time.</p>
+ */
+public class UpdateTimeWindowSegments implements RouteVisitor, StateUpdater {
+
+    private final StateManager stateManager;
+
+    private final VehicleRoutingTransportCosts transportCosts;
+
+    private final VehicleRoutingActivityCosts activityCosts;
+
+    private final DoubleStateId prefixDuration;
+
+    private final DoubleStateId prefixTimeWarp;
+
+    private final DoubleStateId prefixEarliestStart;
+
+    private final DoubleStateId prefixLatestStart;
+
+    private final DoubleStateId suffixDuration;
+
+    private final DoubleStateId suffixTimeWarp;
+
+    private final DoubleStateId suffixEarliestStart;
+
+    private final DoubleStateId suffixLatestStart;
+
+    private UpdateVehicleDependentPracticalTimeWindows.VehiclesToUpdate vehiclesToUpdate = new UpdateVehicleDependentPracticalTimeWindows.VehiclesToUpdate() {
+
+        @Override
+        public Collection<Vehicle> get(VehicleRoute route) {
+            return Arrays.asList(route.getVehicle());
+        }
+
+    };
+
+    public UpdateTimeWindowSegments(StateManager stateManager, VehicleRoutingTransportCosts transportCosts, VehicleRoutingActivityCosts activityCosts) {
+        this.stateManager = stateManager;
+        this.transportCosts = transportCosts;
+        this.activityCosts = activityCosts;
+        prefixDuration = stateManager.createDoubleStateId("tw_segment_prefix_duration");
+        prefixTimeWarp = stateManager.createDoubleStateId("tw_segment_prefix_time_warp");
+        prefixEarliestStart = stateManager.createDoubleStateId("tw_segment_prefix_earliest_start");
+        prefixLatestStart = stateManager.createDoubleStateId("tw_segment_prefix_latest_start");
+        suffixDuration = stateManager.createDoubleStateId("tw_segment_suffix_duration");
+        suffixTimeWarp = stateManager.createDoubleStateId("tw_segment_suffix_time_warp");
+        suffixEarliestStart = stateManager.createDoubleStateId("tw_segment_suffix_earliest_start");
+        suffixLatestStart = stateManager.createDoubleStateId("tw_segment_suffix_latest_start");
+    }
+
+    public void setVehiclesToUpdate(UpdateVehicleDependentPracticalTimeWindows.VehiclesToUpdate vehiclesToUpdate) {
+        this.vehiclesToUpdate = vehiclesToUpdate;
+    }
+
+    @Override
+    public void visit(VehicleRoute route) {
+        if (route.getVehicle() == null) return;
+        List<TourActivity> acts = route.getActivities();
+        for (Vehicle vehicle : vehiclesToUpdate.get(route)) {
+            TimeWindowSegment prefix = getStart(route, vehicle);
+            for (TourActivity act : acts) {
+                prefix = concat(prefix, getSegment(act, route.getDriver(), vehicle), route.getDriver(), vehicle);
+                stateManager.putActivityState(act, vehicle, prefixDuration, prefix.getDuration());
+                stateManager.putActivityState(act, vehicle, prefixTimeWarp, prefix.getTimeWarp());
+                stateManager.putActivityState(act, vehicle, prefixEarliestStart, prefix.getEarliestStart());
+                stateManager.putActivityState(act, vehicle, prefixLatestStart, prefix.getLatestStart());
+            }
+            TimeWindowSegment suffix = getEnd(vehicle);
+            Iterator<TourActivity> revIterator = route.getTourActivities().reverseActivityIterator();
+            while (revIterator.hasNext()) {
+                TourActivity act = revIterator.next();
+                suffix = concat(getSegment(act, route.getDriver(), vehicle), suffix, route.getDriver(), vehicle);
+                stateManager.putActivityState(act, vehicle, suffixDuration, suffix.getDuration());
+                stateManager.putActivityState(act, vehicle, suffixTimeWarp, suffix.getTimeWarp());
+                stateManager.putActivityState(act, vehicle, suffixEarliestStart, suffix.getEarliestStart());
+                stateManager.putActivityState(act, vehicle, suffixLatestStart, suffix.getLatestStart());
+            }
+        }
+    }
+
+    /**
+     * Returns the memorized segment from the start of its route to (and including) the specified activity, or null
+     * if no segment has been memorized for the specified vehicle.
+     *
+     * @param act     the last activity of the prefix
+     * @param vehicle the vehicle conducting the prefix
+     * @return the prefix segment
+     */
+    public TimeWindowSegment getPrefix(TourActivity act, Vehicle vehicle) {
+        double timeWarp = stateManager.getActivityState(act, vehicle, prefixTimeWarp);
+        if (Double.isNaN(timeWarp)) return null;
+        return new TimeWindowSegment(vehicle.getStartLocation(), act.getLocation(), stateManager.getActivityState(act, vehicle, prefixDuration),
+            timeWarp, stateManager.getActivityState(act, vehicle, prefixEarliestStart), stateManager.getActivityState(act, vehicle, prefixLatestStart));
+    }
+
+    /**
+     * Returns the memorized segment from (and including) the specified activity to the end of its route, or null
+     * if no segment has been memorized for the specified vehicle.
+     *
+     * @param act     the first activity of the suffix
+     * @param vehicle the vehicle conducting the suffix
+     * @return the suffix segment
+     */
+    public TimeWindowSegment getSuffix(TourActivity act, Vehicle vehicle) {
+        double timeWarp = stateManager.getActivityState(act, vehicle, suffixTimeWarp);
+        if (Double.isNaN(timeWarp)) return null;
+        return new TimeWindowSegment(act.getLocation(), getEndLocation(vehicle), stateManager.getActivityState(act, vehicle, suffixDuration),
+            timeWarp, stateManager.getActivityState(act, vehicle, suffixEarliestStart), stateManager.getActivityState(act, vehicle, suffixLatestStart));
+    }
+
+    /**
+     * Returns the segment of the start of the specified route if it were conducted by the specified vehicle.
+     *
+     * @param route   the route
+     * @param vehicle the vehicle
+     * @return the start segment
+     */
+    public TimeWindowSegment getStart(VehicleRoute route, Vehicle vehicle) {
+        double departureTime = vehicle.getEarliestDeparture();
+        if (route.getVehicle() != null && route.getStart() != null
+            && route.getVehicle().getVehicleTypeIdentifier().equals(vehicle.getVehicleTypeIdentifier())) {
+            departureTime = route.getDepartureTime();
+        }
+        return TimeWindowSegment.of(vehicle.getStartLocation(), departureTime, departureTime, 0.);
+    }
+
+    /**
+     * Returns the segment of the end of a route conducted by the specified vehicle. If the vehicle does not return
+     * to its depot, the end segment has no location, i.e. there is no travel time to it.
+     *
+     * @param vehicle the vehicle
+     * @return the end segment
+     */
+    public TimeWindowSegment getEnd(Vehicle vehicle) {
+        return TimeWindowSegment.of(getEndLocation(vehicle), 0., vehicle.getLatestArrival(), 0.);
+    }
+
+    /**
+     * Returns the segment of the specified activity alone.
+     *
+     * @param act     the activity
+     * @param driver  the driver
+     * @param vehicle the vehicle
+     * @return the segment of the activity
+     */
+    public TimeWindowSegment getSegment(TourActivity act, Driver driver, Vehicle vehicle) {
+        double earliestStart = act.getTheoreticalEarliestOperationStartTime();
+        return TimeWindowSegment.of(act.getLocation(), earliestStart, act.getTheoreticalLatestOperationStartTime(),
+            activityCosts.getActivityDuration(act, earliestStart, driver, vehicle));
+    }
+
+    /**
+     * Concatenates the specified segments, i.e. it determines the travel time between the last location of first
+     * and the first location of second.
+     *
+     * @param first   the first segment
+     * @param second  the second segment
+     * @param driver  the driver
+     * @param vehicle the vehicle
+     * @return the concatenated segment
+     */
+    public TimeWindowSegment concat(TimeWindowSegment first, TimeWindowSegment second, Driver driver, Vehicle vehicle) {
+        double travelTime = 0.;
+        if (first.getLastLocation() != null && second.getFirstLocation() != null) {
+            travelTime = transportCosts.getTransportTime(first.getLastLocation(), second.getFirstLocation(),
+                first.getEarliestStart() + first.getDuration() - first.getTimeWarp(), driver, vehicle);
+        }
+        return TimeWindowSegment.concat(first, second, travelTime);
+    }
+
+    private static Location getEndLocation(Vehicle vehicle) {
+        if (!vehicle.isReturnToDepot()) return null;
+        return vehicle.getEndLocation();
+    }
+
+}
@@ -30,7 +30,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
-public class UpdateVehicleDependentPracticalTimeWindows implements RouteVisitor, StateUpdater {
+public class UpdateVehicleDependentPracticalTimeWindows implements RouteVisitor, IncrementalReverseActivityVisitor, StateUpdater {
 
     @Override
     public void visit(VehicleRoute route) {
@@ -71,6 +71,8 @@ public class UpdateVehicleDependentPracticalTimeWindows implements RouteVisitor,
 
     private Collection<Vehicle> vehicles;
 
+    private boolean converged;
+
     public UpdateVehicleDependentPracticalTimeWindows(StateManager stateManager, VehicleRoutingTransportCosts tpCosts, VehicleRoutingActivityCosts activityCosts) {
         super();
         this.stateManager = stateManager;
@@ -98,8 +100,23 @@ public class UpdateVehicleDependentPracticalTimeWindows implements RouteVisitor,
         }
     }
 
+    @Override
+    public void begin(VehicleRoute route, TourActivity nextAct) {
+        if (nextAct == route.getEnd()) {
+            begin(route);
+            return;
+        }
+        this.route = route;
+        vehicles = vehiclesToUpdate.get(route);
+        for (Vehicle vehicle : vehicles) {
+            latest_arrTimes_at_prevAct[vehicle.getVehicleTypeIdentifier().getIndex()] = stateManager.getActivityState(nextAct, vehicle, InternalStates.LATEST_OPERATION_START_TIME);
+            location_of_prevAct[vehicle.getVehicleTypeIdentifier().getIndex()] = nextAct.getLocation();
+        }
+    }
 
+    @Override
     public void visit(TourActivity activity) {
+        converged = true;
         for (Vehicle vehicle : vehicles) {
             double latestArrTimeAtPrevAct = latest_arrTimes_at_prevAct[vehicle.getVehicleTypeIdentifier().getIndex()];
             Location prevLocation = location_of_prevAct[vehicle.getVehicleTypeIdentifier().getIndex()];
@@ -109,13 +126,21 @@ public class UpdateVehicleDependentPracticalTimeWindows implements RouteVisitor,
             if (latestArrivalTime < activity.getTheoreticalEarliestOperationStartTime()) {
                 stateManager.putTypedInternalRouteState(route, vehicle, InternalStates.SWITCH_NOT_FEASIBLE, true);
             }
+            if (converged && stateManager.getActivityState(activity, vehicle, InternalStates.LATEST_OPERATION_START_TIME) != latestArrivalTime) {
+                converged = false;
+            }
             stateManager.putInternalTypedActivityState(activity, vehicle, InternalStates.LATEST_OPERATION_START_TIME, latestArrivalTime);
             latest_arrTimes_at_prevAct[vehicle.getVehicleTypeIdentifier().getIndex()] = latestArrivalTime;
             location_of_prevAct[vehicle.getVehicleTypeIdentifier().getIndex()] = activity.getLocation();
         }
     }
 
+    @Override
+    public boolean hasConverged() {
+        return converged;
+    }
 
+    @Override
     public void finish() {
     }
 
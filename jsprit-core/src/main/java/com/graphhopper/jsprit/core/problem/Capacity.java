@@ -40,11 +40,11 @@ public class Capacity {
      */
     public static Capacity addup(Capacity cap1, Capacity cap2) {
         if (cap1 == null || cap2 == null) throw new NullPointerException("arguments must not be null");
-        Capacity.Builder capacityBuilder = Capacity.Builder.newInstance();
-        for (int i = 0; i < Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions()); i++) {
-            capacityBuilder.addDimension(i, cap1.get(i) + cap2.get(i));
+        int[] dimensions = new int[Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions())];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = cap1.get(i) + cap2.get(i);
         }
-        return capacityBuilder.build();
+        return new Capacity(dimensions);
     }
 
     /**
@@ -58,12 +58,51 @@ public class Capacity {
      */
     public static Capacity subtract(Capacity cap, Capacity cap2subtract) {
         if (cap == null || cap2subtract == null) throw new NullPointerException("arguments must not be null");
-        Capacity.Builder capacityBuilder = Capacity.Builder.newInstance();
-        for (int i = 0; i < Math.max(cap.getNuOfDimensions(), cap2subtract.getNuOfDimensions()); i++) {
-            int dimValue = cap.get(i) - cap2subtract.get(i);
-            capacityBuilder.addDimension(i, dimValue);
+        int[] dimensions = new int[Math.max(cap.getNuOfDimensions(), cap2subtract.getNuOfDimensions())];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = cap.get(i) - cap2subtract.get(i);
         }
-        return capacityBuilder.build();
+        return new Capacity(dimensions);
+    }
+
+    /**
+     * Returns true if the sum of cap1 and cap2 is less or equal to the specified capacity in each and every
+     * dimension. This is equivalent to <code>Capacity.addup(cap1, cap2).isLessOrEqual(capacity)</code>, but it does
+     * not create the sum.
+     *
+     * @param cap1     capacity to be added up
+     * @param cap2     capacity to be added up
+     * @param capacity capacity the sum is compared to
+     * @return true if sum is less or equal
+     * @throws NullPointerException if one of the args is null
+     */
+    public static boolean sumIsLessOrEqual(Capacity cap1, Capacity cap2, Capacity capacity) {
+        if (cap1 == null || cap2 == null || capacity == null) throw new NullPointerException("arguments must not be null");
+        int nuOfDimensions = Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions());
+        for (int i = 0; i < nuOfDimensions; i++) {
+            if (cap1.get(i) + cap2.get(i) > capacity.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if cap minus cap2subtract is less or equal to the specified capacity in each and every
+     * dimension. This is equivalent to <code>Capacity.subtract(cap, cap2subtract).isLessOrEqual(capacity)</code>,
+     * but it does not create the difference.
+     *
+     * @param cap          capacity to be subtracted from
+     * @param cap2subtract capacity to subtract
+     * @param capacity     capacity the difference is compared to
+     * @return true if difference is less or equal
+     * @throws NullPointerException if one of the args is null
+     */
+    public static boolean differenceIsLessOrEqual(Capacity cap, Capacity cap2subtract, Capacity capacity) {
+        if (cap == null || cap2subtract == null || capacity == null) throw new NullPointerException("arguments must not be null");
+        int nuOfDimensions = Math.max(cap.getNuOfDimensions(), cap2subtract.getNuOfDimensions());
+        for (int i = 0; i < nuOfDimensions; i++) {
+            if (cap.get(i) - cap2subtract.get(i) > capacity.get(i)) return false;
+        }
+        return true;
     }
 
     /**
@@ -75,12 +114,11 @@ public class Capacity {
      */
     public static Capacity invert(Capacity cap2invert) {
         if (cap2invert == null) throw new NullPointerException("arguments must not be null");
-        Capacity.Builder capacityBuilder = Capacity.Builder.newInstance();
-        for (int i = 0; i < cap2invert.getNuOfDimensions(); i++) {
-            int dimValue = cap2invert.get(i) * -1;
-            capacityBuilder.addDimension(i, dimValue);
+        int[] dimensions = new int[cap2invert.getNuOfDimensions()];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = cap2invert.get(i) * -1;
         }
-        return capacityBuilder.build();
+        return new Capacity(dimensions);
     }
 
     /**
@@ -204,6 +242,16 @@ public class Capacity {
         dimensions = builder.dimensions;
     }
 
+    /**
+     * Constructs capacity from the specified dimensions. The array is not copied, thus it must not be modified
+     * afterwards.
+     *
+     * @param dimensions capacity dimensions
+     */
+    Capacity(int[] dimensions) {
+        this.dimensions = dimensions;
+    }
+
     /**
      * Returns the number of specified capacity dimensions.
      *
@@ -275,20 +323,20 @@ public class Capacity {
      */
     public static Capacity max(Capacity cap1, Capacity cap2) {
         if (cap1 == null || cap2 == null) throw new IllegalArgumentException("arg must not be null");
-        Capacity.Builder toReturnBuilder = Capacity.Builder.newInstance();
-        for (int i = 0; i < Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions()); i++) {
-            toReturnBuilder.addDimension(i, Math.max(cap1.get(i), cap2.get(i)));
+        int[] dimensions = new int[Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions())];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = Math.max(cap1.get(i), cap2.get(i));
         }
-        return toReturnBuilder.build();
+        return new Capacity(dimensions);
     }
 
     public static Capacity min(Capacity cap1, Capacity cap2) {
         if (cap1 == null || cap2 == null) throw new IllegalArgumentException("arg must not be null");
-        Capacity.Builder toReturnBuilder = Capacity.Builder.newInstance();
-        for (int i = 0; i < Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions()); i++) {
-            toReturnBuilder.addDimension(i, Math.min(cap1.get(i), cap2.get(i)));
+        int[] dimensions = new int[Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions())];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = Math.min(cap1.get(i), cap2.get(i));
         }
-        return toReturnBuilder.build();
+        return new Capacity(dimensions);
     }
 
     @Override
@@ -0,0 +1,215 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem;
+
+import java.util.Arrays;
+
+/**
+ * Mutable capacity to accumulate loads in place.
+ * <p>
+ * <p>In contrast to {@link Capacity}, adding, subtracting and comparing does not create new objects. Use it to
+ * sum up loads along a route and take a snapshot with <code>toCapacity()</code> only when the result needs to be
+ * memorized.
+ * <p>
+ * <p>Note that this is not thread-safe.
+ */
+public class CapacityAccumulator {
+
+    private int[] dimensions = new int[1];
+
+    private int nuOfDimensions = 1;
+
+    /**
+     * Sets all dimensions to zero.
+     *
+     * @return this accumulator
+     */
+    public CapacityAccumulator reset() {
+        Arrays.fill(dimensions, 0, nuOfDimensions, 0);
+        nuOfDimensions = 1;
+        return this;
+    }
+
+    /**
+     * Sets the dimensions of this accumulator to the dimensions of the specified capacity.
+     *
+     * @param capacity capacity to be copied
+     * @return this accumulator
+     * @throws NullPointerException if capacity is null
+     */
+    public CapacityAccumulator set(Capacity capacity) {
+        if (capacity == null) throw new NullPointerException("capacity must not be null");
+        reset();
+        ensureNuOfDimensions(capacity.getNuOfDimensions());
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) {
+            dimensions[i] = capacity.get(i);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the dimensions of this accumulator to the dimensions of the specified accumulator.
+     *
+     * @param accumulator accumulator to be copied
+     * @return this accumulator
+     */
+    public CapacityAccumulator set(CapacityAccumulator accumulator) {
+        reset();
+        ensureNuOfDimensions(accumulator.nuOfDimensions);
+        System.arraycopy(accumulator.dimensions, 0, dimensions, 0, accumulator.nuOfDimensions);
+        return this;
+    }
+
+    /**
+     * Adds up the specified capacity, i.e. sums up each and every capacity dimension.
+     *
+     * @param capacity capacity to be added up
+     * @return this accumulator
+     * @throws NullPointerException if capacity is null
+     */
+    public CapacityAccumulator add(Capacity capacity) {
+        if (capacity == null) throw new NullPointerException("capacity must not be null");
+        ensureNuOfDimensions(capacity.getNuOfDimensions());
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) {
+            dimensions[i] += capacity.get(i);
+        }
+        return this;
+    }
+
+    /**
+     * Subtracts the specified capacity in each and every capacity dimension.
+     *
+     * @param capacity capacity to subtract
+     * @return this accumulator
+     * @throws NullPointerException if capacity is null
+     */
+    public CapacityAccumulator subtract(Capacity capacity) {
+        if (capacity == null) throw new NullPointerException("capacity must not be null");
+        ensureNuOfDimensions(capacity.getNuOfDimensions());
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) {
+            dimensions[i] -= capacity.get(i);
+        }
+        return this;
+    }
+
+    /**
+     * Sets each dimension to the maximum of its current value and the corresponding dimension of the specified
+     * capacity.
+     *
+     * @param capacity capacity to compare with
+     * @return this accumulator
+     * @throws NullPointerException if capacity is null
+     */
+    public CapacityAccumulator max(Capacity capacity) {
+        if (capacity == null) throw new NullPointerException("capacity must not be null");
+        ensureNuOfDimensions(capacity.getNuOfDimensions());
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) {
+            dimensions[i] = Math.max(dimensions[i], capacity.get(i));
+        }
+        return this;
+    }
+
+    /**
+     * Sets each dimension to the maximum of its current value and the corresponding dimension of the specified
+     * accumulator.
+     *
+     * @param accumulator accumulator to compare with
+     * @return this accumulator
+     */
+    public CapacityAccumulator max(CapacityAccumulator accumulator) {
+        ensureNuOfDimensions(accumulator.nuOfDimensions);
+        for (int i = 0; i < accumulator.nuOfDimensions; i++) {
+            dimensions[i] = Math.max(dimensions[i], accumulator.dimensions[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the value of the specified dimension, or 0 if the dimension has not been set yet.
+     *
+     * @param index dimension index
+     * @return dimension value
+     */
+    public int get(int index) {
+        if (index < nuOfDimensions) return dimensions[index];
+        return 0;
+    }
+
+    /**
+     * Returns the number of dimensions.
+     *
+     * @return noDimensions
+     */
+    public int getNuOfDimensions() {
+        return nuOfDimensions;
+    }
+
+    /**
+     * Returns true if each and every dimension of this accumulator is less or equal than the corresponding
+     * dimension of the specified capacity.
+     *
+     * @param toCompare capacity to compare with
+     * @return true if less or equal
+     * @throws NullPointerException if toCompare is null
+     */
+    public boolean isLessOrEqual(Capacity toCompare) {
+        if (toCompare == null) throw new NullPointerException();
+        for (int i = 0; i < nuOfDimensions; i++) {
+            if (dimensions[i] > toCompare.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if each and every dimension of this accumulator is greater or equal than the corresponding
+     * dimension of the specified capacity.
+     *
+     * @param toCompare capacity to compare with
+     * @return true if greater or equal
+     * @throws NullPointerException if toCompare is null
+     */
+    public boolean isGreaterOrEqual(Capacity toCompare) {
+        if (toCompare == null) throw new NullPointerException();
+        for (int i = 0; i < Math.max(nuOfDimensions, toCompare.getNuOfDimensions()); i++) {
+            if (get(i) < toCompare.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns an immutable snapshot of the current dimensions.
+     *
+     * @return capacity
+     */
+    public Capacity toCapacity() {
+        return new Capacity(Arrays.copyOf(dimensions, nuOfDimensions));
+    }
+
+    private void ensureNuOfDimensions(int requiredNuOfDimensions) {
+        if (requiredNuOfDimensions <= nuOfDimensions) return;
+        if (requiredNuOfDimensions > dimensions.length) {
+            dimensions = Arrays.copyOf(dimensions, requiredNuOfDimensions);
+        }
+        nuOfDimensions = requiredNuOfDimensions;
+    }
+
+    @Override
+    public String toString() {
+        return toCapacity().toString();
+    }
+}
@@ -22,6 +22,7 @@ import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +65,8 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
 
     private final DependencyType[] dependencyTypes;
 
+    private SearchMetrics searchMetrics = new SearchMetrics();
+
     public ConstraintManager(VehicleRoutingProblem vrp, RouteAndActivityStateGetter stateManager) {
         this.vrp = vrp;
         this.stateManager = stateManager;
@@ -77,6 +80,22 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
         resolveConstraints(constraints);
     }
 
+    public SearchMetrics getSearchMetrics() {
+        return searchMetrics;
+    }
+
+    /**
+     * Sets the metrics constraint rejections and insertion calculations are recorded to, i.e. the metrics of the
+     * algorithm this manager is part of.
+     *
+     * @param searchMetrics the search metrics
+     */
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+        actLevelConstraintManager.setSearchMetrics(searchMetrics);
+        hardRouteConstraintManager.setSearchMetrics(searchMetrics);
+    }
+
     public Collection<HardRouteConstraint> getHardRouteConstraints() {
         return hardRouteConstraintManager.getConstraints();
     }
@@ -149,6 +168,14 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
     }
 
 
+    public boolean isTimeWindowConstraintSet() {
+        return timeWindowConstraintsSet;
+    }
+
+    public boolean isLoadConstraintSet() {
+        return loadConstraintsSet;
+    }
+
     public void addLoadConstraint() {
         if (!loadConstraintsSet) {
             addConstraint(new PickupAndDeliverShipmentLoadActivityLevelConstraint(stateManager), Priority.CRITICAL);
@@ -19,6 +19,8 @@ package com.graphhopper.jsprit.core.problem.constraint;
 
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -34,6 +36,12 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
 
     private Collection<HardActivityConstraint> lowPrioConstraints = new ArrayList<HardActivityConstraint>();
 
+    private SearchMetrics searchMetrics = new SearchMetrics();
+
+    void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
     public void addConstraint(HardActivityConstraint constraint, ConstraintManager.Priority priority) {
         if (priority.equals(ConstraintManager.Priority.CRITICAL)) {
             criticalConstraints.add(constraint);
@@ -70,9 +78,11 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
         for (HardActivityConstraint c : criticalConstraints) {
             ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+                searchMetrics.increment(Metric.CONSTRAINT_REJECTIONS, c.getClass());
                 return status;
             } else {
                 if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                    searchMetrics.increment(Metric.CONSTRAINT_REJECTIONS, c.getClass());
                     notFulfilled = status;
                 }
             }
@@ -82,9 +92,11 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
         for (HardActivityConstraint c : highPrioConstraints) {
             ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+                searchMetrics.increment(Metric.CONSTRAINT_REJECTIONS, c.getClass());
                 return status;
             } else {
                 if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                    searchMetrics.increment(Metric.CONSTRAINT_REJECTIONS, c.getClass());
                     notFulfilled = status;
                 }
             }
@@ -94,6 +106,7 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
         for (HardActivityConstraint constraint : lowPrioConstraints) {
             ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK) || status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                searchMetrics.increment(Metric.CONSTRAINT_REJECTIONS, constraint.getClass());
                 return status;
             }
         }
@@ -18,6 +18,8 @@
 package com.graphhopper.jsprit.core.problem.constraint;
 
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,6 +30,12 @@ class HardRouteLevelConstraintManager implements HardRouteConstraint {
 
     private Collection<HardRouteConstraint> hardConstraints = new ArrayList<HardRouteConstraint>();
 
+    private SearchMetrics searchMetrics = new SearchMetrics();
+
+    void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
     public void addConstraint(HardRouteConstraint constraint) {
         hardConstraints.add(constraint);
     }
@@ -40,6 +48,7 @@ class HardRouteLevelConstraintManager implements HardRouteConstraint {
     public boolean fulfilled(JobInsertionContext insertionContext) {
         for (HardRouteConstraint constraint : hardConstraints) {
             if (!constraint.fulfilled(insertionContext)) {
+                searchMetrics.increment(Metric.CONSTRAINT_REJECTIONS, constraint.getClass());
                 return false;
             }
         }
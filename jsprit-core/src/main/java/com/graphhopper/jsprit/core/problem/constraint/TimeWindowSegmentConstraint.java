@@ -0,0 +1,79 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+import com.graphhopper.jsprit.core.algorithm.state.TimeWindowSegment;
+import com.graphhopper.jsprit.core.algorithm.state.UpdateTimeWindowSegments;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+
+
+/**
+ * Time-window constraint based on the time-window segments memorized by {@link UpdateTimeWindowSegments}, i.e. an
+ * alternative to {@link VehicleDependentTimeWindowConstraints}.
+ * <p>
+ * <p>The partial route up to prevAct is represented by the departure time at prevAct, which is concatenated with
+ * the segment of newAct and the memorized suffix starting at nextAct. Thus each check takes constant time and also
+ * considers the waiting times that newAct might absorb or cause at subsequent activities.</p>
+ * <p>
+ * <p>Note that the segments must be memorized for all vehicles that might be switched to, see
+ * {@link UpdateTimeWindowSegments#setVehiclesToUpdate(com.graphhopper.jsprit.core.algorithm.state.UpdateVehicleDependentPracticalTimeWindows.VehiclesToUpdate)}.
+ * If a suffix is not available, only nextAct itself is considered.</p>
+ */
+public class TimeWindowSegmentConstraint implements HardActivityConstraint {
+
+    private final UpdateTimeWindowSegments segments;
+
+    public TimeWindowSegmentConstraint(UpdateTimeWindowSegments segments) {
+        this.segments = segments;
+    }
+
+    @Override
+    public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+        if (iFacts.getNewVehicle().getLatestArrival() < newAct.getTheoreticalEarliestOperationStartTime()) {
+            return ConstraintsStatus.NOT_FULFILLED_BREAK;
+        }
+        TimeWindowSegment prefix = TimeWindowSegment.of(prevAct.getLocation(), prevActDepTime, prevActDepTime, 0.);
+        TimeWindowSegment suffix = getSuffix(iFacts, nextAct);
+        /*
+         * if nextAct cannot be reached in time on the direct way, it cannot be reached in time when looping further
+         */
+        if (!segments.concat(prefix, suffix, iFacts.getNewDriver(), iFacts.getNewVehicle()).isFeasible()) {
+            return ConstraintsStatus.NOT_FULFILLED_BREAK;
+        }
+        TimeWindowSegment toNewAct = segments.concat(prefix, segments.getSegment(newAct, iFacts.getNewDriver(), iFacts.getNewVehicle()), iFacts.getNewDriver(), iFacts.getNewVehicle());
+        if (!toNewAct.isFeasible()) {
+            return ConstraintsStatus.NOT_FULFILLED;
+        }
+        if (!segments.concat(toNewAct, suffix, iFacts.getNewDriver(), iFacts.getNewVehicle()).isFeasible()) {
+            return ConstraintsStatus.NOT_FULFILLED;
+        }
+        return ConstraintsStatus.FULFILLED;
+    }
+
+    private TimeWindowSegment getSuffix(JobInsertionContext iFacts, TourActivity nextAct) {
+        TimeWindowSegment end = segments.getEnd(iFacts.getNewVehicle());
+        if (nextAct instanceof End) return end;
+        TimeWindowSegment suffix = segments.getSuffix(nextAct, iFacts.getNewVehicle());
+        if (suffix == null) {
+            suffix = segments.concat(segments.getSegment(nextAct, iFacts.getNewDriver(), iFacts.getNewVehicle()), end, iFacts.getNewDriver(), iFacts.getNewVehicle());
+        }
+        return suffix;
+    }
+}
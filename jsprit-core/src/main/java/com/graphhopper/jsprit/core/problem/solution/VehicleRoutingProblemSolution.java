@@ -38,7 +38,19 @@ public class VehicleRoutingProblemSolution {
      * @return solution
      */
     public static VehicleRoutingProblemSolution copyOf(VehicleRoutingProblemSolution solution2copy) {
-        return new VehicleRoutingProblemSolution(solution2copy);
+        return new VehicleRoutingProblemSolution(solution2copy, false);
+    }
+
+    /**
+     * Makes a copy of the solution whose routes share their activities with the routes of the solution to be copied
+     * until they are modified (see {@link VehicleRoute#copyOnWriteOf(VehicleRoute)}). Thus only routes that are
+     * actually changed afterwards are deep-copied.
+     *
+     * @param solution2copy solution to be copied
+     * @return solution
+     */
+    public static VehicleRoutingProblemSolution copyOnWriteOf(VehicleRoutingProblemSolution solution2copy) {
+        return new VehicleRoutingProblemSolution(solution2copy, true);
     }
 
     private final Collection<VehicleRoute> routes;
@@ -47,10 +59,10 @@ public class VehicleRoutingProblemSolution {
 
     private double cost;
 
-    private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution) {
-        routes = new ArrayList<VehicleRoute>();
+    private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution, boolean copyOnWrite) {
+        routes = new ArrayList<VehicleRoute>(solution.getRoutes().size());
         for (VehicleRoute r : solution.getRoutes()) {
-            VehicleRoute route = VehicleRoute.copyOf(r);
+            VehicleRoute route = copyOnWrite ? VehicleRoute.copyOnWriteOf(r) : VehicleRoute.copyOf(r);
             routes.add(route);
         }
         this.cost = solution.getCost();
@@ -19,6 +19,8 @@ package com.graphhopper.jsprit.core.problem.solution.route;
 
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,10 +31,25 @@ public class ReverseRouteActivityVisitor implements RouteVisitor {
 
     private Collection<ReverseActivityVisitor> visitors = new ArrayList<ReverseActivityVisitor>();
 
+    private SearchMetrics searchMetrics = new SearchMetrics();
+
+    /**
+     * Sets the metrics the time of each activity visitor is recorded to.
+     *
+     * @param searchMetrics the search metrics
+     */
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
     @Override
     public void visit(VehicleRoute route) {
         if (visitors.isEmpty()) return;
         if (route.isEmpty()) return;
+        if (searchMetrics.isEnabled()) {
+            visitAndMeasure(route);
+            return;
+        }
         begin(route);
         Iterator<TourActivity> revIterator = route.getTourActivities().reverseActivityIterator();
         while (revIterator.hasNext()) {
@@ -42,6 +59,36 @@ public class ReverseRouteActivityVisitor implements RouteVisitor {
         finish(route);
     }
 
+    /*
+     * same as visit(route), but records the time each visitor takes
+     */
+    private void visitAndMeasure(VehicleRoute route) {
+        long[] times = new long[visitors.size()];
+        int i = 0;
+        for (ReverseActivityVisitor visitor : visitors) {
+            long startTime = System.nanoTime();
+            visitor.begin(route);
+            times[i++] += System.nanoTime() - startTime;
+        }
+        Iterator<TourActivity> revIterator = route.getTourActivities().reverseActivityIterator();
+        while (revIterator.hasNext()) {
+            TourActivity act = revIterator.next();
+            i = 0;
+            for (ReverseActivityVisitor visitor : visitors) {
+                long startTime = System.nanoTime();
+                visitor.visit(act);
+                times[i++] += System.nanoTime() - startTime;
+            }
+        }
+        i = 0;
+        for (ReverseActivityVisitor visitor : visitors) {
+            long startTime = System.nanoTime();
+            visitor.finish();
+            times[i] += System.nanoTime() - startTime;
+            searchMetrics.add(Metric.STATE_UPDATE_TIME, visitor.getClass(), times[i++]);
+        }
+    }
+
     private void finish(VehicleRoute route) {
         for (ReverseActivityVisitor visitor : visitors) {
             visitor.finish();
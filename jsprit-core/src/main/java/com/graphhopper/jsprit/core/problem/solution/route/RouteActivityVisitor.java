@@ -19,6 +19,8 @@ package com.graphhopper.jsprit.core.problem.solution.route;
 
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,9 +30,24 @@ public class RouteActivityVisitor implements RouteVisitor {
 
     private Collection<ActivityVisitor> visitors = new ArrayList<ActivityVisitor>();
 
+    private SearchMetrics searchMetrics = new SearchMetrics();
+
+    /**
+     * Sets the metrics the time of each activity visitor is recorded to.
+     *
+     * @param searchMetrics the search metrics
+     */
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
     @Override
     public void visit(VehicleRoute route) {
         if (visitors.isEmpty()) return;
+        if (searchMetrics.isEnabled()) {
+            visitAndMeasure(route);
+            return;
+        }
         begin(route);
         for (TourActivity act : route.getTourActivities().getActivities()) {
             visit(act);
@@ -38,6 +55,34 @@ public class RouteActivityVisitor implements RouteVisitor {
         end(route);
     }
 
+    /*
+     * same as visit(route), but records the time each visitor takes
+     */
+    private void visitAndMeasure(VehicleRoute route) {
+        long[] times = new long[visitors.size()];
+        int i = 0;
+        for (ActivityVisitor visitor : visitors) {
+            long startTime = System.nanoTime();
+            visitor.begin(route);
+            times[i++] += System.nanoTime() - startTime;
+        }
+        for (TourActivity act : route.getTourActivities().getActivities()) {
+            i = 0;
+            for (ActivityVisitor visitor : visitors) {
+                long startTime = System.nanoTime();
+                visitor.visit(act);
+                times[i++] += System.nanoTime() - startTime;
+            }
+        }
+        i = 0;
+        for (ActivityVisitor visitor : visitors) {
+            long startTime = System.nanoTime();
+            visitor.finish();
+            times[i] += System.nanoTime() - startTime;
+            searchMetrics.add(Metric.STATE_UPDATE_TIME, visitor.getClass(), times[i++]);
+        }
+    }
+
     private void end(VehicleRoute route) {
         for (ActivityVisitor visitor : visitors) {
             visitor.finish();
@@ -45,7 +45,20 @@ public class VehicleRoute {
      */
     public static VehicleRoute copyOf(VehicleRoute route) {
         if (route == null) throw new IllegalArgumentException("route must not be null");
-        return new VehicleRoute(route);
+        return new VehicleRoute(route, false);
+    }
+
+    /**
+     * Returns a copy of this vehicleRoute that shares its activities with the original route until either
+     * of them is modified (see {@link TourActivities#copyOnWriteOf(TourActivities)}). Start and end are always copied.
+     *
+     * @param route route to copy
+     * @return copied route
+     * @throws IllegalArgumentException if route is null
+     */
+    public static VehicleRoute copyOnWriteOf(VehicleRoute route) {
+        if (route == null) throw new IllegalArgumentException("route must not be null");
+        return new VehicleRoute(route, true);
     }
 
     /**
@@ -335,15 +348,19 @@ public class VehicleRoute {
 
     private End end;
 
+    private Object stateSlot;
+
     /**
      * Copy constructor copying a route.
      *
-     * @param route to copy
+     * @param route       to copy
+     * @param copyOnWrite whether activities are shared until modified
      */
-    private VehicleRoute(VehicleRoute route) {
+    private VehicleRoute(VehicleRoute route, boolean copyOnWrite) {
         this.start = Start.copyOf(route.getStart());
         this.end = End.copyOf(route.getEnd());
-        this.tourActivities = TourActivities.copyOf(route.getTourActivities());
+        if (copyOnWrite) this.tourActivities = TourActivities.copyOnWriteOf(route.getTourActivities());
+        else this.tourActivities = TourActivities.copyOf(route.getTourActivities());
         this.vehicle = route.getVehicle();
         this.driver = route.getDriver();
     }
@@ -473,6 +490,29 @@ public class VehicleRoute {
         return end;
     }
 
+    /**
+     * Returns the slot in which a StateManager memorizes the states of this route, or null if there is none.
+     * <p>
+     * <p>This is used internally to look up route states without hashing the route. The slot is opaque and only
+     * meaningful to the StateManager that set it.
+     *
+     * @return state slot
+     */
+    public Object getStateSlot() {
+        return stateSlot;
+    }
+
+    /**
+     * Sets the slot in which a StateManager memorizes the states of this route.
+     * <p>
+     * <p>This is used internally by the StateManager. Do not set it yourself.
+     *
+     * @param stateSlot the slot
+     */
+    public void setStateSlot(Object stateSlot) {
+        this.stateSlot = stateSlot;
+    }
+
     @Override
     public String toString() {
         return "[start=" + start + "][end=" + end + "][departureTime=" + start.getEndTime() + "][vehicle=" + vehicle + "][driver=" + driver + "][nuOfActs=" + tourActivities.getActivities().size() + "]";
@@ -21,6 +21,7 @@ import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity.JobActivity;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -33,6 +34,33 @@ public class TourActivities {
         return new TourActivities(tourActivities);
     }
 
+    /**
+     * Returns a copy that shares the activities and the job set of the specified tourActivities until either
+     * of the two is modified. Only the first modification duplicates the activities (as copyOf does), thus
+     * copying a sequence that is never modified afterwards is cheap.
+     * <p>
+     * <p>Since the activity objects themselves are shared, their arrival and end times must only be changed via
+     * {@link #setActivityTimes(TourActivity, double, double)}, which duplicates the activities before writing.</p>
+     *
+     * @param tourActivities to be copied
+     * @return copy-on-write copy of tourActivities
+     */
+    public static TourActivities copyOnWriteOf(TourActivities tourActivities) {
+        TourActivities copy = new TourActivities();
+        copy.tourActivities.addAll(tourActivities.tourActivities);
+        copy.jobs = tourActivities.jobs;
+        copy.identity = tourActivities.identity;
+        copy.version = tourActivities.version;
+        copy.copied = true;
+        synchronized (tourActivities) {
+            tourActivities.copied = true;
+            if (tourActivities.sharers == null) tourActivities.sharers = new AtomicInteger(1);
+            tourActivities.sharers.incrementAndGet();
+            copy.sharers = tourActivities.sharers;
+        }
+        return copy;
+    }
+
     public static class ReverseActivityIterator implements Iterator<TourActivity> {
 
         private List<TourActivity> acts;
@@ -69,22 +97,125 @@ public class TourActivities {
 
     private final ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
 
-    private final Set<Job> jobs = new HashSet<Job>();
+    private Set<Job> jobs = new HashSet<Job>();
 
     private ReverseActivityIterator backward;
 
+    /*
+     * number of sequences sharing activities and job set with this one (including this one), or null if nothing is
+     * shared. every sequence that stops sharing decrements the counter, thus the last one does not need to copy.
+     */
+    private AtomicInteger sharers;
+
+    /*
+     * identity and version identify the activity sequence. copies keep both, and every modification increments the
+     * version. the first modification of a sequence that has not been modified before or that has been copied since
+     * its last modification assigns a new identity, such that copies modified independently cannot be mistaken for
+     * each other. every empty sequence that has never been modified has identity null and version 0.
+     */
+    private Object identity;
+
+    private long version = 0;
+
+    private boolean copied;
+
     private TourActivities(TourActivities tour2copy) {
         for (TourActivity tourAct : tour2copy.getActivities()) {
             TourActivity newAct = tourAct.duplicate();
             this.tourActivities.add(newAct);
             addJob(newAct);
         }
+        this.identity = tour2copy.identity;
+        this.version = tour2copy.version;
+        this.copied = true;
+        tour2copy.copied = true;
     }
 
     public TourActivities() {
 
     }
 
+    /**
+     * Returns true if activities and job set are still shared with a copy-on-write copy (or with the sequence this
+     * one has been copied from).
+     *
+     * @return true if activities are shared
+     */
+    public boolean isShared() {
+        return sharers != null && sharers.get() > 1;
+    }
+
+    /*
+     * duplicates activities and job set if they are still shared with a copy-on-write copy, such that subsequent
+     * modifications do not affect the other copy. this is done implicitly by every method modifying the sequence.
+     */
+    void unshare() {
+        if (sharers == null) return;
+        if (sharers.get() > 1) {
+            for (int i = 0; i < tourActivities.size(); i++) {
+                tourActivities.set(i, tourActivities.get(i).duplicate());
+            }
+            jobs = new HashSet<Job>(jobs);
+            sharers.decrementAndGet();
+        }
+        sharers = null;
+    }
+
+    /**
+     * Sets arrival and end time of the specified activity. If the times change and the activities are still shared
+     * with a copy-on-write copy, the activities are duplicated first such that the copy is not affected. In this case,
+     * the times are set to the duplicate of the specified activity, which replaces it in this sequence.
+     *
+     * @param activity activity of this sequence
+     * @param arrTime  arrival time
+     * @param endTime  end time
+     * @return the activity the times have been set to, i.e. activity or its duplicate
+     * @throws IllegalArgumentException if activities are shared and activity is not part of this sequence
+     */
+    public TourActivity setActivityTimes(TourActivity activity, double arrTime, double endTime) {
+        if (activity.getArrTime() == arrTime && activity.getEndTime() == endTime) return activity;
+        if (isShared()) {
+            int index = indexOf(activity);
+            if (index < 0) throw new IllegalArgumentException("activity " + activity + " is not part of this sequence");
+            unshare();
+            activity = tourActivities.get(index);
+        }
+        activity.setArrTime(arrTime);
+        activity.setEndTime(endTime);
+        return activity;
+    }
+
+    /**
+     * Returns the identity of this activity sequence. Copies keep the identity of the sequence they have been copied
+     * from until either of them is modified. Together with {@link #getVersion()}, it identifies the activities of the
+     * sequence, i.e. two sequences with the same identity (in terms of ==) and the same version contain the same
+     * activities in the same order.
+     *
+     * @return identity of activity sequence
+     */
+    public Object getIdentity() {
+        return identity;
+    }
+
+    /**
+     * Returns the version of this activity sequence. Each modification increments the version, whereas copies keep
+     * the version of the sequence they have been copied from.
+     *
+     * @return version of activity sequence
+     * @see #getIdentity()
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private void modified() {
+        if (identity == null || copied) {
+            identity = new Object();
+            copied = false;
+        }
+        version++;
+    }
+
     public List<TourActivity> getActivities() {
         return Collections.unmodifiableList(tourActivities);
     }
@@ -127,6 +258,7 @@ public class TourActivities {
         if (!jobs.contains(job)) {
             return false;
         } else {
+            unshare();
             jobRemoved = jobs.remove(job);
         }
         boolean activityRemoved = false;
@@ -142,6 +274,7 @@ public class TourActivities {
             }
         }
         assert jobRemoved == activityRemoved : "job removed, but belonging activity not.";
+        if (activityRemoved) modified();
         return activityRemoved;
     }
 
@@ -159,6 +292,12 @@ public class TourActivities {
         if (activity instanceof JobActivity) {
             job = ((JobActivity) activity).getJob();
         }
+        if (isShared()) {
+            int index = indexOf(activity);
+            if (index < 0) return false;
+            unshare();
+            activity = tourActivities.get(index);
+        }
         boolean jobIsAlsoAssociateToOtherActs = false;
         boolean actRemoved = false;
         List<TourActivity> acts = new ArrayList<TourActivity>(tourActivities);
@@ -177,9 +316,17 @@ public class TourActivities {
         if (!jobIsAlsoAssociateToOtherActs && actRemoved) {
             jobs.remove(job);
         }
+        if (actRemoved) modified();
         return actRemoved;
     }
 
+    private int indexOf(TourActivity activity) {
+        for (int i = 0; i < tourActivities.size(); i++) {
+            if (tourActivities.get(i) == activity) return i;
+        }
+        return -1;
+    }
+
 
     /**
      * Inserts the specified activity add the specified insertionIndex. Shifts the element currently at that position (if any) and
@@ -194,6 +341,7 @@ public class TourActivities {
     public void addActivity(int insertionIndex, TourActivity act) {
 
         assert insertionIndex >= 0 : "insertionIndex < 0, this cannot be";
+        unshare();
 
 		/*
          * if 1 --> between start and act(0) --> act(0)
@@ -208,6 +356,7 @@ public class TourActivities {
             tourActivities.add(act);
         }
         addJob(act);
+        modified();
     }
 
     /**
@@ -220,8 +369,10 @@ public class TourActivities {
     public void addActivity(TourActivity act) {
         if (tourActivities.contains(act))
             throw new IllegalArgumentException("act " + act + " already in tour. cannot add act twice.");
+        unshare();
         tourActivities.add(act);
         addJob(act);
+        modified();
     }
 
     private void addJob(TourActivity act) {
@@ -17,6 +17,7 @@
  */
 package com.graphhopper.jsprit.core.problem.solution.route.state;
 
+import com.graphhopper.jsprit.core.algorithm.state.DoubleStateId;
 import com.graphhopper.jsprit.core.algorithm.state.StateId;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -33,4 +34,28 @@ public interface RouteAndActivityStateGetter {
 
     public <T> T getRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, Class<T> type);
 
+    /**
+     * Returns the unboxed state, or Double.NaN if no state is associated. Implementations that store doubles unboxed
+     * (like StateManager) should override this.
+     */
+    public default double getActivityState(TourActivity act, DoubleStateId stateId) {
+        Double state = getActivityState(act, stateId, Double.class);
+        return state == null ? Double.NaN : state;
+    }
+
+    public default double getActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId) {
+        Double state = getActivityState(act, vehicle, stateId, Double.class);
+        return state == null ? Double.NaN : state;
+    }
+
+    public default double getRouteState(VehicleRoute route, DoubleStateId stateId) {
+        Double state = getRouteState(route, stateId, Double.class);
+        return state == null ? Double.NaN : state;
+    }
+
+    public default double getRouteState(VehicleRoute route, Vehicle vehicle, DoubleStateId stateId) {
+        Double state = getRouteState(route, vehicle, stateId, Double.class);
+        return state == null ? Double.NaN : state;
+    }
+
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.reporting;
+
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.SearchMetrics;
+
+import java.util.Collection;
+
+/**
+ * Algorithm listener that passes a snapshot of the {@link SearchMetrics} of an algorithm to its listener every n
+ * iterations and when the algorithm ends. Note that it does not enable metrics itself.
+ */
+public class SearchMetricsReporter implements IterationEndsListener, AlgorithmEndsListener {
+
+    public interface Listener {
+
+        /**
+         * @param iteration the iteration the snapshot has been taken at, or -1 if the algorithm has ended
+         * @param snapshot  the metrics
+         */
+        void informMetrics(int iteration, SearchMetrics.Snapshot snapshot);
+
+    }
+
+    private final SearchMetrics searchMetrics;
+
+    private final int interval;
+
+    private final Listener listener;
+
+    /**
+     * @param searchMetrics the metrics to be reported, usually {@link com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm#getSearchMetrics()}
+     * @param interval      number of iterations between two snapshots. if 0, the listener is only informed when the algorithm ends.
+     * @param listener      the listener to be informed
+     */
+    public SearchMetricsReporter(SearchMetrics searchMetrics, int interval, Listener listener) {
+        if (interval < 0) throw new IllegalArgumentException("interval must not be negative");
+        this.searchMetrics = searchMetrics;
+        this.interval = interval;
+        this.listener = listener;
+    }
+
+    @Override
+    public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        if (interval > 0 && i % interval == 0) {
+            listener.informMetrics(i, searchMetrics.snapshot());
+        }
+    }
+
+    @Override
+    public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        listener.informMetrics(-1, searchMetrics.snapshot());
+    }
+
+}
@@ -79,6 +79,20 @@ public class ActivityTimeTracker implements ActivityVisitor {
         beginFirst = true;
     }
 
+    /**
+     * Resumes tracking at the activity following prevAct, i.e. the end time of prevAct is assumed to be up to date.
+     *
+     * @param route   the route to be tracked
+     * @param prevAct the activity tracking resumes from
+     */
+    public void begin(VehicleRoute route, TourActivity prevAct) {
+        this.prevAct = prevAct;
+        startAtPrevAct = prevAct.getEndTime();
+        actEndTime = startAtPrevAct;
+        this.route = route;
+        beginFirst = true;
+    }
+
     @Override
     public void visit(TourActivity activity) {
         if (!beginFirst) throw new IllegalStateException("never called begin. this however is essential here");
@@ -28,6 +28,9 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
  * CostMatrix that allows pre-compiled time and distance-matrices to be considered as {@link com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts}
  * in the {@link com.graphhopper.jsprit.core.problem.VehicleRoutingProblem}.
  * <p>Note that you can also use it with distance matrix only (or time matrix).
+ * <p>Distances and times are stored in two separate flat (row-major) arrays, i.e. a lookup is a single index calculation.
+ * If the matrix is symmetric, only the upper triangle (including the diagonal) is stored. Optionally, values can be stored
+ * in single precision (see {@link Builder#setSinglePrecision(boolean)}) which halves the memory footprint.
  *
  * @author schroeder
  */
@@ -42,10 +45,22 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
 
         private boolean isSymmetric;
 
-        private double[][][] matrix;
-
         private final int noLocations;
 
+        private final int[] rowOffsets;
+
+        private final int size;
+
+        private boolean singlePrecision = false;
+
+        private double[] distances;
+
+        private double[] times;
+
+        private float[] distancesSinglePrecision;
+
+        private float[] timesSinglePrecision;
+
         /**
          * Creates a new builder returning the matrix-builder.
          * <p>If you want to consider symmetric matrices, set isSymmetric to true.
@@ -59,8 +74,36 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
 
         private Builder(int noLocations, boolean isSymmetric) {
             this.isSymmetric = isSymmetric;
-            matrix = new double[noLocations][noLocations][2];
             this.noLocations = noLocations;
+            this.rowOffsets = new int[noLocations];
+            long noCells;
+            if (isSymmetric) noCells = (long) noLocations * (noLocations + 1) / 2;
+            else noCells = (long) noLocations * noLocations;
+            if (noCells > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("too many locations (" + noLocations + "). matrix cannot be stored in a single array.");
+            int offset = 0;
+            for (int i = 0; i < noLocations; i++) {
+                if (isSymmetric) {
+                    rowOffsets[i] = offset - i;
+                    offset += noLocations - i;
+                } else rowOffsets[i] = i * noLocations;
+            }
+            this.size = (int) noCells;
+        }
+
+        /**
+         * Sets whether values are stored as float instead of double. This halves the memory footprint
+         * of the matrix at the cost of precision. It must be set before any value is added.
+         *
+         * @param singlePrecision true if values should be stored as float
+         * @return builder
+         * @throws IllegalStateException if values have already been added
+         */
+        public Builder setSinglePrecision(boolean singlePrecision) {
+            if (distances != null || times != null || distancesSinglePrecision != null || timesSinglePrecision != null)
+                throw new IllegalStateException("precision must be set before adding values");
+            this.singlePrecision = singlePrecision;
+            return this;
         }
 
         /**
@@ -70,17 +113,24 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
          * @param toIndex   to location index
          * @param distance  the distance to be added
          * @return builder
+         * @throws IllegalArgumentException if an index is negative or not smaller than the number of locations
          */
         public Builder addTransportDistance(int fromIndex, int toIndex, double distance) {
-            add(fromIndex, toIndex, 0, distance);
+            int index = index(fromIndex, toIndex);
+            if (singlePrecision) {
+                if (distancesSinglePrecision == null) distancesSinglePrecision = new float[size];
+                distancesSinglePrecision[index] = (float) distance;
+            } else {
+                if (distances == null) distances = new double[size];
+                distances[index] = distance;
+            }
             return this;
         }
 
-        private void add(int fromIndex, int toIndex, int indicatorIndex, double value) {
-            if (isSymmetric) {
-                if (fromIndex < toIndex) matrix[fromIndex][toIndex][indicatorIndex] = value;
-                else matrix[toIndex][fromIndex][indicatorIndex] = value;
-            } else matrix[fromIndex][toIndex][indicatorIndex] = value;
+        private int index(int fromIndex, int toIndex) {
+            checkIndices(fromIndex, toIndex, noLocations);
+            if (isSymmetric && fromIndex > toIndex) return rowOffsets[toIndex] + fromIndex;
+            return rowOffsets[fromIndex] + toIndex;
         }
 
         /**
@@ -90,9 +140,17 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
          * @param toIndex   to location index
          * @param time      the time to be added
          * @return builder
+         * @throws IllegalArgumentException if an index is negative or not smaller than the number of locations
          */
         public Builder addTransportTime(int fromIndex, int toIndex, double time) {
-            add(fromIndex, toIndex, 1, time);
+            int index = index(fromIndex, toIndex);
+            if (singlePrecision) {
+                if (timesSinglePrecision == null) timesSinglePrecision = new float[size];
+                timesSinglePrecision[index] = (float) time;
+            } else {
+                if (times == null) times = new double[size];
+                times[index] = time;
+            }
             return this;
         }
 
@@ -115,22 +173,47 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
 
     private final boolean isSymmetric;
 
-    private final double[][][] matrix;
+    private final int[] rowOffsets;
+
+    private final boolean singlePrecision;
 
-    private int noLocations;
+    private final double[] distances;
+
+    private final double[] times;
+
+    private final float[] distancesSinglePrecision;
+
+    private final float[] timesSinglePrecision;
+
+    private final int noLocations;
 
     private FastVehicleRoutingTransportCostsMatrix(Builder builder) {
         this.isSymmetric = builder.isSymmetric;
-        matrix = builder.matrix;
+        this.rowOffsets = builder.rowOffsets;
+        this.singlePrecision = builder.singlePrecision;
+        this.distances = builder.distances;
+        this.times = builder.times;
+        this.distancesSinglePrecision = builder.distancesSinglePrecision;
+        this.timesSinglePrecision = builder.timesSinglePrecision;
         noLocations = builder.noLocations;
     }
 
     /**
      * First dim is from, second to and third indicates whether it is a distance value (index=0) or time value (index=1).
+     * <p>Note that the matrix is not stored this way, i.e. this creates a new array of size noLocations*noLocations*2.
      *
      * @return
+     * @deprecated use {@link #getDistance(int, int)} and {@link #getTransportTime(int, int)} instead
      */
+    @Deprecated
     public double[][][] getMatrix() {
+        double[][][] matrix = new double[noLocations][noLocations][2];
+        for (int from = 0; from < noLocations; from++) {
+            for (int to = 0; to < noLocations; to++) {
+                matrix[from][to][0] = getDistance(from, to);
+                matrix[from][to][1] = getTransportTime(from, to);
+            }
+        }
         return matrix;
     }
 
@@ -138,19 +221,36 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
     public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
         if (from.getIndex() < 0 || to.getIndex() < 0)
             throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
-        int timeIndex = 1;
-        return get(from.getIndex(), to.getIndex(), timeIndex);
+        return getTransportTime(from.getIndex(), to.getIndex());
+    }
+
+    private int index(int from, int to) {
+        checkIndices(from, to, noLocations);
+        if (isSymmetric && from > to) return rowOffsets[to] + from;
+        return rowOffsets[from] + to;
     }
 
-    private double get(int from, int to, int indicatorIndex) {
-        double value;
-        if (isSymmetric) {
-            if (from < to) value = matrix[from][to][indicatorIndex];
-            else value = matrix[to][from][indicatorIndex];
-        } else {
-            value = matrix[from][to][indicatorIndex];
+    private static void checkIndices(int fromIndex, int toIndex, int noLocations) {
+        if (fromIndex < 0 || toIndex < 0 || fromIndex >= noLocations || toIndex >= noLocations)
+            throw new IllegalArgumentException("relation " + fromIndex + " -> " + toIndex + " is out of bounds. noLocations=" + noLocations);
+    }
+
+    /**
+     * Returns the transport time from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the transport time
+     * @throws IllegalArgumentException if an index is negative or not smaller than the number of locations
+     */
+    public double getTransportTime(int fromIndex, int toIndex) {
+        int index = index(fromIndex, toIndex);
+        if (singlePrecision) {
+            if (timesSinglePrecision == null) return 0.;
+            return timesSinglePrecision[index];
         }
-        return value;
+        if (times == null) return 0.;
+        return times[index];
     }
 
     /**
@@ -159,10 +259,16 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
      * @param fromIndex from location index
      * @param toIndex   to location index
      * @return the distance
+     * @throws IllegalArgumentException if an index is negative or not smaller than the number of locations
      */
     public double getDistance(int fromIndex, int toIndex) {
-        int distanceIndex = 0;
-        return get(fromIndex, toIndex, distanceIndex);
+        int index = index(fromIndex, toIndex);
+        if (singlePrecision) {
+            if (distancesSinglePrecision == null) return 0.;
+            return distancesSinglePrecision[index];
+        }
+        if (distances == null) return 0.;
+        return distances[index];
     }
 
     @Override
@@ -176,7 +282,7 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
             throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
         if (vehicle == null) return getDistance(from.getIndex(), to.getIndex());
         VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
-        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from, to, departureTime, driver, vehicle);
+        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from.getIndex(), to.getIndex());
     }
 
     public int getNoLocations() {
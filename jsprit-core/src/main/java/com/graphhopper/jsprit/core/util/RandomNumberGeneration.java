@@ -18,9 +18,12 @@
 package com.graphhopper.jsprit.core.util;
 
 import java.util.Random;
+import java.util.SplittableRandom;
 
 public class RandomNumberGeneration {
 
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
     private static long DEFAULT_SEED = 4711L;
 
     private static Random random = new Random(DEFAULT_SEED);
@@ -29,6 +32,57 @@ public class RandomNumberGeneration {
         return new Random(DEFAULT_SEED);
     }
 
+    public static Random newInstance(long seed) {
+        return new Random(seed);
+    }
+
+    /**
+     * Derives the random number generator of an independent stream from a seed. The same seed and stream always
+     * yield the same sequence, whereas different streams are statistically independent. Thus each component and each
+     * worker thread can draw from its own generator, i.e. without contention on a shared one and reproducibly
+     * for a given seed and number of threads.
+     *
+     * @param seed   the seed all streams are derived from
+     * @param stream the id of the stream
+     * @return the random number generator of the stream
+     */
+    public static Random newInstance(long seed, long stream) {
+        return new Random(newSplittableInstance(seed, stream).nextLong());
+    }
+
+    /**
+     * Derives a splittable random number generator of an independent stream from a seed.
+     *
+     * @param seed   the seed all streams are derived from
+     * @param stream the id of the stream
+     * @return the splittable random number generator of the stream
+     */
+    public static SplittableRandom newSplittableInstance(long seed, long stream) {
+        return new SplittableRandom(seed + stream * GOLDEN_GAMMA).split();
+    }
+
+    /**
+     * Mixes the specified values to a well-distributed, uniform double in [0,1), i.e. a stateless random number
+     * that solely depends on its input.
+     *
+     * @param seed   the seed
+     * @param values the values to be mixed into the seed
+     * @return uniform random number in [0,1)
+     */
+    public static double hashToDouble(long seed, long... values) {
+        long h = mix(seed);
+        for (long v : values) {
+            h = mix(h + GOLDEN_GAMMA + v);
+        }
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
     public static Random getRandom() {
         return random;
     }
@@ -0,0 +1,209 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in instrumentation of the search, i.e. counters and timers recorded at the hot paths of the algorithm.
+ * <p>
+ * <p>Each algorithm owns its metrics (see {@link com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm#getSearchMetrics()}),
+ * which are passed to its search strategies, its state manager and its constraint manager. Recording is disabled by
+ * default and costs a single read of a volatile flag per recording point then. Once enabled (see {@link #enable()}),
+ * each metric is recorded per key (e.g. strategy id or class of constraint) in striped {@link LongAdder}s, thus
+ * concurrent search threads do not contend. Times are recorded in nanoseconds (wall time). Use {@link #snapshot()} to
+ * read the current values or register a {@link com.graphhopper.jsprit.core.reporting.SearchMetricsReporter} to be
+ * informed periodically.
+ */
+public class SearchMetrics {
+
+    public enum Metric {
+
+        /**
+         * wall time per search strategy (key: strategy id)
+         */
+        STRATEGY_TIME,
+
+        /**
+         * wall time per search strategy module (key: module name)
+         */
+        MODULE_TIME,
+
+        /**
+         * number of getInsertionData calls per insertion calculator (key: calculator class)
+         */
+        INSERTION_CALLS,
+
+        /**
+         * number of insertion positions evaluated against hard activity constraints (key: calculator class)
+         */
+        EVALUATED_POSITIONS,
+
+        /**
+         * number of rejections per hard constraint (key: constraint class)
+         */
+        CONSTRAINT_REJECTIONS,
+
+        /**
+         * wall time per state updater (key: updater class)
+         */
+        STATE_UPDATE_TIME,
+
+        /**
+         * wall time of copying solutions (key: "copy" or "copy_on_write")
+         */
+        SOLUTION_COPY_TIME
+
+    }
+
+    /**
+     * Immutable values of all metrics at the time the snapshot has been taken.
+     */
+    public static class Snapshot {
+
+        private final Map<Metric, Map<String, Long>> values;
+
+        Snapshot(Map<Metric, Map<String, Long>> values) {
+            this.values = values;
+        }
+
+        /**
+         * @param metric the metric
+         * @return values of specified metric per key, sorted by key
+         */
+        public Map<String, Long> get(Metric metric) {
+            return values.get(metric);
+        }
+
+        public long get(Metric metric, String key) {
+            Long value = values.get(metric).get(key);
+            if (value == null) return 0L;
+            return value;
+        }
+
+        public long getTotal(Metric metric) {
+            long total = 0L;
+            for (long value : values.get(metric).values()) total += value;
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return values.toString();
+        }
+    }
+
+    private volatile boolean enabled = false;
+
+    private final List<ConcurrentMap<Object, LongAdder>> counters = new ArrayList<>();
+
+    public SearchMetrics() {
+        for (Metric ignored : Metric.values()) {
+            counters.add(new ConcurrentHashMap<Object, LongAdder>());
+        }
+    }
+
+    public void enable() {
+        enabled = true;
+    }
+
+    public void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Hot paths check this before they measure or record anything.
+     *
+     * @return true if metrics are recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Resets all metrics to zero.
+     */
+    public void reset() {
+        for (ConcurrentMap<Object, LongAdder> counter : counters) {
+            counter.clear();
+        }
+    }
+
+    /**
+     * Adds value to the specified metric and key. The key is usually a string or a class, whereas classes are
+     * reported by their simple name.
+     *
+     * @param metric the metric
+     * @param key    the key
+     * @param value  the value to be added
+     */
+    public void add(Metric metric, Object key, long value) {
+        if (!enabled) return;
+        if (key == null) key = "null";
+        ConcurrentMap<Object, LongAdder> counter = counters.get(metric.ordinal());
+        LongAdder adder = counter.get(key);
+        if (adder == null) {
+            LongAdder newAdder = new LongAdder();
+            adder = counter.putIfAbsent(key, newAdder);
+            if (adder == null) adder = newAdder;
+        }
+        adder.add(value);
+    }
+
+    public void increment(Metric metric, Object key) {
+        add(metric, key, 1L);
+    }
+
+    /**
+     * Adds the time elapsed since startNanos, i.e. a value of System.nanoTime(), to the specified metric and key.
+     *
+     * @param metric     the metric
+     * @param key        the key
+     * @param startNanos start time in nanoseconds
+     */
+    public void addTimeSince(Metric metric, Object key, long startNanos) {
+        add(metric, key, System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        Map<Metric, Map<String, Long>> values = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            Map<String, Long> metricValues = new TreeMap<>();
+            for (Map.Entry<Object, LongAdder> entry : counters.get(metric.ordinal()).entrySet()) {
+                String key = getName(entry.getKey());
+                Long value = metricValues.get(key);
+                metricValues.put(key, (value == null ? 0L : value) + entry.getValue().sum());
+            }
+            values.put(metric, Collections.unmodifiableMap(metricValues));
+        }
+        return new Snapshot(Collections.unmodifiableMap(values));
+    }
+
+    private static String getName(Object key) {
+        if (key instanceof Class) {
+            Class<?> clazz = (Class<?>) key;
+            if (clazz.getSimpleName().isEmpty()) return clazz.getName();
+            return clazz.getSimpleName();
+        }
+        return String.valueOf(key);
+    }
+
+}
@@ -25,6 +25,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl.VehicleCostPa
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,6 +37,10 @@ import java.util.Map;
  * you set a particular distance, this expects distance-entries for all relations. This counts also
  * for a particular time. If the method getTransportCosts(...) is then invoked for a relation, where no distance can be found, an
  * IllegalStateException will be thrown. Thus if you want to only use distances only, do not use addTransportTime(...).
+ * <p>When the matrix is built, each location id is mapped to an internal index and values are stored in primitive
+ * (row-major) arrays, i.e. a lookup neither allocates nor hashes relations. If locations have an index
+ * ({@link Location#getIndex()}), their internal index is memorized, such that lookups do not even hash location ids.
+ * Very large matrices with only few relations are stored in a map rather than in arrays.
  *
  * @author schroeder
  */
@@ -184,48 +189,179 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
 
     }
 
-    private Map<RelationKey, Double> distances = new HashMap<RelationKey, Double>();
+    /*
+     * dense arrays are used if they do not exceed this number of entries or if at least MIN_DENSITY of their entries
+     * are specified. otherwise the specified relations are stored in a map (with boxed values), which requires
+     * about ten times more memory per relation.
+     */
+    static final int MAX_SPARSE_DENSE_SIZE = 1 << 20;
+
+    static final double MIN_DENSITY = 0.1;
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /*
+     * values of all relations, which are either stored in a dense (row-major) array or in a map
+     */
+    static final class Values {
+
+        private final int noLocations;
+
+        private final double[] dense;
 
-    private Map<RelationKey, Double> times = new HashMap<RelationKey, Double>();
+        private final Map<Long, Double> sparse;
 
-    private boolean isSymmetric;
+        Values(int noLocations, double[] dense, Map<Long, Double> sparse) {
+            this.noLocations = noLocations;
+            this.dense = dense;
+            this.sparse = sparse;
+        }
+
+        double get(int from, int to) {
+            if (dense != null) return dense[from * noLocations + to];
+            Double value = sparse.get((long) from * noLocations + to);
+            if (value == null) return Double.NaN;
+            return value;
+        }
+
+        boolean isDense() {
+            return dense != null;
+        }
+
+    }
+
+    /*
+     * internal index of a location id that is memorized at Location.getIndex()
+     */
+    private static final class IndexedId {
+
+        final String id;
+
+        final int index;
+
+        IndexedId(String id, int index) {
+            this.id = id;
+            this.index = index;
+        }
+
+    }
+
+    private final Map<String, Integer> indices = new HashMap<String, Integer>();
+
+    private final int noLocations;
+
+    private final Values distances;
+
+    private final Values times;
 
     private boolean timesSet;
 
     private boolean distancesSet;
 
+    /*
+     * internal indices by Location.getIndex(). it is filled on demand and might be replaced by a larger array
+     * concurrently, which only means that an entry needs to be looked up again.
+     */
+    private volatile IndexedId[] indicesByLocationIndex = new IndexedId[0];
+
     private VehicleRoutingTransportCostsMatrix(Builder builder) {
-        this.isSymmetric = builder.isSymmetric;
-        distances.putAll(builder.distances);
-        times.putAll(builder.times);
         timesSet = builder.timesSet;
         distancesSet = builder.distancesSet;
+        for (RelationKey key : builder.distances.keySet()) {
+            index(key.from);
+            index(key.to);
+        }
+        for (RelationKey key : builder.times.keySet()) {
+            index(key.from);
+            index(key.to);
+        }
+        noLocations = indices.size();
+        distances = toValues(builder.distances, builder.isSymmetric);
+        times = toValues(builder.times, builder.isSymmetric);
+    }
+
+    private void index(String locationId) {
+        if (!indices.containsKey(locationId)) indices.put(locationId, indices.size());
+    }
+
+    /*
+     * relations that are not specified are NaN. returns null if no relation is specified.
+     */
+    private Values toValues(Map<RelationKey, Double> values, boolean isSymmetric) {
+        if (values.isEmpty()) return null;
+        long size = (long) noLocations * noLocations;
+        boolean dense = size <= MAX_ARRAY_SIZE && (size <= MAX_SPARSE_DENSE_SIZE || values.size() >= MIN_DENSITY * size);
+        double[] array = null;
+        Map<Long, Double> map = null;
+        if (dense) {
+            array = new double[(int) size];
+            Arrays.fill(array, Double.NaN);
+        } else map = new HashMap<Long, Double>((int) (values.size() / 0.75) + 1);
+        for (Map.Entry<RelationKey, Double> e : values.entrySet()) {
+            int from = indices.get(e.getKey().from);
+            int to = indices.get(e.getKey().to);
+            put(array, map, from, to, e.getValue());
+            if (isSymmetric && !values.containsKey(RelationKey.newKey(e.getKey().to, e.getKey().from))) {
+                put(array, map, to, from, e.getValue());
+            }
+        }
+        return new Values(noLocations, array, map);
     }
 
+    private void put(double[] array, Map<Long, Double> map, int from, int to, double value) {
+        if (array != null) array[from * noLocations + to] = value;
+        else map.put((long) from * noLocations + to, value);
+    }
+
+    boolean isDense() {
+        return (distances == null || distances.isDense()) && (times == null || times.isDense());
+    }
+
+    /*
+     * returns the internal index of location or -1 if its id is unknown. if location has an index, the internal index
+     * is memorized, thus subsequent lookups need not hash the id.
+     */
+    private int indexOf(Location location) {
+        String id = location.getId();
+        int locationIndex = location.getIndex();
+        if (locationIndex < 0) return indexOf(id);
+        IndexedId[] memorized = indicesByLocationIndex;
+        if (locationIndex < memorized.length) {
+            IndexedId indexedId = memorized[locationIndex];
+            if (indexedId != null && indexedId.id.equals(id)) return indexedId.index;
+        }
+        int index = indexOf(id);
+        if (index < 0) return index;
+        if (locationIndex >= memorized.length) {
+            memorized = Arrays.copyOf(memorized, Math.max(locationIndex + 1, 2 * memorized.length));
+        }
+        memorized[locationIndex] = new IndexedId(id, index);
+        indicesByLocationIndex = memorized;
+        return index;
+    }
+
+    private int indexOf(String id) {
+        Integer index = indices.get(id);
+        if (index == null) return -1;
+        return index;
+    }
 
     @Override
     public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
-        return getTime(from.getId(), to.getId());
+        if (!timesSet || from.getId().equals(to.getId())) return 0.0;
+        return getTime(from.getId(), to.getId(), indexOf(from), indexOf(to));
     }
 
+    private double getTime(String fromId, String toId, int from, int to) {
+        double time = get(times, from, to);
+        if (Double.isNaN(time))
+            throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
+        return time;
+    }
 
-    private double getTime(String fromId, String toId) {
-        if (fromId.equals(toId)) return 0.0;
-        if (!timesSet) return 0.0;
-        RelationKey key = RelationKey.newKey(fromId, toId);
-        if (!isSymmetric) {
-            if (times.containsKey(key)) return times.get(key);
-            else
-                throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
-        } else {
-            Double time = times.get(key);
-            if (time == null) {
-                time = times.get(RelationKey.newKey(toId, fromId));
-            }
-            if (time != null) return time;
-            else
-                throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
-        }
+    private static double get(Values values, int from, int to) {
+        if (from < 0 || to < 0) return Double.NaN;
+        return values.get(from, to);
     }
 
     /**
@@ -237,34 +373,33 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
      * @throws IllegalStateException if distance of fromId -> toId is not found
      */
     public double getDistance(String fromId, String toId) {
-        if (fromId.equals(toId)) return 0.0;
-        if (!distancesSet) return 0.0;
-        RelationKey key = RelationKey.newKey(fromId, toId);
-        if (!isSymmetric) {
-            if (distances.containsKey(key)) return distances.get(key);
-            else
-                throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
-        } else {
-            Double time = distances.get(key);
-            if (time == null) {
-                time = distances.get(RelationKey.newKey(toId, fromId));
-            }
-            if (time != null) return time;
-            else
-                throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
-        }
+        if (!distancesSet || fromId.equals(toId)) return 0.0;
+        return getDistance(fromId, toId, indexOf(fromId), indexOf(toId));
+    }
+
+    private double getDistance(String fromId, String toId, int from, int to) {
+        double distance = get(distances, from, to);
+        if (Double.isNaN(distance))
+            throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
+        return distance;
     }
 
     @Override
     public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
-        if (vehicle == null) return getDistance(from.getId(), to.getId());
+        if (from.getId().equals(to.getId())) return 0.0;
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        double distance = distancesSet ? getDistance(from.getId(), to.getId(), fromIndex, toIndex) : 0.0;
+        if (vehicle == null) return distance;
         VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
-        return costParams.perDistanceUnit * getDistance(from.getId(), to.getId()) + costParams.perTransportTimeUnit * getTime(from.getId(), to.getId());
+        double time = timesSet ? getTime(from.getId(), to.getId(), fromIndex, toIndex) : 0.0;
+        return costParams.perDistanceUnit * distance + costParams.perTransportTimeUnit * time;
     }
 
     @Override
     public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
-        return getDistance(from.getId(), to.getId());
+        if (!distancesSet || from.getId().equals(to.getId())) return 0.0;
+        return getDistance(from.getId(), to.getId(), indexOf(from), indexOf(to));
     }
 
 }
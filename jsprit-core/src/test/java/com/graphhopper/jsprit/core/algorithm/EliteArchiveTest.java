@@ -0,0 +1,98 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class EliteArchiveTest {
+
+    private static VehicleRoutingProblemSolution solution(double cost) {
+        return new VehicleRoutingProblemSolution(new ArrayList<VehicleRoute>(), new ArrayList<Job>(), cost);
+    }
+
+    @Test
+    public void whenOfferingSolutions_itShouldKeepBestSorted() {
+        EliteArchive archive = new EliteArchive(2);
+        assertNull(archive.getBest());
+        assertTrue(archive.offer(solution(30)));
+        assertTrue(archive.offer(solution(10)));
+        assertTrue(archive.offer(solution(20)));
+        assertEquals(2, archive.getSolutions().size());
+        assertEquals(10, archive.getBest().getCost(), 0.01);
+        assertEquals(20, archive.getSolutions().get(1).getCost(), 0.01);
+    }
+
+    @Test
+    public void whenOfferingWorseOrDuplicateSolution_itShouldBeRejected() {
+        EliteArchive archive = new EliteArchive(2);
+        archive.offer(solution(10));
+        archive.offer(solution(20));
+        assertFalse(archive.offer(solution(25)));
+        assertFalse(archive.offer(solution(10)));
+        assertEquals(2, archive.getSolutions().size());
+    }
+
+    @Test
+    public void whenOfferingSolution_itShouldArchiveCopy() {
+        EliteArchive archive = new EliteArchive(1);
+        VehicleRoutingProblemSolution solution = solution(10);
+        archive.offer(solution);
+        assertNotSame(solution, archive.getBest());
+        solution.setCost(5);
+        assertEquals(10, archive.getBest().getCost(), 0.01);
+    }
+
+    @Test
+    public void whenOfferingConcurrently_itShouldKeepBestSolutions() throws InterruptedException {
+        final EliteArchive archive = new EliteArchive(5);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 250; i++) {
+                        archive.offer(solution(i * 4 + offset));
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(5, archive.getSolutions().size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, archive.getSolutions().get(i).getCost(), 0.01);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void archivedSolutionsShouldNotBeModifiable() {
+        EliteArchive archive = new EliteArchive(1);
+        archive.offer(solution(10));
+        archive.getSolutions().addAll(Collections.singletonList(solution(1)));
+    }
+
+}
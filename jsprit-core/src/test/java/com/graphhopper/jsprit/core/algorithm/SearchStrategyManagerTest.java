@@ -229,4 +229,63 @@ public class SearchStrategyManagerTest {
         }
         Assert.assertTrue(true);
     }
+
+    private SearchStrategy mockStrategy(String id) {
+        SearchStrategy strategy = mock(SearchStrategy.class);
+        when(strategy.getId()).thenReturn(id);
+        return strategy;
+    }
+
+    @Test
+    public void whenAdaptive_fastImprovingStrategyShouldGainWeight() {
+        SearchStrategyManager manager = new SearchStrategyManager();
+        manager.addStrategy(mockStrategy("fast"), 1.);
+        manager.addStrategy(mockStrategy("slow"), 1.);
+        manager.setAdaptiveWeights(2, 0.5);
+        manager.informStrategyOutcome("fast", 10., 1000000L);
+        manager.informStrategyOutcome("slow", 10., 9000000L);
+        Assert.assertEquals(0.5 * 1. + 0.5 * 1.8, manager.getWeight("fast"), 0.001);
+        Assert.assertEquals(0.5 * 1. + 0.5 * 0.2, manager.getWeight("slow"), 0.001);
+    }
+
+    @Test
+    public void whenAdaptive_weightShouldNotDropBelowMinimum() {
+        SearchStrategyManager manager = new SearchStrategyManager();
+        manager.addStrategy(mockStrategy("good"), 1.);
+        manager.addStrategy(mockStrategy("bad"), 1.);
+        manager.setAdaptiveWeights(2, 1.);
+        manager.setMinWeightFactor(0.1);
+        manager.informStrategyOutcome("good", 10., 1000000L);
+        manager.informStrategyOutcome("bad", -5., 1000000L);
+        Assert.assertEquals(2., manager.getWeight("good"), 0.001);
+        Assert.assertEquals(0.1, manager.getWeight("bad"), 0.001);
+    }
+
+    @Test
+    public void whenAdaptive_strategiesNotRunAndSegmentsWithoutImprovementShouldNotChangeWeights() {
+        SearchStrategyManager manager = new SearchStrategyManager();
+        manager.addStrategy(mockStrategy("s1"), 1.);
+        manager.addStrategy(mockStrategy("s2"), 1.);
+        manager.addStrategy(mockStrategy("s3"), 2.);
+        manager.setAdaptiveWeights(2, 1.);
+        manager.informStrategyOutcome("s1", 0., 1000000L);
+        manager.informStrategyOutcome("s2", 0., 1000000L);
+        Assert.assertEquals(1., manager.getWeight("s1"), 0.001);
+        Assert.assertEquals(1., manager.getWeight("s2"), 0.001);
+        manager.informStrategyOutcome("s1", 1., 1000000L);
+        manager.informStrategyOutcome("s1", 1., 1000000L);
+        Assert.assertEquals(1., manager.getWeight("s1"), 0.001);
+        Assert.assertEquals(2., manager.getWeight("s3"), 0.001);
+    }
+
+    @Test
+    public void whenNotAdaptive_outcomesShouldBeIgnored() {
+        SearchStrategyManager manager = new SearchStrategyManager();
+        manager.addStrategy(mockStrategy("s1"), 1.);
+        manager.addStrategy(mockStrategy("s2"), 1.);
+        manager.informStrategyOutcome("s1", 10., 1000000L);
+        manager.informStrategyOutcome("s2", 0., 1000000L);
+        Assert.assertEquals(1., manager.getWeight("s1"), 0.001);
+        Assert.assertEquals(1., manager.getWeight("s2"), 0.001);
+    }
 }
@@ -21,13 +21,23 @@ import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
 import com.graphhopper.jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class VehicleRoutingAlgorithmTest {
@@ -182,4 +192,28 @@ public class VehicleRoutingAlgorithmTest {
         assertEquals(25, counter.getCountIterations());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenMeasuringWallTime_strategyRunsShouldIncludeTimeNotSpentOnCpu() {
+        SearchStrategyManager stratManager = mock(SearchStrategyManager.class);
+        SearchStrategy strategy = mock(SearchStrategy.class);
+        when(stratManager.getRandomStrategy()).thenReturn(strategy);
+        when(stratManager.isAdaptive()).thenReturn(true);
+        when(strategy.run(any(VehicleRoutingProblem.class), any(Collection.class))).thenAnswer(new Answer<SearchStrategy.DiscoveredSolution>() {
+            @Override
+            public SearchStrategy.DiscoveredSolution answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(50);
+                return new SearchStrategy.DiscoveredSolution(new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 0.), true, "s");
+            }
+        });
+        VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(mock(VehicleRoutingProblem.class), stratManager);
+        algorithm.setWallTimeMeasured(true);
+        algorithm.setMaxIterations(1);
+        algorithm.searchSolutions();
+
+        ArgumentCaptor<Long> time = ArgumentCaptor.forClass(Long.class);
+        verify(stratManager).informStrategyOutcome(eq("s"), anyDouble(), time.capture());
+        assertTrue(time.getValue() >= 50000000L);
+    }
+
 }
@@ -18,13 +18,19 @@
 
 package com.graphhopper.jsprit.core.algorithm.box;
 
+import com.graphhopper.jsprit.core.algorithm.IslandAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.BeforeJobInsertionListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
@@ -33,10 +39,12 @@ import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolutio
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.Solutions;
 import junit.framework.Assert;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by schroeder on 06/03/15.
@@ -485,5 +493,288 @@ public class JspritTest {
         Assert.assertEquals(1, c);
     }
 
+    private VehicleRoutingProblem createProblemWithTenServices() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < 10; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(i, 10 - i)).build());
+        }
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build());
+        return vrpBuilder.build();
+    }
+
+    @Test
+    public void whenCachingInsertionCosts_itShouldFindSolution() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.INSERTION_CACHE_SIZE, "4096")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "100").buildAlgorithm();
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertTrue(solution.getUnassignedJobs().isEmpty());
+        int noJobs = 0;
+        for (VehicleRoute route : solution.getRoutes()) noJobs += route.getTourActivities().jobSize();
+        Assert.assertEquals(10, noJobs);
+    }
+
+    @Test
+    public void whenUsingSpatialIndexForNeighborhoods_ruinStrategiesShouldFindSolution() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SPATIAL_INDEX_CANDIDATE_FACTOR, "2.")
+            .setProperty(Jsprit.Strategy.RADIAL_BEST, "1.").setProperty(Jsprit.Strategy.RADIAL_REGRET, "1.")
+            .setProperty(Jsprit.Strategy.CLUSTER_BEST, "1.").setProperty(Jsprit.Strategy.STRING_BEST, "1.")
+            .setProperty(Jsprit.Strategy.RANDOM_BEST, "0.").setProperty(Jsprit.Strategy.RANDOM_REGRET, "0.")
+            .setProperty(Jsprit.Strategy.WORST_BEST, "0.").setProperty(Jsprit.Strategy.WORST_REGRET, "0.")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "100").buildAlgorithm();
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertTrue(solution.getUnassignedJobs().isEmpty());
+        int noJobs = 0;
+        for (VehicleRoute route : solution.getRoutes()) noJobs += route.getTourActivities().jobSize();
+        Assert.assertEquals(10, noJobs);
+    }
+
+    @Test
+    public void whenUsingLocalSearch_itShouldBeSelectedAndFindSolution() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Strategy.LOCAL_SEARCH, "1.")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "100").buildAlgorithm();
+        final List<String> selected = new ArrayList<>();
+        vra.addListener(new StrategySelectedListener() {
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                selected.add(discoveredSolution.getStrategyId());
+            }
+        });
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertTrue(selected.contains(Jsprit.Strategy.LOCAL_SEARCH.toString()));
+        Assert.assertTrue(solution.getUnassignedJobs().isEmpty());
+        int noJobs = 0;
+        for (VehicleRoute route : solution.getRoutes()) noJobs += route.getTourActivities().jobSize();
+        Assert.assertEquals(10, noJobs);
+    }
+
+    @Test
+    public void whenUsingAdaptiveWeights_itShouldFindSolution() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.ADAPTIVE_WEIGHTS_SEGMENT, "10")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "100").buildAlgorithm();
+        Assert.assertTrue(vra.getSearchStrategyManager().isAdaptive());
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertTrue(solution.getUnassignedJobs().isEmpty());
+        for (double weight : vra.getSearchStrategyManager().getWeights()) {
+            Assert.assertTrue(weight >= 0.);
+        }
+    }
+
+    @Test
+    public void whenUsingTheSameRandomSeed_itShouldReproduceTheSearch() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        Assert.assertEquals(searchWithStrategyLog(vrp, 42L, 1, 1), searchWithStrategyLog(vrp, 42L, 1, 1));
+    }
+
+    @Test
+    public void whenUsingTheSameRandomSeedAndSeveralThreads_itShouldReproduceTheSearch() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        Assert.assertEquals(searchWithStrategyLog(vrp, 42L, 4, 1), searchWithStrategyLog(vrp, 42L, 4, 1));
+    }
+
+    @Test
+    public void whenUsingTheSameRandomSeedAndParallelWorkers_itShouldReproduceTheSearch() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        Assert.assertEquals(searchWithStrategyLog(vrp, 42L, 1, 3), searchWithStrategyLog(vrp, 42L, 1, 3));
+        Assert.assertEquals(searchWithStrategyLog(vrp, 42L, 2, 2), searchWithStrategyLog(vrp, 42L, 2, 2));
+    }
+
+    /*
+     * logs strategy and costs of each iteration as well as the routes of the best solution
+     */
+    private List<String> searchWithStrategyLog(VehicleRoutingProblem vrp, long seed, int noThreads, int noWorkers) {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setRandomSeed(seed)
+            .setProperty(Jsprit.Parameter.THREADS, String.valueOf(noThreads))
+            .setProperty(Jsprit.Parameter.SEARCH_WORKERS, String.valueOf(noWorkers))
+            .setProperty(Jsprit.Parameter.ITERATIONS, "50").buildAlgorithm();
+        final List<String> log = new ArrayList<>();
+        vra.addListener(new StrategySelectedListener() {
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                log.add(discoveredSolution.getStrategyId() + ":" + discoveredSolution.getSolution().getCost());
+            }
+        });
+        VehicleRoutingProblemSolution best = Solutions.bestOf(vra.searchSolutions());
+        log.add("best:" + best.getCost());
+        for (VehicleRoute route : best.getRoutes()) {
+            StringBuilder b = new StringBuilder(route.getVehicle().getId()).append(":");
+            for (Job job : route.getTourActivities().getJobs()) b.append(" ").append(job.getId());
+            log.add(b.toString());
+        }
+        return log;
+    }
+
+    @Test
+    public void whenSearchingInParallel_itShouldRunEachIterationOnce() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SEARCH_WORKERS, "3")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "60").buildAlgorithm();
+        final List<Integer> iterations = Collections.synchronizedList(new ArrayList<Integer>());
+        vra.addListener(new IterationStartsListener() {
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                iterations.add(i);
+            }
+        });
+        Collection<VehicleRoutingProblemSolution> solutions = vra.searchSolutions();
+
+        Assert.assertEquals(60, iterations.size());
+        Assert.assertEquals(60, new HashSet<Integer>(iterations).size());
+        Assert.assertTrue(Solutions.bestOf(solutions).getUnassignedJobs().isEmpty());
+    }
+
+    @Test
+    public void whenSearchingInParallelAndTerminatingPrematurely_itShouldStop() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SEARCH_WORKERS, "2")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "1000").buildAlgorithm();
+        final List<Integer> iterations = Collections.synchronizedList(new ArrayList<Integer>());
+        vra.addListener(new IterationStartsListener() {
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                iterations.add(i);
+            }
+        });
+        vra.addTerminationCriterion(new PrematureAlgorithmTermination() {
+
+            private int discovered = 0;
+
+            @Override
+            public boolean isPrematureBreak(SearchStrategy.DiscoveredSolution discoveredSolution) {
+                return ++discovered == 10;
+            }
+        });
+        vra.searchSolutions();
+
+        Assert.assertTrue(iterations.size() >= 10);
+        Assert.assertTrue(iterations.size() < 12);
+    }
+
+    @Test
+    public void whenWorkersRunFreely_itShouldRunEachIterationOnce() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SEARCH_WORKERS, "3")
+            .setProperty(Jsprit.Parameter.SEARCH_WORKERS_IN_ROUNDS, "false")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "60").buildAlgorithm();
+        final List<Integer> iterations = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Integer> endedIterations = Collections.synchronizedList(new ArrayList<Integer>());
+        vra.addListener(new IterationStartsListener() {
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                iterations.add(i);
+            }
+        });
+        vra.addListener(new IterationEndsListener() {
+            @Override
+            public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                endedIterations.add(i);
+            }
+        });
+        Collection<VehicleRoutingProblemSolution> solutions = vra.searchSolutions();
+
+        Assert.assertEquals(60, iterations.size());
+        Assert.assertEquals(60, new HashSet<Integer>(iterations).size());
+        Assert.assertEquals(60, new HashSet<Integer>(endedIterations).size());
+        Assert.assertTrue(Solutions.bestOf(solutions).getUnassignedJobs().isEmpty());
+    }
+
+    @Test
+    public void whenWorkersRunFreelyAndTerminatingPrematurely_itShouldStop() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SEARCH_WORKERS, "2")
+            .setProperty(Jsprit.Parameter.SEARCH_WORKERS_IN_ROUNDS, "false")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "1000").buildAlgorithm();
+        final List<Integer> iterations = Collections.synchronizedList(new ArrayList<Integer>());
+        vra.addListener(new IterationStartsListener() {
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                iterations.add(i);
+            }
+        });
+        vra.addTerminationCriterion(new PrematureAlgorithmTermination() {
+
+            private int discovered = 0;
+
+            @Override
+            public boolean isPrematureBreak(SearchStrategy.DiscoveredSolution discoveredSolution) {
+                return ++discovered == 10;
+            }
+        });
+        vra.searchSolutions();
+
+        Assert.assertTrue(iterations.size() >= 10);
+        Assert.assertTrue(iterations.size() < 12);
+    }
+
+    @Test
+    public void whenSearchingInParallelRepeatedly_itShouldReuseWorkerThreads() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SEARCH_WORKERS, "2")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "20").buildAlgorithm();
+        Set<Thread> threadsBefore = getSearchWorkerThreads();
+        for (int i = 0; i < 3; i++) {
+            vra.searchSolutions();
+        }
+        Set<Thread> newThreads = getSearchWorkerThreads();
+        newThreads.removeAll(threadsBefore);
+
+        Assert.assertTrue(newThreads.size() <= 2);
+    }
+
+    private static Set<Thread> getSearchWorkerThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("jsprit-search-worker".equals(thread.getName())) threads.add(thread);
+        }
+        return threads;
+    }
+
+    @Test
+    public void whenSearchingInParallelIsInterrupted_workersShouldStop() throws InterruptedException {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SEARCH_WORKERS, "2")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "1000000").buildAlgorithm();
+        final AtomicInteger iterations = new AtomicInteger();
+        vra.addListener(new IterationStartsListener() {
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                iterations.incrementAndGet();
+            }
+        });
+        Thread.currentThread().interrupt();
+        vra.searchSolutions();
+        Assert.assertTrue(Thread.interrupted());
+
+        int iterationsAfterSearch = iterations.get();
+        Thread.sleep(200);
+        Assert.assertEquals(iterationsAfterSearch, iterations.get());
+        Assert.assertTrue(iterationsAfterSearch < 1000000);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenSearchingInParallelWithCustomStateManager_itShouldThrowException() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        StateManager stateManager = new StateManager(vrp);
+        Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SEARCH_WORKERS, "2")
+            .setStateAndConstraintManager(stateManager, new ConstraintManager(vrp, stateManager)).buildAlgorithm();
+    }
+
+    @Test
+    public void whenRunningIslandModel_itShouldReturnSolutionsOfAllIslandsAndArchiveElites() {
+        VehicleRoutingProblem vrp = createProblemWithTenServices();
+        IslandAlgorithm islandAlgorithm = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.ITERATIONS, "40")
+            .setProperty(Jsprit.Parameter.MIGRATION_INTERVAL, "10").buildIslandAlgorithm(3);
+        Assert.assertEquals(3, islandAlgorithm.getIslands().size());
+        Collection<VehicleRoutingProblemSolution> solutions = islandAlgorithm.searchSolutions();
+
+        Assert.assertTrue(solutions.size() >= 3);
+        Assert.assertNotNull(islandAlgorithm.getEliteArchive().getBest());
+        VehicleRoutingProblemSolution best = Solutions.bestOf(solutions);
+        Assert.assertTrue(best.getUnassignedJobs().isEmpty());
+        Assert.assertTrue(best.getCost() <= islandAlgorithm.getEliteArchive().getBest().getCost());
+    }
 
 }
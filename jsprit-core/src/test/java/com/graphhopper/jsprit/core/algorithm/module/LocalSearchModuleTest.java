@@ -0,0 +1,199 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.module;
+
+import com.graphhopper.jsprit.core.algorithm.AlgorithmUtil;
+import com.graphhopper.jsprit.core.algorithm.VariablePlusFixedSolutionCostCalculatorFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoodsFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.JobActivityFactory;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class LocalSearchModuleTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private StateManager stateManager;
+
+    private LocalSearchModule createModule() {
+        stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        AlgorithmUtil.addCoreConstraints(constraintManager, stateManager, vrp);
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()));
+        neighborhoods.initialise();
+        LocalSearchModule module = new LocalSearchModule(vrp, stateManager, constraintManager, neighborhoods, 5);
+        module.setRandom(RandomNumberGeneration.newInstance(4711L));
+        return module;
+    }
+
+    private VehicleRoute createRoute(Vehicle vehicle, Service... services) {
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(new JobActivityFactory() {
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+        });
+        for (Service s : services) routeBuilder.addService(s);
+        return routeBuilder.build();
+    }
+
+    private static Service service(String id, double x, double y) {
+        return Service.Builder.newInstance(id).setLocation(Location.newInstance(x, y)).build();
+    }
+
+    private static List<String> getJobIds(VehicleRoutingProblemSolution solution) {
+        List<String> ids = new ArrayList<>();
+        for (VehicleRoute route : solution.getRoutes()) {
+            for (Job job : route.getTourActivities().getJobs()) ids.add(job.getId());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    @Test
+    public void whenRouteZigZags_itShouldBeImprovedWithoutLosingJobs() {
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle);
+        Service[] services = new Service[10];
+        for (int i = 0; i < 10; i++) {
+            int x = i % 2 == 0 ? i / 2 + 1 : 10 - i / 2;
+            services[i] = service("s" + i, x * 10, 0);
+            vrpBuilder.addJob(services[i]);
+        }
+        vrp = vrpBuilder.build();
+        LocalSearchModule module = createModule();
+        List<VehicleRoute> routes = new ArrayList<>();
+        routes.add(createRoute(vehicle, services));
+        VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(routes, 0.);
+        SolutionCostCalculator costCalculator = new VariablePlusFixedSolutionCostCalculatorFactory(stateManager).createCalculator();
+        stateManager.reCalculateStates(routes.get(0));
+        double costsBefore = costCalculator.getCosts(solution);
+
+        List<String> jobsBefore = getJobIds(solution);
+        VehicleRoutingProblemSolution improved = module.runAndGetSolution(solution);
+
+        Assert.assertEquals(jobsBefore, getJobIds(improved));
+        Assert.assertEquals(200., costCalculator.getCosts(improved), 0.01);
+        Assert.assertTrue(costCalculator.getCosts(improved) < costsBefore);
+    }
+
+    @Test
+    public void whenJobsAreInWrongRoutes_theyShouldBeExchanged() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").build();
+        Vehicle v1 = VehicleImpl.Builder.newInstance("v1").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        Vehicle v2 = VehicleImpl.Builder.newInstance("v2").setType(type).setStartLocation(Location.newInstance(100, 0)).build();
+        Service a1 = service("a1", 5, 0);
+        Service a2 = service("a2", 10, 0);
+        Service b1 = service("b1", 95, 0);
+        Service b2 = service("b2", 90, 0);
+        vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(v1).addVehicle(v2).addJob(a1).addJob(a2).addJob(b1).addJob(b2).build();
+        LocalSearchModule module = createModule();
+        List<VehicleRoute> routes = new ArrayList<>();
+        routes.add(createRoute(v1, a1, b2));
+        routes.add(createRoute(v2, b1, a2));
+
+        VehicleRoutingProblemSolution improved = module.runAndGetSolution(new VehicleRoutingProblemSolution(routes, 0.));
+
+        Assert.assertEquals(2, improved.getRoutes().size());
+        for (VehicleRoute route : improved.getRoutes()) {
+            Assert.assertEquals(2, route.getActivities().size());
+            for (TourActivity act : route.getActivities()) {
+                boolean closeToStart = Math.abs(act.getLocation().getCoordinate().getX() - route.getStart().getLocation().getCoordinate().getX()) <= 10.;
+                Assert.assertTrue(closeToStart);
+            }
+        }
+    }
+
+    @Test
+    public void whenRouteGetsEmpty_itShouldBeRemoved() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").setFixedCost(100.).build();
+        Vehicle v1 = VehicleImpl.Builder.newInstance("v1").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        Vehicle v2 = VehicleImpl.Builder.newInstance("v2").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        Service s1 = service("s1", 4, 0);
+        Service s2 = service("s2", 5, 0);
+        Service s3 = service("s3", 6, 0);
+        vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(v1).addVehicle(v2).addJob(s1).addJob(s2).addJob(s3).build();
+        LocalSearchModule module = createModule();
+        List<VehicleRoute> routes = new ArrayList<>();
+        routes.add(createRoute(v1, s1, s3));
+        routes.add(createRoute(v2, s2));
+
+        VehicleRoutingProblemSolution improved = module.runAndGetSolution(new VehicleRoutingProblemSolution(routes, 0.));
+
+        Assert.assertEquals(1, improved.getRoutes().size());
+        Assert.assertEquals(3, improved.getRoutes().iterator().next().getActivities().size());
+    }
+
+    @Test
+    public void whenTimeWindowsForbidImprovement_routeShouldRemainUnchanged() {
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).setReturnToDepot(false).build();
+        Service far = Service.Builder.newInstance("far").setLocation(Location.newInstance(10, 0)).setTimeWindow(TimeWindow.newInstance(0, 9.5)).build();
+        Service near = service("near", 1, 0);
+        vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addJob(far).addJob(near).build();
+        LocalSearchModule module = createModule();
+        List<VehicleRoute> routes = new ArrayList<>();
+        routes.add(createRoute(vehicle, far, near));
+
+        VehicleRoutingProblemSolution solution = module.runAndGetSolution(new VehicleRoutingProblemSolution(routes, 0.));
+
+        List<TourActivity> acts = solution.getRoutes().iterator().next().getActivities();
+        Assert.assertEquals(2, acts.size());
+        Assert.assertEquals("far", ((TourActivity.JobActivity) acts.get(0)).getJob().getId());
+        Assert.assertEquals("near", ((TourActivity.JobActivity) acts.get(1)).getJob().getId());
+    }
+
+    @Test
+    public void whenTimeWindowsAllowImprovement_routeShouldBeReordered() {
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).setReturnToDepot(false).build();
+        Service far = Service.Builder.newInstance("far").setLocation(Location.newInstance(10, 0)).setTimeWindow(TimeWindow.newInstance(0, 10.5)).build();
+        Service near = service("near", 1, 0);
+        vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addJob(far).addJob(near).build();
+        LocalSearchModule module = createModule();
+        List<VehicleRoute> routes = new ArrayList<>();
+        routes.add(createRoute(vehicle, far, near));
+
+        VehicleRoutingProblemSolution solution = module.runAndGetSolution(new VehicleRoutingProblemSolution(routes, 0.));
+
+        List<TourActivity> acts = solution.getRoutes().iterator().next().getActivities();
+        Assert.assertEquals("near", ((TourActivity.JobActivity) acts.get(0)).getJob().getId());
+        Assert.assertEquals("far", ((TourActivity.JobActivity) acts.get(1)).getJob().getId());
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobUnassignedListener;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BestInsertionConcurrentTest {
+
+    private ExecutorService executorService;
+
+    private VehicleRoutingProblem vrp;
+
+    private List<Job> jobs;
+
+    private List<VehicleRoute> routes;
+
+    private Map<VehicleRoute, Integer> routeIndices;
+
+    @Before
+    public void doBefore() {
+        executorService = Executors.newFixedThreadPool(3);
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        jobs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Service service = Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(i, 0)).build();
+            jobs.add(service);
+            vrpBuilder.addJob(service);
+        }
+        routes = new ArrayList<>();
+        routeIndices = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            Vehicle vehicle = VehicleImpl.Builder.newInstance("v" + i).setStartLocation(Location.newInstance(0, 0)).build();
+            vrpBuilder.addVehicle(vehicle);
+            VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle).build();
+            routes.add(route);
+            routeIndices.put(route, i);
+        }
+        vrp = vrpBuilder.build();
+    }
+
+    @After
+    public void doAfter() {
+        executorService.shutdown();
+    }
+
+    /*
+     * costs are minimal at route (jobIndex * 7) % 50 and its twin 25 routes apart, i.e. the route with the smaller
+     * index needs to win the tie
+     */
+    private JobInsertionCostsCalculator calculator(final Set<String> infeasibleJobs) {
+        return new JobInsertionCostsCalculator() {
+            @Override
+            public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+                Integer routeIndex = routeIndices.get(currentRoute);
+                if (routeIndex == null || infeasibleJobs.contains(newJob.getId())) {
+                    InsertionData noInsertion = new InsertionData.NoInsertionFound();
+                    noInsertion.getFailedConstraintNames().add("c");
+                    return noInsertion;
+                }
+                int jobIndex = jobs.indexOf(newJob);
+                int distance = Math.abs((routeIndex % 25) - ((jobIndex * 7) % 50) % 25);
+                return new InsertionData(distance + 1, 0, 0, currentRoute.getVehicle(), null);
+            }
+        };
+    }
+
+    private Map<String, Integer> insert(BestInsertionConcurrent insertion) {
+        final Map<String, Integer> insertedInto = new HashMap<>();
+        insertion.addListener(new JobInsertedListener() {
+            @Override
+            public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+                insertedInto.put(job2insert.getId(), routeIndices.get(inRoute));
+            }
+        });
+        insertion.insertJobs(routes, jobs);
+        return insertedInto;
+    }
+
+    @Test
+    public void itShouldInsertEachJobIntoCheapestRouteWithLowestIndex() {
+        Map<String, Integer> insertedInto = insert(new BestInsertionConcurrent(calculator(Collections.<String>emptySet()), executorService, 4, vrp));
+        Assert.assertEquals(jobs.size(), insertedInto.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            Assert.assertEquals(((i * 7) % 50) % 25, insertedInto.get(jobs.get(i).getId()).intValue());
+        }
+    }
+
+    @Test
+    public void whenEvaluatingAheadOfInsertion_itShouldYieldTheSameInsertions() {
+        Map<String, Integer> expected = insert(new BestInsertionConcurrent(calculator(Collections.<String>emptySet()), executorService, 4, vrp));
+        executorService.shutdown();
+        doBefore();
+        BestInsertionConcurrent insertion = new BestInsertionConcurrent(calculator(Collections.<String>emptySet()), executorService, 4, vrp);
+        insertion.setEvaluateAheadOfInsertion(true);
+        Map<String, Integer> insertedInto = insert(insertion);
+        Assert.assertEquals(expected, insertedInto);
+    }
+
+    @Test
+    public void whenRunningWithSingleThread_itShouldEvaluateInCallingThread() {
+        Map<String, Integer> insertedInto = insert(new BestInsertionConcurrent(calculator(Collections.<String>emptySet()), executorService, 1, vrp));
+        Assert.assertEquals(jobs.size(), insertedInto.size());
+        Assert.assertEquals(0, insertedInto.get("s0").intValue());
+    }
+
+    @Test
+    public void whenJobCannotBeInserted_itShouldBeUnassignedWithFailedConstraintsOfThisJobOnly() {
+        BestInsertionConcurrent insertion = new BestInsertionConcurrent(calculator(Collections.singleton("s3")), executorService, 4, vrp);
+        final Map<String, List<String>> unassigned = new HashMap<>();
+        insertion.addListener(new JobUnassignedListener() {
+            @Override
+            public void informJobUnassigned(Job unassigned_, Collection<String> failedConstraintNames) {
+                unassigned.put(unassigned_.getId(), new ArrayList<>(failedConstraintNames));
+            }
+        });
+        insertion.insertJobs(routes, jobs);
+        Assert.assertEquals(1, unassigned.size());
+        Assert.assertFalse(unassigned.get("s3").isEmpty());
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.AlgorithmUtil;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobUnassignedListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoodsFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.FiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GranularInsertionTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private VehicleImpl nearVehicle;
+
+    private VehicleImpl farVehicle;
+
+    private Service near1;
+
+    private Service near2;
+
+    private Service far;
+
+    private Service newService;
+
+    @Before
+    public void doBefore() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 2).build();
+        nearVehicle = VehicleImpl.Builder.newInstance("near").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        farVehicle = VehicleImpl.Builder.newInstance("far").setType(type).setStartLocation(Location.newInstance(100, 0)).build();
+        near1 = Service.Builder.newInstance("near1").addSizeDimension(0, 1).setLocation(Location.newInstance(10, 0)).build();
+        near2 = Service.Builder.newInstance("near2").addSizeDimension(0, 1).setLocation(Location.newInstance(11, 0)).build();
+        far = Service.Builder.newInstance("far").addSizeDimension(0, 1).setLocation(Location.newInstance(100, 10)).build();
+        newService = Service.Builder.newInstance("new").addSizeDimension(0, 1).setLocation(Location.newInstance(12, 0)).build();
+        vrp = VehicleRoutingProblem.Builder.newInstance().setFleetSize(VehicleRoutingProblem.FleetSize.FINITE)
+            .addVehicle(nearVehicle).addVehicle(farVehicle).addJob(near1).addJob(near2).addJob(far).addJob(newService).build();
+    }
+
+    /*
+     * the nearest neighbor of the new service is served by the route of the near vehicle, which is full. the only
+     * feasible route is the route of the far vehicle that serves no neighbor at all
+     */
+    private void assertNewServiceIsInsertedIntoFarRoute(InsertionStrategyBuilder.Strategy strategy) {
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), 3);
+        neighborhoods.initialise();
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        AlgorithmUtil.addCoreConstraints(constraintManager, stateManager, vrp);
+        VehicleFleetManager fleetManager = new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        fleetManager.lock(nearVehicle);
+        fleetManager.lock(farVehicle);
+        InsertionStrategy insertion = new InsertionStrategyBuilder(vrp, fleetManager, stateManager, constraintManager)
+            .setInsertionStrategy(strategy)
+            .setServiceInsertionCalculator(new ServiceInsertionCalculatorFactory(neighborhoods, 1))
+            .build();
+        insertion.addListener(stateManager);
+        final List<Job> unassigned = new ArrayList<>();
+        insertion.addListener(new JobUnassignedListener() {
+            @Override
+            public void informJobUnassigned(Job unassignedJob, Collection<String> failedConstraintNames) {
+                unassigned.add(unassignedJob);
+            }
+        });
+        VehicleRoute nearRoute = VehicleRoute.Builder.newInstance(nearVehicle).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addService(near1).addService(near2).build();
+        VehicleRoute farRoute = VehicleRoute.Builder.newInstance(farVehicle).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addService(far).build();
+
+        Collection<Job> badJobs = insertion.insertJobs(Arrays.asList(nearRoute, farRoute), Collections.<Job>singletonList(newService));
+        assertTrue(badJobs.isEmpty());
+        assertTrue(unassigned.isEmpty());
+        assertTrue(farRoute.getTourActivities().servesJob(newService));
+        assertEquals(2, nearRoute.getTourActivities().jobSize());
+    }
+
+    @Test
+    public void whenOnlyFeasibleRouteServesNoNeighbor_bestInsertionShouldStillInsertJob() {
+        assertNewServiceIsInsertedIntoFarRoute(InsertionStrategyBuilder.Strategy.BEST);
+    }
+
+    @Test
+    public void whenOnlyFeasibleRouteServesNoNeighbor_regretInsertionShouldStillInsertJob() {
+        assertNewServiceIsInsertedIntoFarRoute(InsertionStrategyBuilder.Strategy.REGRET);
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.ServiceActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InsertionCostsCacheTest {
+
+    private Service s1;
+
+    private Service s2;
+
+    private Service s3;
+
+    private Vehicle vehicle;
+
+    private int noCalculations;
+
+    private double costs;
+
+    private JobInsertionCostsCalculator calculator;
+
+    @Before
+    public void doBefore() {
+        s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 1)).build();
+        s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(0, 2)).build();
+        s3 = Service.Builder.newInstance("s3").setLocation(Location.newInstance(0, 3)).build();
+        vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder.newInstance().addJob(s1).addJob(s2).addJob(s3).addVehicle(vehicle).build();
+        noCalculations = 0;
+        costs = 10.;
+        calculator = new CachedJobInsertionCostsCalculator(new JobInsertionCostsCalculator() {
+            @Override
+            public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+                noCalculations++;
+                if (costs >= bestKnownCosts) return new InsertionData.NoInsertionFound();
+                InsertionData iData = new InsertionData(costs, 0, 0, newVehicle, newDriver);
+                iData.getEvents().add(new InsertActivity(currentRoute, newVehicle, ServiceActivity.newInstance((Service) newJob), 0));
+                return iData;
+            }
+        }, new InsertionCostsCache(1024));
+    }
+
+    private VehicleRoute route() {
+        return VehicleRoute.Builder.newInstance(vehicle).addService(s1).build();
+    }
+
+    @Test
+    public void whenRouteIsCopied_itShouldReuseInsertionData() {
+        VehicleRoute route = route();
+        InsertionData first = calculator.getInsertionData(route, s2, vehicle, 0., route.getDriver(), Double.MAX_VALUE);
+        VehicleRoute copy = VehicleRoute.copyOnWriteOf(route);
+        InsertionData second = calculator.getInsertionData(copy, s2, vehicle, 0., copy.getDriver(), Double.MAX_VALUE);
+        Assert.assertEquals(1, noCalculations);
+        Assert.assertEquals(first.getInsertionCost(), second.getInsertionCost(), 0.);
+        InsertActivity event = (InsertActivity) second.getEvents().get(0);
+        Assert.assertSame(copy, event.getVehicleRoute());
+        Assert.assertNotSame(((InsertActivity) first.getEvents().get(0)).getActivity(), event.getActivity());
+    }
+
+    @Test
+    public void whenRouteIsModified_itShouldRecalculateInsertionData() {
+        VehicleRoute route = route();
+        calculator.getInsertionData(route, s2, vehicle, 0., route.getDriver(), Double.MAX_VALUE);
+        route.getTourActivities().addActivity(ServiceActivity.newInstance(s3));
+        calculator.getInsertionData(route, s2, vehicle, 0., route.getDriver(), Double.MAX_VALUE);
+        Assert.assertEquals(2, noCalculations);
+    }
+
+    @Test
+    public void whenJobOrVehicleDiffers_itShouldRecalculateInsertionData() {
+        VehicleRoute route = route();
+        calculator.getInsertionData(route, s2, vehicle, 0., route.getDriver(), Double.MAX_VALUE);
+        calculator.getInsertionData(route, s3, vehicle, 0., route.getDriver(), Double.MAX_VALUE);
+        Vehicle other = VehicleImpl.Builder.newInstance("other").setStartLocation(Location.newInstance(0, 0)).build();
+        calculator.getInsertionData(route, s2, other, 0., route.getDriver(), Double.MAX_VALUE);
+        Assert.assertEquals(3, noCalculations);
+    }
+
+    @Test
+    public void noInsertionFound_shouldOnlyBeReusedForLowerOrEqualBestKnownCosts() {
+        VehicleRoute route = route();
+        Assert.assertTrue(calculator.getInsertionData(route, s2, vehicle, 0., route.getDriver(), 5.) instanceof InsertionData.NoInsertionFound);
+        Assert.assertTrue(calculator.getInsertionData(route, s2, vehicle, 0., route.getDriver(), 4.) instanceof InsertionData.NoInsertionFound);
+        Assert.assertEquals(1, noCalculations);
+        InsertionData iData = calculator.getInsertionData(route, s2, vehicle, 0., route.getDriver(), 20.);
+        Assert.assertEquals(2, noCalculations);
+        Assert.assertEquals(10., iData.getInsertionCost(), 0.);
+    }
+
+    @Test
+    public void capacity_shouldBeRoundedUpToPowerOfTwo() {
+        Assert.assertEquals(1024, new InsertionCostsCache(1000).getCapacity());
+        Assert.assertEquals(1, new InsertionCostsCache(1).getCapacity());
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.mockito.Mockito.mock;
+
+public class InsertionDataQueueTest {
+
+    private static InsertionData iData(double costs) {
+        return new InsertionData(costs, 0, 0, null, null);
+    }
+
+    private static List<Double> iterate(InsertionDataQueue queue) {
+        List<Double> costs = new ArrayList<>();
+        queue.startIteration();
+        while (queue.next()) costs.add(queue.getInsertionData().getInsertionCost());
+        return costs;
+    }
+
+    @Test
+    public void itShouldIterateInAscendingOrderOfCosts() {
+        InsertionDataQueue queue = new InsertionDataQueue(2);
+        queue.update(0, mock(VehicleRoute.class), 0, Arrays.asList(iData(5.), iData(1.)));
+        queue.update(1, mock(VehicleRoute.class), 0, Arrays.asList(iData(3.)));
+        queue.update(2, mock(VehicleRoute.class), 0, Collections.<InsertionData>emptyList());
+        queue.update(3, mock(VehicleRoute.class), 0, Arrays.asList(iData(2.), iData(4.)));
+        Assert.assertEquals(Arrays.asList(1., 2., 3., 4., 5.), iterate(queue));
+    }
+
+    @Test
+    public void updatingRoute_shouldReplaceItsInsertionData() {
+        InsertionDataQueue queue = new InsertionDataQueue(2);
+        VehicleRoute route = mock(VehicleRoute.class);
+        queue.update(0, route, 0, Arrays.asList(iData(1.)));
+        queue.update(1, mock(VehicleRoute.class), 0, Arrays.asList(iData(2.)));
+        for (int version = 1; version < 100; version++) {
+            queue.update(0, route, version, Arrays.asList(iData(version + 2.)));
+        }
+        Assert.assertEquals(2, queue.size());
+        queue.startIteration();
+        Assert.assertTrue(queue.next());
+        Assert.assertEquals(2., queue.getInsertionData().getInsertionCost(), 0.01);
+        Assert.assertTrue(queue.next());
+        Assert.assertEquals(route, queue.getRoute());
+        Assert.assertEquals(99, queue.getVersion());
+        Assert.assertEquals(101., queue.getInsertionData().getInsertionCost(), 0.01);
+        Assert.assertFalse(queue.next());
+    }
+
+    @Test
+    public void skippingRoute_shouldSkipItsRemainingInsertionData() {
+        InsertionDataQueue queue = new InsertionDataQueue(2);
+        VehicleRoute route1 = mock(VehicleRoute.class);
+        VehicleRoute route2 = mock(VehicleRoute.class);
+        queue.update(0, route1, 0, Arrays.asList(iData(1.), iData(2.), iData(3.)));
+        queue.update(1, route2, 0, Arrays.asList(iData(4.)));
+        queue.startIteration();
+        Assert.assertTrue(queue.next());
+        Assert.assertEquals(route1, queue.getRoute());
+        queue.skipRoute();
+        Assert.assertTrue(queue.next());
+        Assert.assertEquals(route2, queue.getRoute());
+        Assert.assertFalse(queue.next());
+        Assert.assertEquals(Arrays.asList(1., 2., 3., 4.), iterate(queue));
+    }
+
+    @Test
+    public void itShouldMatchSortedInsertionDataAfterRandomUpdates() {
+        Random random = new Random(4711);
+        InsertionDataQueue queue = new InsertionDataQueue(1);
+        Map<Integer, List<Double>> costsByRoute = new HashMap<>();
+        for (int update = 0; update < 500; update++) {
+            int routeIndex = random.nextInt(40);
+            List<InsertionData> data = new ArrayList<>();
+            List<Double> costs = new ArrayList<>();
+            int noData = random.nextInt(4);
+            for (int i = 0; i < noData; i++) {
+                double c = random.nextInt(1000);
+                data.add(iData(c));
+                costs.add(c);
+            }
+            queue.update(routeIndex, mock(VehicleRoute.class), update, data);
+            costsByRoute.put(routeIndex, costs);
+            List<Double> expected = new ArrayList<>();
+            for (List<Double> c : costsByRoute.values()) expected.addAll(c);
+            Collections.sort(expected);
+            Assert.assertEquals(expected, iterate(queue));
+        }
+    }
+
+}
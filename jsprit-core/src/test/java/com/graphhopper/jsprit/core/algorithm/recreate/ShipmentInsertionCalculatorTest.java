@@ -27,6 +27,7 @@ import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.PickupAndDeliverShipmentLoadActivityLevelConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.ShipmentPickupsFirstConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.VehicleDependentTimeWindowConstraints;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
@@ -39,6 +40,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliverShipment;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupService;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
@@ -148,6 +150,54 @@ public class ShipmentInsertionCalculatorTest {
         assertEquals(2, iData.getDeliveryInsertionIndex());
     }
 
+    @Test
+    public void whenUsingDeliveryCostsLowerBound_itShouldReturnSameInsertion() {
+        Shipment shipment = Shipment.Builder.newInstance("s").addSizeDimension(0, 1).setPickupLocation(Location.Builder.newInstance().setId("0,10").build()).setDeliveryLocation(Location.newInstance("10,0")).build();
+        Shipment shipment2 = Shipment.Builder.newInstance("s2").addSizeDimension(0, 1).setPickupLocation(Location.Builder.newInstance().setId("10,10").build()).setDeliveryLocation(Location.newInstance("0,0")).build();
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        when(vehicleRoutingProblem.copyAndGetActivities(shipment)).thenReturn(getTourActivities(shipment));
+        new Inserter(new InsertionListeners(), vehicleRoutingProblem).insertJob(shipment, new InsertionData(0, 0, 0, vehicle, null), route);
+
+        JobActivityFactory activityFactory = mock(JobActivityFactory.class);
+        when(activityFactory.createActivities(shipment2)).thenReturn(getTourActivities(shipment2));
+        insertionCalculator = new ShipmentInsertionCalculator(routingCosts, activityCosts, activityInsertionCostsCalculator, constraintManager, activityFactory);
+        insertionCalculator.setDeliveryInsertionCostsLowerBound(0.);
+
+        InsertionData iData = insertionCalculator.getInsertionData(route, shipment2, vehicle, 0.0, null, Double.MAX_VALUE);
+        assertEquals(0.0, iData.getInsertionCost(), 0.05);
+        assertEquals(1, iData.getPickupInsertionIndex());
+        assertEquals(2, iData.getDeliveryInsertionIndex());
+    }
+
+    @Test
+    public void whenShipmentExceedsVehicleCapacity_itShouldReturnNoInsertionWithoutEvaluatingPositions() {
+        Shipment shipment = Shipment.Builder.newInstance("s").addSizeDimension(0, 3).setPickupLocation(Location.Builder.newInstance().setId("0,10").build()).setDeliveryLocation(Location.newInstance("10,0")).build();
+        constraintManager.addLoadConstraint();
+
+        JobActivityFactory activityFactory = mock(JobActivityFactory.class);
+        when(activityFactory.createActivities(shipment)).thenReturn(getTourActivities(shipment));
+        insertionCalculator = new ShipmentInsertionCalculator(routingCosts, activityCosts, activityInsertionCostsCalculator, constraintManager, activityFactory);
+
+        InsertionData iData = insertionCalculator.getInsertionData(VehicleRoute.emptyRoute(), shipment, vehicle, 0.0, null, Double.MAX_VALUE);
+        assertTrue(iData instanceof InsertionData.NoInsertionFound);
+        assertTrue(iData.getFailedConstraintNames().contains(PickupAndDeliverShipmentLoadActivityLevelConstraint.class.getSimpleName()));
+    }
+
+    @Test
+    public void whenDepartureIsAfterLatestPickup_itShouldReturnNoInsertionWithoutEvaluatingPositions() {
+        Shipment shipment = Shipment.Builder.newInstance("s").addSizeDimension(0, 1).setPickupLocation(Location.Builder.newInstance().setId("0,10").build())
+            .setPickupTimeWindow(TimeWindow.newInstance(0, 50)).setDeliveryLocation(Location.newInstance("10,0")).build();
+        constraintManager.addTimeWindowConstraint();
+
+        JobActivityFactory activityFactory = mock(JobActivityFactory.class);
+        when(activityFactory.createActivities(shipment)).thenReturn(getTourActivities(shipment));
+        insertionCalculator = new ShipmentInsertionCalculator(routingCosts, activityCosts, activityInsertionCostsCalculator, constraintManager, activityFactory);
+
+        InsertionData iData = insertionCalculator.getInsertionData(VehicleRoute.emptyRoute(), shipment, vehicle, 100.0, null, Double.MAX_VALUE);
+        assertTrue(iData instanceof InsertionData.NoInsertionFound);
+        assertTrue(iData.getFailedConstraintNames().contains(VehicleDependentTimeWindowConstraints.class.getSimpleName()));
+    }
+
     private List<AbstractActivity> getTourActivities(Shipment shipment) {
         List<AbstractActivity> acts = new ArrayList<AbstractActivity>();
         PickupShipment pick = new PickupShipment(shipment);
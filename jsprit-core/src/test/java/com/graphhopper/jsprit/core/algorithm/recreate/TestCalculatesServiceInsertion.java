@@ -17,6 +17,7 @@
  */
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
 import com.graphhopper.jsprit.core.algorithm.state.StateManager;
 import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
@@ -47,6 +48,7 @@ import org.junit.Test;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 
@@ -175,6 +177,78 @@ public class TestCalculatesServiceInsertion {
         assertEquals(1, iData.getDeliveryInsertionIndex());
     }
 
+    private static JobNeighborhoods neighborhoods(final Map<Job, List<Job>> neighbors) {
+        return new JobNeighborhoods() {
+
+            @Override
+            public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+                List<Job> jobs = neighbors.get(neighborTo);
+                return jobs.subList(0, Math.min(nNeighbors, jobs.size())).iterator();
+            }
+
+            @Override
+            public void initialise() {
+
+            }
+
+            @Override
+            public double getMaxDistance() {
+                return 0;
+            }
+        };
+    }
+
+    @Test
+    public void whenGranularAndRouteServesNoNeighbor_itShouldSkipRoute() {
+        Map<Job, List<Job>> neighbors = new HashMap<>();
+        neighbors.put(third, Arrays.<Job>asList(second));
+        serviceInsertion.setJobNeighborhoods(neighborhoods(neighbors), 1);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).setJobActivityFactory(vrp.getJobActivityFactory()).addService(first).build();
+        states.informInsertionStarts(Arrays.asList(route), null);
+
+        InsertionData iData = serviceInsertion.getInsertionData(route, third, vehicle, vehicle.getEarliestDeparture(), null, Double.MAX_VALUE);
+        assertTrue(iData instanceof InsertionData.NoInsertionFound);
+    }
+
+    @Test
+    public void whenGranular_itShouldOnlyInsertNextToNeighbors() {
+        Map<Job, List<Job>> neighbors = new HashMap<>();
+        neighbors.put(third, Arrays.<Job>asList(first, second));
+        serviceInsertion.setJobNeighborhoods(neighborhoods(neighbors), 1);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).setJobActivityFactory(vrp.getJobActivityFactory()).addService(first).addService(second).build();
+        states.informInsertionStarts(Arrays.asList(route), null);
+
+        InsertionData iData = serviceInsertion.getInsertionData(route, third, vehicle, vehicle.getEarliestDeparture(), null, Double.MAX_VALUE);
+        assertTrue(iData.getDeliveryInsertionIndex() < 2);
+        assertEquals(20.0, iData.getInsertionCost(), 0.2);
+    }
+
+    @Test
+    public void whenGranularAndNeighborIsAdjacentToBestPosition_itShouldFindBestPosition() {
+        Map<Job, List<Job>> neighbors = new HashMap<>();
+        neighbors.put(second, Arrays.<Job>asList(third));
+        serviceInsertion.setJobNeighborhoods(neighborhoods(neighbors), 1);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).setJobActivityFactory(vrp.getJobActivityFactory()).addService(first).addService(third).build();
+        states.informInsertionStarts(Arrays.asList(route), null);
+
+        InsertionData iData = serviceInsertion.getInsertionData(route, second, vehicle, vehicle.getEarliestDeparture(), null, Double.MAX_VALUE);
+        assertEquals(0.0, iData.getInsertionCost(), 0.2);
+        assertEquals(1, iData.getDeliveryInsertionIndex());
+    }
+
+    @Test
+    public void whenGranularAndRouteIsEmpty_itShouldStillEvaluateRoute() {
+        Map<Job, List<Job>> neighbors = new HashMap<>();
+        neighbors.put(first, Arrays.<Job>asList(second));
+        serviceInsertion.setJobNeighborhoods(neighborhoods(neighbors), 1);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).build();
+        states.informInsertionStarts(Arrays.asList(route), null);
+
+        InsertionData iData = serviceInsertion.getInsertionData(route, first, vehicle, vehicle.getEarliestDeparture(), null, Double.MAX_VALUE);
+        assertEquals(20.0, iData.getInsertionCost(), 0.2);
+        assertEquals(0, iData.getDeliveryInsertionIndex());
+    }
+
     @Test
     public void whenInsertingThirdJobWithNewVehicle_itCalculatesMarginalCostChanges() {
         VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).setJobActivityFactory(vrp.getJobActivityFactory()).addService(first).addService(third).build();
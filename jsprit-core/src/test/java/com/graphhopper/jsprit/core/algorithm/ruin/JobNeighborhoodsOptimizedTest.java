@@ -28,8 +28,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -141,6 +145,61 @@ public class JobNeighborhoodsOptimizedTest {
         assertEquals(2, services.size());
     }
 
+    @Test
+    public void whenRequestingTies_neighborsShouldBeTheSameAsWithStableSort() {
+        JobNeighborhoodsOptimized jn = new JobNeighborhoodsOptimized(vrp, jobDistance, 4);
+        jn.initialise();
+        for (final Job job : vrp.getJobsInclusiveInitialJobsInRoutes().values()) {
+            List<Job> expected = new ArrayList<Job>(vrp.getJobsInclusiveInitialJobsInRoutes().values());
+            expected.remove(job);
+            Collections.sort(expected, new Comparator<Job>() {
+                @Override
+                public int compare(Job o1, Job o2) {
+                    return Double.compare(jobDistance.getDistance(job, o1), jobDistance.getDistance(job, o2));
+                }
+            });
+            Iterator<Job> iter = jn.getNearestNeighborsIterator(4, job);
+            for (int i = 0; i < 4; i++) {
+                Assert.assertEquals(expected.get(i), iter.next());
+            }
+            Assert.assertFalse(iter.hasNext());
+        }
+    }
 
+    @Test
+    public void whenCapacityExceedsNumberOfJobs_itShouldMemorizeAllOtherJobs() {
+        JobNeighborhoodsOptimized jn = new JobNeighborhoodsOptimized(vrp, jobDistance, 10);
+        jn.initialise();
+        Iterator<Job> iter = jn.getNearestNeighborsIterator(10, target);
+        List<Service> services = new ArrayList<Service>();
+        while (iter.hasNext()) {
+            services.add((Service) iter.next());
+        }
+        assertEquals(6, services.size());
+        assertEquals(6., jn.getMaxDistance(), 0.01);
+    }
+
+    @Test
+    public void whenComputingInParallel_neighborsShouldBeTheSameAsSequentially() {
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            JobNeighborhoodsOptimized parallel = new JobNeighborhoodsOptimized(vrp, jobDistance, 3, executorService, 3);
+            parallel.initialise();
+            JobNeighborhoodsOptimized sequential = new JobNeighborhoodsOptimized(vrp, jobDistance, 3);
+            sequential.initialise();
+            for (Job job : vrp.getJobs().values()) {
+                Iterator<Job> expected = sequential.getNearestNeighborsIterator(3, job);
+                Iterator<Job> actual = parallel.getNearestNeighborsIterator(3, job);
+                while (expected.hasNext()) {
+                    assertTrue(actual.hasNext());
+                    Assert.assertEquals(expected.next(), actual.next());
+                }
+                Assert.assertFalse(actual.hasNext());
+            }
+            assertEquals(sequential.getMaxDistance(), parallel.getMaxDistance(), 0.01);
+        } finally {
+            executorService.shutdown();
+        }
+    }
 
 }
@@ -0,0 +1,113 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JobNeighborhoodsWithSpatialIndexTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private JobDistance jobDistance;
+
+    @Before
+    public void doBefore() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4);
+        for (int i = 0; i < 100; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+        }
+        vrp = builder.build();
+        jobDistance = new EuclideanServiceDistance();
+    }
+
+    @Test
+    public void neighborsShouldHaveSameDistancesAsWithAllPairs() {
+        JobNeighborhoodsWithSpatialIndex spatial = new JobNeighborhoodsWithSpatialIndex(vrp, jobDistance, 10, 2.);
+        spatial.initialise();
+        JobNeighborhoodsOptimized allPairs = new JobNeighborhoodsOptimized(vrp, jobDistance, 10);
+        allPairs.initialise();
+        for (Job job : vrp.getJobs().values()) {
+            Iterator<Job> expected = allPairs.getNearestNeighborsIterator(10, job);
+            Iterator<Job> actual = spatial.getNearestNeighborsIterator(10, job);
+            while (expected.hasNext()) {
+                assertTrue(actual.hasNext());
+                assertEquals(jobDistance.getDistance(job, expected.next()), jobDistance.getDistance(job, actual.next()), 0.0001);
+            }
+            assertFalse(actual.hasNext());
+        }
+    }
+
+    @Test
+    public void withoutJobDistance_neighborsShouldBeRankedByCoordinates() {
+        JobNeighborhoodsWithSpatialIndex spatial = new JobNeighborhoodsWithSpatialIndex(vrp, 5);
+        spatial.initialise();
+        for (Job job : vrp.getJobs().values()) {
+            Iterator<Job> iterator = spatial.getNearestNeighborsIterator(5, job);
+            double lastDistance = 0.;
+            int count = 0;
+            while (iterator.hasNext()) {
+                double distance = jobDistance.getDistance(job, iterator.next());
+                assertTrue(distance >= lastDistance);
+                lastDistance = distance;
+                count++;
+            }
+            assertEquals(5, count);
+        }
+        assertTrue(spatial.getMaxDistance() > 0.);
+    }
+
+    @Test
+    public void jobsWithoutCoordinatesShouldStillGetNeighborsWhenJobDistanceIsSpecified() {
+        final Service noCoord = Service.Builder.newInstance("noCoord").setLocation(Location.newInstance("loc")).build();
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        builder.addAllJobs(vrp.getJobs().values()).addJob(noCoord);
+        VehicleRoutingProblem vrpWithNoCoord = builder.build();
+        JobDistance constantForNoCoord = new JobDistance() {
+            @Override
+            public double getDistance(Job i, Job j) {
+                if (i == noCoord || j == noCoord) return 1.;
+                return jobDistance.getDistance(i, j);
+            }
+        };
+        JobNeighborhoodsWithSpatialIndex spatial = new JobNeighborhoodsWithSpatialIndex(vrpWithNoCoord, constantForNoCoord, 3, 2.);
+        spatial.initialise();
+        Iterator<Job> iterator = spatial.getNearestNeighborsIterator(3, noCoord);
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(3, count);
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JobSpatialIndexTest {
+
+    private List<Job> createServices(int n, Random random) {
+        List<Job> jobs = new ArrayList<Job>();
+        for (int i = 0; i < n; i++) {
+            //coarse grid to enforce many identical coordinates
+            jobs.add(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextInt(20), random.nextInt(20))).build());
+        }
+        return jobs;
+    }
+
+    private double distance(Job job, Coordinate coordinate) {
+        return EuclideanDistanceCalculator.calculateDistance(JobSpatialIndex.getCoordinate(job), coordinate);
+    }
+
+    @Test
+    public void nearestNeighborsShouldHaveSameDistancesAsBruteForce() {
+        Random random = new Random(1);
+        List<Job> jobs = createServices(300, random);
+        JobSpatialIndex index = JobSpatialIndex.newInstance(jobs);
+        assertEquals(300, index.size());
+        for (int q = 0; q < 30; q++) {
+            final Job job = jobs.get(random.nextInt(jobs.size()));
+            final Coordinate coordinate = JobSpatialIndex.getCoordinate(job);
+            List<Job> expected = new ArrayList<Job>(jobs);
+            expected.remove(job);
+            Collections.sort(expected, new Comparator<Job>() {
+                @Override
+                public int compare(Job o1, Job o2) {
+                    return Double.compare(distance(o1, coordinate), distance(o2, coordinate));
+                }
+            });
+            List<Job> neighbors = index.getNearestNeighbors(job, 15);
+            assertEquals(15, neighbors.size());
+            assertFalse(neighbors.contains(job));
+            for (int i = 0; i < 15; i++) {
+                assertEquals(distance(expected.get(i), coordinate), distance(neighbors.get(i), coordinate), 0.0001);
+            }
+        }
+    }
+
+    @Test
+    public void radiusQueryShouldReturnSameJobsAsBruteForce() {
+        Random random = new Random(2);
+        List<Job> jobs = createServices(300, random);
+        JobSpatialIndex index = JobSpatialIndex.newInstance(jobs);
+        for (int q = 0; q < 30; q++) {
+            Coordinate coordinate = Coordinate.newInstance(random.nextDouble() * 20, random.nextDouble() * 20);
+            double radius = random.nextDouble() * 5;
+            List<Job> expected = new ArrayList<Job>();
+            for (Job job : jobs) {
+                if (distance(job, coordinate) <= radius) expected.add(job);
+            }
+            List<Job> neighbors = index.getNeighborsWithinRadius(coordinate, radius);
+            assertEquals(expected.size(), neighbors.size());
+            assertEquals(new HashSet<Job>(expected), new HashSet<Job>(neighbors));
+        }
+    }
+
+    @Test
+    public void whenRequestingMoreNeighborsThanIndexed_itShouldReturnAllOtherJobs() {
+        List<Job> jobs = createServices(5, new Random(3));
+        JobSpatialIndex index = JobSpatialIndex.newInstance(jobs);
+        assertEquals(4, index.getNearestNeighbors(jobs.get(0), 10).size());
+        assertEquals(5, index.getNearestNeighbors(Coordinate.newInstance(0, 0), 10).size());
+    }
+
+    @Test
+    public void jobsWithoutCoordinatesShouldNotBeIndexed() {
+        Service withCoord = Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 0)).build();
+        Service withoutCoord = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc")).build();
+        List<Job> jobs = new ArrayList<Job>();
+        jobs.add(withCoord);
+        jobs.add(withoutCoord);
+        JobSpatialIndex index = JobSpatialIndex.newInstance(jobs);
+        assertEquals(1, index.size());
+        assertTrue(index.contains(withCoord));
+        assertFalse(index.contains(withoutCoord));
+    }
+
+    @Test
+    public void shipmentShouldBeIndexedWithMidpointOfPickupAndDelivery() {
+        Shipment shipment = Shipment.Builder.newInstance("s").setPickupLocation(Location.newInstance(0, 0))
+            .setDeliveryLocation(Location.newInstance(10, 4)).build();
+        Coordinate coordinate = JobSpatialIndex.getCoordinate(shipment);
+        assertEquals(5., coordinate.getX(), 0.001);
+        assertEquals(2., coordinate.getY(), 0.001);
+    }
+
+}
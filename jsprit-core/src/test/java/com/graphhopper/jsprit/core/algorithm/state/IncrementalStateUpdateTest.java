@@ -0,0 +1,230 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.algorithm.AlgorithmUtil;
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.JobActivityFactory;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.ActivityTimeTracker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * unit tests to test incremental state updates after a job has been inserted
+ */
+public class IncrementalStateUpdateTest {
+
+    static class CountingUpdateActivityTimes extends UpdateActivityTimes {
+
+        int visits;
+
+        CountingUpdateActivityTimes(VehicleRoutingProblem vrp) {
+            super(vrp.getTransportCosts(), ActivityTimeTracker.ActivityPolicy.AS_SOON_AS_TIME_WINDOW_OPENS, vrp.getActivityCosts());
+        }
+
+        @Override
+        public void visit(TourActivity activity) {
+            visits++;
+            super.visit(activity);
+        }
+    }
+
+    private VehicleRoutingProblem vrp;
+
+    private Vehicle vehicle;
+
+    private Vehicle otherVehicle;
+
+    private List<Service> services;
+
+    private List<Service> inserted;
+
+    @Before
+    public void doBefore() {
+        vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).setLatestArrival(2000.).build();
+        otherVehicle = VehicleImpl.Builder.newInstance("v2").setType(VehicleTypeImpl.Builder.newInstance("t2").build())
+            .setStartLocation(Location.newInstance(50, 0)).setLatestArrival(1500.).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addVehicle(otherVehicle);
+        services = new ArrayList<Service>();
+        for (int i = 1; i <= 6; i++) {
+            Service s = Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(10 * i, 0))
+                .setTimeWindow(TimeWindow.newInstance(100 * i, 100 * i + 50)).build();
+            services.add(s);
+            vrpBuilder.addJob(s);
+        }
+        inserted = new ArrayList<Service>();
+        for (int i = 0; i < 3; i++) {
+            Service s = Service.Builder.newInstance("new" + i).setLocation(Location.newInstance(15 + 10 * i, 5)).build();
+            inserted.add(s);
+            vrpBuilder.addJob(s);
+        }
+        vrp = vrpBuilder.build();
+    }
+
+    private VehicleRoute createRoute() {
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(new JobActivityFactory() {
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+        });
+        for (Service s : services) routeBuilder.addService(s);
+        return routeBuilder.build();
+    }
+
+    private StateManager createStateManager() {
+        StateManager stateManager = new StateManager(vrp);
+        AlgorithmUtil.addCoreConstraints(new ConstraintManager(vrp, stateManager), stateManager, vrp);
+        return stateManager;
+    }
+
+    private Service insert(VehicleRoute route, int index, int no) {
+        Service s = inserted.get(no);
+        route.getTourActivities().addActivity(index, vrp.copyAndGetActivities(s).get(0));
+        return s;
+    }
+
+    private List<Double> getStates(StateManager stateManager, VehicleRoute route) {
+        List<Double> states = new ArrayList<Double>();
+        for (TourActivity act : route.getActivities()) {
+            states.add(act.getArrTime());
+            states.add(act.getEndTime());
+            states.add(stateManager.getActivityState(act, vehicle, InternalStates.LATEST_OPERATION_START_TIME));
+            states.add(stateManager.getActivityState(act, otherVehicle, InternalStates.LATEST_OPERATION_START_TIME));
+        }
+        states.add(route.getEnd().getArrTime());
+        states.add(stateManager.getRouteState(route, InternalStates.COSTS));
+        return states;
+    }
+
+    @Test
+    public void whenInsertingJobsIncrementally_statesShouldEqualFullUpdate() {
+        VehicleRoute route = createRoute();
+        StateManager stateManager = createStateManager();
+        stateManager.informInsertionStarts(Collections.singletonList(route), Collections.<Job>emptyList());
+        int[] indices = {6, 0, 3};
+        for (int i = 0; i < indices.length; i++) {
+            Service s = insert(route, indices[i], i);
+            stateManager.informJobInserted(s, route, 0., 0.);
+            List<Double> incrementalStates = getStates(stateManager, route);
+            stateManager.reCalculateStates(route);
+            assertEquals(getStates(stateManager, route), incrementalStates);
+        }
+    }
+
+    @Test
+    public void whenUpdatingStatesOfCopyOnWriteCopyWithoutChanges_activitiesShouldRemainShared() {
+        VehicleRoute route = createRoute();
+        StateManager stateManager = createStateManager();
+        stateManager.reCalculateStates(route);
+        VehicleRoute copy = VehicleRoute.copyOnWriteOf(route);
+        stateManager.reCalculateStates(copy);
+        assertSame(route.getActivities().get(0), copy.getActivities().get(0));
+    }
+
+    @Test
+    public void whenSwitchingVehicleOfCopyOnWriteCopy_timesOfOriginalShouldNotChange() {
+        VehicleRoute route = createRoute();
+        StateManager stateManager = createStateManager();
+        stateManager.reCalculateStates(route);
+        List<Double> originalStates = getStates(stateManager, route);
+        VehicleRoute copy = VehicleRoute.copyOnWriteOf(route);
+        copy.setVehicleAndDepartureTime(otherVehicle, 0.);
+        stateManager.reCalculateStates(copy);
+        assertEquals(originalStates, getStates(stateManager, route));
+        assertNotSame(route.getActivities().get(0), copy.getActivities().get(0));
+        assertNotEquals(route.getActivities().get(0).getArrTime(), copy.getActivities().get(0).getArrTime(), 0.01);
+    }
+
+    @Test
+    public void whenRemovingActivities_statesShouldEqualFullUpdate() {
+        VehicleRoute route = createRoute();
+        StateManager stateManager = createStateManager();
+        stateManager.informInsertionStarts(Collections.singletonList(route), Collections.<Job>emptyList());
+        route.getTourActivities().removeJob(services.get(0));
+        route.getTourActivities().removeJob(services.get(5));
+        Service s = insert(route, 2, 0);
+        stateManager.informJobInserted(s, route, 0., 0.);
+        List<Double> incrementalStates = getStates(stateManager, route);
+        stateManager.reCalculateStates(route);
+        assertEquals(getStates(stateManager, route), incrementalStates);
+    }
+
+    @Test
+    public void whenTimesConvergeAfterInsertion_itShouldOnlyVisitAffectedSegment() {
+        VehicleRoute route = createRoute();
+        StateManager stateManager = new StateManager(vrp);
+        CountingUpdateActivityTimes updater = new CountingUpdateActivityTimes(vrp);
+        stateManager.addStateUpdater(updater);
+        stateManager.informInsertionStarts(Collections.singletonList(route), Collections.<Job>emptyList());
+        updater.visits = 0;
+        Service s = insert(route, 1, 0);
+        stateManager.informJobInserted(s, route, 0., 0.);
+        assertEquals(2, updater.visits);
+        assertEquals(200., route.getActivities().get(2).getEndTime(), 0.01);
+    }
+
+    @Test
+    public void whenIncrementalUpdateIsDisabled_itShouldVisitEntireRoute() {
+        VehicleRoute route = createRoute();
+        StateManager stateManager = new StateManager(vrp);
+        stateManager.setIncrementalUpdate(false);
+        CountingUpdateActivityTimes updater = new CountingUpdateActivityTimes(vrp);
+        stateManager.addStateUpdater(updater);
+        stateManager.informInsertionStarts(Collections.singletonList(route), Collections.<Job>emptyList());
+        updater.visits = 0;
+        Service s = insert(route, 1, 0);
+        stateManager.informJobInserted(s, route, 0., 0.);
+        assertEquals(7, updater.visits);
+    }
+
+    @Test
+    public void whenVehicleHasChanged_itShouldVisitEntireRoute() {
+        VehicleRoute route = createRoute();
+        StateManager stateManager = new StateManager(vrp);
+        CountingUpdateActivityTimes updater = new CountingUpdateActivityTimes(vrp);
+        stateManager.addStateUpdater(updater);
+        stateManager.informInsertionStarts(Collections.singletonList(route), Collections.<Job>emptyList());
+        updater.visits = 0;
+        route.setVehicleAndDepartureTime(otherVehicle, 0.);
+        Service s = insert(route, 1, 0);
+        stateManager.informJobInserted(s, route, 0., 0.);
+        assertEquals(7, updater.visits);
+    }
+
+}
@@ -23,6 +23,7 @@ import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ServiceActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
@@ -356,4 +357,180 @@ public class StateManagerTest {
         }
         stateManager.putTypedInternalRouteState(route,myState,1.);
     }
+
+    @Test
+    public void whenDoubleActivityStateIsSet_itMustBeSetCorrectly() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        DoubleStateId id = stateManager.createDoubleStateId("myState");
+        stateManager.putActivityState(activity, id, 3.5);
+        assertEquals(3.5, stateManager.getActivityState(activity, id), 0.01);
+        assertEquals(3.5, stateManager.getActivityState(activity, id, Double.class), 0.01);
+    }
+
+    @Test
+    public void whenDoubleActivityStateIsNotSet_itShouldReturnNaN() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        DoubleStateId id = stateManager.createDoubleStateId("myState");
+        assertTrue(Double.isNaN(stateManager.getActivityState(activity, id)));
+        assertNull(stateManager.getActivityState(activity, id, Double.class));
+    }
+
+    @Test
+    public void whenDoubleRouteStateIsSetAndStateManagerCleared_itShouldReturnNaN() {
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        StateManager stateManager = new StateManager(vrpMock);
+        DoubleStateId id = stateManager.createDoubleStateId("myState");
+        stateManager.putRouteState(route, id, 10.);
+        assertEquals(10., stateManager.getRouteState(route, id), 0.01);
+        stateManager.clear();
+        assertTrue(Double.isNaN(stateManager.getRouteState(route, id)));
+    }
+
+    @Test
+    public void whenVehicleDependentDoubleActivityStateIsSet_itMustBeSetCorrectly() {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(4.).build();
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("loc")).build();
+        VehicleImpl vehicle2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance("loc")).setType(type).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addVehicle(vehicle2).build();
+
+        TourActivity act = mock(TourActivity.class);
+        when(act.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrp);
+        stateManager.putInternalTypedActivityState(act, vehicle, InternalStates.LATEST_OPERATION_START_TIME, 20.);
+
+        assertEquals(20., stateManager.getActivityState(act, vehicle, InternalStates.LATEST_OPERATION_START_TIME), 0.01);
+        assertTrue(stateManager.hasActivityState(act, vehicle, InternalStates.LATEST_OPERATION_START_TIME));
+        assertFalse(stateManager.hasActivityState(act, vehicle2, InternalStates.LATEST_OPERATION_START_TIME));
+    }
+
+    @Test
+    public void whenGetterOnlyImplementsBoxedGetters_primitiveGettersShouldDelegateToThem() {
+        RouteAndActivityStateGetter getter = new RouteAndActivityStateGetter() {
+
+            @Override
+            public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
+                return type.cast(2.);
+            }
+
+            @Override
+            public <T> T getActivityState(TourActivity act, Vehicle vehicle, StateId stateId, Class<T> type) {
+                return null;
+            }
+
+            @Override
+            public <T> T getRouteState(VehicleRoute route, StateId stateId, Class<T> type) {
+                return type.cast(3.);
+            }
+
+            @Override
+            public <T> T getRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, Class<T> type) {
+                return null;
+            }
+
+        };
+        DoubleStateId id = new StateManager(vrpMock).createDoubleStateId("myState");
+        assertEquals(2., getter.getActivityState(mock(TourActivity.class), id), 0.01);
+        assertEquals(3., getter.getRouteState(mock(VehicleRoute.class), id), 0.01);
+        assertTrue(Double.isNaN(getter.getActivityState(mock(TourActivity.class), mock(Vehicle.class), id)));
+        assertTrue(Double.isNaN(getter.getRouteState(mock(VehicleRoute.class), mock(Vehicle.class), id)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenCreatingDoubleStateWithNameOfNonDoubleState_itShouldThrowException() {
+        StateManager stateManager = new StateManager(vrpMock);
+        stateManager.createStateId("myState");
+        stateManager.createDoubleStateId("myState");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenPuttingInternalDoubleState_itShouldThrowException() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        stateManager.putActivityState(activity, InternalStates.COSTS, 1.);
+    }
+
+    @Test
+    public void whenRouteStatesOfManyRoutesAreSet_eachRouteShouldKeepItsState() {
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createStateId("myState");
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        for (int i = 0; i < 50; i++) {
+            VehicleRoute route = getRoute(mock(Vehicle.class));
+            stateManager.putRouteState(route, id, i);
+            stateManager.putTypedInternalRouteState(route, InternalStates.COSTS, (double) i);
+            routes.add(route);
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) stateManager.getRouteState(routes.get(i), id, Integer.class));
+            assertEquals(i, stateManager.getRouteState(routes.get(i), InternalStates.COSTS), 0.01);
+        }
+    }
+
+    @Test
+    public void whenStateManagerIsCleared_recycledSlotsShouldNotLeakStatesToOtherRoutes() {
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createStateId("myState");
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        stateManager.putRouteState(route, id, true);
+        stateManager.clear();
+
+        VehicleRoute otherRoute = getRoute(mock(Vehicle.class));
+        stateManager.putRouteState(otherRoute, id, false);
+        assertNull(stateManager.getRouteState(route, id, Boolean.class));
+        assertFalse(stateManager.getRouteState(otherRoute, id, Boolean.class));
+    }
+
+    @Test
+    public void whenTwoStateManagersMemorizeStatesOfTheSameRoute_theyShouldNotInterfere() {
+        StateManager stateManager = new StateManager(vrpMock);
+        StateManager otherStateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createStateId("myState");
+        StateId otherId = otherStateManager.createStateId("myState");
+        VehicleRoute otherRoute = getRoute(mock(Vehicle.class));
+        otherStateManager.putRouteState(otherRoute, otherId, false);
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        stateManager.putRouteState(route, id, true);
+        otherStateManager.putRouteState(route, otherId, false);
+        assertTrue(stateManager.getRouteState(route, id, Boolean.class));
+        assertFalse(otherStateManager.getRouteState(route, otherId, Boolean.class));
+        assertNull(stateManager.getRouteState(otherRoute, id, Boolean.class));
+    }
+
+    @Test
+    public void whenStateManagerIsCleared_routeShouldGetNewSlotOnNextState() {
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createStateId("myState");
+        VehicleRoute otherRoute = getRoute(mock(Vehicle.class));
+        stateManager.putRouteState(otherRoute, id, false);
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        stateManager.putRouteState(route, id, true);
+        stateManager.clear();
+
+        stateManager.putRouteState(route, id, true);
+        assertTrue(stateManager.getRouteState(route, id, Boolean.class));
+        assertNull(stateManager.getRouteState(otherRoute, id, Boolean.class));
+    }
+
+    @Test
+    public void whenOtherStateManagerIsCleared_statesOfSharedRouteShouldBeKept() {
+        StateManager stateManager = new StateManager(vrpMock);
+        StateManager otherStateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createStateId("myState");
+        StateId otherId = otherStateManager.createStateId("myState");
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        otherStateManager.putRouteState(route, otherId, false);
+        stateManager.putRouteState(route, id, true);
+        otherStateManager.clear();
+        otherStateManager.putRouteState(route, otherId, true);
+        assertTrue(stateManager.getRouteState(route, id, Boolean.class));
+        assertTrue(otherStateManager.getRouteState(route, otherId, Boolean.class));
+        stateManager.clear();
+        assertNull(stateManager.getRouteState(route, id, Boolean.class));
+    }
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeWindowSegmentTest {
+
+    @Test
+    public void whenArrivingBeforeTimeWindowOpens_itShouldWait() {
+        TimeWindowSegment first = TimeWindowSegment.of(Location.newInstance("a"), 0., 10., 5.);
+        TimeWindowSegment second = TimeWindowSegment.of(Location.newInstance("b"), 50., 60., 5.);
+        TimeWindowSegment segment = TimeWindowSegment.concat(first, second, 10.);
+        Assert.assertTrue(segment.isFeasible());
+        Assert.assertEquals(10., segment.getEarliestStart(), 0.01);
+        Assert.assertEquals(10., segment.getLatestStart(), 0.01);
+        Assert.assertEquals(45., segment.getDuration(), 0.01);
+    }
+
+    @Test
+    public void whenArrivingAfterTimeWindowCloses_itShouldHaveTimeWarp() {
+        TimeWindowSegment first = TimeWindowSegment.of(Location.newInstance("a"), 20., 30., 5.);
+        TimeWindowSegment second = TimeWindowSegment.of(Location.newInstance("b"), 0., 30., 5.);
+        TimeWindowSegment segment = TimeWindowSegment.concat(first, second, 10.);
+        Assert.assertFalse(segment.isFeasible());
+        Assert.assertEquals(5., segment.getTimeWarp(), 0.01);
+    }
+
+    @Test
+    public void concatenation_shouldBeAssociative() {
+        TimeWindowSegment a = TimeWindowSegment.of(Location.newInstance("a"), 0., 100., 3.);
+        TimeWindowSegment b = TimeWindowSegment.of(Location.newInstance("b"), 40., 45., 7.);
+        TimeWindowSegment c = TimeWindowSegment.of(Location.newInstance("c"), 10., 50., 2.);
+        TimeWindowSegment left = TimeWindowSegment.concat(TimeWindowSegment.concat(a, b, 12.), c, 9.);
+        TimeWindowSegment right = TimeWindowSegment.concat(a, TimeWindowSegment.concat(b, c, 9.), 12.);
+        Assert.assertEquals(left.getDuration(), right.getDuration(), 0.01);
+        Assert.assertEquals(left.getTimeWarp(), right.getTimeWarp(), 0.01);
+        Assert.assertEquals(left.getEarliestStart(), right.getEarliestStart(), 0.01);
+        Assert.assertEquals(left.getLatestStart(), right.getLatestStart(), 0.01);
+        Assert.assertEquals(6., left.getTimeWarp(), 0.01);
+    }
+}
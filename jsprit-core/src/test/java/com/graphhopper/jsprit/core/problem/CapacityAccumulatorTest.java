@@ -0,0 +1,87 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CapacityAccumulatorTest {
+
+    @Test
+    public void whenAddingUpCapacities_dimensionsMustBeSummedUp() {
+        CapacityAccumulator acc = new CapacityAccumulator();
+        acc.add(Capacity.Builder.newInstance().addDimension(0, 1).addDimension(1, 2).build());
+        acc.add(Capacity.Builder.newInstance().addDimension(0, 3).build());
+        assertEquals(2, acc.getNuOfDimensions());
+        assertEquals(4, acc.get(0));
+        assertEquals(2, acc.get(1));
+        assertEquals(0, acc.get(2));
+    }
+
+    @Test
+    public void whenSubtractingCapacity_dimensionsMustBeSubtracted() {
+        CapacityAccumulator acc = new CapacityAccumulator();
+        acc.set(Capacity.Builder.newInstance().addDimension(0, 5).build());
+        acc.subtract(Capacity.Builder.newInstance().addDimension(0, 2).addDimension(1, 1).build());
+        assertEquals(3, acc.get(0));
+        assertEquals(-1, acc.get(1));
+    }
+
+    @Test
+    public void whenResetting_allDimensionsMustBeZero() {
+        CapacityAccumulator acc = new CapacityAccumulator();
+        acc.add(Capacity.Builder.newInstance().addDimension(0, 1).addDimension(3, 2).build());
+        acc.reset();
+        assertEquals(1, acc.getNuOfDimensions());
+        acc.add(Capacity.Builder.newInstance().addDimension(0, 1).addDimension(1, 1).build());
+        assertEquals(2, acc.getNuOfDimensions());
+        assertEquals(0, acc.get(3));
+    }
+
+    @Test
+    public void whenDeterminingMax_eachDimensionMustBeMax() {
+        CapacityAccumulator acc = new CapacityAccumulator();
+        acc.set(Capacity.Builder.newInstance().addDimension(0, 5).addDimension(1, 1).build());
+        acc.max(Capacity.Builder.newInstance().addDimension(0, 2).addDimension(1, 4).build());
+        assertEquals(5, acc.get(0));
+        assertEquals(4, acc.get(1));
+    }
+
+    @Test
+    public void whenComparing_itShouldBehaveLikeCapacity() {
+        CapacityAccumulator acc = new CapacityAccumulator();
+        acc.set(Capacity.Builder.newInstance().addDimension(0, 2).addDimension(1, 3).build());
+        assertTrue(acc.isLessOrEqual(Capacity.Builder.newInstance().addDimension(0, 2).addDimension(1, 3).build()));
+        assertFalse(acc.isLessOrEqual(Capacity.Builder.newInstance().addDimension(0, 2).build()));
+        assertTrue(acc.isGreaterOrEqual(Capacity.Builder.newInstance().addDimension(0, 2).build()));
+        assertFalse(acc.isGreaterOrEqual(Capacity.Builder.newInstance().addDimension(2, 1).build()));
+    }
+
+    @Test
+    public void whenTakingSnapshot_itShouldBeEqualToAddedUpCapacity() {
+        Capacity cap1 = Capacity.Builder.newInstance().addDimension(0, 1).build();
+        Capacity cap2 = Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 2).build();
+        CapacityAccumulator acc = new CapacityAccumulator();
+        acc.add(cap1).add(cap2);
+        Capacity snapshot = acc.toCapacity();
+        assertEquals(Capacity.addup(cap1, cap2), snapshot);
+        acc.add(cap2);
+        assertEquals(4, snapshot.get(0));
+    }
+}
@@ -383,4 +383,23 @@ public class CapacityTest {
         Capacity cap2 = Capacity.Builder.newInstance().addDimension(0,10).addDimension(2, 1000).addDimension(1,100).build();
         Assert.assertTrue(cap1.equals(cap2));
     }
+
+    @Test
+    public void whenCheckingSumAgainstCapacity_itShouldBehaveLikeAddingUp() {
+        Capacity cap1 = Capacity.Builder.newInstance().addDimension(0, 2).addDimension(1, 3).build();
+        Capacity cap2 = Capacity.Builder.newInstance().addDimension(0, 1).build();
+        Capacity capacity = Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 3).build();
+        assertTrue(Capacity.sumIsLessOrEqual(cap1, cap2, capacity));
+        assertFalse(Capacity.sumIsLessOrEqual(cap1, cap1, capacity));
+        assertFalse(Capacity.sumIsLessOrEqual(cap1, cap2, Capacity.Builder.newInstance().addDimension(0, 3).build()));
+    }
+
+    @Test
+    public void whenCheckingDifferenceAgainstCapacity_itShouldBehaveLikeSubtracting() {
+        Capacity cap = Capacity.Builder.newInstance().addDimension(0, 5).addDimension(1, 3).build();
+        Capacity cap2subtract = Capacity.Builder.newInstance().addDimension(0, 2).build();
+        Capacity capacity = Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 3).build();
+        assertTrue(Capacity.differenceIsLessOrEqual(cap, cap2subtract, capacity));
+        assertFalse(Capacity.differenceIsLessOrEqual(cap, Capacity.Builder.newInstance().build(), capacity));
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+import com.graphhopper.jsprit.core.algorithm.state.*;
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.JobActivityFactory;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.util.ActivityTimeTracker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * unit tests to test the time-window constraint based on time-window segments
+ */
+public class TimeWindowSegmentConstraintTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private VehicleImpl vehicle;
+
+    private VehicleRoute route;
+
+    private List<Service> candidates;
+
+    private StateManager stateManager;
+
+    private UpdateTimeWindowSegments segments;
+
+    @Before
+    public void doBefore() {
+        Random random = new Random(4711);
+        vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).setLatestArrival(400.).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle);
+        List<Service> routeServices = new ArrayList<Service>();
+        for (int i = 0; i < 8; i++) {
+            Service s = Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextInt(50), random.nextInt(50)))
+                .setServiceTime(random.nextInt(10)).setTimeWindow(TimeWindow.newInstance(40 * i, 40 * i + 60)).build();
+            routeServices.add(s);
+            vrpBuilder.addJob(s);
+        }
+        candidates = new ArrayList<Service>();
+        for (int i = 0; i < 30; i++) {
+            double start = random.nextInt(350);
+            Service s = Service.Builder.newInstance("c" + i).setLocation(Location.newInstance(random.nextInt(50), random.nextInt(50)))
+                .setServiceTime(random.nextInt(20)).setTimeWindow(TimeWindow.newInstance(start, start + random.nextInt(80))).build();
+            candidates.add(s);
+            vrpBuilder.addJob(s);
+        }
+        vrp = vrpBuilder.build();
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(new JobActivityFactory() {
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+        });
+        for (Service s : routeServices) routeBuilder.addService(s);
+        route = routeBuilder.build();
+
+        stateManager = new StateManager(vrp);
+        stateManager.addStateUpdater(new UpdateActivityTimes(vrp.getTransportCosts(), ActivityTimeTracker.ActivityPolicy.AS_SOON_AS_TIME_WINDOW_OPENS, vrp.getActivityCosts()));
+        stateManager.addStateUpdater(new UpdateVehicleDependentPracticalTimeWindows(stateManager, vrp.getTransportCosts(), vrp.getActivityCosts()));
+        segments = new UpdateTimeWindowSegments(stateManager, vrp.getTransportCosts(), vrp.getActivityCosts());
+        stateManager.addStateUpdater(segments);
+        stateManager.informInsertionStarts(Collections.singletonList(route), Collections.<Job>emptyList());
+    }
+
+    @Test
+    public void prefixAndSuffix_shouldRepresentEntireRoute() {
+        TourActivity first = route.getActivities().get(0);
+        TourActivity last = route.getActivities().get(route.getActivities().size() - 1);
+        TimeWindowSegment byPrefix = segments.concat(segments.getPrefix(last, vehicle), segments.getEnd(vehicle), route.getDriver(), vehicle);
+        TimeWindowSegment bySuffix = segments.concat(segments.getStart(route, vehicle), segments.getSuffix(first, vehicle), route.getDriver(), vehicle);
+        assertTrue(byPrefix.isFeasible());
+        assertEquals(route.getEnd().getArrTime() - route.getDepartureTime(), byPrefix.getDuration(), 0.01);
+        assertEquals(byPrefix.getDuration(), bySuffix.getDuration(), 0.01);
+        assertEquals(byPrefix.getTimeWarp(), bySuffix.getTimeWarp(), 0.01);
+    }
+
+    @Test
+    public void whenCheckingInsertions_itShouldAgreeWithVehicleDependentTimeWindowConstraints() {
+        HardActivityConstraint reference = new VehicleDependentTimeWindowConstraints(stateManager, vrp.getTransportCosts(), vrp.getActivityCosts());
+        HardActivityConstraint constraint = new TimeWindowSegmentConstraint(segments);
+        List<TourActivity> acts = new ArrayList<TourActivity>();
+        acts.add(route.getStart());
+        acts.addAll(route.getActivities());
+        acts.add(route.getEnd());
+        int noFeasible = 0;
+        for (Service candidate : candidates) {
+            JobInsertionContext context = new JobInsertionContext(route, candidate, vehicle, route.getDriver(), route.getDepartureTime());
+            TourActivity newAct = vrp.copyAndGetActivities(candidate).get(0);
+            for (int i = 0; i < acts.size() - 1; i++) {
+                TourActivity prevAct = acts.get(i);
+                TourActivity nextAct = acts.get(i + 1);
+                boolean expected = reference.fulfilled(context, prevAct, newAct, nextAct, prevAct.getEndTime()) == HardActivityConstraint.ConstraintsStatus.FULFILLED;
+                boolean actual = constraint.fulfilled(context, prevAct, newAct, nextAct, prevAct.getEndTime()) == HardActivityConstraint.ConstraintsStatus.FULFILLED;
+                assertEquals(candidate.getId() + " at " + i, expected, actual);
+                if (actual) noFeasible++;
+            }
+        }
+        assertTrue(noFeasible > 0);
+    }
+
+    @Test
+    public void whenRemovingActivity_itShouldBeCheckedByConcatenatingPrefixAndSuffix() {
+        List<TourActivity> acts = route.getActivities();
+        for (int i = 1; i < acts.size() - 1; i++) {
+            TimeWindowSegment withoutAct = segments.concat(segments.getPrefix(acts.get(i - 1), vehicle), segments.getSuffix(acts.get(i + 1), vehicle), route.getDriver(), vehicle);
+            assertTrue(withoutAct.isFeasible());
+        }
+    }
+}
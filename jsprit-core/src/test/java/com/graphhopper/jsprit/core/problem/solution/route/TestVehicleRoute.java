@@ -36,6 +36,9 @@ import org.junit.Test;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -351,4 +354,20 @@ public class TestVehicleRoute {
         assertTrue(((TourActivity.JobActivity) act).getJob() instanceof Delivery);
 
     }
+
+    @Test
+    public void whenCopyingRouteOnWriteAndSwitchingVehicle_originalShouldNotChange() {
+        Service service = Service.Builder.newInstance("s").setLocation(Location.newInstance("loc")).build();
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).addService(service).build();
+        VehicleRoute copiedRoute = VehicleRoute.copyOnWriteOf(route);
+        assertSame(route.getActivities().get(0), copiedRoute.getActivities().get(0));
+        assertNotSame(route.getStart(), copiedRoute.getStart());
+
+        Vehicle otherVehicle = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance("loc")).build();
+        copiedRoute.setVehicleAndDepartureTime(otherVehicle, 10.);
+        assertEquals(vehicle, route.getVehicle());
+        assertEquals(10., copiedRoute.getDepartureTime(), 0.01);
+        assertNotEquals(10., route.getDepartureTime(), 0.01);
+    }
+
 }
@@ -235,4 +235,134 @@ public class TestTourActivities {
         assertTrue(copiedTour.servesJob(s));
     }
 
+    @Test
+    public void whenCopyingOnWrite_activitiesShouldBeSharedUntilModification() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+
+        assertSame(act, copiedTour.getActivities().get(0));
+        assertTrue(copiedTour.servesJob(service));
+    }
+
+    @Test
+    public void whenModifyingCopyOnWriteCopy_originalShouldNotChange() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        copiedTour.addActivity(ServiceActivity.newInstance(service2));
+
+        assertEquals(1, tour.getActivities().size());
+        assertFalse(tour.servesJob(service2));
+        assertSame(act, tour.getActivities().get(0));
+        assertEquals(2, copiedTour.getActivities().size());
+        assertTrue(copiedTour.servesJob(service2));
+        assertNotSame(act, copiedTour.getActivities().get(0));
+    }
+
+    @Test
+    public void whenRemovingJobFromOriginal_copyOnWriteCopyShouldNotChange() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        tour.removeJob(service);
+
+        assertFalse(tour.servesJob(service));
+        assertTrue(copiedTour.servesJob(service));
+        assertSame(act, copiedTour.getActivities().get(0));
+    }
+
+    @Test
+    public void whenRemovingSharedActivityFromCopyOnWriteCopy_itShouldBeRemovedFromCopyOnly() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+
+        assertTrue(copiedTour.removeActivity(act));
+        assertTrue(copiedTour.isEmpty());
+        assertFalse(copiedTour.servesJob(service));
+        assertSame(act, tour.getActivities().get(0));
+        assertTrue(tour.servesJob(service));
+    }
+
+    @Test
+    public void whenSettingTimesOfSharedActivity_onlyTheCopyShouldChange() {
+        tour.addActivity(act);
+        act.setArrTime(10.);
+        act.setEndTime(20.);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+
+        TourActivity copiedAct = copiedTour.setActivityTimes(act, 30., 40.);
+        assertNotSame(act, copiedAct);
+        assertSame(copiedAct, copiedTour.getActivities().get(0));
+        assertEquals(30., copiedAct.getArrTime(), 0.01);
+        assertEquals(40., copiedAct.getEndTime(), 0.01);
+        assertEquals(10., act.getArrTime(), 0.01);
+        assertEquals(20., act.getEndTime(), 0.01);
+    }
+
+    @Test
+    public void whenSettingUnchangedTimesOfSharedActivity_itShouldRemainShared() {
+        tour.addActivity(act);
+        act.setArrTime(10.);
+        act.setEndTime(20.);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+
+        assertSame(act, copiedTour.setActivityTimes(act, 10., 20.));
+        assertTrue(copiedTour.isShared());
+    }
+
+    @Test
+    public void whenCopyOnWriteCopyIsModified_originalShouldNotBeSharedAnymore() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        assertTrue(tour.isShared());
+        assertTrue(copiedTour.isShared());
+
+        copiedTour.removeJob(service);
+        assertFalse(copiedTour.isShared());
+        assertFalse(tour.isShared());
+        tour.removeJob(service);
+        assertTrue(tour.isEmpty());
+    }
+
+    @Test
+    public void copies_shouldKeepVersion_andModifications_shouldChangeIt() {
+        assertEquals(0, tour.getVersion());
+        tour.addActivity(act);
+        long version = tour.getVersion();
+        assertNotEquals(0, version);
+        assertEquals(version, TourActivities.copyOf(tour).getVersion());
+        TourActivities copy = TourActivities.copyOnWriteOf(tour);
+        assertEquals(version, copy.getVersion());
+        copy.removeJob(service);
+        assertNotEquals(version, copy.getVersion());
+        assertEquals(version, tour.getVersion());
+    }
+
+    @Test
+    public void copiesModifiedIndependently_shouldNotBeMistakenForEachOther() {
+        tour.addActivity(act);
+        TourActivities copy = TourActivities.copyOf(tour);
+        assertSame(tour.getIdentity(), copy.getIdentity());
+        tour.removeJob(service);
+        copy.addActivity(ServiceActivity.newInstance(Service.Builder.newInstance("other").setLocation(Location.newInstance("loc")).build()));
+        assertEquals(tour.getVersion(), copy.getVersion());
+        assertNotSame(tour.getIdentity(), copy.getIdentity());
+    }
+
+    @Test
+    public void sequencesModifiedIndependently_shouldNotBeMistakenForEachOther() {
+        TourActivities other = new TourActivities();
+        tour.addActivity(act);
+        other.addActivity(ServiceActivity.newInstance(Service.Builder.newInstance("other").setLocation(Location.newInstance("loc")).build()));
+        assertEquals(tour.getVersion(), other.getVersion());
+        assertNotSame(tour.getIdentity(), other.getIdentity());
+    }
+
+    @Test
+    public void removingJobThatIsNotServed_shouldNotChangeVersion() {
+        tour.addActivity(act);
+        long version = tour.getVersion();
+        tour.removeJob(Service.Builder.newInstance("other").setLocation(Location.newInstance("loc")).build());
+        assertEquals(version, tour.getVersion());
+    }
+
 }
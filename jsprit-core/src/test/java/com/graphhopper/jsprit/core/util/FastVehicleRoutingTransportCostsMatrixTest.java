@@ -109,5 +109,98 @@ public class FastVehicleRoutingTransportCostsMatrixTest {
         assertEquals(16., matrix.getTransportCost(loc(2), loc(1), 0.0, null, vehicle), 0.1);
     }
 
+    @Test
+    public void whenFillingSymmetricMatrix_allRelationsShouldBeStoredIndependently() {
+        int n = 5;
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(n, true);
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                matrixBuilder.addTransportTimeAndDistance(i, j, i * 10 + j, 100 + i * 10 + j);
+            }
+        }
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int min = Math.min(i, j);
+                int max = Math.max(i, j);
+                assertEquals(min * 10 + max, matrix.getTransportTime(i, j), 0.001);
+                assertEquals(100 + min * 10 + max, matrix.getDistance(i, j), 0.001);
+            }
+        }
+    }
+
+    @Test
+    public void whenFillingAsymmetricMatrix_allRelationsShouldBeStoredIndependently() {
+        int n = 4;
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(n, false);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrixBuilder.addTransportTimeAndDistance(i, j, i * 10 + j, 100 + i * 10 + j);
+            }
+        }
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(i * 10 + j, matrix.getTransportTime(i, j), 0.001);
+                assertEquals(100 + i * 10 + j, matrix.getDistance(i, j), 0.001);
+            }
+        }
+    }
+
+    @Test
+    public void whenUsingSinglePrecision_itShouldReturnCorrectValues() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, true).setSinglePrecision(true);
+        matrixBuilder.addTransportTimeAndDistance(1, 2, 2., 100.);
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertEquals(2., matrix.getTransportTime(loc(2), loc(1), 0.0, null, null), 0.001);
+        assertEquals(100., matrix.getDistance(loc(2), loc(1), 0.0, null), 0.001);
+        assertEquals(0., matrix.getDistance(0, 1), 0.001);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenSettingPrecisionAfterAddingValues_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, true);
+        matrixBuilder.addTransportTime(1, 2, 2.);
+        matrixBuilder.setSinglePrecision(true);
+    }
+
+    @Test
+    public void whenOnlyDistancesAreAdded_timeShouldBeZero() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false);
+        matrixBuilder.addTransportDistance(1, 2, 2.);
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertEquals(0., matrix.getTransportTime(loc(1), loc(2), 0.0, null, null), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingRelationWithToIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false).addTransportDistance(0, 3, 2.);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingSymmetricRelationWithFromIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, true).addTransportTime(3, 1, 2.);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenGettingDistanceWithToIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false);
+        matrixBuilder.addTransportDistance(1, 2, 2.);
+        matrixBuilder.build().getDistance(0, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenGettingTimeOfSymmetricMatrixWithFromIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, true).setSinglePrecision(true);
+        matrixBuilder.addTransportTime(1, 2, 2.);
+        matrixBuilder.build().getTransportTime(3, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenGettingTimeOfMatrixWithoutTimes_indexOutOfRangeShouldStillThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false);
+        matrixBuilder.addTransportDistance(1, 2, 2.);
+        matrixBuilder.build().getTransportTime(1, 3);
+    }
 
 }
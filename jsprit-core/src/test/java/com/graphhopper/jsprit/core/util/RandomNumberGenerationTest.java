@@ -0,0 +1,76 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class RandomNumberGenerationTest {
+
+    @Test
+    public void sameSeedAndStream_shouldYieldSameSequence() {
+        Random r1 = RandomNumberGeneration.newInstance(4711L, 3);
+        Random r2 = RandomNumberGeneration.newInstance(4711L, 3);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(r1.nextLong(), r2.nextLong());
+        }
+    }
+
+    @Test
+    public void differentStreams_shouldYieldDifferentSequences() {
+        Random r1 = RandomNumberGeneration.newInstance(4711L, 0);
+        Random r2 = RandomNumberGeneration.newInstance(4711L, 1);
+        int equal = 0;
+        for (int i = 0; i < 100; i++) {
+            if (r1.nextLong() == r2.nextLong()) equal++;
+        }
+        Assert.assertEquals(0, equal);
+    }
+
+    @Test
+    public void differentSeeds_shouldYieldDifferentSequences() {
+        Assert.assertNotEquals(RandomNumberGeneration.newInstance(1L, 0).nextLong(), RandomNumberGeneration.newInstance(2L, 0).nextLong());
+    }
+
+    @Test
+    public void hashToDouble_shouldBeDeterministicAndWithinUnitInterval() {
+        for (int i = 0; i < 1000; i++) {
+            double d = RandomNumberGeneration.hashToDouble(4711L, i, i + 1);
+            Assert.assertTrue(d >= 0. && d < 1.);
+            Assert.assertEquals(d, RandomNumberGeneration.hashToDouble(4711L, i, i + 1), 0.);
+        }
+    }
+
+    @Test
+    public void hashToDouble_shouldDependOnOrderOfValues() {
+        Assert.assertNotEquals(RandomNumberGeneration.hashToDouble(4711L, 1, 2), RandomNumberGeneration.hashToDouble(4711L, 2, 1), 0.);
+    }
+
+    @Test
+    public void hashToDouble_shouldBeUniform() {
+        double sum = 0.;
+        int n = 10000;
+        for (int i = 0; i < n; i++) {
+            sum += RandomNumberGeneration.hashToDouble(42L, i);
+        }
+        Assert.assertEquals(0.5, sum / n, 0.02);
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.state.UpdateActivityTimes;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.VehicleDependentTimeWindowConstraints;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.reporting.SearchMetricsReporter;
+import com.graphhopper.jsprit.core.util.SearchMetrics.Metric;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchMetricsTest {
+
+    @Test
+    public void whenDisabled_nothingShouldBeRecorded() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.add(Metric.STRATEGY_TIME, "s", 10L);
+        Assert.assertEquals(0L, metrics.snapshot().getTotal(Metric.STRATEGY_TIME));
+    }
+
+    @Test
+    public void whenEnabled_valuesShouldBeSummedUpPerKey() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.enable();
+        metrics.add(Metric.STRATEGY_TIME, "s1", 10L);
+        metrics.add(Metric.STRATEGY_TIME, "s1", 5L);
+        metrics.increment(Metric.STRATEGY_TIME, "s2");
+        metrics.increment(Metric.CONSTRAINT_REJECTIONS, UpdateActivityTimes.class);
+        SearchMetrics.Snapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(15L, snapshot.get(Metric.STRATEGY_TIME, "s1"));
+        Assert.assertEquals(1L, snapshot.get(Metric.STRATEGY_TIME, "s2"));
+        Assert.assertEquals(16L, snapshot.getTotal(Metric.STRATEGY_TIME));
+        Assert.assertEquals(1L, snapshot.get(Metric.CONSTRAINT_REJECTIONS, "UpdateActivityTimes"));
+        Assert.assertEquals(0L, snapshot.get(Metric.MODULE_TIME, "s1"));
+    }
+
+    @Test
+    public void snapshotShouldNotChangeAfterwards() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.enable();
+        metrics.add(Metric.MODULE_TIME, "m", 10L);
+        SearchMetrics.Snapshot snapshot = metrics.snapshot();
+        metrics.add(Metric.MODULE_TIME, "m", 10L);
+        metrics.reset();
+        Assert.assertEquals(10L, snapshot.get(Metric.MODULE_TIME, "m"));
+        Assert.assertEquals(0L, metrics.snapshot().get(Metric.MODULE_TIME, "m"));
+    }
+
+    private static VehicleRoutingProblem createProblem() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < 10; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(10 * i, 10 - i))
+                .setTimeWindow(TimeWindow.newInstance(0, 60)).build());
+        }
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build());
+        return vrpBuilder.build();
+    }
+
+    @Test
+    public void whenRunningAlgorithm_hotPathsShouldBeRecordedAndReported() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(createProblem()).setProperty(Jsprit.Parameter.ITERATIONS, "20").buildAlgorithm();
+        final List<Integer> reportedAt = new ArrayList<>();
+        final List<SearchMetrics.Snapshot> snapshots = new ArrayList<>();
+        vra.addListener(new SearchMetricsReporter(vra.getSearchMetrics(), 10, new SearchMetricsReporter.Listener() {
+            @Override
+            public void informMetrics(int iteration, SearchMetrics.Snapshot snapshot) {
+                reportedAt.add(iteration);
+                snapshots.add(snapshot);
+            }
+        }));
+        vra.getSearchMetrics().enable();
+        vra.searchSolutions();
+
+        Assert.assertEquals(3, reportedAt.size());
+        Assert.assertEquals(-1, reportedAt.get(2).intValue());
+        SearchMetrics.Snapshot snapshot = snapshots.get(2);
+        Assert.assertTrue(snapshot.getTotal(Metric.STRATEGY_TIME) > 0L);
+        Assert.assertTrue(snapshot.get(Metric.MODULE_TIME).size() > 0);
+        Assert.assertTrue(snapshot.get(Metric.INSERTION_CALLS, "ServiceInsertionCalculator") > 0L);
+        Assert.assertTrue(snapshot.get(Metric.EVALUATED_POSITIONS, "ServiceInsertionCalculator") > 0L);
+        Assert.assertTrue(snapshot.get(Metric.CONSTRAINT_REJECTIONS, VehicleDependentTimeWindowConstraints.class.getSimpleName()) > 0L);
+        Assert.assertTrue(snapshot.get(Metric.STATE_UPDATE_TIME, UpdateActivityTimes.class.getSimpleName()) > 0L);
+        Assert.assertTrue(snapshot.getTotal(Metric.SOLUTION_COPY_TIME) > 0L);
+        Assert.assertTrue(snapshots.get(0).getTotal(Metric.STRATEGY_TIME) <= snapshot.getTotal(Metric.STRATEGY_TIME));
+    }
+
+    @Test
+    public void metricsOfAlgorithmsShouldBeIndependent() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(createProblem()).setProperty(Jsprit.Parameter.ITERATIONS, "10").buildAlgorithm();
+        VehicleRoutingAlgorithm other = Jsprit.Builder.newInstance(createProblem()).setProperty(Jsprit.Parameter.ITERATIONS, "10").buildAlgorithm();
+        vra.getSearchMetrics().enable();
+        vra.searchSolutions();
+        other.searchSolutions();
+
+        Assert.assertTrue(vra.getSearchMetrics().snapshot().get(Metric.INSERTION_CALLS, "ServiceInsertionCalculator") > 0L);
+        Assert.assertFalse(other.getSearchMetrics().isEnabled());
+        Assert.assertEquals(0L, other.getSearchMetrics().snapshot().getTotal(Metric.INSERTION_CALLS));
+        Assert.assertEquals(0L, other.getSearchMetrics().snapshot().getTotal(Metric.STRATEGY_TIME));
+    }
+
+    @Test
+    public void whenSearchingInParallel_workersShouldRecordToMetricsOfAlgorithm() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(createProblem()).setProperty(Jsprit.Parameter.SEARCH_WORKERS, "2")
+            .setProperty(Jsprit.Parameter.ITERATIONS, "10").buildAlgorithm();
+        vra.getSearchMetrics().enable();
+        vra.searchSolutions();
+
+        SearchMetrics.Snapshot snapshot = vra.getSearchMetrics().snapshot();
+        Assert.assertTrue(snapshot.getTotal(Metric.STRATEGY_TIME) > 0L);
+        Assert.assertTrue(snapshot.get(Metric.INSERTION_CALLS, "ServiceInsertionCalculator") > 0L);
+        Assert.assertTrue(snapshot.get(Metric.STATE_UPDATE_TIME, UpdateActivityTimes.class.getSimpleName()) > 0L);
+    }
+
+}
@@ -24,6 +24,8 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -258,4 +260,85 @@ public class VehicleRoutingTransportCostsMatrixTest {
         assertEquals(1., matrix.getTransportCost(loc("to"), loc("from"), 0.0, null, vehicle), 0.1);
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void whenRequestingDistanceOfUnknownLocation_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        matrixBuilder.addTransportDistance("from", "to", 2.);
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        matrix.getDistance("from", "unknown");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenRequestingReverseTimeOfAsymmetricMatrix_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        matrixBuilder.addTransportTime("from", "to", 2.);
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertEquals(2., matrix.getTransportTime(loc("from"), loc("to"), 0.0, null, null), 0.1);
+        matrix.getTransportTime(loc("to"), loc("from"), 0.0, null, null);
+    }
+
+    @Test
+    public void whenAddingManyRelations_eachRelationShouldBeStoredIndependently() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                matrixBuilder.addTransportDistance("" + i, "" + j, i * 10 + j);
+                matrixBuilder.addTransportTime("" + i, "" + j, i * 100 + j);
+            }
+        }
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                if (i == j) continue;
+                assertEquals(i * 10 + j, matrix.getDistance("" + i, "" + j), 0.001);
+                assertEquals(i * 100 + j, matrix.getTransportTime(loc("" + i), loc("" + j), 0.0, null, null), 0.001);
+            }
+        }
+    }
+
+    @Test
+    public void whenLocationsHaveIndices_lookupsShouldStillBeBasedOnIds() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        matrixBuilder.addTransportDistance("a", "b", 1.);
+        matrixBuilder.addTransportDistance("b", "c", 2.);
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        Location a = Location.Builder.newInstance().setId("a").setIndex(5).build();
+        Location b = Location.Builder.newInstance().setId("b").setIndex(0).build();
+        Location c = Location.Builder.newInstance().setId("c").setIndex(5).build();
+        assertEquals(1., matrix.getDistance(a, b, 0., null), 0.001);
+        assertEquals(1., matrix.getDistance(a, b, 0., null), 0.001);
+        assertEquals(2., matrix.getDistance(b, c, 0., null), 0.001);
+        assertEquals(1., matrix.getDistance(a, b, 0., null), 0.001);
+    }
+
+    @Test
+    public void whenMatrixIsLargeAndSparse_itShouldNotBeStoredDensely() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+        int noLocations = 1100;
+        for (int i = 1; i < noLocations; i++) {
+            matrixBuilder.addTransportDistance("" + (i - 1), "" + i, i);
+        }
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertFalse(matrix.isDense());
+        assertEquals(10., matrix.getDistance("9", "10"), 0.001);
+        assertEquals(10., matrix.getDistance("10", "9"), 0.001);
+        assertEquals(0., matrix.getTransportTime(loc("9"), loc("10"), 0., null, null), 0.001);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenRequestingMissingRelationOfSparseMatrix_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+        for (int i = 1; i < 1100; i++) {
+            matrixBuilder.addTransportDistance("" + (i - 1), "" + i, i);
+        }
+        matrixBuilder.build().getDistance("0", "2");
+    }
+
+    @Test
+    public void whenMatrixIsSmall_itShouldBeStoredDensely() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+        matrixBuilder.addTransportDistance("0", "1", 1.);
+        assertTrue(matrixBuilder.build().isDense());
+    }
+
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.examples;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.instance.util.BenchmarkReport;
+import com.graphhopper.jsprit.instance.util.BenchmarkRunner;
+import com.graphhopper.jsprit.instance.util.Instances;
+import com.graphhopper.jsprit.util.Examples;
+
+import java.io.*;
+import java.util.List;
+
+
+public class BenchmarkRunnerExample {
+
+    public static void main(String[] args) throws IOException {
+        /*
+         * some preparation - create output folder
+         */
+        Examples.createOutputFolder();
+
+        /*
+         * Define the algorithm configuration to be benchmarked.
+         */
+        BenchmarkRunner.AlgorithmFactory algorithmFactory = new BenchmarkRunner.AlgorithmFactory() {
+
+            @Override
+            public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, long seed) {
+                return Jsprit.Builder.newInstance(vrp).setRandomSeed(seed).setProperty(Jsprit.Parameter.ITERATIONS, "2000").buildAlgorithm();
+            }
+
+        };
+
+        /*
+         * Run it 5 times (with seeds 0 to 4) on each Solomon C1 and Cordeau p instance, using all available processors.
+         */
+        BenchmarkReport report = new BenchmarkRunner(algorithmFactory)
+            .addInstances(Instances.getAllSolomonC1("../jsprit-instances/instances/solomon"))
+            .addInstances(Instances.getAllCordeauP("../jsprit-instances/instances/cordeau"))
+            .setRuns(5).run();
+
+        Writer csvWriter = new FileWriter("output/benchmark.csv");
+        report.writeCsv(csvWriter);
+        csvWriter.close();
+        Writer jsonWriter = new FileWriter("output/benchmark.json");
+        report.writeJson(jsonWriter);
+        jsonWriter.close();
+
+        /*
+         * If a baseline (e.g. the csv of a previous version) is given, report regressions of quality (mean costs +1%)
+         * and throughput (iterations per second -10%).
+         */
+        if (args.length > 0) {
+            Reader baselineReader = new FileReader(args[0]);
+            BenchmarkReport baseline = BenchmarkReport.readCsv(baselineReader);
+            baselineReader.close();
+            List<BenchmarkReport.Regression> regressions = report.compareTo(baseline, 0.01, 0.1);
+            for (BenchmarkReport.Regression regression : regressions) {
+                System.out.println("regression " + regression);
+            }
+            if (!regressions.isEmpty()) System.exit(1);
+        }
+    }
+
+}
@@ -0,0 +1,342 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.instance.util;
+
+import com.graphhopper.jsprit.core.util.BenchmarkInstance;
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Report of a benchmark, i.e. the results of the runs of a {@link BenchmarkRunner} aggregated per instance.
+ * <p>
+ * <p>It can be written as csv or json, and a report read from csv can serve as baseline to detect regressions in
+ * solution quality and throughput (see {@link #compareTo(BenchmarkReport, double, double)}).
+ */
+public class BenchmarkReport {
+
+    /**
+     * Aggregated results of all runs of an instance. Times are in seconds, gaps are in percent of the best known result
+     * and the allocation rate is in megabytes per cpu second. Values that are not available are NaN. Seeds are the random
+     * seeds of the runs, i.e. the runs can be reproduced with them.
+     */
+    public static class Entry {
+
+        public final String instance;
+
+        public final int runs;
+
+        public final long[] seeds;
+
+        public final double bestKnownResult;
+
+        public final double bestKnownVehicles;
+
+        public final double bestCosts;
+
+        public final double meanCosts;
+
+        public final double stdDevCosts;
+
+        public final double meanVehicles;
+
+        public final double meanUnassignedJobs;
+
+        public final double meanCpuTime;
+
+        public final double meanWallTime;
+
+        public final double iterationsPerSecond;
+
+        public final double allocationRate;
+
+        public Entry(String instance, int runs, long[] seeds, double bestKnownResult, double bestKnownVehicles, double bestCosts, double meanCosts,
+                     double stdDevCosts, double meanVehicles, double meanUnassignedJobs, double meanCpuTime, double meanWallTime,
+                     double iterationsPerSecond, double allocationRate) {
+            this.instance = instance;
+            this.runs = runs;
+            this.seeds = seeds;
+            this.bestKnownResult = bestKnownResult;
+            this.bestKnownVehicles = bestKnownVehicles;
+            this.bestCosts = bestCosts;
+            this.meanCosts = meanCosts;
+            this.stdDevCosts = stdDevCosts;
+            this.meanVehicles = meanVehicles;
+            this.meanUnassignedJobs = meanUnassignedJobs;
+            this.meanCpuTime = meanCpuTime;
+            this.meanWallTime = meanWallTime;
+            this.iterationsPerSecond = iterationsPerSecond;
+            this.allocationRate = allocationRate;
+        }
+
+        public double getBestGap() {
+            return gap(bestCosts);
+        }
+
+        public double getMeanGap() {
+            return gap(meanCosts);
+        }
+
+        private double gap(double costs) {
+            if (Double.isNaN(bestKnownResult) || bestKnownResult == 0.) return Double.NaN;
+            return (costs - bestKnownResult) / bestKnownResult * 100.;
+        }
+
+        private double[] values() {
+            return new double[]{bestKnownResult, bestKnownVehicles, bestCosts, meanCosts, stdDevCosts, getBestGap(), getMeanGap(),
+                meanVehicles, meanUnassignedJobs, meanCpuTime, meanWallTime, iterationsPerSecond, allocationRate};
+        }
+
+    }
+
+    /**
+     * Deterioration of a metric of an instance compared to a baseline.
+     */
+    public static class Regression {
+
+        public final String instance;
+
+        public final String metric;
+
+        public final double baseline;
+
+        public final double current;
+
+        public Regression(String instance, String metric, double baseline, double current) {
+            this.instance = instance;
+            this.metric = metric;
+            this.baseline = baseline;
+            this.current = current;
+        }
+
+        /**
+         * Returns the change relative to the baseline in percent.
+         */
+        public double getChange() {
+            return (current - baseline) / baseline * 100.;
+        }
+
+        @Override
+        public String toString() {
+            return "[instance=" + instance + "][metric=" + metric + "][baseline=" + baseline + "][current=" + current + "][change=" + getChange() + "%]";
+        }
+
+    }
+
+    private static final String[] COLUMNS = {"instance", "runs", "best_known", "best_known_vehicles", "best_costs", "mean_costs", "std_dev_costs",
+        "best_gap", "mean_gap", "mean_vehicles", "mean_unassigned", "mean_cpu_time", "mean_wall_time", "iterations_per_second", "allocation_rate"};
+
+    private static final String SEEDS_COLUMN = "seeds";
+
+    /**
+     * Aggregates runs per instance. Entries are in the order the instances first occur in runs.
+     */
+    public static BenchmarkReport of(List<BenchmarkRunner.Run> runs) {
+        Map<String, List<BenchmarkRunner.Run>> runsPerInstance = new LinkedHashMap<String, List<BenchmarkRunner.Run>>();
+        for (BenchmarkRunner.Run run : runs) {
+            if (!runsPerInstance.containsKey(run.instance.name)) {
+                runsPerInstance.put(run.instance.name, new ArrayList<BenchmarkRunner.Run>());
+            }
+            runsPerInstance.get(run.instance.name).add(run);
+        }
+        List<Entry> entries = new ArrayList<Entry>();
+        for (List<BenchmarkRunner.Run> instanceRuns : runsPerInstance.values()) {
+            entries.add(aggregate(instanceRuns));
+        }
+        return new BenchmarkReport(entries);
+    }
+
+    private static Entry aggregate(List<BenchmarkRunner.Run> runs) {
+        DescriptiveStatistics costs = new DescriptiveStatistics();
+        DescriptiveStatistics vehicles = new DescriptiveStatistics();
+        DescriptiveStatistics unassigned = new DescriptiveStatistics();
+        DescriptiveStatistics cpuTimes = new DescriptiveStatistics();
+        DescriptiveStatistics wallTimes = new DescriptiveStatistics();
+        long iterations = 0;
+        long allocatedBytes = 0;
+        long[] seeds = new long[runs.size()];
+        for (int r = 0; r < runs.size(); r++) {
+            BenchmarkRunner.Run run = runs.get(r);
+            seeds[r] = run.seed;
+            costs.addValue(run.costs);
+            vehicles.addValue(run.vehicles);
+            unassigned.addValue(run.unassignedJobs);
+            cpuTimes.addValue(run.cpuTime);
+            wallTimes.addValue(run.wallTime);
+            iterations += run.iterations;
+            if (allocatedBytes >= 0 && run.allocatedBytes >= 0) allocatedBytes += run.allocatedBytes;
+            else allocatedBytes = -1;
+        }
+        double cpuTime = cpuTimes.getSum();
+        double iterationsPerSecond = cpuTime > 0 ? iterations / cpuTime : Double.NaN;
+        double allocationRate = cpuTime > 0 && allocatedBytes >= 0 ? allocatedBytes / (1024. * 1024.) / cpuTime : Double.NaN;
+        BenchmarkInstance instance = runs.get(0).instance;
+        return new Entry(instance.name, runs.size(), seeds, toDouble(instance.bestKnownResult), toDouble(instance.bestKnownVehicles),
+            costs.getMin(), costs.getMean(), costs.getStandardDeviation(), vehicles.getMean(), unassigned.getMean(), cpuTimes.getMean(),
+            wallTimes.getMean(), iterationsPerSecond, allocationRate);
+    }
+
+    private static double toDouble(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    /**
+     * Reads a report written by {@link #writeCsv(Writer)}. Columns are identified by the header, i.e. columns that are
+     * added later are ignored and missing columns are NaN (or no seeds).
+     */
+    public static BenchmarkReport readCsv(Reader reader) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String header = bufferedReader.readLine();
+        if (header == null) throw new IllegalArgumentException("csv is empty");
+        Map<String, Integer> columnIndices = new HashMap<String, Integer>();
+        String[] columns = header.split(",", -1);
+        for (int i = 0; i < columns.length; i++) columnIndices.put(columns[i].trim(), i);
+        if (!columnIndices.containsKey("instance")) throw new IllegalArgumentException("csv has no instance column");
+        List<Entry> entries = new ArrayList<Entry>();
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            if (line.trim().isEmpty()) continue;
+            String[] tokens = line.split(",", -1);
+            double[] values = new double[COLUMNS.length];
+            for (int c = 1; c < COLUMNS.length; c++) {
+                Integer index = columnIndices.get(COLUMNS[c]);
+                values[c] = index == null || index >= tokens.length ? Double.NaN : parse(tokens[index]);
+            }
+            Integer seedsIndex = columnIndices.get(SEEDS_COLUMN);
+            long[] seeds = seedsIndex == null || seedsIndex >= tokens.length ? new long[0] : parseSeeds(tokens[seedsIndex]);
+            entries.add(new Entry(tokens[columnIndices.get("instance")].trim(), (int) values[1], seeds, values[2], values[3], values[4], values[5],
+                values[6], values[9], values[10], values[11], values[12], values[13], values[14]));
+        }
+        return new BenchmarkReport(entries);
+    }
+
+    private static double parse(String token) {
+        String trimmed = token.trim();
+        if (trimmed.isEmpty()) return Double.NaN;
+        return Double.parseDouble(trimmed);
+    }
+
+    private static long[] parseSeeds(String token) {
+        String trimmed = token.trim();
+        if (trimmed.isEmpty()) return new long[0];
+        String[] seedTokens = trimmed.split("\\s+");
+        long[] seeds = new long[seedTokens.length];
+        for (int i = 0; i < seedTokens.length; i++) seeds[i] = Long.parseLong(seedTokens[i]);
+        return seeds;
+    }
+
+    private final List<Entry> entries;
+
+    public BenchmarkReport(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<Entry>(entries));
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public Entry getEntry(String instance) {
+        for (Entry entry : entries) {
+            if (entry.instance.equals(instance)) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Writes a header and one line per instance. Values that are not available are left empty. The seeds are written
+     * last, separated by spaces.
+     */
+    public void writeCsv(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        for (int c = 0; c < COLUMNS.length; c++) {
+            if (c > 0) out.print(",");
+            out.print(COLUMNS[c]);
+        }
+        out.print("," + SEEDS_COLUMN + "\n");
+        for (Entry entry : entries) {
+            out.print(entry.instance + "," + entry.runs);
+            for (double value : entry.values()) {
+                out.print(",");
+                if (!Double.isNaN(value)) out.print(value);
+            }
+            out.print(",");
+            for (int i = 0; i < entry.seeds.length; i++) {
+                if (i > 0) out.print(" ");
+                out.print(entry.seeds[i]);
+            }
+            out.print("\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes an array with one object per instance whose fields are named like the csv columns. Values that are not
+     * available are null, the seeds are an array.
+     */
+    public void writeJson(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.print("[");
+        for (int e = 0; e < entries.size(); e++) {
+            Entry entry = entries.get(e);
+            if (e > 0) out.print(",");
+            out.print("\n  {\"" + COLUMNS[0] + "\": \"" + entry.instance.replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+            out.print(", \"" + COLUMNS[1] + "\": " + entry.runs);
+            double[] values = entry.values();
+            for (int v = 0; v < values.length; v++) {
+                out.print(", \"" + COLUMNS[v + 2] + "\": ");
+                if (Double.isNaN(values[v]) || Double.isInfinite(values[v])) out.print("null");
+                else out.print(values[v]);
+            }
+            out.print(", \"" + SEEDS_COLUMN + "\": [");
+            for (int i = 0; i < entry.seeds.length; i++) {
+                if (i > 0) out.print(", ");
+                out.print(entry.seeds[i]);
+            }
+            out.print("]}");
+        }
+        out.print("\n]\n");
+        out.flush();
+    }
+
+    /**
+     * Compares this report to a baseline. An instance regresses if its mean costs increase by more than
+     * costTolerance, or if its iterations per second decrease by more than throughputTolerance (both relative to the
+     * baseline, e.g. 0.01 for 1%). Instances that are not part of the baseline are ignored.
+     *
+     * @param baseline            the report to compare to
+     * @param costTolerance       tolerated relative increase of mean costs
+     * @param throughputTolerance tolerated relative decrease of iterations per second
+     * @return the regressions, i.e. an empty list if there are none
+     */
+    public List<Regression> compareTo(BenchmarkReport baseline, double costTolerance, double throughputTolerance) {
+        List<Regression> regressions = new ArrayList<Regression>();
+        for (Entry entry : entries) {
+            Entry baselineEntry = baseline.getEntry(entry.instance);
+            if (baselineEntry == null) continue;
+            if (entry.meanCosts > baselineEntry.meanCosts * (1. + costTolerance)) {
+                regressions.add(new Regression(entry.instance, "mean_costs", baselineEntry.meanCosts, entry.meanCosts));
+            }
+            if (entry.iterationsPerSecond < baselineEntry.iterationsPerSecond * (1. - throughputTolerance)) {
+                regressions.add(new Regression(entry.instance, "iterations_per_second", baselineEntry.iterationsPerSecond, entry.iterationsPerSecond));
+            }
+        }
+        return regressions;
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.instance.util;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.BenchmarkInstance;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs an algorithm configuration several times on each of a set of {@link BenchmarkInstance}s, e.g. created with
+ * {@link Instances}, and collects the results in a {@link BenchmarkReport}.
+ * <p>
+ * <p>Each run gets its own random seed, i.e. run r of an instance is created with seed + r (the seed is 0 by default
+ * and can be set with {@link #setSeed(long)}), so runs explore different parts of the search space while the whole
+ * benchmark remains reproducible.
+ * <p>
+ * <p>Runs are executed in parallel by noThreads threads (default is the number of available processors), each run
+ * in a single thread. CPU time and allocated bytes are measured for the thread executing the run, i.e. algorithm
+ * configurations that search in parallel themselves should be benchmarked with one thread only and compared by wall
+ * time.
+ * <p>
+ * <pre>
+ * BenchmarkReport report = new BenchmarkRunner(new BenchmarkRunner.AlgorithmFactory() {
+ *
+ *     public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, long seed) {
+ *         return Jsprit.Builder.newInstance(vrp).setRandomSeed(seed).buildAlgorithm();
+ *     }
+ *
+ * }).addInstances(Instances.getAllSolomonC1("instances/solomon")).setRuns(5).run();
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Creates the algorithm of a single run.
+     */
+    public interface AlgorithmFactory {
+
+        /**
+         * Creates the algorithm to solve vrp with. The algorithm must draw its random numbers from the given seed, e.g.
+         * with {@link com.graphhopper.jsprit.core.algorithm.box.Jsprit.Builder#setRandomSeed(long)}, otherwise all
+         * runs of an instance are the same.
+         */
+        VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, long seed);
+
+    }
+
+    /**
+     * Result of a single run of the algorithm on an instance.
+     */
+    public static class Run {
+
+        public final BenchmarkInstance instance;
+
+        public final long seed;
+
+        public final double costs;
+
+        public final int vehicles;
+
+        public final int unassignedJobs;
+
+        public final int iterations;
+
+        public final double cpuTime;
+
+        public final double wallTime;
+
+        /**
+         * Bytes allocated by the run, or -1 if the JVM cannot measure allocations.
+         */
+        public final long allocatedBytes;
+
+        public Run(BenchmarkInstance instance, long seed, double costs, int vehicles, int unassignedJobs, int iterations, double cpuTime, double wallTime, long allocatedBytes) {
+            this.instance = instance;
+            this.seed = seed;
+            this.costs = costs;
+            this.vehicles = vehicles;
+            this.unassignedJobs = unassignedJobs;
+            this.iterations = iterations;
+            this.cpuTime = cpuTime;
+            this.wallTime = wallTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+    }
+
+    private static Logger logger = LoggerFactory.getLogger(BenchmarkRunner.class);
+
+    private final AlgorithmFactory algorithmFactory;
+
+    private final List<BenchmarkInstance> instances = new ArrayList<BenchmarkInstance>();
+
+    private int runs = 1;
+
+    private long seed = 0L;
+
+    private int noThreads = Runtime.getRuntime().availableProcessors();
+
+    public BenchmarkRunner(AlgorithmFactory algorithmFactory) {
+        this.algorithmFactory = algorithmFactory;
+    }
+
+    public BenchmarkRunner addInstance(BenchmarkInstance instance) {
+        instances.add(instance);
+        return this;
+    }
+
+    public BenchmarkRunner addInstances(Collection<BenchmarkInstance> instances) {
+        this.instances.addAll(instances);
+        return this;
+    }
+
+    /**
+     * Sets the number of runs per instance (default is 1).
+     */
+    public BenchmarkRunner setRuns(int runs) {
+        if (runs < 1) throw new IllegalArgumentException("runs must be at least 1");
+        this.runs = runs;
+        return this;
+    }
+
+    /**
+     * Sets the seed of the first run of each instance (default is 0). Run r of an instance is created with seed + r.
+     */
+    public BenchmarkRunner setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads executing the runs (default is the number of available processors).
+     */
+    public BenchmarkRunner setNoThreads(int noThreads) {
+        if (noThreads < 1) throw new IllegalArgumentException("noThreads must be at least 1");
+        this.noThreads = noThreads;
+        return this;
+    }
+
+    /**
+     * Executes all runs and blocks until they are finished.
+     *
+     * @return the report of all runs
+     */
+    public BenchmarkReport run() {
+        logger.info("benchmark {} instances with {} runs each using {} threads", instances.size(), runs, noThreads);
+        ExecutorService executorService = Executors.newFixedThreadPool(noThreads);
+        try {
+            List<Future<Run>> futures = new ArrayList<Future<Run>>();
+            for (final BenchmarkInstance instance : instances) {
+                for (int r = 0; r < runs; r++) {
+                    final long runSeed = seed + r;
+                    futures.add(executorService.submit(new Callable<Run>() {
+
+                        @Override
+                        public Run call() {
+                            return runOnce(instance, runSeed);
+                        }
+
+                    }));
+                }
+            }
+            List<Run> results = new ArrayList<Run>(futures.size());
+            for (Future<Run> future : futures) {
+                results.add(future.get());
+            }
+            return BenchmarkReport.of(results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("benchmark run failed", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    Run runOnce(BenchmarkInstance instance, long seed) {
+        VehicleRoutingProblem vrp = instance.vrp;
+        VehicleRoutingAlgorithm vra = algorithmFactory.createAlgorithm(vrp, seed);
+        final AtomicInteger iterations = new AtomicInteger();
+        vra.addListener(new IterationEndsListener() {
+
+            @Override
+            public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                iterations.incrementAndGet();
+            }
+
+        });
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = getAllocatedBytes(threadMXBean, threadId);
+        long cpuBefore = threadMXBean.getCurrentThreadCpuTime();
+        long wallBefore = System.nanoTime();
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        double wallTime = (System.nanoTime() - wallBefore) / 1e9;
+        double cpuTime = (threadMXBean.getCurrentThreadCpuTime() - cpuBefore) / 1e9;
+        long allocatedAfter = getAllocatedBytes(threadMXBean, threadId);
+        long allocatedBytes = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        logger.info("{} (seed {}): costs={} vehicles={} time={}s", instance.name, seed, solution.getCost(), solution.getRoutes().size(), wallTime);
+        return new Run(instance, seed, solution.getCost(), solution.getRoutes().size(), solution.getUnassignedJobs().size(), iterations.get(), cpuTime, wallTime, allocatedBytes);
+    }
+
+    private static long getAllocatedBytes(ThreadMXBean threadMXBean, long threadId) {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadMXBean.getThreadAllocatedBytes(threadId);
+            }
+        }
+        return -1;
+    }
+
+}
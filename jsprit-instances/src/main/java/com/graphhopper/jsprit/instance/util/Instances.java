@@ -21,6 +21,7 @@ import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.util.BenchmarkInstance;
 import com.graphhopper.jsprit.instance.reader.ChristofidesReader;
 import com.graphhopper.jsprit.instance.reader.CordeauReader;
+import com.graphhopper.jsprit.instance.reader.LiLimReader;
 import com.graphhopper.jsprit.instance.reader.SolomonReader;
 
 import java.io.*;
@@ -247,4 +248,25 @@ public class Instances {
         }
         return instances;
     }
+
+    /**
+     * Returns a collection of {@link BenchmarkInstance} which are Li and Lim's pickup and delivery instances.
+     * <p>Note that this assumes that within the folder 'inputFolder' 9 LC1-instances are located with their original name, i.e. lc101.txt,lc102.txt,...,lc109.txt.
+     *
+     * @param inputFolder where li and lim's LC1 instances are located. It must end without '/' such as instances/lilim.
+     * @return a collection of {@link BenchmarkInstance}
+     */
+    public static Collection<BenchmarkInstance> getAllLiLimLC1(String inputFolder) {
+        List<Double> bestKnown = Arrays.asList(828.94, 828.94, 1035.35, 860.01, 828.94, 828.94, 828.94, 826.44, 1000.60);
+        List<Double> bestKnowVehicles = Arrays.asList(10.0, 10.0, 9.0, 9.0, 10.0, 10.0, 10.0, 10.0, 9.0);
+        Collection<BenchmarkInstance> instances = new ArrayList<BenchmarkInstance>();
+        for (int i = 0; i < 9; i++) {
+            VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+            String file = inputFolder + "/lc1" + getInstanceNu(i + 1) + ".txt";
+            new LiLimReader(builder).read(file);
+            VehicleRoutingProblem p = builder.build();
+            instances.add(new BenchmarkInstance("lc1" + getInstanceNu(i + 1), p, bestKnown.get(i).doubleValue(), bestKnowVehicles.get(i).doubleValue()));
+        }
+        return instances;
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.instance.util;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.util.BenchmarkInstance;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class BenchmarkReportTest {
+
+    private BenchmarkInstance instance(String name, Double bestKnown) {
+        return new BenchmarkInstance(name, mock(VehicleRoutingProblem.class), bestKnown, null);
+    }
+
+    private BenchmarkReport report() {
+        BenchmarkInstance c101 = instance("C101", 100.);
+        BenchmarkInstance p01 = instance("p01", null);
+        return BenchmarkReport.of(Arrays.asList(
+            new BenchmarkRunner.Run(c101, 0L, 110., 10, 0, 100, 2., 2.5, 1024 * 1024),
+            new BenchmarkRunner.Run(p01, 0L, 500., 5, 1, 50, 1., 1., -1),
+            new BenchmarkRunner.Run(c101, 1L, 120., 11, 0, 100, 2., 2.5, 3 * 1024 * 1024)));
+    }
+
+    @Test
+    public void runsShouldBeAggregatedPerInstance() {
+        BenchmarkReport report = report();
+        assertEquals(2, report.getEntries().size());
+        BenchmarkReport.Entry c101 = report.getEntries().get(0);
+        assertEquals("C101", c101.instance);
+        assertEquals(2, c101.runs);
+        assertArrayEquals(new long[]{0L, 1L}, c101.seeds);
+        assertEquals(110., c101.bestCosts, 0.01);
+        assertEquals(115., c101.meanCosts, 0.01);
+        assertEquals(10., c101.getBestGap(), 0.01);
+        assertEquals(15., c101.getMeanGap(), 0.01);
+        assertEquals(10.5, c101.meanVehicles, 0.01);
+        assertEquals(2.5, c101.meanWallTime, 0.01);
+        assertEquals(50., c101.iterationsPerSecond, 0.01);
+        assertEquals(1., c101.allocationRate, 0.01);
+    }
+
+    @Test
+    public void unavailableValuesShouldBeNaN() {
+        BenchmarkReport.Entry p01 = report().getEntry("p01");
+        assertTrue(Double.isNaN(p01.bestKnownResult));
+        assertTrue(Double.isNaN(p01.getMeanGap()));
+        assertTrue(Double.isNaN(p01.allocationRate));
+    }
+
+    @Test
+    public void whenWritingAndReadingCsv_entriesShouldBeEqual() throws IOException {
+        StringWriter writer = new StringWriter();
+        report().writeCsv(writer);
+        BenchmarkReport read = BenchmarkReport.readCsv(new StringReader(writer.toString()));
+        assertEquals(2, read.getEntries().size());
+        BenchmarkReport.Entry c101 = read.getEntry("C101");
+        assertEquals(2, c101.runs);
+        assertArrayEquals(new long[]{0L, 1L}, c101.seeds);
+        assertEquals(115., c101.meanCosts, 0.01);
+        assertEquals(15., c101.getMeanGap(), 0.01);
+        assertEquals(50., c101.iterationsPerSecond, 0.01);
+        assertTrue(Double.isNaN(read.getEntry("p01").bestKnownResult));
+        assertArrayEquals(new long[]{0L}, read.getEntry("p01").seeds);
+    }
+
+    @Test
+    public void whenReadingCsvWithMissingColumns_theyShouldBeNaN() throws IOException {
+        BenchmarkReport read = BenchmarkReport.readCsv(new StringReader("mean_costs,instance\n100.0,C101\n"));
+        assertEquals(100., read.getEntry("C101").meanCosts, 0.01);
+        assertTrue(Double.isNaN(read.getEntry("C101").iterationsPerSecond));
+        assertEquals(0, read.getEntry("C101").seeds.length);
+    }
+
+    @Test
+    public void jsonShouldContainNullForUnavailableValues() {
+        StringWriter writer = new StringWriter();
+        report().writeJson(writer);
+        String json = writer.toString();
+        assertTrue(json.startsWith("["));
+        assertTrue(json.contains("\"instance\": \"p01\", \"runs\": 1, \"best_known\": null"));
+        assertTrue(json.contains("\"mean_costs\": 115.0"));
+        assertTrue(json.contains("\"seeds\": [0, 1]}"));
+    }
+
+    @Test
+    public void whenComparingToBaseline_regressionsShouldBeDetected() throws IOException {
+        BenchmarkReport baseline = BenchmarkReport.readCsv(new StringReader(
+            "instance,mean_costs,iterations_per_second\nC101,110.0,60.0\np01,500.0,50.0\nR101,1.0,1.0\n"));
+        List<BenchmarkReport.Regression> regressions = report().compareTo(baseline, 0.01, 0.1);
+        assertEquals(2, regressions.size());
+        assertEquals("C101", regressions.get(0).instance);
+        assertEquals("mean_costs", regressions.get(0).metric);
+        assertEquals("iterations_per_second", regressions.get(1).metric);
+        assertEquals(-16.67, regressions.get(1).getChange(), 0.01);
+    }
+
+    @Test
+    public void whenWithinTolerance_noRegressionShouldBeReported() throws IOException {
+        BenchmarkReport baseline = BenchmarkReport.readCsv(new StringReader(
+            "instance,mean_costs,iterations_per_second\nC101,114.0,52.0\n"));
+        assertTrue(report().compareTo(baseline, 0.01, 0.1).isEmpty());
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.instance.util;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.util.BenchmarkInstance;
+import com.graphhopper.jsprit.instance.reader.ChristofidesReader;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BenchmarkRunnerTest {
+
+    private String getPath(String string) {
+        URL resource = this.getClass().getClassLoader().getResource(string);
+        if (resource == null) throw new IllegalStateException("resource " + string + " does not exist");
+        return resource.getPath();
+    }
+
+    @Test
+    public void eachInstanceShouldBeRunTheSpecifiedNumberOfTimes() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        new ChristofidesReader(builder).read(getPath("vrpnc1.txt"));
+        BenchmarkInstance vrpnc1 = new BenchmarkInstance("vrpnc1", builder.build(), 524.61, null);
+        BenchmarkRunner runner = new BenchmarkRunner(new BenchmarkRunner.AlgorithmFactory() {
+
+            @Override
+            public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, long seed) {
+                return Jsprit.Builder.newInstance(vrp).setRandomSeed(seed).setProperty(Jsprit.Parameter.ITERATIONS, "20").buildAlgorithm();
+            }
+
+        });
+        BenchmarkReport report = runner.addInstance(vrpnc1).setRuns(3).setSeed(10).setNoThreads(2).run();
+        assertEquals(1, report.getEntries().size());
+        BenchmarkReport.Entry entry = report.getEntry("vrpnc1");
+        assertEquals(3, entry.runs);
+        long[] seeds = entry.seeds.clone();
+        Arrays.sort(seeds);
+        assertArrayEquals(new long[]{10L, 11L, 12L}, seeds);
+        assertTrue(entry.stdDevCosts > 0.);
+        assertTrue(entry.bestCosts >= 524.61 - 0.01);
+        assertTrue(entry.meanCosts >= entry.bestCosts);
+        assertTrue(entry.meanVehicles >= 5);
+        assertTrue(entry.iterationsPerSecond > 0);
+    }
+
+}
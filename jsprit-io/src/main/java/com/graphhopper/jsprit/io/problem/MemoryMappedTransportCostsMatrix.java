@@ -0,0 +1,235 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Transport costs backed by a memory-mapped binary file containing a distance and a time matrix, as written by
+ * {@link MemoryMappedTransportCostsMatrixWriter}.
+ * <p>The file is mapped read-only, i.e. values are neither parsed nor copied into the heap. Opening the matrix is
+ * therefore almost instant, and several JVMs reading the same file share the pages cached by the operating system.
+ * <p>Locations are looked up by their index (<code>location.getIndex()</code>).
+ * <p>File layout (little endian): a header consisting of magic number (int), version (int), number of locations (int),
+ * value type (int, 0=float32, 1=int32 scaled), distance scale (double) and time scale (double), followed by the
+ * distance matrix and the time matrix, each stored row-major with noLocations*noLocations values of 4 bytes.
+ * A scaled int32 value v represents the value v/scale.
+ */
+public class MemoryMappedTransportCostsMatrix extends AbstractForwardVehicleRoutingTransportCosts {
+
+    static final int MAGIC_NUMBER = 0x4A535052;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+
+    static final int FLOAT = 0;
+
+    static final int SCALED_INT = 1;
+
+    static final int VALUE_SIZE = 4;
+
+    /**
+     * Opens the matrix stored in the specified file.
+     *
+     * @param filename file written by {@link MemoryMappedTransportCostsMatrixWriter}
+     * @return matrix
+     * @throws IllegalArgumentException if file is not a valid matrix file
+     */
+    public static MemoryMappedTransportCostsMatrix newInstance(String filename) {
+        return new MemoryMappedTransportCostsMatrix(filename);
+    }
+
+    private final int noLocations;
+
+    private final int valueType;
+
+    private final int rowsPerChunk;
+
+    private final double inverseDistanceScale;
+
+    private final double inverseTimeScale;
+
+    private FloatBuffer[] floatDistances;
+
+    private FloatBuffer[] floatTimes;
+
+    private IntBuffer[] intDistances;
+
+    private IntBuffer[] intTimes;
+
+    private MemoryMappedTransportCostsMatrix(String filename) {
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(filename, "r");
+            FileChannel channel = file.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) throw new IllegalArgumentException(filename + " is not a matrix file. header is incomplete.");
+            }
+            header.flip();
+            if (header.getInt() != MAGIC_NUMBER) throw new IllegalArgumentException(filename + " is not a matrix file.");
+            int version = header.getInt();
+            if (version != VERSION) throw new IllegalArgumentException("version " + version + " of " + filename + " is not supported.");
+            noLocations = header.getInt();
+            valueType = header.getInt();
+            if (valueType != FLOAT && valueType != SCALED_INT)
+                throw new IllegalArgumentException("value type " + valueType + " of " + filename + " is not supported.");
+            inverseDistanceScale = 1. / header.getDouble();
+            inverseTimeScale = 1. / header.getDouble();
+            long planeSize = planeSize(noLocations);
+            if (channel.size() < HEADER_SIZE + 2 * planeSize)
+                throw new IllegalArgumentException(filename + " is truncated. expected " + (HEADER_SIZE + 2 * planeSize) + " bytes.");
+            rowsPerChunk = rowsPerChunk(noLocations);
+            MappedByteBuffer[] distances = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, noLocations);
+            MappedByteBuffer[] times = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE + planeSize, noLocations);
+            if (valueType == FLOAT) {
+                floatDistances = asFloatBuffers(distances);
+                floatTimes = asFloatBuffers(times);
+            } else {
+                intDistances = asIntBuffers(distances);
+                intTimes = asIntBuffers(times);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            close(file);
+        }
+    }
+
+    static long planeSize(int noLocations) {
+        return (long) noLocations * noLocations * VALUE_SIZE;
+    }
+
+    /**
+     * A single buffer cannot map more than Integer.MAX_VALUE bytes, thus each matrix is mapped in chunks of entire rows.
+     */
+    static int rowsPerChunk(int noLocations) {
+        if (noLocations == 0) return 1;
+        return Math.max(1, Integer.MAX_VALUE / (noLocations * VALUE_SIZE));
+    }
+
+    static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long position, int noLocations) throws IOException {
+        int rowsPerChunk = rowsPerChunk(noLocations);
+        int noChunks = (noLocations + rowsPerChunk - 1) / rowsPerChunk;
+        MappedByteBuffer[] chunks = new MappedByteBuffer[noChunks];
+        long rowSize = (long) noLocations * VALUE_SIZE;
+        for (int i = 0; i < noChunks; i++) {
+            int rows = Math.min(rowsPerChunk, noLocations - i * rowsPerChunk);
+            chunks[i] = channel.map(mode, position + i * rowsPerChunk * rowSize, rows * rowSize);
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    static void close(RandomAccessFile file) {
+        if (file == null) return;
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static FloatBuffer[] asFloatBuffers(MappedByteBuffer[] chunks) {
+        FloatBuffer[] buffers = new FloatBuffer[chunks.length];
+        for (int i = 0; i < chunks.length; i++) buffers[i] = chunks[i].asFloatBuffer();
+        return buffers;
+    }
+
+    private static IntBuffer[] asIntBuffers(MappedByteBuffer[] chunks) {
+        IntBuffer[] buffers = new IntBuffer[chunks.length];
+        for (int i = 0; i < chunks.length; i++) buffers[i] = chunks[i].asIntBuffer();
+        return buffers;
+    }
+
+    /**
+     * Returns the distance from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the distance
+     * @throws IllegalArgumentException if an index is negative or not smaller than the number of locations
+     */
+    public double getDistance(int fromIndex, int toIndex) {
+        checkIndices(fromIndex, toIndex);
+        int chunk = fromIndex / rowsPerChunk;
+        int index = (fromIndex - chunk * rowsPerChunk) * noLocations + toIndex;
+        if (valueType == FLOAT) return floatDistances[chunk].get(index);
+        return intDistances[chunk].get(index) * inverseDistanceScale;
+    }
+
+    /**
+     * Returns the transport time from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the transport time
+     * @throws IllegalArgumentException if an index is negative or not smaller than the number of locations
+     */
+    public double getTransportTime(int fromIndex, int toIndex) {
+        checkIndices(fromIndex, toIndex);
+        int chunk = fromIndex / rowsPerChunk;
+        int index = (fromIndex - chunk * rowsPerChunk) * noLocations + toIndex;
+        if (valueType == FLOAT) return floatTimes[chunk].get(index);
+        return intTimes[chunk].get(index) * inverseTimeScale;
+    }
+
+    private void checkIndices(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex < 0)
+            throw new IllegalArgumentException("index of from " + fromIndex + " to " + toIndex + " < 0 ");
+        if (fromIndex >= noLocations || toIndex >= noLocations)
+            throw new IllegalArgumentException("index of from " + fromIndex + " to " + toIndex + " >= noLocations (" + noLocations + ")");
+    }
+
+    @Override
+    public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
+        return getDistance(from.getIndex(), to.getIndex());
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        return getTransportTime(from.getIndex(), to.getIndex());
+    }
+
+    @Override
+    public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        if (vehicle == null) return getDistance(from.getIndex(), to.getIndex());
+        VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from.getIndex(), to.getIndex());
+    }
+
+    public int getNoLocations() {
+        return noLocations;
+    }
+
+}
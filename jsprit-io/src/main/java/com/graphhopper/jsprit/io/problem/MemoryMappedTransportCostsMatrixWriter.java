@@ -0,0 +1,191 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.util.FastVehicleRoutingTransportCostsMatrix;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Writes distance and time matrices to a binary file that can be opened with {@link MemoryMappedTransportCostsMatrix}.
+ * <p>The file is mapped while writing, i.e. values can be added in any order without keeping the matrix in the heap.
+ * Relations that are not added are 0. Call {@link #close()} to flush the file.
+ * <p>Values are stored either as float32 or as int32 scaled by a constant factor, e.g. a time scale of 10
+ * stores times with a precision of 0.1.
+ */
+public class MemoryMappedTransportCostsMatrixWriter {
+
+    /**
+     * Creates a writer storing values as float32.
+     *
+     * @param filename    file to be written
+     * @param noLocations number of locations, i.e. location indices must be in [0,noLocations)
+     * @return writer
+     */
+    public static MemoryMappedTransportCostsMatrixWriter newInstance(String filename, int noLocations) {
+        return new MemoryMappedTransportCostsMatrixWriter(filename, noLocations, MemoryMappedTransportCostsMatrix.FLOAT, 1., 1.);
+    }
+
+    /**
+     * Creates a writer storing values as int32, i.e. <code>Math.round(value * scale)</code>.
+     *
+     * @param filename      file to be written
+     * @param noLocations   number of locations, i.e. location indices must be in [0,noLocations)
+     * @param distanceScale factor distances are multiplied with before they are rounded
+     * @param timeScale     factor times are multiplied with before they are rounded
+     * @return writer
+     */
+    public static MemoryMappedTransportCostsMatrixWriter newInstance(String filename, int noLocations, double distanceScale, double timeScale) {
+        if (distanceScale <= 0. || timeScale <= 0.) throw new IllegalArgumentException("scale must be positive");
+        return new MemoryMappedTransportCostsMatrixWriter(filename, noLocations, MemoryMappedTransportCostsMatrix.SCALED_INT, distanceScale, timeScale);
+    }
+
+    /**
+     * Writes the specified matrix to a file storing values as float32.
+     *
+     * @param filename file to be written
+     * @param matrix   matrix to be written
+     */
+    public static void write(String filename, FastVehicleRoutingTransportCostsMatrix matrix) {
+        MemoryMappedTransportCostsMatrixWriter writer = newInstance(filename, matrix.getNoLocations());
+        for (int from = 0; from < matrix.getNoLocations(); from++) {
+            for (int to = 0; to < matrix.getNoLocations(); to++) {
+                writer.addTransportTimeAndDistance(from, to, matrix.getTransportTime(from, to), matrix.getDistance(from, to));
+            }
+        }
+        writer.close();
+    }
+
+    private final RandomAccessFile file;
+
+    private final int noLocations;
+
+    private final int valueType;
+
+    private final double distanceScale;
+
+    private final double timeScale;
+
+    private final int rowsPerChunk;
+
+    private final MappedByteBuffer[] distances;
+
+    private final MappedByteBuffer[] times;
+
+    private MemoryMappedTransportCostsMatrixWriter(String filename, int noLocations, int valueType, double distanceScale, double timeScale) {
+        if (noLocations < 0) throw new IllegalArgumentException("noLocations must not be negative");
+        this.noLocations = noLocations;
+        this.valueType = valueType;
+        this.distanceScale = distanceScale;
+        this.timeScale = timeScale;
+        this.rowsPerChunk = MemoryMappedTransportCostsMatrix.rowsPerChunk(noLocations);
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(filename, "rw");
+            long planeSize = MemoryMappedTransportCostsMatrix.planeSize(noLocations);
+            file.setLength(0);
+            file.setLength(MemoryMappedTransportCostsMatrix.HEADER_SIZE + 2 * planeSize);
+            FileChannel channel = file.getChannel();
+            distances = MemoryMappedTransportCostsMatrix.map(channel, FileChannel.MapMode.READ_WRITE, MemoryMappedTransportCostsMatrix.HEADER_SIZE, noLocations);
+            times = MemoryMappedTransportCostsMatrix.map(channel, FileChannel.MapMode.READ_WRITE, MemoryMappedTransportCostsMatrix.HEADER_SIZE + planeSize, noLocations);
+        } catch (IOException e) {
+            MemoryMappedTransportCostsMatrix.close(file);
+            throw new RuntimeException(e);
+        }
+        this.file = file;
+    }
+
+    /**
+     * Adds a transport-distance for a particular relation.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @param distance  the distance to be added
+     * @return writer
+     */
+    public MemoryMappedTransportCostsMatrixWriter addTransportDistance(int fromIndex, int toIndex, double distance) {
+        put(distances, fromIndex, toIndex, distance, distanceScale);
+        return this;
+    }
+
+    /**
+     * Adds transport-time for a particular relation.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @param time      the time to be added
+     * @return writer
+     */
+    public MemoryMappedTransportCostsMatrixWriter addTransportTime(int fromIndex, int toIndex, double time) {
+        put(times, fromIndex, toIndex, time, timeScale);
+        return this;
+    }
+
+    public MemoryMappedTransportCostsMatrixWriter addTransportTimeAndDistance(int fromIndex, int toIndex, double time, double distance) {
+        addTransportTime(fromIndex, toIndex, time);
+        addTransportDistance(fromIndex, toIndex, distance);
+        return this;
+    }
+
+    private void put(MappedByteBuffer[] plane, int fromIndex, int toIndex, double value, double scale) {
+        if (fromIndex < 0 || fromIndex >= noLocations || toIndex < 0 || toIndex >= noLocations)
+            throw new IllegalArgumentException("relation " + fromIndex + " -> " + toIndex + " is out of bounds. noLocations=" + noLocations);
+        int chunk = fromIndex / rowsPerChunk;
+        int position = ((fromIndex - chunk * rowsPerChunk) * noLocations + toIndex) * MemoryMappedTransportCostsMatrix.VALUE_SIZE;
+        if (valueType == MemoryMappedTransportCostsMatrix.FLOAT) plane[chunk].putFloat(position, (float) value);
+        else {
+            long scaled = Math.round(value * scale);
+            if (scaled > Integer.MAX_VALUE || scaled < Integer.MIN_VALUE)
+                throw new IllegalArgumentException("value " + value + " cannot be stored as int with scale " + scale);
+            plane[chunk].putInt(position, (int) scaled);
+        }
+    }
+
+    /**
+     * Writes the header, flushes all values to the file and closes it.
+     */
+    public void close() {
+        try {
+            for (MappedByteBuffer chunk : distances) chunk.force();
+            for (MappedByteBuffer chunk : times) chunk.force();
+            ByteBuffer header = ByteBuffer.allocate(MemoryMappedTransportCostsMatrix.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MemoryMappedTransportCostsMatrix.MAGIC_NUMBER);
+            header.putInt(MemoryMappedTransportCostsMatrix.VERSION);
+            header.putInt(noLocations);
+            header.putInt(valueType);
+            header.putDouble(distanceScale);
+            header.putDouble(timeScale);
+            header.flip();
+            FileChannel channel = file.getChannel();
+            int position = 0;
+            while (header.hasRemaining()) position += channel.write(header, position);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            MemoryMappedTransportCostsMatrix.close(file);
+        }
+    }
+
+}
@@ -0,0 +1,715 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem.FleetSize;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.driver.DriverImpl;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.Resource;
+import com.graphhopper.jsprit.io.problem.VrpXMLReader.ServiceBuilderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Reads problems (and solutions) in the format of {@link VrpXMLReader}, and feeds the {@link VehicleRoutingProblem.Builder}
+ * with the same vehicles, jobs and initial routes.
+ * <p>
+ * <p>Unlike {@link VrpXMLReader}, which loads the whole document into memory before it evaluates it, this reader
+ * parses the document with SAX and only keeps the element currently read, i.e. a single vehicle, type, service,
+ * shipment, route or solution. Thus memory is dominated by the problem itself, and reading time grows linearly
+ * with the number of jobs. If schema validation is enabled (default), the document is validated against
+ * vrp_xml_schema.xsd while it is parsed.
+ * <p>
+ * <p>Elements are expected in the order of the schema, except that vehicles can precede their types. Initial routes
+ * and solutions must therefore follow the jobs they refer to.
+ */
+public class StreamingVrpXMLReader {
+
+    /**
+     * An element of the document with its attributes, text and children. Only the element currently read is kept in
+     * memory. Paths to descendants are given like in {@link VrpXMLReader}, e.g. "location.coord[@x]".
+     */
+    private static class Element {
+
+        private final String name;
+
+        private final Map<String, String> attributes;
+
+        private final StringBuilder text = new StringBuilder();
+
+        private final List<Element> children = new ArrayList<Element>(4);
+
+        private Element(String name, Attributes attributes) {
+            this.name = name;
+            if (attributes.getLength() == 0) this.attributes = Collections.emptyMap();
+            else {
+                this.attributes = new HashMap<String, String>();
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    this.attributes.put(attributes.getLocalName(i).isEmpty() ? attributes.getQName(i) : attributes.getLocalName(i), attributes.getValue(i));
+                }
+            }
+        }
+
+        private List<Element> getAll(String path) {
+            List<Element> elements = Collections.singletonList(this);
+            if (path.isEmpty()) return elements;
+            for (String name : path.split("\\.")) {
+                List<Element> matches = new ArrayList<Element>();
+                for (Element element : elements) {
+                    for (Element child : element.children) {
+                        if (child.name.equals(name)) matches.add(child);
+                    }
+                }
+                elements = matches;
+            }
+            return elements;
+        }
+
+        private Element get(String path) {
+            List<Element> elements = getAll(path);
+            if (elements.isEmpty()) return null;
+            return elements.get(0);
+        }
+
+        private String getString(String path) {
+            String attribute = null;
+            int attributeStart = path.indexOf("[@");
+            if (attributeStart >= 0) {
+                attribute = path.substring(attributeStart + 2, path.length() - 1);
+                path = path.substring(0, attributeStart);
+            }
+            Element element = get(path);
+            if (element == null) return null;
+            if (attribute != null) return element.attributes.get(attribute);
+            return element.text.toString().trim();
+        }
+
+        private Double getDouble(String path) {
+            String value = getString(path);
+            if (value == null) return null;
+            return Double.parseDouble(value);
+        }
+
+        private boolean getBoolean(String path) {
+            String value = getString(path);
+            if (value.equals("true") || value.equals("1") || value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("on")) return true;
+            if (value.equals("false") || value.equals("0") || value.equalsIgnoreCase("no") || value.equalsIgnoreCase("off")) return false;
+            throw new IllegalArgumentException(path + " must be true or false, but is " + value);
+        }
+
+    }
+
+    private class Handler extends DefaultHandler {
+
+        private final Deque<Element> elements = new ArrayDeque<Element>();
+
+        private final Deque<String> sections = new ArrayDeque<String>();
+
+        private int skippedLevels = 0;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            String name = localName.isEmpty() ? qName : localName;
+            if (skippedLevels > 0) {
+                skippedLevels++;
+                return;
+            }
+            if (!elements.isEmpty()) {
+                Element element = new Element(name, attributes);
+                elements.peek().children.add(element);
+                elements.push(element);
+            } else if (isRecord(name)) {
+                if (name.equals("solution") && solutions == null) skippedLevels = 1;
+                else elements.push(new Element(name, attributes));
+            } else {
+                sections.push(name);
+            }
+        }
+
+        private boolean isRecord(String name) {
+            if (sections.size() == 1) return name.equals("problemType");
+            if (sections.size() != 2) return false;
+            String section = sections.peek();
+            return (section.equals("vehicles") && name.equals("vehicle")) || (section.equals("vehicleTypes") && name.equals("type"))
+                || (section.equals("services") && name.equals("service")) || (section.equals("shipments") && name.equals("shipment"))
+                || (section.equals("initialRoutes") && name.equals("route")) || (section.equals("solutions") && name.equals("solution"));
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (skippedLevels == 0 && !elements.isEmpty()) elements.peek().text.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (skippedLevels > 0) {
+                skippedLevels--;
+                return;
+            }
+            if (elements.isEmpty()) {
+                sections.pop();
+                return;
+            }
+            Element element = elements.pop();
+            if (elements.isEmpty()) readRecord(element);
+        }
+
+        @Override
+        public void endDocument() {
+            if (!fleetSizeRead) vrpBuilder.setFleetSize(FleetSize.INFINITE);
+            buildVehicles();
+            addJobsAndTheirLocationsToVrp();
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            throw e;
+        }
+
+    }
+
+    private static Logger logger = LoggerFactory.getLogger(StreamingVrpXMLReader.class);
+
+    private VehicleRoutingProblem.Builder vrpBuilder;
+
+    private Map<String, Vehicle> vehicleMap = new LinkedHashMap<String, Vehicle>();
+
+    private Map<String, VehicleType> types = new HashMap<String, VehicleType>();
+
+    private List<Element> vehicleElements = new ArrayList<Element>();
+
+    private Map<String, Service> serviceMap = new LinkedHashMap<String, Service>();
+
+    private Map<String, Shipment> shipmentMap = new LinkedHashMap<String, Shipment>();
+
+    private Set<String> freezedJobIds = new HashSet<String>();
+
+    private boolean fleetSizeRead = false;
+
+    private boolean doNotWarnAgain = false;
+
+    private boolean schemaValidation = true;
+
+    private Collection<VehicleRoutingProblemSolution> solutions;
+
+    private ServiceBuilderFactory serviceBuilderFactory = new VrpXMLReader.DefaultServiceBuilderFactory();
+
+    public StreamingVrpXMLReader(VehicleRoutingProblem.Builder vrpBuilder, Collection<VehicleRoutingProblemSolution> solutions) {
+        this.vrpBuilder = vrpBuilder;
+        this.solutions = solutions;
+    }
+
+    public StreamingVrpXMLReader(VehicleRoutingProblem.Builder vrpBuilder) {
+        this(vrpBuilder, null);
+    }
+
+    /**
+     * @param schemaValidation the schemaValidation to set
+     */
+    public void setSchemaValidation(boolean schemaValidation) {
+        this.schemaValidation = schemaValidation;
+    }
+
+    public void read(String filename) {
+        logger.debug("read vrp: {}", filename);
+        URL url;
+        File file = new File(filename);
+        try {
+            url = file.exists() ? file.toURI().toURL() : Resource.getAsURL(filename);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (url == null) throw new IllegalArgumentException("cannot find " + filename);
+        read(new InputSource(url.toExternalForm()));
+    }
+
+    public void read(InputStream fileContents) {
+        read(new InputSource(fileContents));
+    }
+
+    private void read(InputSource inputSource) {
+        SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+        parserFactory.setNamespaceAware(true);
+        if (schemaValidation) {
+            Schema schema = createSchema();
+            if (schema != null) parserFactory.setSchema(schema);
+        }
+        try {
+            parserFactory.newSAXParser().parse(inputSource, new Handler());
+        } catch (SAXException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Schema createSchema() {
+        InputStream resource = Resource.getAsInputStream("vrp_xml_schema.xsd");
+        if (resource == null) {
+            logger.debug("cannot find schema-xsd file (vrp_xml_schema.xsd). try to read xml without xml-file-validation.");
+            return null;
+        }
+        try {
+            return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(new StreamSource(resource));
+        } catch (SAXException e) {
+            throw new RuntimeException(e);
+        } finally {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                logger.debug("cannot close schema-xsd file: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void readRecord(Element element) {
+        if (element.name.equals("problemType")) readProblemType(element);
+        else if (element.name.equals("vehicle")) vehicleElements.add(element);
+        else if (element.name.equals("type")) readType(element);
+        else if (element.name.equals("service")) readService(element);
+        else if (element.name.equals("shipment")) readShipment(element);
+        else if (element.name.equals("route")) readInitialRoute(element);
+        else if (element.name.equals("solution")) readSolution(element);
+    }
+
+    private void addJobsAndTheirLocationsToVrp() {
+        for (Service service : serviceMap.values()) {
+            if (!freezedJobIds.contains(service.getId())) {
+                vrpBuilder.addJob(service);
+            }
+        }
+        for (Shipment shipment : shipmentMap.values()) {
+            if (!freezedJobIds.contains(shipment.getId())) {
+                vrpBuilder.addJob(shipment);
+            }
+        }
+    }
+
+    private void readProblemType(Element problemType) {
+        fleetSizeRead = true;
+        String fleetSize = problemType.getString("fleetSize");
+        if (fleetSize == null) vrpBuilder.setFleetSize(FleetSize.INFINITE);
+        else if (fleetSize.toUpperCase().equals(FleetSize.INFINITE.toString()))
+            vrpBuilder.setFleetSize(FleetSize.INFINITE);
+        else vrpBuilder.setFleetSize(FleetSize.FINITE);
+    }
+
+    private void readInitialRoute(Element routeElement) {
+        Driver driver = DriverImpl.noDriver();
+        String vehicleId = routeElement.getString("vehicleId");
+        Vehicle vehicle = getVehicle(vehicleId);
+        if (vehicle == null) throw new IllegalArgumentException("vehicle is missing.");
+        String start = routeElement.getString("start");
+        if (start == null) throw new IllegalArgumentException("route start-time is missing.");
+        double departureTime = Double.parseDouble(start);
+
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle, driver);
+        routeBuilder.setDepartureTime(departureTime);
+
+        for (Element actElement : routeElement.getAll("act")) {
+            String type = actElement.getString("[@type]");
+            if (type == null) throw new IllegalArgumentException("act[@type] is missing.");
+            String serviceId = actElement.getString("serviceId");
+            if (type.equals("break")) {
+                routeBuilder.addBreak(getBreak(vehicleId));
+            } else {
+                if (serviceId != null) {
+                    Service service = getService(serviceId);
+                    if (service == null)
+                        throw new IllegalArgumentException("service to serviceId " + serviceId + " is missing (reference in one of your initial routes). make sure you define the service you refer to here in <services> </services>.");
+                    //!!!since job is part of initial route, it does not belong to jobs in problem, i.e. variable jobs that can be assigned/scheduled
+                    freezedJobIds.add(serviceId);
+                    routeBuilder.addService(service);
+                } else {
+                    String shipmentId = actElement.getString("shipmentId");
+                    if (shipmentId == null)
+                        throw new IllegalArgumentException("either serviceId or shipmentId is missing");
+                    Shipment shipment = getShipment(shipmentId);
+                    if (shipment == null)
+                        throw new IllegalArgumentException("shipment to shipmentId " + shipmentId + " is missing (reference in one of your initial routes). make sure you define the shipment you refer to here in <shipments> </shipments>.");
+                    freezedJobIds.add(shipmentId);
+                    if (type.equals("pickupShipment")) {
+                        routeBuilder.addPickup(shipment);
+                    } else if (type.equals("deliverShipment")) {
+                        routeBuilder.addDelivery(shipment);
+                    } else
+                        throw new IllegalArgumentException("type " + type + " is not supported. Use 'pickupShipment' or 'deliverShipment' here");
+                }
+            }
+        }
+        vrpBuilder.addInitialVehicleRoute(routeBuilder.build());
+    }
+
+    private void readSolution(Element solutionElement) {
+        String totalCost = solutionElement.getString("cost");
+        double cost = -1;
+        if (totalCost != null) cost = Double.parseDouble(totalCost);
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        for (Element routeElement : solutionElement.getAll("routes.route")) {
+            //! here, driverId is set to noDriver, no matter whats in driverId.
+            Driver driver = DriverImpl.noDriver();
+            String vehicleId = routeElement.getString("vehicleId");
+            Vehicle vehicle = getVehicle(vehicleId);
+            if (vehicle == null) throw new IllegalArgumentException("vehicle is missing.");
+            String start = routeElement.getString("start");
+            if (start == null) throw new IllegalArgumentException("route start-time is missing.");
+            double departureTime = Double.parseDouble(start);
+
+            String end = routeElement.getString("end");
+            if (end == null) throw new IllegalArgumentException("route end-time is missing.");
+
+            VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle, driver);
+            routeBuilder.setDepartureTime(departureTime);
+            for (Element actElement : routeElement.getAll("act")) {
+                String type = actElement.getString("[@type]");
+                if (type == null) throw new IllegalArgumentException("act[@type] is missing.");
+                if (type.equals("break")) {
+                    routeBuilder.addBreak(getBreak(vehicleId));
+                } else {
+                    String serviceId = actElement.getString("serviceId");
+                    if (serviceId != null) {
+                        Service service = getService(serviceId);
+                        routeBuilder.addService(service);
+                    } else {
+                        String shipmentId = actElement.getString("shipmentId");
+                        if (shipmentId == null)
+                            throw new IllegalArgumentException("either serviceId or shipmentId is missing");
+                        Shipment shipment = getShipment(shipmentId);
+                        if (shipment == null)
+                            throw new IllegalArgumentException("shipment with id " + shipmentId + " does not exist.");
+                        if (type.equals("pickupShipment")) {
+                            routeBuilder.addPickup(shipment);
+                        } else if (type.equals("deliverShipment")) {
+                            routeBuilder.addDelivery(shipment);
+                        } else
+                            throw new IllegalArgumentException("type " + type + " is not supported. Use 'pickupShipment' or 'deliverShipment' here");
+                    }
+                }
+            }
+            routes.add(routeBuilder.build());
+        }
+        VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(routes, cost);
+        for (Element unassignedJobElement : solutionElement.getAll("unassignedJobs.job")) {
+            String jobId = unassignedJobElement.getString("[@id]");
+            Job job = getShipment(jobId);
+            if (job == null) job = getService(jobId);
+            if (job == null) throw new IllegalArgumentException("cannot find unassignedJob with id " + jobId);
+            solution.getUnassignedJobs().add(job);
+        }
+        solutions.add(solution);
+    }
+
+    private Shipment getShipment(String shipmentId) {
+        return shipmentMap.get(shipmentId);
+    }
+
+    private Service getService(String serviceId) {
+        return serviceMap.get(serviceId);
+    }
+
+    private Vehicle getVehicle(String vehicleId) {
+        buildVehicles();
+        return vehicleMap.get(vehicleId);
+    }
+
+    private Break getBreak(String vehicleId) {
+        return getVehicle(vehicleId).getBreak();
+    }
+
+    private static Coordinate getCoord(Element element, String prefix) {
+        Coordinate coord = null;
+        String x = element.getString(prefix + "coord[@x]");
+        String y = element.getString(prefix + "coord[@y]");
+        if (x != null && y != null) {
+            coord = Coordinate.newInstance(Double.parseDouble(x), Double.parseDouble(y));
+        }
+        return coord;
+    }
+
+    private static Location readLocation(Element element, String prefix) {
+        Location.Builder locationBuilder = Location.Builder.newInstance();
+        String locationId = element.getString(prefix + "locationId");
+        if (locationId == null) locationId = element.getString(prefix + "location.id");
+        if (locationId != null) locationBuilder.setId(locationId);
+
+        Coordinate coord = getCoord(element, prefix);
+        if (coord == null) coord = getCoord(element, prefix + "location.");
+        if (coord != null) locationBuilder.setCoordinate(coord);
+
+        String locationIndex = element.getString(prefix + "location.index");
+        if (locationIndex != null) locationBuilder.setIndex(Integer.parseInt(locationIndex));
+        return locationBuilder.build();
+    }
+
+    private static List<TimeWindow> readTimeWindows(Element element, String path) {
+        List<TimeWindow> timeWindows = new ArrayList<TimeWindow>();
+        for (Element twElement : element.getAll(path)) {
+            timeWindows.add(TimeWindow.newInstance(twElement.getDouble("start"), twElement.getDouble("end")));
+        }
+        return timeWindows;
+    }
+
+    private static String[] readSkills(Element element, String path) {
+        String skillString = element.getString(path);
+        if (skillString == null) return new String[0];
+        String cleaned = skillString.replaceAll("\\s", "");
+        return cleaned.split("[,;]");
+    }
+
+    private static String readCapacity(Element element, String capacityPath, String name) {
+        String capacityString = element.getString(capacityPath);
+        boolean capacityDimensionsExist = element.get("capacity-dimensions.dimension") != null;
+        if (capacityString == null && !capacityDimensionsExist) {
+            throw new IllegalArgumentException("capacity of " + name + " is not set. use 'capacity-dimensions'");
+        }
+        if (capacityString != null && capacityDimensionsExist) {
+            throw new IllegalArgumentException("either use capacity or capacity-dimension, not both. prefer the use of 'capacity-dimensions' over 'capacity'.");
+        }
+        return capacityString;
+    }
+
+    private void readShipment(Element shipmentElement) {
+        String id = shipmentElement.getString("[@id]");
+        if (id == null) throw new IllegalArgumentException("shipment[@id] is missing.");
+
+        String capacityString = readCapacity(shipmentElement, "capacity-demand", "shipment");
+        Shipment.Builder builder;
+        if (capacityString != null) {
+            builder = Shipment.Builder.newInstance(id).addSizeDimension(0, Integer.parseInt(capacityString));
+        } else {
+            builder = Shipment.Builder.newInstance(id);
+            for (Element dimension : shipmentElement.getAll("capacity-dimensions.dimension")) {
+                builder.addSizeDimension(Integer.parseInt(dimension.getString("[@index]")), Integer.parseInt(dimension.getString("")));
+            }
+        }
+
+        String name = shipmentElement.getString("name");
+        if (name != null) builder.setName(name);
+
+        builder.setPickupLocation(readLocation(shipmentElement, "pickup."));
+        String pickupServiceTime = shipmentElement.getString("pickup.duration");
+        if (pickupServiceTime != null) builder.setPickupServiceTime(Double.parseDouble(pickupServiceTime));
+        for (TimeWindow timeWindow : readTimeWindows(shipmentElement, "pickup.timeWindows.timeWindow")) {
+            builder.addPickupTimeWindow(timeWindow);
+        }
+
+        builder.setDeliveryLocation(readLocation(shipmentElement, "delivery."));
+        String deliveryServiceTime = shipmentElement.getString("delivery.duration");
+        if (deliveryServiceTime != null) builder.setDeliveryServiceTime(Double.parseDouble(deliveryServiceTime));
+        for (TimeWindow timeWindow : readTimeWindows(shipmentElement, "delivery.timeWindows.timeWindow")) {
+            builder.addDeliveryTimeWindow(timeWindow);
+        }
+
+        for (String skill : readSkills(shipmentElement, "requiredSkills")) builder.addRequiredSkill(skill.toLowerCase());
+
+        Shipment shipment = builder.build();
+        shipmentMap.put(shipment.getId(), shipment);
+    }
+
+    private void readService(Element serviceElement) {
+        String id = serviceElement.getString("[@id]");
+        if (id == null) throw new IllegalArgumentException("service[@id] is missing.");
+        String type = serviceElement.getString("[@type]");
+        if (type == null) type = "service";
+
+        String capacityString = readCapacity(serviceElement, "capacity-demand", "service");
+        Service.Builder builder;
+        if (capacityString != null) {
+            builder = serviceBuilderFactory.createBuilder(type, id, Integer.parseInt(capacityString));
+        } else {
+            builder = serviceBuilderFactory.createBuilder(type, id, null);
+            for (Element dimension : serviceElement.getAll("capacity-dimensions.dimension")) {
+                builder.addSizeDimension(Integer.parseInt(dimension.getString("[@index]")), Integer.parseInt(dimension.getString("")));
+            }
+        }
+
+        String name = serviceElement.getString("name");
+        if (name != null) builder.setName(name);
+
+        builder.setLocation(readLocation(serviceElement, ""));
+
+        Double duration = serviceElement.getDouble("duration");
+        if (duration != null) builder.setServiceTime(duration);
+        for (TimeWindow timeWindow : readTimeWindows(serviceElement, "timeWindows.timeWindow")) {
+            builder.addTimeWindow(timeWindow);
+        }
+
+        for (String skill : readSkills(serviceElement, "requiredSkills")) builder.addRequiredSkill(skill.toLowerCase());
+
+        Service service = builder.build();
+        serviceMap.put(service.getId(), service);
+    }
+
+    private void readType(Element typeElement) {
+        String typeId = typeElement.getString("id");
+        if (typeId == null) throw new IllegalArgumentException("typeId is missing.");
+
+        String capacityString = readCapacity(typeElement, "capacity", "type");
+        VehicleTypeImpl.Builder typeBuilder;
+        if (capacityString != null) {
+            typeBuilder = VehicleTypeImpl.Builder.newInstance(typeId).addCapacityDimension(0, Integer.parseInt(capacityString));
+        } else {
+            typeBuilder = VehicleTypeImpl.Builder.newInstance(typeId);
+            for (Element dimension : typeElement.getAll("capacity-dimensions.dimension")) {
+                typeBuilder.addCapacityDimension(Integer.parseInt(dimension.getString("[@index]")), Integer.parseInt(dimension.getString("")));
+            }
+        }
+
+        Double fix = typeElement.getDouble("costs.fixed");
+        Double timeC = typeElement.getDouble("costs.time");
+        Double distC = typeElement.getDouble("costs.distance");
+        Double serviceC = typeElement.getDouble("costs.service");
+        Double waitC = typeElement.getDouble("costs.wait");
+        if (serviceC != null) typeBuilder.setCostPerServiceTime(serviceC);
+        if (waitC != null) typeBuilder.setCostPerWaitingTime(waitC);
+        if (fix != null) typeBuilder.setFixedCost(fix);
+        if (timeC != null) typeBuilder.setCostPerTransportTime(timeC);
+        if (distC != null) typeBuilder.setCostPerDistance(distC);
+        VehicleType type = typeBuilder.build();
+        types.put(type.getTypeId(), type);
+    }
+
+    private void buildVehicles() {
+        for (Element vehicleElement : vehicleElements) {
+            VehicleImpl vehicle = buildVehicle(vehicleElement);
+            vrpBuilder.addVehicle(vehicle);
+            vehicleMap.put(vehicle.getId(), vehicle);
+        }
+        vehicleElements.clear();
+    }
+
+    private VehicleImpl buildVehicle(Element vehicleElement) {
+        String vehicleId = vehicleElement.getString("id");
+        if (vehicleId == null) throw new IllegalArgumentException("vehicleId is missing.");
+        VehicleImpl.Builder builder = VehicleImpl.Builder.newInstance(vehicleId);
+        String typeId = vehicleElement.getString("typeId");
+        if (typeId == null) throw new IllegalArgumentException("typeId is missing.");
+        String vType = vehicleElement.getString("[@type]");
+        if (vType != null && vType.equals("penalty")) {
+            typeId += "_penalty";
+        }
+        VehicleType type = types.get(typeId);
+        if (type == null) throw new IllegalArgumentException("vehicleType with typeId " + typeId + " is missing.");
+        builder.setType(type);
+
+        //read startlocation
+        Location.Builder startLocationBuilder = Location.Builder.newInstance();
+        String locationId = vehicleElement.getString("location.id");
+        if (locationId == null) {
+            locationId = vehicleElement.getString("startLocation.id");
+        }
+        startLocationBuilder.setId(locationId);
+        Coordinate startCoord = getCoord(vehicleElement, "location.");
+        if (startCoord == null) startCoord = getCoord(vehicleElement, "startLocation.");
+        if (startCoord == null) {
+            if (!doNotWarnAgain) {
+                logger.debug("location.coord is missing. will not warn you again.");
+                doNotWarnAgain = true;
+            }
+        } else startLocationBuilder.setCoordinate(startCoord);
+        String index = vehicleElement.getString("startLocation.index");
+        if (index == null) index = vehicleElement.getString("location.index");
+        if (index != null) {
+            startLocationBuilder.setIndex(Integer.parseInt(index));
+        }
+        builder.setStartLocation(startLocationBuilder.build());
+
+        //read endlocation
+        Location.Builder endLocationBuilder = Location.Builder.newInstance();
+        boolean hasEndLocation = false;
+        String endLocationId = vehicleElement.getString("endLocation.id");
+        if (endLocationId != null) {
+            hasEndLocation = true;
+            endLocationBuilder.setId(endLocationId);
+        }
+        Coordinate endCoord = getCoord(vehicleElement, "endLocation.");
+        if (endCoord == null) {
+            if (!doNotWarnAgain) {
+                logger.debug("endLocation.coord is missing. will not warn you again.");
+                doNotWarnAgain = true;
+            }
+        } else {
+            hasEndLocation = true;
+            endLocationBuilder.setCoordinate(endCoord);
+        }
+        String endLocationIndex = vehicleElement.getString("endLocation.index");
+        if (endLocationIndex != null) {
+            hasEndLocation = true;
+            endLocationBuilder.setIndex(Integer.parseInt(endLocationIndex));
+        }
+        if (hasEndLocation) builder.setEndLocation(endLocationBuilder.build());
+
+        //read timeSchedule
+        String start = vehicleElement.getString("timeSchedule.start");
+        String end = vehicleElement.getString("timeSchedule.end");
+        if (start != null) builder.setEarliestStart(Double.parseDouble(start));
+        if (end != null) builder.setLatestArrival(Double.parseDouble(end));
+
+        //read return2depot
+        if (vehicleElement.getString("returnToDepot") != null) {
+            builder.setReturnToDepot(vehicleElement.getBoolean("returnToDepot"));
+        }
+
+        for (String skill : readSkills(vehicleElement, "skills")) builder.addSkill(skill.toLowerCase());
+
+        // read break
+        List<TimeWindow> breakTimeWindows = readTimeWindows(vehicleElement, "breaks.timeWindows.timeWindow");
+        if (!breakTimeWindows.isEmpty()) {
+            Break.Builder breakBuilder = Break.Builder.newInstance(vehicleElement.getString("breaks.id"));
+            breakBuilder.setServiceTime(Double.parseDouble(vehicleElement.getString("breaks.duration")));
+            for (TimeWindow timeWindow : breakTimeWindows) breakBuilder.addTimeWindow(timeWindow);
+            builder.setBreak(breakBuilder.build());
+        }
+
+        return builder.build();
+    }
+
+}
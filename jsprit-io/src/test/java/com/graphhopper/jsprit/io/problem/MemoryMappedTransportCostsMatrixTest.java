@@ -0,0 +1,145 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.FastVehicleRoutingTransportCostsMatrix;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MemoryMappedTransportCostsMatrixTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String filename() throws IOException {
+        return new File(folder.getRoot(), "matrix.bin").getAbsolutePath();
+    }
+
+    private Location loc(int index) {
+        return Location.Builder.newInstance().setIndex(index).build();
+    }
+
+    @Test
+    public void whenWritingFloatMatrix_itShouldReturnCorrectValues() throws IOException {
+        String filename = filename();
+        MemoryMappedTransportCostsMatrixWriter writer = MemoryMappedTransportCostsMatrixWriter.newInstance(filename, 3);
+        writer.addTransportTimeAndDistance(1, 2, 2., 100.);
+        writer.addTransportTimeAndDistance(2, 1, 3., 50.5);
+        writer.close();
+
+        MemoryMappedTransportCostsMatrix matrix = MemoryMappedTransportCostsMatrix.newInstance(filename);
+        assertEquals(3, matrix.getNoLocations());
+        assertEquals(2., matrix.getTransportTime(loc(1), loc(2), 0., null, null), 0.001);
+        assertEquals(100., matrix.getDistance(loc(1), loc(2), 0., null), 0.001);
+        assertEquals(3., matrix.getTransportTime(2, 1), 0.001);
+        assertEquals(50.5, matrix.getDistance(2, 1), 0.001);
+        assertEquals(0., matrix.getDistance(0, 1), 0.001);
+    }
+
+    @Test
+    public void whenWritingScaledIntMatrix_itShouldReturnValuesWithPrecisionOfScale() throws IOException {
+        String filename = filename();
+        MemoryMappedTransportCostsMatrixWriter writer = MemoryMappedTransportCostsMatrixWriter.newInstance(filename, 2, 1., 10.);
+        writer.addTransportTimeAndDistance(0, 1, 2.34, 100.4);
+        writer.close();
+
+        MemoryMappedTransportCostsMatrix matrix = MemoryMappedTransportCostsMatrix.newInstance(filename);
+        assertEquals(2.3, matrix.getTransportTime(0, 1), 0.0001);
+        assertEquals(100., matrix.getDistance(0, 1), 0.0001);
+    }
+
+    @Test
+    public void whenCalculatingTransportCosts_itShouldConsiderVehicleCostParams() throws IOException {
+        String filename = filename();
+        MemoryMappedTransportCostsMatrixWriter.newInstance(filename, 3).addTransportTimeAndDistance(1, 2, 2., 20.).close();
+
+        MemoryMappedTransportCostsMatrix matrix = MemoryMappedTransportCostsMatrix.newInstance(filename);
+        Vehicle vehicle = mock(Vehicle.class);
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(1.).setCostPerTime(2.).build();
+        when(vehicle.getType()).thenReturn(type);
+        assertEquals(24., matrix.getTransportCost(loc(1), loc(2), 0.0, null, vehicle), 0.001);
+        assertEquals(0., matrix.getTransportCost(loc(2), loc(1), 0.0, null, vehicle), 0.001);
+    }
+
+    @Test
+    public void whenWritingFastMatrix_itShouldContainAllRelations() throws IOException {
+        FastVehicleRoutingTransportCostsMatrix.Builder builder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(4, true);
+        for (int i = 0; i < 4; i++) {
+            for (int j = i; j < 4; j++) builder.addTransportTimeAndDistance(i, j, i + j, 10 * (i + j));
+        }
+        String filename = filename();
+        MemoryMappedTransportCostsMatrixWriter.write(filename, builder.build());
+
+        MemoryMappedTransportCostsMatrix matrix = MemoryMappedTransportCostsMatrix.newInstance(filename);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(i + j, matrix.getTransportTime(i, j), 0.001);
+                assertEquals(10 * (i + j), matrix.getDistance(i, j), 0.001);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingRelationOutOfBounds_itShouldThrowException() throws IOException {
+        MemoryMappedTransportCostsMatrixWriter writer = MemoryMappedTransportCostsMatrixWriter.newInstance(filename(), 3);
+        try {
+            writer.addTransportTime(0, 3, 1.);
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingDistanceOfLocationWithoutIndex_itShouldThrowException() throws IOException {
+        String filename = filename();
+        MemoryMappedTransportCostsMatrixWriter.newInstance(filename, 3).close();
+        MemoryMappedTransportCostsMatrix matrix = MemoryMappedTransportCostsMatrix.newInstance(filename);
+        matrix.getDistance(Location.newInstance("loc"), loc(1), 0., null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingTimeOfIndexOutOfBounds_itShouldThrowException() throws IOException {
+        String filename = filename();
+        MemoryMappedTransportCostsMatrixWriter.newInstance(filename, 3).close();
+        MemoryMappedTransportCostsMatrix matrix = MemoryMappedTransportCostsMatrix.newInstance(filename);
+        matrix.getTransportTime(loc(0), loc(3), 0., null, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenOpeningFileThatIsNoMatrix_itShouldThrowException() throws IOException {
+        String filename = filename();
+        FileWriter writer = new FileWriter(filename);
+        writer.write("this is not a matrix, but it is long enough to contain a header");
+        writer.close();
+        MemoryMappedTransportCostsMatrix.newInstance(filename);
+    }
+
+}
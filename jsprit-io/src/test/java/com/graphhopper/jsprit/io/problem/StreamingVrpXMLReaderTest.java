@@ -0,0 +1,143 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class StreamingVrpXMLReaderTest {
+
+    private static final String[] PROBLEMS = {"finiteVrpForReaderTest.xml", "finiteVrpWithInitialSolutionForReaderTest.xml",
+        "finiteVrpWithShipmentsAndSolution.xml", "simpleProblem_iniRoutes.xml", "simpleProblem_iniRoutes_2.xml", "simpleProblem_iniRoutes_3.xml",
+        "simpleProblem_inclShipments_iniRoutes.xml", "biggerProblem.xml", "lui-shen-solution.xml"};
+
+    @Test
+    public void whenReadingProblems_outputShouldBeTheSameAsWithVrpXMLReader() {
+        for (String problem : PROBLEMS) {
+            VehicleRoutingProblem.Builder expectedBuilder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> expectedSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+            new VrpXMLReader(expectedBuilder, expectedSolutions).read(getClass().getResourceAsStream(problem));
+
+            VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+            new StreamingVrpXMLReader(builder, solutions).read(getClass().getResourceAsStream(problem));
+
+            assertEquals(problem, describe(expectedBuilder.build(), expectedSolutions), describe(builder.build(), solutions));
+        }
+    }
+
+    @Test
+    public void whenReadingFile_outputShouldBeTheSameAsWithVrpXMLReader() {
+        String file = "src/test/resources/com/graphhopper/jsprit/io/problem/finiteVrpWithShipmentsAndSolution.xml";
+        VehicleRoutingProblem.Builder expectedBuilder = VehicleRoutingProblem.Builder.newInstance();
+        new VrpXMLReader(expectedBuilder).read(file);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        new StreamingVrpXMLReader(builder).read(file);
+        List<VehicleRoutingProblemSolution> noSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+        assertEquals(describe(expectedBuilder.build(), noSolutions), describe(builder.build(), noSolutions));
+    }
+
+    @Test
+    public void whenSolutionsAreNotRequested_theyShouldBeSkipped() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        new StreamingVrpXMLReader(builder).read(getClass().getResourceAsStream("finiteVrpWithInitialSolutionForReaderTest.xml"));
+        assertTrue(builder.build().getJobs().size() > 0);
+    }
+
+    @Test
+    public void whenVehiclesPrecedeTheirTypes_vehiclesShouldBeRead() {
+        String xml = "<problem xmlns=\"http://www.w3schools.com\">"
+            + "<vehicles><vehicle><id>v1</id><location><id>depot</id></location><typeId>t</typeId>"
+            + "<timeSchedule><start>0.0</start><end>100.0</end></timeSchedule></vehicle></vehicles>"
+            + "<vehicleTypes><type><id>t</id><capacity>10</capacity><costs><fixed>5.0</fixed><distance>1.0</distance><time>0.0</time></costs></type></vehicleTypes>"
+            + "<services><service id=\"s1\" type=\"pickup\"><locationId>loc</locationId><capacity-demand>1</capacity-demand></service></services>"
+            + "</problem>";
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        new StreamingVrpXMLReader(builder).read(new ByteArrayInputStream(xml.getBytes()));
+        VehicleRoutingProblem vrp = builder.build();
+        Vehicle vehicle = vrp.getVehicles().iterator().next();
+        assertEquals("t", vehicle.getType().getTypeId());
+        assertEquals(5., vehicle.getType().getVehicleCostParams().fix, 0.01);
+        assertEquals(VehicleRoutingProblem.FleetSize.INFINITE, vrp.getFleetSize());
+        assertEquals("pickup", ((Service) vrp.getJobs().get("s1")).getType());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void whenDocumentIsInvalid_itShouldThrowException() {
+        String xml = "<problem xmlns=\"http://www.w3schools.com\"><services><service><locationId>loc</locationId></service></services></problem>";
+        new StreamingVrpXMLReader(VehicleRoutingProblem.Builder.newInstance()).read(new ByteArrayInputStream(xml.getBytes()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenValidationIsDisabledAndServiceIdIsMissing_itShouldThrowException() {
+        String xml = "<problem xmlns=\"http://www.w3schools.com\"><services><service><locationId>loc</locationId><capacity-demand>1</capacity-demand></service></services></problem>";
+        StreamingVrpXMLReader reader = new StreamingVrpXMLReader(VehicleRoutingProblem.Builder.newInstance());
+        reader.setSchemaValidation(false);
+        reader.read(new ByteArrayInputStream(xml.getBytes()));
+    }
+
+    private static String describe(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        StringBuilder s = new StringBuilder();
+        s.append("fleetSize=").append(vrp.getFleetSize()).append("\n");
+        for (Vehicle vehicle : vrp.getVehicles()) {
+            s.append(describe(vehicle)).append("\n");
+        }
+        for (Job job : vrp.getJobs().values()) {
+            s.append("[index=").append(job.getIndex()).append("]").append(job).append("[class=").append(job.getClass().getSimpleName())
+                .append("][size=").append(job.getSize()).append("][skills=").append(job.getRequiredSkills()).append("]\n");
+        }
+        for (VehicleRoute route : vrp.getInitialVehicleRoutes()) {
+            s.append("initial").append(describe(route)).append("\n");
+        }
+        for (VehicleRoutingProblemSolution solution : solutions) {
+            s.append("solution[cost=").append(solution.getCost()).append("]\n");
+            for (VehicleRoute route : solution.getRoutes()) s.append(describe(route)).append("\n");
+            for (Job job : solution.getUnassignedJobs()) s.append("unassigned=").append(job.getId()).append("\n");
+        }
+        return s.toString();
+    }
+
+    private static String describe(Vehicle vehicle) {
+        return vehicle + "[earliestStart=" + vehicle.getEarliestDeparture() + "][latestArrival=" + vehicle.getLatestArrival()
+            + "][perServiceTime=" + vehicle.getType().getVehicleCostParams().perServiceTimeUnit + "][break=" + vehicle.getBreak() + "]";
+    }
+
+    private static String describe(VehicleRoute route) {
+        StringBuilder s = new StringBuilder("[vehicle=" + route.getVehicle().getId() + "][departureTime=" + route.getDepartureTime() + "]");
+        for (TourActivity act : route.getActivities()) {
+            s.append("[").append(act.getName()).append("=").append(act.getLocation()).append("]");
+        }
+        return s.toString();
+    }
+
+}